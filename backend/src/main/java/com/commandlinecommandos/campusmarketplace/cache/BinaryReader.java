@@ -0,0 +1,132 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Reader counterpart of BinaryWriter
+ * Throws IllegalStateException on truncated or malformed input
+ */
+final class BinaryReader {
+
+    private final byte[] buffer;
+    private int position;
+
+    BinaryReader(byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    int readByte() {
+        if (position >= buffer.length) {
+            throw new IllegalStateException("Unexpected end of cache value at offset " + position);
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    int readVarInt() {
+        return (int) readVarLong();
+    }
+
+    long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("Malformed varint at offset " + position);
+    }
+
+    long readSignedVarLong() {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    float readFloat() {
+        int bits = (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+        return Float.intBitsToFloat(bits);
+    }
+
+    String readString() {
+        int length = readVarInt() - 1;
+        if (length < 0) {
+            return null;
+        }
+        ensureAvailable(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    Integer readNullableInt() {
+        return readBoolean() ? (int) readSignedVarLong() : null;
+    }
+
+    Boolean readNullableBoolean() {
+        int value = readByte();
+        return value == 0 ? null : value == 2;
+    }
+
+    Float readNullableFloat() {
+        return readBoolean() ? readFloat() : null;
+    }
+
+    UUID readUuid() {
+        return readBoolean() ? new UUID(readLong(), readLong()) : null;
+    }
+
+    BigDecimal readDecimal() {
+        if (!readBoolean()) {
+            return null;
+        }
+        int scale = (int) readSignedVarLong();
+        byte[] unscaled = readBytes(readVarInt());
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    LocalDateTime readDateTime() {
+        if (!readBoolean()) {
+            return null;
+        }
+        long epochSecond = readSignedVarLong();
+        int nano = readVarInt();
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+
+    <E extends Enum<E>> E readEnum(Class<E> type) {
+        String name = readString();
+        return name != null ? Enum.valueOf(type, name) : null;
+    }
+
+    private long readLong() {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | readByte();
+        }
+        return value;
+    }
+
+    byte[] readBytes(int length) {
+        ensureAvailable(length);
+        byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+        position += length;
+        return bytes;
+    }
+
+    private void ensureAvailable(int length) {
+        if (length < 0 || position + length > buffer.length) {
+            throw new IllegalStateException("Unexpected end of cache value at offset " + position);
+        }
+    }
+}
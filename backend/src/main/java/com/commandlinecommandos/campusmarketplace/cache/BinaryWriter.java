@@ -0,0 +1,129 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Compact binary writer used by CacheValueCodec
+ * Integers are LEB128 varints (zig-zag for signed values); every reference type
+ * carries its own null marker so optional DTO fields cost a single byte when absent
+ */
+final class BinaryWriter {
+
+    private final ByteArrayOutputStream out;
+
+    BinaryWriter(int initialCapacity) {
+        this.out = new ByteArrayOutputStream(initialCapacity);
+    }
+
+    byte[] toByteArray() {
+        return out.toByteArray();
+    }
+
+    void writeByte(int value) {
+        out.write(value);
+    }
+
+    void writeBytes(byte[] bytes) {
+        out.write(bytes, 0, bytes.length);
+    }
+
+    void writeBoolean(boolean value) {
+        out.write(value ? 1 : 0);
+    }
+
+    void writeVarInt(int value) {
+        writeVarLong(value & 0xFFFFFFFFL);
+    }
+
+    void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    void writeFloat(float value) {
+        int bits = Float.floatToIntBits(value);
+        out.write(bits >>> 24);
+        out.write(bits >>> 16);
+        out.write(bits >>> 8);
+        out.write(bits);
+    }
+
+    /**
+     * Length is written as len + 1 so that 0 can mean null
+     */
+    void writeString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length + 1);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    void writeNullableInt(Integer value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeSignedVarLong(value);
+        }
+    }
+
+    void writeNullableBoolean(Boolean value) {
+        writeByte(value == null ? 0 : (value ? 2 : 1));
+    }
+
+    void writeNullableFloat(Float value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeFloat(value);
+        }
+    }
+
+    void writeUuid(UUID value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeLong(value.getMostSignificantBits());
+            writeLong(value.getLeastSignificantBits());
+        }
+    }
+
+    void writeDecimal(BigDecimal value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeSignedVarLong(value.scale());
+            byte[] unscaled = value.unscaledValue().toByteArray();
+            writeVarInt(unscaled.length);
+            out.write(unscaled, 0, unscaled.length);
+        }
+    }
+
+    void writeDateTime(LocalDateTime value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeSignedVarLong(value.toEpochSecond(ZoneOffset.UTC));
+            writeVarInt(value.getNano());
+        }
+    }
+
+    void writeEnum(Enum<?> value) {
+        writeString(value != null ? value.name() : null);
+    }
+
+    private void writeLong(long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+}
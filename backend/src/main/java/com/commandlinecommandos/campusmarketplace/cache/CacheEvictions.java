@@ -0,0 +1,53 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.cache.RedisCache;
+
+/**
+ * Key-prefix eviction across the cache implementations this application runs on
+ *
+ * Spring's Cache abstraction only evicts single keys or whole caches. Listing caches
+ * are keyed "scope:rest" (e.g. "universityId:query") so one scope can be dropped
+ * without touching the others:
+ * - TwoTierCache       → both tiers, broadcast to other nodes
+ * - RedisCache         → SCAN-based pattern delete (see CacheConfig batch strategy)
+ * - Caffeine / ConcurrentMap → filter the backing map
+ * Anything else is cleared, which is always safe.
+ */
+public final class CacheEvictions {
+
+    private CacheEvictions() {
+    }
+
+    /**
+     * Evict every entry whose String key starts with keyPrefix
+     * Applied immediately, even when the cache defers evictions to transaction commit
+     */
+    public static void evictByPrefix(Cache cache, String keyPrefix) {
+        if (cache == null) {
+            return;
+        }
+        if (cache instanceof TransactionAwareCacheDecorator decorator) {
+            evictByPrefix(decorator.getTargetCache(), keyPrefix);
+        } else if (cache instanceof TwoTierCache twoTierCache) {
+            twoTierCache.evictByPrefix(keyPrefix);
+        } else if (cache instanceof RedisCache redisCache) {
+            redisCache.clear(escapeGlob(keyPrefix) + "*");
+        } else if (cache instanceof CaffeineCache caffeineCache) {
+            caffeineCache.getNativeCache().asMap().keySet()
+                .removeIf(key -> String.valueOf(key).startsWith(keyPrefix));
+        } else if (cache instanceof ConcurrentMapCache concurrentMapCache) {
+            concurrentMapCache.getNativeCache().keySet()
+                .removeIf(key -> String.valueOf(key).startsWith(keyPrefix));
+        } else {
+            cache.clear();
+        }
+    }
+
+    private static String escapeGlob(String value) {
+        return value.replaceAll("([*?\\[\\]\\\\])", "\\\\$1");
+    }
+}
@@ -0,0 +1,92 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Broadcasts L1 invalidations between nodes over Redis pub/sub
+ *
+ * Message format: nodeId|op|cacheName|key
+ * (op E = evict key, P = evict every key starting with key, C = clear cache)
+ * Messages from this node are ignored. Delivery is best effort: a lost message
+ * is bounded by the L1 TTL.
+ */
+public class CacheInvalidationBus implements MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    public static final String CHANNEL = "cache:invalidation";
+
+    static final String EVICT = "E";
+    static final String EVICT_PREFIX = "P";
+    static final String CLEAR = "C";
+
+    /**
+     * Applies a remote invalidation to this node's L1 tiers
+     */
+    @FunctionalInterface
+    interface LocalEvictor {
+        void invalidate(String op, String cacheName, String key);
+    }
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redisTemplate;
+    private final Counter published;
+    private final Counter received;
+    private volatile LocalEvictor localEvictor = (op, cacheName, key) -> { };
+
+    public CacheInvalidationBus(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.published = Counter.builder("cache.invalidation.messages")
+            .description("Cache invalidation broadcasts")
+            .tag("direction", "published")
+            .register(meterRegistry);
+        this.received = Counter.builder("cache.invalidation.messages")
+            .description("Cache invalidation broadcasts")
+            .tag("direction", "received")
+            .register(meterRegistry);
+    }
+
+    void setLocalEvictor(LocalEvictor localEvictor) {
+        this.localEvictor = localEvictor;
+    }
+
+    public void publishEvict(String cacheName, String key) {
+        publish(EVICT, cacheName, key);
+    }
+
+    public void publishEvictPrefix(String cacheName, String keyPrefix) {
+        publish(EVICT_PREFIX, cacheName, keyPrefix);
+    }
+
+    public void publishClear(String cacheName) {
+        publish(CLEAR, cacheName, "");
+    }
+
+    private void publish(String op, String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, String.join("|", nodeId, op, cacheName, key));
+            published.increment();
+        } catch (RuntimeException e) {
+            log.debug("Cache invalidation publish failed for '{}': {}", cacheName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length < 4 || nodeId.equals(parts[0])) {
+            return;
+        }
+        received.increment();
+        localEvictor.invalidate(parts[1], parts[2], parts[3]);
+    }
+}
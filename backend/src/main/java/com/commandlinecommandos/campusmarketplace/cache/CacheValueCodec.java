@@ -0,0 +1,307 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import com.commandlinecommandos.campusmarketplace.dto.ProductSearchResult;
+import com.commandlinecommandos.campusmarketplace.dto.ProductSummary;
+import com.commandlinecommandos.campusmarketplace.dto.SearchMetadata;
+import com.commandlinecommandos.campusmarketplace.dto.SearchResponse;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Typed binary codec for cached search and discovery values
+ *
+ * GenericJackson2JsonRedisSerializer embeds class names and cannot rebuild
+ * SearchResponse/ProductSearchResult, which is why searchResults caching was off.
+ * This codec writes the known DTO shapes field by field instead:
+ *
+ *   [MAGIC][VERSION][TAG][payload]
+ *
+ * - SearchResponse          → searchResults
+ * - List&lt;ProductSummary&gt;  → recommendedItems, recentlyViewed, trendingProducts
+ * - List&lt;String&gt;          → autocomplete
+ *
+ * Anything else is handed to the fallback serializer under the FALLBACK tag.
+ * Values written by a different VERSION decode to null, which the cache treats
+ * as a miss, so changing the layout only requires bumping VERSION.
+ */
+public class CacheValueCodec implements RedisSerializer<Object> {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheValueCodec.class);
+
+    static final int MAGIC = 0xCB;
+    static final int VERSION = 1;
+
+    private static final int TAG_SEARCH_RESPONSE = 1;
+    private static final int TAG_PRODUCT_SUMMARY_LIST = 2;
+    private static final int TAG_STRING_LIST = 3;
+    private static final int TAG_EMPTY_LIST = 4;
+    private static final int TAG_FALLBACK = 0x7F;
+
+    private final RedisSerializer<Object> fallback;
+
+    public CacheValueCodec(RedisSerializer<Object> fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+
+        BinaryWriter out = new BinaryWriter(256);
+        out.writeByte(MAGIC);
+        out.writeByte(VERSION);
+
+        if (value instanceof SearchResponse response) {
+            out.writeByte(TAG_SEARCH_RESPONSE);
+            writeSearchResponse(out, response);
+        } else if (value instanceof List<?> list && list.isEmpty()) {
+            out.writeByte(TAG_EMPTY_LIST);
+        } else if (value instanceof List<?> list && allInstancesOf(list, ProductSummary.class)) {
+            out.writeByte(TAG_PRODUCT_SUMMARY_LIST);
+            out.writeVarInt(list.size());
+            for (Object summary : list) {
+                writeProductSummary(out, (ProductSummary) summary);
+            }
+        } else if (value instanceof List<?> list && allInstancesOf(list, String.class)) {
+            out.writeByte(TAG_STRING_LIST);
+            out.writeVarInt(list.size());
+            for (Object s : list) {
+                out.writeString((String) s);
+            }
+        } else {
+            byte[] encoded = fallback.serialize(value);
+            out.writeByte(TAG_FALLBACK);
+            out.writeVarInt(encoded.length);
+            out.writeBytes(encoded);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            if ((bytes[0] & 0xFF) != MAGIC) {
+                // Entry written before this codec was introduced
+                return fallback.deserialize(bytes);
+            }
+
+            BinaryReader in = new BinaryReader(bytes);
+            in.readByte();
+            int version = in.readByte();
+            if (version != VERSION) {
+                log.debug("Ignoring cache value written with codec version {}", version);
+                return null;
+            }
+
+            int tag = in.readByte();
+            switch (tag) {
+                case TAG_SEARCH_RESPONSE:
+                    return readSearchResponse(in);
+                case TAG_EMPTY_LIST:
+                    return new ArrayList<>();
+                case TAG_PRODUCT_SUMMARY_LIST: {
+                    int size = in.readVarInt();
+                    List<ProductSummary> summaries = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        summaries.add(readProductSummary(in));
+                    }
+                    return summaries;
+                }
+                case TAG_STRING_LIST:
+                    return readStringList(in);
+                case TAG_FALLBACK:
+                    return fallback.deserialize(in.readBytes(in.readVarInt()));
+                default:
+                    log.warn("Unknown cache value tag {} - treating as cache miss", tag);
+                    return null;
+            }
+        } catch (RuntimeException e) {
+            // A corrupt entry must not fail the request; the next put overwrites it
+            log.warn("Failed to decode cache value: {} - treating as cache miss", e.getMessage());
+            return null;
+        }
+    }
+
+    private static boolean allInstancesOf(List<?> list, Class<?> type) {
+        for (Object element : list) {
+            if (!type.isInstance(element)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void writeSearchResponse(BinaryWriter out, SearchResponse response) {
+        List<ProductSearchResult> results = response.getResults();
+        out.writeBoolean(results != null);
+        if (results != null) {
+            out.writeVarInt(results.size());
+            for (ProductSearchResult result : results) {
+                writeProductSearchResult(out, result);
+            }
+        }
+        out.writeSignedVarLong(response.getTotalResults());
+        out.writeSignedVarLong(response.getTotalPages());
+        out.writeSignedVarLong(response.getCurrentPage());
+        out.writeSignedVarLong(response.getPageSize());
+        out.writeBoolean(response.isHasNext());
+        out.writeBoolean(response.isHasPrevious());
+
+        SearchMetadata metadata = response.getMetadata();
+        out.writeBoolean(metadata != null);
+        if (metadata != null) {
+            out.writeSignedVarLong(metadata.getSearchTimeMs());
+            out.writeString(metadata.getAppliedFilters());
+            out.writeSignedVarLong(metadata.getTotalFilters());
+            out.writeString(metadata.getSortedBy());
+            out.writeBoolean(metadata.isCached());
+            out.writeString(metadata.getSearchQuery());
+        }
+    }
+
+    private SearchResponse readSearchResponse(BinaryReader in) {
+        List<ProductSearchResult> results = null;
+        if (in.readBoolean()) {
+            int size = in.readVarInt();
+            results = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                results.add(readProductSearchResult(in));
+            }
+        }
+        long totalResults = in.readSignedVarLong();
+        int totalPages = (int) in.readSignedVarLong();
+        int currentPage = (int) in.readSignedVarLong();
+        int pageSize = (int) in.readSignedVarLong();
+        boolean hasNext = in.readBoolean();
+        boolean hasPrevious = in.readBoolean();
+
+        SearchMetadata metadata = null;
+        if (in.readBoolean()) {
+            metadata = new SearchMetadata(
+                in.readSignedVarLong(),
+                in.readString(),
+                (int) in.readSignedVarLong(),
+                in.readString(),
+                in.readBoolean(),
+                in.readString()
+            );
+        }
+        return new SearchResponse(results, totalResults, totalPages, currentPage,
+            pageSize, hasNext, hasPrevious, metadata);
+    }
+
+    private void writeProductSearchResult(BinaryWriter out, ProductSearchResult result) {
+        out.writeUuid(result.getProductId());
+        out.writeString(result.getTitle());
+        out.writeString(result.getDescription());
+        out.writeDecimal(result.getPrice());
+        out.writeEnum(result.getCategory());
+        out.writeEnum(result.getCondition());
+        out.writeUuid(result.getSellerId());
+        out.writeString(result.getSellerName());
+        out.writeString(result.getSellerUsername());
+        out.writeString(result.getLocation());
+        out.writeNullableInt(result.getViewCount());
+        out.writeNullableInt(result.getFavoriteCount());
+        out.writeDateTime(result.getCreatedAt());
+        writeStringList(out, result.getImageUrls());
+        out.writeNullableFloat(result.getRelevanceScore());
+        out.writeNullableBoolean(result.getNegotiable());
+        out.writeNullableInt(result.getQuantity());
+    }
+
+    private ProductSearchResult readProductSearchResult(BinaryReader in) {
+        ProductSearchResult result = new ProductSearchResult();
+        result.setProductId(in.readUuid());
+        result.setTitle(in.readString());
+        result.setDescription(in.readString());
+        result.setPrice(in.readDecimal());
+        result.setCategory(in.readEnum(ProductCategory.class));
+        result.setCondition(in.readEnum(ProductCondition.class));
+        result.setSellerId(in.readUuid());
+        result.setSellerName(in.readString());
+        result.setSellerUsername(in.readString());
+        result.setLocation(in.readString());
+        result.setViewCount(in.readNullableInt());
+        result.setFavoriteCount(in.readNullableInt());
+        result.setCreatedAt(in.readDateTime());
+        result.setImageUrls(readNullableStringList(in));
+        result.setRelevanceScore(in.readNullableFloat());
+        result.setNegotiable(in.readNullableBoolean());
+        result.setQuantity(in.readNullableInt());
+        return result;
+    }
+
+    private void writeProductSummary(BinaryWriter out, ProductSummary summary) {
+        out.writeUuid(summary.getProductId());
+        out.writeString(summary.getTitle());
+        out.writeString(summary.getDescription());
+        out.writeDecimal(summary.getPrice());
+        out.writeEnum(summary.getCategory());
+        out.writeEnum(summary.getCondition());
+        writeStringList(out, summary.getImageUrls());
+        out.writeNullableInt(summary.getViewCount());
+        out.writeNullableInt(summary.getFavoriteCount());
+        out.writeDateTime(summary.getCreatedAt());
+        out.writeUuid(summary.getSellerId());
+        out.writeString(summary.getSellerUsername());
+        out.writeString(summary.getLocation());
+        out.writeNullableBoolean(summary.getNegotiable());
+        out.writeNullableInt(summary.getQuantity());
+    }
+
+    private ProductSummary readProductSummary(BinaryReader in) {
+        ProductSummary summary = new ProductSummary();
+        summary.setProductId(in.readUuid());
+        summary.setTitle(in.readString());
+        summary.setDescription(in.readString());
+        summary.setPrice(in.readDecimal());
+        summary.setCategory(in.readEnum(ProductCategory.class));
+        summary.setCondition(in.readEnum(ProductCondition.class));
+        summary.setImageUrls(readNullableStringList(in));
+        summary.setViewCount(in.readNullableInt());
+        summary.setFavoriteCount(in.readNullableInt());
+        summary.setCreatedAt(in.readDateTime());
+        summary.setSellerId(in.readUuid());
+        summary.setSellerUsername(in.readString());
+        summary.setLocation(in.readString());
+        summary.setNegotiable(in.readNullableBoolean());
+        summary.setQuantity(in.readNullableInt());
+        return summary;
+    }
+
+    private void writeStringList(BinaryWriter out, List<String> values) {
+        out.writeBoolean(values != null);
+        if (values != null) {
+            out.writeVarInt(values.size());
+            for (String value : values) {
+                out.writeString(value);
+            }
+        }
+    }
+
+    private List<String> readNullableStringList(BinaryReader in) {
+        return in.readBoolean() ? readStringList(in) : null;
+    }
+
+    private List<String> readStringList(BinaryReader in) {
+        int size = in.readVarInt();
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(in.readString());
+        }
+        return values;
+    }
+}
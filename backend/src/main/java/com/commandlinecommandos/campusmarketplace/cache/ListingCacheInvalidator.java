@@ -0,0 +1,105 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import com.commandlinecommandos.campusmarketplace.listing.event.ListingChangedEvent;
+import com.commandlinecommandos.campusmarketplace.model.User;
+import com.commandlinecommandos.campusmarketplace.repository.ProductViewRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Evicts listing-derived cache entries when listings change
+ *
+ * Cache key layout (the @Cacheable keys must stay in step with this):
+ * - searchResults     → universityId:searchRequestKey
+ * - autocomplete      → universityId:query
+ * - recommendedItems  → universityId:userId
+ * - recentlyViewed    → userId
+ *
+ * A listing change drops its university's search results and recommendations,
+ * its university's autocomplete entries only when titles may have changed, and
+ * the recently viewed lists of the users who viewed it. Everything else stays
+ * cached, which is what lets these caches live for hours instead of minutes.
+ */
+@Component
+public class ListingCacheInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(ListingCacheInvalidator.class);
+
+    public static final String SEARCH_RESULTS = "searchResults";
+    public static final String AUTOCOMPLETE = "autocomplete";
+    public static final String RECOMMENDED_ITEMS = "recommendedItems";
+    public static final String RECENTLY_VIEWED = "recentlyViewed";
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ProductViewRepository productViewRepository;
+
+    /**
+     * Runs after the listing change commits (or immediately outside a transaction)
+     * so a concurrent read cannot re-cache the old state
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        try {
+            if (event.getUniversityId() != null) {
+                String universityScope = event.getUniversityId() + ":";
+                CacheEvictions.evictByPrefix(cacheManager.getCache(SEARCH_RESULTS), universityScope);
+                CacheEvictions.evictByPrefix(cacheManager.getCache(RECOMMENDED_ITEMS), universityScope);
+                if (event.affectsTitles()) {
+                    CacheEvictions.evictByPrefix(cacheManager.getCache(AUTOCOMPLETE), universityScope);
+                }
+            }
+
+            if (event.getChangeType() != ListingChangedEvent.ChangeType.CREATED) {
+                Cache recentlyViewed = cacheManager.getCache(RECENTLY_VIEWED);
+                if (recentlyViewed != null) {
+                    List<UUID> viewerIds = productViewRepository.findViewerIdsByProductId(event.getListingId());
+                    viewerIds.forEach(viewerId -> recentlyViewed.evict(viewerId.toString()));
+                }
+            }
+
+            log.debug("Listing caches invalidated for {}", event);
+        } catch (Exception e) {
+            // Stale entries expire on their own; never fail the listing change over a cache
+            log.warn("Cache invalidation failed for listing {}: {}", event.getListingId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Drop a user's personalised lists after they view a listing
+     * Deferred to commit when called inside a transaction
+     */
+    public void evictViewerCaches(User user) {
+        UUID universityId = user.getUniversity() != null ? user.getUniversity().getUniversityId() : null;
+        evictViewerCaches(user.getUserId(), universityId);
+    }
+
+    /**
+     * Same as evictViewerCaches(User) for callers holding only IDs
+     */
+    public void evictViewerCaches(UUID userId, UUID universityId) {
+        try {
+            evict(RECENTLY_VIEWED, userId.toString());
+            evict(RECOMMENDED_ITEMS, universityId + ":" + userId);
+        } catch (Exception e) {
+            log.warn("Cache invalidation failed for user {}: {}", userId, e.getMessage());
+        }
+    }
+
+    private void evict(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Cache with a per-node Caffeine tier (L1) in front of a shared Redis tier (L2)
+ *
+ * Reads try L1, then L2 (promoting hits into L1), then the loader.
+ * Writes and evictions go to both tiers and are broadcast so that other nodes
+ * drop their L1 copy. Any L2 failure is logged and treated as a miss, which
+ * leaves the node running on L1 alone until Redis comes back.
+ */
+public class TwoTierCache extends AbstractValueAdaptingCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoTierCache.class);
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Object> local;
+    private final Cache remote;
+    private final CacheInvalidationBus invalidationBus;
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter l2Errors;
+
+    public TwoTierCache(String name,
+                        com.github.benmanes.caffeine.cache.Cache<Object, Object> local,
+                        Cache remote,
+                        CacheInvalidationBus invalidationBus,
+                        MeterRegistry meterRegistry) {
+        super(false);
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidationBus = invalidationBus;
+        this.l1Hits = tierCounter(meterRegistry, "l1", "hit");
+        this.l1Misses = tierCounter(meterRegistry, "l1", "miss");
+        this.l2Hits = tierCounter(meterRegistry, "l2", "hit");
+        this.l2Misses = tierCounter(meterRegistry, "l2", "miss");
+        this.l2Errors = tierCounter(meterRegistry, "l2", "error");
+    }
+
+    private Counter tierCounter(MeterRegistry registry, String tier, String result) {
+        return Counter.builder("cache.tier.gets")
+            .description("Cache lookups per tier of the near/far cache")
+            .tag("cache", name)
+            .tag("tier", tier)
+            .tag("result", result)
+            .register(registry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String localKey = localKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            l1Hits.increment();
+            return value;
+        }
+        l1Misses.increment();
+
+        ValueWrapper remoteValue = remoteGet(key);
+        if (remoteValue != null && remoteValue.get() != null) {
+            local.put(localKey, remoteValue.get());
+            return remoteValue.get();
+        }
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+
+        // Caffeine serialises concurrent loads of the same key on this node
+        return (T) local.get(localKey(key), k -> {
+            try {
+                T loaded = valueLoader.call();
+                if (loaded != null) {
+                    remotePut(key, loaded);
+                    invalidationBus.publishEvict(name, localKey(key));
+                }
+                return loaded;
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        remotePut(key, value);
+        local.put(localKey(key), value);
+        invalidationBus.publishEvict(name, localKey(key));
+    }
+
+    @Override
+    public void evict(Object key) {
+        try {
+            remote.evict(key);
+        } catch (RuntimeException e) {
+            l2Errors.increment();
+            log.warn("Redis evict failed for cache '{}': {}", name, e.getMessage());
+        }
+        local.invalidate(localKey(key));
+        invalidationBus.publishEvict(name, localKey(key));
+    }
+
+    @Override
+    public void clear() {
+        try {
+            remote.clear();
+        } catch (RuntimeException e) {
+            l2Errors.increment();
+            log.warn("Redis clear failed for cache '{}': {}", name, e.getMessage());
+        }
+        local.invalidateAll();
+        invalidationBus.publishClear(name);
+    }
+
+    /**
+     * Evict every entry whose key starts with keyPrefix from both tiers
+     * Used for scoped invalidation (e.g. all of one university's search results)
+     */
+    public void evictByPrefix(String keyPrefix) {
+        try {
+            CacheEvictions.evictByPrefix(remote, keyPrefix);
+        } catch (RuntimeException e) {
+            l2Errors.increment();
+            log.warn("Redis prefix evict failed for cache '{}': {}", name, e.getMessage());
+        }
+        evictLocalByPrefix(keyPrefix);
+        invalidationBus.publishEvictPrefix(name, keyPrefix);
+    }
+
+    /**
+     * Drop an L1 entry in response to another node's write (no re-broadcast)
+     */
+    void evictLocal(String key) {
+        local.invalidate(key);
+    }
+
+    /**
+     * Drop L1 entries under a key prefix (no re-broadcast)
+     */
+    void evictLocalByPrefix(String keyPrefix) {
+        local.asMap().keySet().removeIf(key -> String.valueOf(key).startsWith(keyPrefix));
+    }
+
+    /**
+     * Drop all L1 entries in response to another node's clear (no re-broadcast)
+     */
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    private ValueWrapper remoteGet(Object key) {
+        try {
+            ValueWrapper value = remote.get(key);
+            if (value != null) {
+                l2Hits.increment();
+            } else {
+                l2Misses.increment();
+            }
+            return value;
+        } catch (RuntimeException e) {
+            l2Errors.increment();
+            log.warn("Redis read failed for cache '{}' - serving from L1 only: {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    private void remotePut(Object key, Object value) {
+        try {
+            remote.put(key, value);
+        } catch (RuntimeException e) {
+            l2Errors.increment();
+            log.warn("Redis write failed for cache '{}' - keeping value in L1 only: {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * L1 keys and broadcast keys use the same String form RedisCache uses for L2
+     */
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,94 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Near/far CacheManager: a Caffeine L1 per node in front of the Redis L2
+ * Caches are created on first use, like RedisCacheManager, and every cache gets
+ * its own L1 built from the shared Caffeine spec.
+ */
+public class TwoTierCacheManager implements CacheManager, DisposableBean {
+
+    private final CacheManager remoteCacheManager;
+    private final Caffeine<Object, Object> localSpec;
+    private final CacheInvalidationBus invalidationBus;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+    private final boolean transactionAware;
+
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Cache> exposedCaches = new ConcurrentHashMap<>();
+
+    /**
+     * @param remoteCacheManager L2 manager (RedisCacheManager, not transaction-aware itself)
+     * @param localSpec Caffeine spec for each L1 tier
+     * @param invalidationBus Pub/sub bus, already subscribed through listenerContainer
+     * @param listenerContainer Container owning the subscription; stopped on shutdown
+     * @param meterRegistry Registry for per-tier hit/miss counters
+     * @param transactionAware Defer puts/evicts until commit, as RedisCacheManager.transactionAware() did
+     */
+    public TwoTierCacheManager(CacheManager remoteCacheManager,
+                               Caffeine<Object, Object> localSpec,
+                               CacheInvalidationBus invalidationBus,
+                               RedisMessageListenerContainer listenerContainer,
+                               MeterRegistry meterRegistry,
+                               boolean transactionAware) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.localSpec = localSpec;
+        this.invalidationBus = invalidationBus;
+        this.listenerContainer = listenerContainer;
+        this.meterRegistry = meterRegistry;
+        this.transactionAware = transactionAware;
+        invalidationBus.setLocalEvictor(this::applyRemoteInvalidation);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return exposedCaches.computeIfAbsent(name, cacheName -> {
+            Cache remote = remoteCacheManager.getCache(cacheName);
+            if (remote == null) {
+                return null;
+            }
+            TwoTierCache cache = new TwoTierCache(cacheName, localSpec.build(), remote,
+                invalidationBus, meterRegistry);
+            caches.put(cacheName, cache);
+            return transactionAware ? new TransactionAwareCacheDecorator(cache) : cache;
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(exposedCaches.keySet());
+    }
+
+    private void applyRemoteInvalidation(String op, String cacheName, String key) {
+        TwoTierCache cache = caches.get(cacheName);
+        if (cache == null) {
+            return;
+        }
+        switch (op) {
+            case CacheInvalidationBus.EVICT -> cache.evictLocal(key);
+            case CacheInvalidationBus.EVICT_PREFIX -> cache.evictLocalByPrefix(key);
+            case CacheInvalidationBus.CLEAR -> cache.clearLocal();
+            default -> { }
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+}
@@ -4,17 +4,27 @@ import com.commandlinecommandos.campusmarketplace.communication.dto.*;
 import com.commandlinecommandos.campusmarketplace.communication.model.Conversation;
 import com.commandlinecommandos.campusmarketplace.communication.model.Message;
 import com.commandlinecommandos.campusmarketplace.communication.service.ChatService;
+import com.commandlinecommandos.campusmarketplace.communication.service.ChatStreamService;
+import com.commandlinecommandos.campusmarketplace.communication.service.UnreadCountService;
 import com.commandlinecommandos.campusmarketplace.security.JwtUtil;
+import com.commandlinecommandos.campusmarketplace.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -24,12 +34,23 @@ public class ChatController {
 
     private static final Logger logger = LoggerFactory.getLogger(ChatController.class);
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private ChatService chatService;
 
+    @Autowired
+    private UnreadCountService unreadCountService;
+
+    @Autowired
+    private ChatStreamService chatStreamService;
+
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     /**
      * Send a message to a listing (creates conversation if needed)
      * POST /api/chat/messages
@@ -113,12 +134,12 @@ public class ChatController {
         logger.info("User {} requesting all conversations", userId);
 
         List<Conversation> conversations = chatService.getUserConversations(userId);
+        Map<UUID, Long> unreadCounts = unreadCountService.getUnreadCountsByConversation(userId);
 
         List<ConversationResponse> responses = conversations.stream()
                 .map(conv -> {
                     ConversationResponse response = new ConversationResponse(conv);
-                    long unreadCount = chatService.getUnreadCount(conv.getConversationId(), userId);
-                    response.setUnreadCount(unreadCount);
+                    response.setUnreadCount(unreadCounts.getOrDefault(conv.getConversationId(), 0L));
                     return response;
                 })
                 .collect(Collectors.toList());
@@ -189,6 +210,49 @@ public class ChatController {
         return ResponseEntity.ok(responses);
     }
 
+    /**
+     * Get one page of messages in a conversation, newest page first
+     * GET /api/chat/conversations/{conversationId}/messages/page?cursor=...&size=50
+     * Omit the cursor for the latest messages; pass nextCursor to load older ones
+     */
+    @GetMapping("/conversations/{conversationId}/messages/page")
+    public ResponseEntity<MessagePageResponse> getMessagePage(
+            @PathVariable UUID conversationId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            HttpServletRequest httpRequest) {
+
+        String token = httpRequest.getHeader("Authorization");
+        if (token == null || !token.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        token = token.substring(7);
+
+        UUID userId = jwtUtil.extractUserId(token);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        MessageCursor before = cursor != null && !cursor.isBlank() ? MessageCursor.decode(cursor) : null;
+
+        logger.info("User {} requesting message page in conversation {} (size {})", userId, conversationId, pageSize);
+
+        // One extra row tells us whether an older page exists
+        List<Message> newestFirst = chatService.getMessagesBefore(conversationId, userId, before, pageSize + 1);
+        boolean hasMore = newestFirst.size() > pageSize;
+        List<Message> page = new ArrayList<>(newestFirst.subList(0, Math.min(pageSize, newestFirst.size())));
+
+        String nextCursor = hasMore ? MessageCursor.of(page.get(page.size() - 1)).encode() : null;
+        Collections.reverse(page);
+
+        List<MessageResponse> messages = page.stream()
+                .map(MessageResponse::new)
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(new MessagePageResponse(messages, nextCursor, hasMore));
+    }
+
     /**
      * Mark messages in a conversation as read
      * PUT /api/chat/conversations/{conversationId}/read
@@ -235,15 +299,54 @@ public class ChatController {
 
         logger.info("User {} getting total unread count", userId);
 
-        // Get all conversations for user and sum up unread counts
-        List<Conversation> conversations = chatService.getUserConversations(userId);
-        long totalUnread = conversations.stream()
-                .mapToLong(conv -> chatService.getUnreadCount(conv.getConversationId(), userId))
-                .sum();
+        long totalUnread = unreadCountService.getTotalUnreadCount(userId);
 
         return ResponseEntity.ok(new UnreadCountResponse(totalUnread));
     }
 
+    /**
+     * Open a server-sent event stream of new messages and read receipts for the current user
+     * GET /api/chat/stream
+     * EventSource cannot set headers, so the access token may also be passed as ?token=
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(
+            @RequestParam(required = false) String token,
+            HttpServletRequest httpRequest) {
+
+        String header = httpRequest.getHeader("Authorization");
+        if (header != null && header.startsWith("Bearer ")) {
+            token = header.substring(7);
+        }
+        if (token == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        // The endpoint is permitAll so the query-parameter token can be used; apply the
+        // same checks as JwtAuthenticationFilter, revocation included
+        Claims claims;
+        try {
+            claims = jwtUtil.parseClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        String userIdClaim = claims.get(JwtUtil.CLAIM_USER_ID, String.class);
+        if (jwtUtil.isRefreshToken(claims) || userIdClaim == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        UUID userId = UUID.fromString(userIdClaim);
+        if (!tokenRevocationService.isCurrent(userId, jwtUtil.extractAuthVersion(claims))) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        logger.info("User {} opening chat stream", userId);
+
+        return ResponseEntity.ok()
+                .header("Cache-Control", "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(chatStreamService.subscribe(userId));
+    }
+
     /**
      * Mark a specific message as read
      * PUT /api/chat/messages/{messageId}/read
@@ -0,0 +1,54 @@
+package com.commandlinecommandos.campusmarketplace.communication.dto;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One server-sent chat event and the users it is for
+ *
+ * Also the wire format between nodes, so it stays a plain Jackson POJO.
+ * type becomes the SSE event name (message, read); data is the JSON body.
+ */
+public class ChatPushEvent {
+
+    public static final String MESSAGE = "message";
+    public static final String READ = "read";
+
+    private String type;
+    private List<UUID> recipients;
+    private Map<String, Object> data;
+
+    public ChatPushEvent() {
+    }
+
+    public ChatPushEvent(String type, List<UUID> recipients, Map<String, Object> data) {
+        this.type = type;
+        this.recipients = recipients;
+        this.data = data;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public List<UUID> getRecipients() {
+        return recipients;
+    }
+
+    public void setRecipients(List<UUID> recipients) {
+        this.recipients = recipients;
+    }
+
+    public Map<String, Object> getData() {
+        return data;
+    }
+
+    public void setData(Map<String, Object> data) {
+        this.data = data;
+    }
+}
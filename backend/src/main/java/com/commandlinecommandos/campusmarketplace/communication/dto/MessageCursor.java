@@ -0,0 +1,65 @@
+package com.commandlinecommandos.campusmarketplace.communication.dto;
+
+import com.commandlinecommandos.campusmarketplace.communication.model.Message;
+import com.commandlinecommandos.campusmarketplace.exception.ConversationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a conversation's history: the (createdAt, messageId) of the oldest
+ * message already returned
+ *
+ * Sent to clients as an opaque URL-safe string; the next page holds messages
+ * strictly older than this position.
+ */
+public class MessageCursor {
+
+    private final LocalDateTime createdAt;
+    private final UUID messageId;
+
+    public MessageCursor(LocalDateTime createdAt, UUID messageId) {
+        this.createdAt = createdAt;
+        this.messageId = messageId;
+    }
+
+    public static MessageCursor of(Message message) {
+        return new MessageCursor(message.getCreatedAt(), message.getMessageId());
+    }
+
+    /**
+     * Parse a cursor produced by encode()
+     *
+     * @throws ConversationException if the cursor is malformed
+     */
+    public static MessageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new ConversationException("Invalid message cursor");
+            }
+            return new MessageCursor(
+                LocalDateTime.parse(raw.substring(0, separator)),
+                UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ConversationException("Invalid message cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + messageId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public UUID getMessageId() {
+        return messageId;
+    }
+}
@@ -0,0 +1,47 @@
+package com.commandlinecommandos.campusmarketplace.communication.dto;
+
+import java.util.List;
+
+/**
+ * One page of a conversation's history
+ * Messages are oldest first; pass nextCursor back to load the page before this one
+ */
+public class MessagePageResponse {
+
+    private List<MessageResponse> messages;
+    private String nextCursor;
+    private boolean hasMore;
+
+    public MessagePageResponse() {
+    }
+
+    public MessagePageResponse(List<MessageResponse> messages, String nextCursor, boolean hasMore) {
+        this.messages = messages;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<MessageResponse> getMessages() {
+        return messages;
+    }
+
+    public void setMessages(List<MessageResponse> messages) {
+        this.messages = messages;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
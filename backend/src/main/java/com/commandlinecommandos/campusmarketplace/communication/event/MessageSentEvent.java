@@ -0,0 +1,79 @@
+package com.commandlinecommandos.campusmarketplace.communication.event;
+
+import com.commandlinecommandos.campusmarketplace.communication.model.Conversation;
+import com.commandlinecommandos.campusmarketplace.communication.model.Message;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Published when a chat message is stored
+ *
+ * Carries IDs rather than entities so listeners can run after the transaction
+ * commits without touching lazy associations.
+ */
+public class MessageSentEvent {
+
+    private final UUID messageId;
+    private final UUID conversationId;
+    private final UUID listingId;
+    private final UUID senderId;
+    private final UUID recipientId;
+    private final String content;
+    private final LocalDateTime createdAt;
+
+    public MessageSentEvent(UUID messageId, UUID conversationId, UUID listingId, UUID senderId,
+                            UUID recipientId, String content, LocalDateTime createdAt) {
+        this.messageId = messageId;
+        this.conversationId = conversationId;
+        this.listingId = listingId;
+        this.senderId = senderId;
+        this.recipientId = recipientId;
+        this.content = content;
+        this.createdAt = createdAt;
+    }
+
+    public static MessageSentEvent of(Conversation conversation, Message message) {
+        return new MessageSentEvent(
+            message.getMessageId(),
+            conversation.getConversationId(),
+            conversation.getListingId(),
+            message.getSenderId(),
+            conversation.getOtherParticipant(message.getSenderId()),
+            message.getContent(),
+            message.getCreatedAt());
+    }
+
+    public UUID getMessageId() {
+        return messageId;
+    }
+
+    public UUID getConversationId() {
+        return conversationId;
+    }
+
+    public UUID getListingId() {
+        return listingId;
+    }
+
+    public UUID getSenderId() {
+        return senderId;
+    }
+
+    public UUID getRecipientId() {
+        return recipientId;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "MessageSentEvent{" + messageId + " in " + conversationId + ", " + senderId + " → " + recipientId + "}";
+    }
+}
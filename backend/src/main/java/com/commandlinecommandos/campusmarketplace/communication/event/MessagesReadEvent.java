@@ -0,0 +1,39 @@
+package com.commandlinecommandos.campusmarketplace.communication.event;
+
+import java.util.UUID;
+
+/**
+ * Published when a user marks messages in a conversation as read
+ */
+public class MessagesReadEvent {
+
+    private final UUID conversationId;
+    private final UUID readerId;
+    private final int count;
+
+    public MessagesReadEvent(UUID conversationId, UUID readerId, int count) {
+        this.conversationId = conversationId;
+        this.readerId = readerId;
+        this.count = count;
+    }
+
+    public UUID getConversationId() {
+        return conversationId;
+    }
+
+    public UUID getReaderId() {
+        return readerId;
+    }
+
+    /**
+     * Number of messages that went from unread to read
+     */
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "MessagesReadEvent{" + count + " in " + conversationId + " by " + readerId + "}";
+    }
+}
@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 
 @Entity
@@ -40,7 +41,8 @@ public class Message {
 
     @PrePersist
     protected void onCreate() {
-        this.createdAt = LocalDateTime.now();
+        // Match the column's microsecond precision so a cursor built from this instance matches the stored row
+        this.createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
         if (this.isRead == null) {
             this.isRead = false;
         }
@@ -1,12 +1,14 @@
 package com.commandlinecommandos.campusmarketplace.communication.repository;
 
 import com.commandlinecommandos.campusmarketplace.communication.model.Message;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,6 +20,25 @@ public interface MessageRepository extends JpaRepository<Message, UUID> {
      */
     List<Message> findByConversation_ConversationIdOrderByCreatedAtAsc(UUID conversationId);
     
+    /**
+     * Newest messages in a conversation, newest first (first page of keyset pagination)
+     */
+    @Query("SELECT m FROM Message m LEFT JOIN FETCH m.sender WHERE m.conversation.conversationId = :conversationId " +
+           "ORDER BY m.createdAt DESC, m.messageId DESC")
+    List<Message> findLatestMessages(@Param("conversationId") UUID conversationId, Pageable pageable);
+    
+    /**
+     * Messages strictly older than the (createdAt, messageId) cursor, newest first
+     * Served by idx_messages_conversation_keyset
+     */
+    @Query("SELECT m FROM Message m LEFT JOIN FETCH m.sender WHERE m.conversation.conversationId = :conversationId " +
+           "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.messageId < :messageId)) " +
+           "ORDER BY m.createdAt DESC, m.messageId DESC")
+    List<Message> findMessagesBefore(@Param("conversationId") UUID conversationId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("messageId") UUID messageId,
+                                     Pageable pageable);
+    
     /**
      * Count unread messages in a conversation for a specific user
      */
@@ -25,6 +46,22 @@ public interface MessageRepository extends JpaRepository<Message, UUID> {
            "AND m.senderId != :userId AND m.isRead = false")
     long countUnreadMessages(@Param("conversationId") UUID conversationId, @Param("userId") UUID userId);
     
+    /**
+     * Count unread messages for a user in every conversation they take part in (one grouped query)
+     * Conversations without unread messages are absent from the result
+     */
+    @Query("SELECT m.conversation.conversationId AS conversationId, COUNT(m) AS unreadCount FROM Message m " +
+           "WHERE (m.conversation.buyerId = :userId OR m.conversation.sellerId = :userId) " +
+           "AND m.senderId != :userId AND m.isRead = false GROUP BY m.conversation.conversationId")
+    List<ConversationUnreadCount> countUnreadByConversation(@Param("userId") UUID userId);
+    
+    /**
+     * Count unread messages for a user across all conversations
+     */
+    @Query("SELECT COUNT(m) FROM Message m WHERE (m.conversation.buyerId = :userId OR m.conversation.sellerId = :userId) " +
+           "AND m.senderId != :userId AND m.isRead = false")
+    long countUnreadMessagesForUser(@Param("userId") UUID userId);
+    
     /**
      * Mark all messages in a conversation as read for a specific user
      */
@@ -47,4 +84,12 @@ public interface MessageRepository extends JpaRepository<Message, UUID> {
     @Query("UPDATE Message m SET m.isRead = true WHERE m.messageId = :messageId " +
            "AND m.senderId != :userId AND m.isRead = false")
     int markSingleMessageAsRead(@Param("messageId") UUID messageId, @Param("userId") UUID userId);
+    
+    /**
+     * Unread message count for one conversation
+     */
+    interface ConversationUnreadCount {
+        UUID getConversationId();
+        long getUnreadCount();
+    }
 }
@@ -0,0 +1,64 @@
+package com.commandlinecommandos.campusmarketplace.communication.repository;
+
+import com.commandlinecommandos.campusmarketplace.communication.model.NotificationOutbox;
+import com.commandlinecommandos.campusmarketplace.communication.model.NotificationOutbox.Status;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, UUID> {
+
+    /**
+     * Recipients with at least one pending notification that is due, oldest first
+     */
+    @Query("SELECT o.recipientId FROM NotificationOutbox o WHERE o.status = :status AND o.nextAttemptAt <= :now " +
+           "GROUP BY o.recipientId ORDER BY MIN(o.nextAttemptAt)")
+    List<UUID> findDueRecipients(@Param("status") Status status, @Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Claim every pending row of the given recipients for one dispatcher
+     * Rows claimed by another node in the meantime are left alone
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE NotificationOutbox o SET o.status = :sending, o.claimedBy = :claimedBy, o.claimedAt = :now " +
+           "WHERE o.recipientId IN :recipientIds AND o.status = :pending")
+    int claimPending(@Param("recipientIds") Collection<UUID> recipientIds,
+                     @Param("pending") Status pending,
+                     @Param("sending") Status sending,
+                     @Param("claimedBy") String claimedBy,
+                     @Param("now") LocalDateTime now);
+
+    /**
+     * Rows this dispatcher claimed and has not finished, oldest first
+     */
+    List<NotificationOutbox> findByClaimedByAndStatusOrderByCreatedAtAsc(String claimedBy, Status status);
+
+    /**
+     * Hand back rows whose dispatcher died mid-send
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE NotificationOutbox o SET o.status = :pending, o.claimedBy = NULL, o.claimedAt = NULL " +
+           "WHERE o.status = :sending AND o.claimedAt < :claimedBefore")
+    int releaseStaleClaims(@Param("pending") Status pending,
+                           @Param("sending") Status sending,
+                           @Param("claimedBefore") LocalDateTime claimedBefore);
+
+    /**
+     * Drop settled rows after their retention period
+     */
+    @Modifying
+    @Query("DELETE FROM NotificationOutbox o WHERE o.status IN :statuses AND o.createdAt < :before")
+    int deleteByStatusCreatedBefore(@Param("statuses") Collection<Status> statuses,
+                                    @Param("before") LocalDateTime before);
+
+    long countByRecipientIdAndStatus(UUID recipientId, Status status);
+}
@@ -0,0 +1,119 @@
+package com.commandlinecommandos.campusmarketplace.communication.service;
+
+import com.commandlinecommandos.campusmarketplace.communication.dto.ChatPushEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Fans chat push events out to every node over Redis pub/sub
+ *
+ * A user's stream may be held by any node, so each event is published once and
+ * every node (including this one) delivers it to the streams it holds. Without
+ * Redis, or if a publish fails, events are delivered on this node only, which is
+ * exact for a single instance.
+ *
+ * Configuration:
+ * - app.chat.push.redis.enabled → use Redis pub/sub when Redis answers at startup (default true)
+ */
+@Component
+public class ChatEventRelay implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatEventRelay.class);
+
+    public static final String CHANNEL = "chat:events";
+
+    @Autowired
+    private ObjectProvider<RedisConnectionFactory> connectionFactoryProvider;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.chat.push.redis.enabled:true}")
+    private boolean redisEnabled;
+
+    private StringRedisTemplate redisTemplate;
+    private RedisMessageListenerContainer listenerContainer;
+    private volatile Consumer<ChatPushEvent> localDelivery = event -> { };
+
+    @PostConstruct
+    void init() {
+        if (!redisEnabled) {
+            logger.info("Chat push relay: Redis disabled, delivering on this node only");
+            return;
+        }
+        RedisConnectionFactory connectionFactory = connectionFactoryProvider.getIfAvailable();
+        if (connectionFactory == null) {
+            return;
+        }
+        try {
+            connectionFactory.getConnection().ping();
+            redisTemplate = new StringRedisTemplate(connectionFactory);
+
+            listenerContainer = new RedisMessageListenerContainer();
+            listenerContainer.setConnectionFactory(connectionFactory);
+            listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+            listenerContainer.afterPropertiesSet();
+            listenerContainer.start();
+            logger.info("✅ Chat push relay: fanning out over Redis channel '{}'", CHANNEL);
+        } catch (Exception e) {
+            redisTemplate = null;
+            logger.warn("⚠️  Redis unavailable for chat push: {} - delivering on this node only", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (listenerContainer != null) {
+            listenerContainer.stop();
+        }
+    }
+
+    /**
+     * Where events for this node's streams are handed over
+     */
+    void setLocalDelivery(Consumer<ChatPushEvent> localDelivery) {
+        this.localDelivery = localDelivery;
+    }
+
+    /**
+     * Deliver an event to its recipients on whichever nodes hold their streams
+     */
+    public void publish(ChatPushEvent event) {
+        StringRedisTemplate template = redisTemplate;
+        if (template != null) {
+            try {
+                template.convertAndSend(CHANNEL, objectMapper.writeValueAsString(event));
+                return;
+            } catch (Exception e) {
+                logger.warn("Chat push publish failed, delivering locally: {}", e.getMessage());
+            }
+        }
+        localDelivery.accept(event);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            localDelivery.accept(objectMapper.readValue(body, ChatPushEvent.class));
+        } catch (Exception e) {
+            logger.warn("Ignoring malformed chat push message: {}", e.getMessage());
+        }
+    }
+}
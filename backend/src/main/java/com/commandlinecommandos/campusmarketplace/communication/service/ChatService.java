@@ -1,5 +1,8 @@
 package com.commandlinecommandos.campusmarketplace.communication.service;
 
+import com.commandlinecommandos.campusmarketplace.communication.dto.MessageCursor;
+import com.commandlinecommandos.campusmarketplace.communication.event.MessageSentEvent;
+import com.commandlinecommandos.campusmarketplace.communication.event.MessagesReadEvent;
 import com.commandlinecommandos.campusmarketplace.communication.model.Conversation;
 import com.commandlinecommandos.campusmarketplace.communication.model.Message;
 import com.commandlinecommandos.campusmarketplace.communication.repository.ConversationRepository;
@@ -12,6 +15,8 @@ import com.commandlinecommandos.campusmarketplace.model.Product;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -34,8 +39,11 @@ public class ChatService {
     @Autowired
     private ListingsService listingsService;
 
-    @Autowired(required = false)
-    private EmailNotificationService emailNotificationService;
+    @Autowired
+    private NotificationOutboxService notificationOutboxService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     /**
      * Creates or gets an existing conversation for a listing between buyer and seller.
@@ -108,14 +116,10 @@ public class ChatService {
         logger.info("Message {} sent in conversation {} by user {}", 
             message.getMessageId(), conversationId, senderId);
         
-        if (emailNotificationService != null) {
-            try {
-                emailNotificationService.sendMessageNotification(conversation, message, senderId);
-            } catch (Exception e) {
-                logger.error("Failed to send email notification for message {}: {}", 
-                    message.getMessageId(), e.getMessage(), e);
-            }
-        }
+        eventPublisher.publishEvent(MessageSentEvent.of(conversation, message));
+        
+        // Email goes out later as a digest; only the outbox row is written here
+        notificationOutboxService.enqueue(conversation, message);
         
         return message;
     }
@@ -157,11 +161,41 @@ public class ChatService {
     }
 
     /**
-     * Gets a conversation with all its messages.
+     * Gets one page of a conversation's history, newest first.
+     * Cost depends on the page size only, not on the length of the conversation.
+     * 
+     * @param conversationId The conversation ID
+     * @param userId The user ID requesting the messages (for authorization)
+     * @param before Cursor of the oldest message already loaded, or null for the latest messages
+     * @param limit Maximum number of messages to return
+     * @return Messages older than the cursor, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<Message> getMessagesBefore(UUID conversationId, UUID userId, MessageCursor before, int limit) {
+        Conversation conversation = conversationRepository.findById(conversationId)
+            .orElseThrow(() -> new ConversationNotFoundException(conversationId));
+
+        // Verify user is a participant
+        if (!conversation.isParticipant(userId)) {
+            throw new UnauthorizedAccessException(
+                "User " + userId + " is not a participant in conversation " + conversationId
+            );
+        }
+
+        PageRequest page = PageRequest.of(0, limit);
+        if (before == null) {
+            return messageRepository.findLatestMessages(conversationId, page);
+        }
+        return messageRepository.findMessagesBefore(
+            conversationId, before.getCreatedAt(), before.getMessageId(), page);
+    }
+
+    /**
+     * Gets a conversation with its latest message.
      * 
      * @param conversationId The conversation ID
      * @param userId The user ID requesting the conversation (for authorization)
-     * @return The conversation with messages
+     * @return The conversation, with only its latest message loaded
      */
     @Transactional(readOnly = true)
     public Conversation getConversation(UUID conversationId, UUID userId) {
@@ -175,9 +209,9 @@ public class ChatService {
             );
         }
 
-        // Load messages
-        List<Message> messages = messageRepository.findByConversation_ConversationIdOrderByCreatedAtAsc(conversationId);
-        conversation.setMessages(messages);
+        // The response only shows the last message; history is paged separately
+        List<Message> latest = messageRepository.findLatestMessages(conversationId, PageRequest.of(0, 1));
+        conversation.setMessages(latest);
 
         return conversation;
     }
@@ -216,6 +250,10 @@ public class ChatService {
         logger.info("Marked {} messages as read in conversation {} for user {}", 
             count, conversationId, userId);
         
+        if (count > 0) {
+            eventPublisher.publishEvent(new MessagesReadEvent(conversationId, userId, count));
+        }
+        
         return count;
     }
 
@@ -262,8 +300,12 @@ public class ChatService {
         
         // Only mark as read if user is not the sender
         if (!message.getSenderId().equals(userId) && !message.getIsRead()) {
-            messageRepository.markSingleMessageAsRead(messageId, userId);
+            int count = messageRepository.markSingleMessageAsRead(messageId, userId);
             logger.info("Marked message {} as read for user {}", messageId, userId);
+            if (count > 0) {
+                eventPublisher.publishEvent(
+                    new MessagesReadEvent(conversation.getConversationId(), userId, count));
+            }
         }
     }
 }
@@ -0,0 +1,194 @@
+package com.commandlinecommandos.campusmarketplace.communication.service;
+
+import com.commandlinecommandos.campusmarketplace.communication.dto.ChatPushEvent;
+import com.commandlinecommandos.campusmarketplace.communication.event.MessageSentEvent;
+import com.commandlinecommandos.campusmarketplace.communication.event.MessagesReadEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Server-sent event streams that push chat activity to connected users
+ *
+ * Each browser tab holds one SSE stream (GET /chat/stream). Sent messages and
+ * read receipts are pushed after their transactions commit, through
+ * ChatEventRelay so the stream can live on any node. This replaces polling
+ * /chat/conversations and /chat/unread-count.
+ *
+ * Events:
+ * - ready   → sent on connect with the current unread total
+ * - message → a message was sent to or by the user (pushed to both participants)
+ * - read    → the user read messages in a conversation (keeps other tabs' badges in step)
+ *
+ * Configuration:
+ * - app.chat.push.emitter-timeout-ms       → stream lifetime before the client reconnects
+ * - app.chat.push.heartbeat-interval-ms    → comment lines that keep proxies from closing idle streams
+ * - app.chat.push.max-connections-per-user → oldest stream is closed beyond this
+ */
+@Service
+public class ChatStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChatStreamService.class);
+
+    @Autowired
+    private ChatEventRelay chatEventRelay;
+
+    @Autowired
+    private UnreadCountService unreadCountService;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    @Value("${app.chat.push.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${app.chat.push.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    private final Map<UUID, Set<SseEmitter>> streams = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        chatEventRelay.setLocalDelivery(this::deliverLocally);
+        MeterRegistry registry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        Gauge.builder("chat.push.connections", this, ChatStreamService::connectionCount)
+            .description("Open chat push streams on this node")
+            .register(registry);
+    }
+
+    /**
+     * Open a stream for a user
+     *
+     * @param userId The authenticated user's ID
+     * @return Emitter to return from the controller
+     */
+    public SseEmitter subscribe(UUID userId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Set<SseEmitter> userStreams = streams.compute(userId, (id, existing) -> {
+            Set<SseEmitter> set = existing != null ? existing : new CopyOnWriteArraySet<>();
+            set.add(emitter);
+            return set;
+        });
+
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(() -> remove(userId, emitter));
+        emitter.onError(e -> remove(userId, emitter));
+
+        // Iteration order of CopyOnWriteArraySet is insertion order, so the first stream is the oldest
+        while (userStreams.size() > maxConnectionsPerUser) {
+            SseEmitter oldest = userStreams.iterator().next();
+            userStreams.remove(oldest);
+            oldest.complete();
+        }
+
+        Map<String, Object> ready = new LinkedHashMap<>();
+        ready.put("unreadCount", unreadCountService.getTotalUnreadCount(userId));
+        send(userId, emitter, "ready", ready);
+
+        logger.debug("Chat stream opened for user {} ({} on this node)", userId, userStreams.size());
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageSent(MessageSentEvent event) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("messageId", event.getMessageId());
+        data.put("conversationId", event.getConversationId());
+        data.put("listingId", event.getListingId());
+        data.put("senderId", event.getSenderId());
+        data.put("content", event.getContent());
+        data.put("createdAt", event.getCreatedAt() != null ? event.getCreatedAt().toString() : null);
+
+        List<UUID> recipients = event.getRecipientId() != null
+            ? List.of(event.getRecipientId(), event.getSenderId())
+            : List.of(event.getSenderId());
+        chatEventRelay.publish(new ChatPushEvent(ChatPushEvent.MESSAGE, recipients, data));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessagesRead(MessagesReadEvent event) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("conversationId", event.getConversationId());
+        data.put("count", event.getCount());
+        chatEventRelay.publish(new ChatPushEvent(ChatPushEvent.READ, List.of(event.getReaderId()), data));
+    }
+
+    /**
+     * Keep idle streams open through proxies and find connections that went away
+     */
+    @Scheduled(fixedDelayString = "${app.chat.push.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        streams.forEach((userId, userStreams) -> userStreams.forEach(emitter -> {
+            try {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            } catch (IOException | IllegalStateException e) {
+                remove(userId, emitter);
+            }
+        }));
+    }
+
+    @PreDestroy
+    void closeAll() {
+        streams.values().forEach(userStreams -> userStreams.forEach(SseEmitter::complete));
+        streams.clear();
+    }
+
+    /**
+     * Open streams on this node
+     */
+    public int connectionCount() {
+        return streams.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * Write an event to the streams this node holds for its recipients
+     */
+    void deliverLocally(ChatPushEvent event) {
+        if (event.getRecipients() == null) {
+            return;
+        }
+        for (UUID userId : event.getRecipients()) {
+            Set<SseEmitter> userStreams = streams.get(userId);
+            if (userStreams != null) {
+                userStreams.forEach(emitter -> send(userId, emitter, event.getType(), event.getData()));
+            }
+        }
+    }
+
+    private void send(UUID userId, SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the servlet container completes the emitter
+            remove(userId, emitter);
+        }
+    }
+
+    private void remove(UUID userId, SseEmitter emitter) {
+        streams.computeIfPresent(userId, (id, userStreams) -> {
+            userStreams.remove(emitter);
+            return userStreams.isEmpty() ? null : userStreams;
+        });
+    }
+}
@@ -1,7 +1,6 @@
 package com.commandlinecommandos.campusmarketplace.communication.service;
 
-import com.commandlinecommandos.campusmarketplace.communication.model.Conversation;
-import com.commandlinecommandos.campusmarketplace.communication.model.Message;
+import com.commandlinecommandos.campusmarketplace.communication.model.NotificationOutbox;
 import com.commandlinecommandos.campusmarketplace.communication.model.NotificationPreference;
 import com.commandlinecommandos.campusmarketplace.communication.repository.NotificationPreferenceRepository;
 import com.commandlinecommandos.campusmarketplace.service.EmailService;
@@ -14,12 +13,18 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Service for sending email notifications when messages are sent.
  * Uses the main EmailService for actual email delivery via SendGrid.
+ * Messages reach it through the notification outbox (see NotificationDispatcher),
+ * one digest per recipient.
  */
 @Service
 public class EmailNotificationService {
@@ -39,37 +44,36 @@ public class EmailNotificationService {
     private boolean emailNotificationsEnabled;
 
     /**
-     * Sends an email notification to the recipient when a new message is received.
+     * Outcome of one digest
+     */
+    public enum DigestOutcome {
+        SENT,
+        SKIPPED
+    }
+
+    /**
+     * Sends one email covering a recipient's pending message notifications.
      * Sends by default unless user has explicitly disabled notifications.
      * Falls back to user's email from users table if no notification preference exists.
+     * Called by NotificationDispatcher off the request path; SMTP failures propagate so
+     * the outbox rows can be retried.
      * 
-     * @param conversation The conversation
-     * @param message The message that was sent
-     * @param senderId The ID of the user who sent the message
+     * @param recipientId The user to notify
+     * @param notifications The recipient's pending outbox rows, oldest first
+     * @return SENT, or SKIPPED if nothing should be sent for this recipient
      */
     @Transactional(readOnly = true)
-    public void sendMessageNotification(Conversation conversation, Message message, UUID senderId) {
+    public DigestOutcome sendMessageDigest(UUID recipientId, List<NotificationOutbox> notifications) {
         if (!emailNotificationsEnabled || emailService == null) {
             logger.debug("Email notifications disabled or email service not configured");
-            return;
+            return DigestOutcome.SKIPPED;
         }
 
-        // Determine recipient (the other participant)
-        UUID recipientId = conversation.getOtherParticipant(senderId);
-        if (recipientId == null) {
-            logger.warn("Could not determine recipient for conversation {}", conversation.getConversationId());
-            return;
-        }
-
-        // Get sender information
-        Optional<User> senderOpt = userRepository.findById(senderId);
-        String senderName = senderOpt.map(this::getDisplayName).orElse("Someone");
-
         // Get recipient user
         Optional<User> recipientOpt = userRepository.findById(recipientId);
         if (recipientOpt.isEmpty()) {
             logger.warn("Recipient user {} not found", recipientId);
-            return;
+            return DigestOutcome.SKIPPED;
         }
         User recipient = recipientOpt.get();
 
@@ -79,7 +83,7 @@ public class EmailNotificationService {
         // Only skip if user has EXPLICITLY disabled notifications
         if (preference.isPresent() && !preference.get().getEmailNotificationsEnabled()) {
             logger.debug("User {} has explicitly disabled email notifications", recipientId);
-            return;
+            return DigestOutcome.SKIPPED;
         }
 
         // Get email: prefer notification_preferences email, fall back to user's email
@@ -95,22 +99,24 @@ public class EmailNotificationService {
 
         if (recipientEmail == null || recipientEmail.trim().isEmpty()) {
             logger.warn("No email address found for user {}", recipientId);
-            return;
+            return DigestOutcome.SKIPPED;
         }
 
-        try {
-            logger.info("Sending message notification to {} from {}", recipientEmail, senderName);
-            emailService.sendMessageReceivedEmail(
-                recipientEmail,
-                recipientFirstName,
-                senderName,
-                message.getContent()
-            );
-            logger.info("✅ Message notification email sent to {} for message {} from {}", 
-                recipientEmail, message.getMessageId(), senderName);
-        } catch (Exception e) {
-            logger.error("❌ Failed to send message notification email to {}: {}", recipientEmail, e.getMessage(), e);
-        }
+        // Sender names for the whole digest in one query
+        Set<UUID> senderIds = notifications.stream()
+            .map(NotificationOutbox::getSenderId)
+            .collect(Collectors.toSet());
+        Map<UUID, String> senderNames = userRepository.findAllById(senderIds).stream()
+            .collect(Collectors.toMap(User::getUserId, this::getDisplayName));
+
+        List<EmailService.MessageDigestEntry> entries = notifications.stream()
+            .map(n -> new EmailService.MessageDigestEntry(
+                senderNames.getOrDefault(n.getSenderId(), "Someone"), n.getPreview()))
+            .toList();
+
+        logger.info("Sending message digest ({} messages) to {}", entries.size(), recipientEmail);
+        emailService.sendMessageDigestEmail(recipientEmail, recipientFirstName, entries);
+        return DigestOutcome.SENT;
     }
 
     /**
@@ -0,0 +1,126 @@
+package com.commandlinecommandos.campusmarketplace.communication.service;
+
+import com.commandlinecommandos.campusmarketplace.communication.model.NotificationOutbox;
+import com.commandlinecommandos.campusmarketplace.communication.service.EmailNotificationService.DigestOutcome;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends chat email notifications from the outbox
+ *
+ * Each run claims the pending rows of recipients with something due, folds each
+ * recipient's rows into one digest and sends the digests on the bounded
+ * emailExecutor pool. Runs execute on dispatchExecutor, never on the scheduler
+ * thread; a run waits there for its digests before the next one starts, so a slow
+ * SMTP server slows dispatch down instead of piling up work or holding back other
+ * scheduled jobs. Claims are per run, so several nodes can dispatch without sending
+ * the same row twice.
+ *
+ * Configuration:
+ * - app.email-notifications.dispatch-interval-ms     → delay between runs
+ * - app.email-notifications.max-recipients-per-run   → digests per run
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    @Autowired
+    private NotificationOutboxService outboxService;
+
+    @Autowired
+    private EmailNotificationService emailNotificationService;
+
+    @Autowired
+    @Qualifier("emailExecutor")
+    private TaskExecutor emailExecutor;
+
+    @Value("${app.email-notifications.max-recipients-per-run:100}")
+    private int maxRecipientsPerRun;
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong runSequence = new AtomicLong();
+
+    @Scheduled(fixedDelayString = "${app.email-notifications.dispatch-interval-ms:10000}",
+               initialDelayString = "${app.email-notifications.dispatch-interval-ms:10000}")
+    @Async("dispatchExecutor")
+    public void scheduledDispatch() {
+        try {
+            dispatchDue();
+        } catch (Exception e) {
+            logger.warn("⚠️  Notification dispatch failed: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(cron = "${app.email-notifications.purge-cron:0 30 3 * * *}")
+    public void purgeFinished() {
+        int purged = outboxService.purgeFinished();
+        if (purged > 0) {
+            logger.info("Purged {} settled notification(s) from the outbox", purged);
+        }
+    }
+
+    /**
+     * Claim and send everything that is due
+     *
+     * @return number of digests sent
+     */
+    public int dispatchDue() {
+        String claimId = nodeId + "-" + runSequence.incrementAndGet();
+        List<NotificationOutbox> claimed = outboxService.claimDue(claimId, maxRecipientsPerRun);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        Map<UUID, List<NotificationOutbox>> byRecipient = new LinkedHashMap<>();
+        for (NotificationOutbox row : claimed) {
+            byRecipient.computeIfAbsent(row.getRecipientId(), id -> new ArrayList<>()).add(row);
+        }
+
+        List<CompletableFuture<Boolean>> digests = new ArrayList<>(byRecipient.size());
+        byRecipient.forEach((recipientId, rows) ->
+            digests.add(CompletableFuture.supplyAsync(() -> send(recipientId, rows), emailExecutor)));
+        CompletableFuture.allOf(digests.toArray(CompletableFuture[]::new)).join();
+
+        int sent = (int) digests.stream().filter(CompletableFuture::join).count();
+        logger.info("Notification dispatch {}: {} message(s) for {} recipient(s), {} digest(s) sent",
+            claimId, claimed.size(), byRecipient.size(), sent);
+        return sent;
+    }
+
+    private boolean send(UUID recipientId, List<NotificationOutbox> rows) {
+        try {
+            DigestOutcome outcome = emailNotificationService.sendMessageDigest(recipientId, rows);
+            if (outcome == DigestOutcome.SENT) {
+                outboxService.markSent(rows);
+                return true;
+            }
+            outboxService.markSkipped(rows, "Notifications disabled or no address for recipient");
+            return false;
+        } catch (Exception e) {
+            logger.error("❌ Failed to send message digest to user {}: {}", recipientId, e.getMessage());
+            try {
+                outboxService.markFailed(rows, e.getMessage());
+            } catch (Exception markError) {
+                // Rows stay SENDING and are handed back after the claim timeout
+                logger.error("Could not record failed digest for user {}: {}", recipientId, markError.getMessage());
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.commandlinecommandos.campusmarketplace.communication.service;
+
+import com.commandlinecommandos.campusmarketplace.communication.model.Conversation;
+import com.commandlinecommandos.campusmarketplace.communication.model.Message;
+import com.commandlinecommandos.campusmarketplace.communication.model.NotificationOutbox;
+import com.commandlinecommandos.campusmarketplace.communication.model.NotificationOutbox.Status;
+import com.commandlinecommandos.campusmarketplace.communication.repository.NotificationOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Outbox rows for chat email notifications
+ *
+ * enqueue() runs inside the message transaction, so a notification exists exactly
+ * when its message does. The dispatcher claims, sends and settles rows through the
+ * other methods, each in its own short transaction.
+ *
+ * Configuration:
+ * - app.email-notifications.enabled             → write outbox rows at all
+ * - app.email-notifications.digest-delay-ms     → wait before a recipient's first row is due, so bursts share a digest
+ * - app.email-notifications.max-attempts        → sends before a row is marked FAILED
+ * - app.email-notifications.retry-backoff-ms    → first retry delay, doubled per attempt
+ * - app.email-notifications.claim-timeout-ms    → in-flight rows older than this are handed back
+ * - app.email-notifications.retention-days      → sent and skipped rows are kept this long
+ * - app.email-notifications.failed-retention-days → rows that ran out of attempts are kept this long
+ */
+@Service
+public class NotificationOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutboxService.class);
+
+    private static final int MAX_PREVIEW_LENGTH = 1000;
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Value("${app.email-notifications.enabled:true}")
+    private boolean emailNotificationsEnabled;
+
+    @Value("${app.email-notifications.digest-delay-ms:60000}")
+    private long digestDelayMs;
+
+    @Value("${app.email-notifications.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.email-notifications.retry-backoff-ms:60000}")
+    private long retryBackoffMs;
+
+    @Value("${app.email-notifications.claim-timeout-ms:600000}")
+    private long claimTimeoutMs;
+
+    @Value("${app.email-notifications.retention-days:7}")
+    private int retentionDays;
+
+    @Value("${app.email-notifications.failed-retention-days:30}")
+    private int failedRetentionDays;
+
+    /**
+     * Record that the other participant should hear about this message
+     * Joins the caller's transaction
+     */
+    @Transactional
+    public void enqueue(Conversation conversation, Message message) {
+        if (!emailNotificationsEnabled) {
+            return;
+        }
+        UUID recipientId = conversation.getOtherParticipant(message.getSenderId());
+        if (recipientId == null) {
+            logger.warn("Could not determine recipient for conversation {}", conversation.getConversationId());
+            return;
+        }
+        outboxRepository.save(new NotificationOutbox(
+            recipientId,
+            message.getSenderId(),
+            conversation.getConversationId(),
+            message.getMessageId(),
+            preview(message.getContent()),
+            LocalDateTime.now().plus(Duration.ofMillis(digestDelayMs))));
+    }
+
+    /**
+     * Claim every pending row of up to maxRecipients recipients with something due
+     *
+     * @param claimId Unique ID of this dispatch run
+     * @return Claimed rows, oldest first
+     */
+    @Transactional
+    public List<NotificationOutbox> claimDue(String claimId, int maxRecipients) {
+        LocalDateTime now = LocalDateTime.now();
+        int released = outboxRepository.releaseStaleClaims(Status.PENDING, Status.SENDING,
+            now.minus(Duration.ofMillis(claimTimeoutMs)));
+        if (released > 0) {
+            logger.warn("Released {} notification(s) left in flight by a stopped dispatcher", released);
+        }
+
+        List<UUID> recipients = outboxRepository.findDueRecipients(Status.PENDING, now, PageRequest.of(0, maxRecipients));
+        if (recipients.isEmpty()) {
+            return List.of();
+        }
+        outboxRepository.claimPending(recipients, Status.PENDING, Status.SENDING, claimId, now);
+        return outboxRepository.findByClaimedByAndStatusOrderByCreatedAtAsc(claimId, Status.SENDING);
+    }
+
+    @Transactional
+    public void markSent(Collection<NotificationOutbox> rows) {
+        settle(rows, Status.SENT, null);
+    }
+
+    @Transactional
+    public void markSkipped(Collection<NotificationOutbox> rows, String reason) {
+        settle(rows, Status.SKIPPED, reason);
+    }
+
+    /**
+     * Put rows back for a later attempt, or give up on them after max-attempts
+     */
+    @Transactional
+    public void markFailed(Collection<NotificationOutbox> rows, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        for (NotificationOutbox row : rows) {
+            int attempts = row.getAttempts() + 1;
+            row.setAttempts(attempts);
+            row.setLastError(error);
+            row.setClaimedBy(null);
+            row.setClaimedAt(null);
+            if (attempts >= maxAttempts) {
+                row.setStatus(Status.FAILED);
+            } else {
+                row.setStatus(Status.PENDING);
+                long backoffMs = retryBackoffMs << Math.min(attempts - 1, 10);
+                row.setNextAttemptAt(now.plus(Duration.ofMillis(backoffMs)));
+            }
+        }
+        outboxRepository.saveAll(rows);
+    }
+
+    /**
+     * Delete settled rows past their retention period
+     * Failed rows are kept longer, so there is time to look into why they never went out
+     */
+    @Transactional
+    public int purgeFinished() {
+        LocalDateTime now = LocalDateTime.now();
+        return outboxRepository.deleteByStatusCreatedBefore(
+                Set.of(Status.SENT, Status.SKIPPED), now.minusDays(retentionDays))
+            + outboxRepository.deleteByStatusCreatedBefore(
+                Set.of(Status.FAILED), now.minusDays(failedRetentionDays));
+    }
+
+    private void settle(Collection<NotificationOutbox> rows, Status status, String note) {
+        LocalDateTime now = LocalDateTime.now();
+        for (NotificationOutbox row : rows) {
+            row.setStatus(status);
+            row.setLastError(note);
+            if (status == Status.SENT) {
+                row.setSentAt(now);
+            }
+        }
+        outboxRepository.saveAll(rows);
+    }
+
+    private static String preview(String content) {
+        if (content == null) {
+            return "";
+        }
+        return content.length() <= MAX_PREVIEW_LENGTH ? content : content.substring(0, MAX_PREVIEW_LENGTH) + "…";
+    }
+}
@@ -0,0 +1,167 @@
+package com.commandlinecommandos.campusmarketplace.communication.service;
+
+import com.commandlinecommandos.campusmarketplace.communication.event.MessageSentEvent;
+import com.commandlinecommandos.campusmarketplace.communication.event.MessagesReadEvent;
+import com.commandlinecommandos.campusmarketplace.communication.repository.MessageRepository;
+import com.commandlinecommandos.campusmarketplace.communication.repository.MessageRepository.ConversationUnreadCount;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Unread message counts for the conversation list and the chat badge
+ *
+ * Per-conversation counts come from one grouped query per user. The total badge
+ * is a per-user counter in the unreadCounts cache (key: userId): it is loaded
+ * with a single COUNT on first use, then moved up by sent messages and down by
+ * read receipts after their transactions commit, so the badge is a cache lookup.
+ *
+ * Adjustments are serialised per user on this node. Concurrent updates to the
+ * same user from different nodes can still race; the cache TTL bounds any drift.
+ */
+@Service
+public class UnreadCountService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnreadCountService.class);
+
+    public static final String UNREAD_COUNTS = "unreadCounts";
+
+    private static final int LOCK_STRIPES = 64;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /** Striped by user, so a user's count loads and adjustments apply one at a time */
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public UnreadCountService() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Unread counts for every conversation of a user
+     *
+     * @param userId The user ID
+     * @return conversationId → unread count; conversations with nothing unread are absent
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, Long> getUnreadCountsByConversation(UUID userId) {
+        Map<UUID, Long> counts = new HashMap<>();
+        for (ConversationUnreadCount row : messageRepository.countUnreadByConversation(userId)) {
+            counts.put(row.getConversationId(), row.getUnreadCount());
+        }
+        return counts;
+    }
+
+    /**
+     * Total unread messages for a user across all conversations
+     *
+     * @param userId The user ID
+     * @return Total unread count
+     */
+    @Transactional(readOnly = true)
+    public long getTotalUnreadCount(UUID userId) {
+        Cache cache = cacheManager.getCache(UNREAD_COUNTS);
+        if (cache == null) {
+            return messageRepository.countUnreadMessagesForUser(userId);
+        }
+        String key = userId.toString();
+        Long cached = cachedTotal(cache, key);
+        if (cached != null) {
+            return cached;
+        }
+        // Load under the stripe adjust() takes, so a delta applied mid-load is not overwritten by the older count
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            cached = cachedTotal(cache, key);
+            if (cached != null) {
+                return cached;
+            }
+            long total = messageRepository.countUnreadMessagesForUser(userId);
+            cache.put(key, total);
+            return total;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageSent(MessageSentEvent event) {
+        if (event.getRecipientId() != null) {
+            adjust(event.getRecipientId(), 1);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessagesRead(MessagesReadEvent event) {
+        if (event.getCount() > 0) {
+            adjust(event.getReaderId(), -event.getCount());
+        }
+    }
+
+    /**
+     * Move a cached total; users without a cached total are loaded on their next read
+     */
+    void adjust(UUID userId, long delta) {
+        try {
+            Cache cache = cacheManager.getCache(UNREAD_COUNTS);
+            if (cache == null) {
+                return;
+            }
+            String key = userId.toString();
+            ReentrantLock lock = lockFor(userId);
+            lock.lock();
+            try {
+                Long cached = cachedTotal(cache, key);
+                if (cached != null) {
+                    cache.put(key, Math.max(0, cached + delta));
+                }
+            } finally {
+                lock.unlock();
+            }
+        } catch (Exception e) {
+            // Forget the counter rather than serve a wrong badge
+            logger.warn("Unread counter update failed for user {}: {}", userId, e.getMessage());
+            evictQuietly(userId);
+        }
+    }
+
+    private ReentrantLock lockFor(UUID userId) {
+        return locks[Math.floorMod(userId.hashCode(), LOCK_STRIPES)];
+    }
+
+    /**
+     * JSON-serialised caches may hand small numbers back as Integer
+     */
+    private static Long cachedTotal(Cache cache, String key) {
+        Cache.ValueWrapper wrapper = cache.get(key);
+        return wrapper != null && wrapper.get() instanceof Number number ? number.longValue() : null;
+    }
+
+    private void evictQuietly(UUID userId) {
+        try {
+            Cache cache = cacheManager.getCache(UNREAD_COUNTS);
+            if (cache != null) {
+                cache.evict(userId.toString());
+            }
+        } catch (Exception ignored) {
+            // Cache unavailable; the TTL will clear the entry
+        }
+    }
+}
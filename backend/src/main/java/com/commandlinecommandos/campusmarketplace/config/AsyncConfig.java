@@ -1,35 +1,254 @@
 package com.commandlinecommandos.campusmarketplace.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
-import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Configuration for asynchronous processing
- * Used for audit logging, email sending, and background tasks
+ *
+ * Each workload gets its own bounded pool, so a slow SMTP server cannot hold up
+ * audit writes or view tracking. Pick one with @Async("<name>"):
+ * - auditExecutor         → audit_logs and login_attempts flushes; overlapping flushes are discarded
+ * - viewsExecutor         → product view flushes; overlapping flushes are discarded
+ * - searchHistoryExecutor → search history flushes; overlapping flushes are discarded
+ * - dispatchExecutor      → outbox dispatch runs; a run arriving while one is queued is discarded
+ * - emailExecutor         → chat notification digests; the dispatch run sends itself when saturated
+ * - exportExecutor        → streaming admin exports (Spring MVC async requests); extra exports are refused
+ * - taskExecutor          → default for unqualified @Async; the caller runs the task when saturated
+ *
+ * A discarded flush loses nothing: the buffers keep their entries for the flush
+ * already queued or running.
+ *
+ * The write-behind buffers (AuditLogWriter, LoginAttemptWriter, ProductViewBuffer,
+ * SearchHistoryWriter) hold their entries only in memory. A normal shutdown flushes
+ * them from @PreDestroy. A crash or kill skips that and loses everything still
+ * buffered: up to the buffer's max-pending entries, plus failed batches queued again
+ * for a retry.
+ *
+ * @Scheduled triggers fire on taskScheduler, a pool of its own. A job that does
+ * slow work (SMTP, index rebuilds) either hands it to one of the pools above or
+ * occupies one scheduler thread, so the SSE heartbeat and the other triggers
+ * keep firing on time.
+ *
+ * With spring.threads.virtual.enabled every pool runs its tasks on virtual threads.
+ * Pool sizes and queues still apply, so they keep bounding how much of each
+ * workload runs at once (and how many database connections it can ask for).
+ * Request threads are virtual too, so locks held across JDBC or Redis calls are
+ * ReentrantLocks, never synchronized: on JDK 21 a virtual thread blocked inside a
+ * monitor pins its carrier. The write-behind buffers' flushLock and the
+ * UnreadCountService stripes rely on this.
+ *
+ * Every pool is registered with Micrometer (tag name=<pool>):
+ * - executor.active, executor.queued, executor.pool.size, executor.completed → pool state
+ * - executor.idle → time tasks wait in the queue
+ * - executor      → time tasks run
+ * - executor.rejected → tasks turned away by the pool's rejection policy
+ * The scheduler (name=scheduler) has the pool state gauges and the executor timer;
+ * its tasks wait for their trigger, not in a queue, so it has no idle timer.
+ *
+ * Configuration:
+ * - app.executors.<pool>.threads        → fixed pool size
+ * - app.executors.<pool>.queue-capacity → tasks waiting beyond the running ones
+ * - app.executors.scheduler.threads     → threads firing @Scheduled triggers
  */
 @Configuration
 @EnableAsync
 @EnableScheduling
 public class AsyncConfig {
-    
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncConfig.class);
+
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private final boolean virtualThreads;
+
+    public AsyncConfig(ObjectProvider<MeterRegistry> meterRegistryProvider,
+                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.meterRegistryProvider = meterRegistryProvider;
+        this.virtualThreads = virtualThreads;
+    }
+
     /**
-     * Thread pool executor for async tasks
+     * Default pool for unqualified @Async methods
      */
     @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("async-");
-        executor.initialize();
+    public ThreadPoolTaskExecutor taskExecutor(
+            @Value("${app.executors.default.threads:5}") int threads,
+            @Value("${app.executors.default.queue-capacity:100}") int queueCapacity) {
+        return executor("async", threads, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Single writer for the audit buffers
+     * One flush drains everything queued, so a flush arriving while the queue is full is dropped
+     */
+    @Bean(name = "auditExecutor")
+    public ThreadPoolTaskExecutor auditExecutor(
+            @Value("${app.executors.audit.threads:1}") int threads,
+            @Value("${app.executors.audit.queue-capacity:2}") int queueCapacity) {
+        return executor("audit", threads, queueCapacity, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * Single writer for the product view buffer
+     */
+    @Bean(name = "viewsExecutor")
+    public ThreadPoolTaskExecutor viewsExecutor(
+            @Value("${app.executors.views.threads:1}") int threads,
+            @Value("${app.executors.views.queue-capacity:1}") int queueCapacity) {
+        return executor("views", threads, queueCapacity, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * Search history flushes; SearchHistoryWriter serialises them, so one thread and one queued run are enough
+     */
+    @Bean(name = "searchHistoryExecutor")
+    public ThreadPoolTaskExecutor searchHistoryExecutor(
+            @Value("${app.executors.search-history.threads:1}") int threads,
+            @Value("${app.executors.search-history.queue-capacity:1}") int queueCapacity) {
+        return executor("search-history", threads, queueCapacity, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * Outbox dispatch runs, which wait on SMTP; keeps them off the scheduler thread
+     */
+    @Bean(name = "dispatchExecutor")
+    public ThreadPoolTaskExecutor dispatchExecutor(
+            @Value("${app.executors.dispatch.threads:1}") int threads,
+            @Value("${app.executors.dispatch.queue-capacity:1}") int queueCapacity) {
+        return executor("dispatch", threads, queueCapacity, new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * Bounded pool for chat notification digests
+     * When it is saturated the dispatch run sends on its own thread, which slows
+     * claiming down instead of queueing without limit
+     */
+    @Bean(name = "emailExecutor")
+    public ThreadPoolTaskExecutor emailExecutor(
+            @Value("${app.email-notifications.workers:4}") int workers,
+            @Value("${app.email-notifications.queue-capacity:200}") int queueCapacity) {
+        return executor("email", workers, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Runs StreamingResponseBody exports, each holding a database connection until it finishes
+     * Exports beyond the queue are refused (503) instead of starving the connection pool
+     */
+    @Bean(name = "exportExecutor")
+    public ThreadPoolTaskExecutor exportExecutor(
+            @Value("${app.executors.export.threads:2}") int threads,
+            @Value("${app.executors.export.queue-capacity:4}") int queueCapacity) {
+        return executor("export", threads, queueCapacity, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Fires @Scheduled triggers; without it Spring uses a single thread for all of them
+     */
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${app.executors.scheduler.threads:4}") int threads) {
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        Timer run = Timer.builder("executor").description("Time tasks run")
+            .tags(Tags.of("name", "scheduler")).register(meterRegistry);
+
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler() {
+            @Override
+            protected ExecutorService initializeExecutor(ThreadFactory threadFactory,
+                                                         RejectedExecutionHandler rejectedExecutionHandler) {
+                return instrumented(super.initializeExecutor(threadFactory, rejectedExecutionHandler), "scheduler", meterRegistry);
+            }
+        };
+        scheduler.setPoolSize(threads);
+        scheduler.setThreadNamePrefix("scheduler-");
+        scheduler.setVirtualThreads(virtualThreads);
+        scheduler.setTaskDecorator(task -> () -> {
+            long startedAt = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                run.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+        });
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        return scheduler;
+    }
+
+    private ThreadPoolTaskExecutor executor(String name, int threads, int queueCapacity,
+                                            RejectedExecutionHandler rejectionPolicy) {
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        Tags tags = Tags.of("name", name);
+        Timer idle = Timer.builder("executor.idle").description("Time tasks wait in the queue")
+            .tags(tags).register(meterRegistry);
+        Timer run = Timer.builder("executor").description("Time tasks run")
+            .tags(tags).register(meterRegistry);
+        Counter rejected = Counter.builder("executor.rejected").description("Tasks turned away by the rejection policy")
+            .tags(tags).register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor() {
+            @Override
+            protected ExecutorService initializeExecutor(ThreadFactory threadFactory,
+                                                         RejectedExecutionHandler rejectedExecutionHandler) {
+                return instrumented(super.initializeExecutor(threadFactory, rejectedExecutionHandler), name, meterRegistry);
+            }
+        };
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(name + "-");
+        executor.setVirtualThreads(virtualThreads);
+        executor.setTaskDecorator(timed(idle, run));
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            log.debug("{} executor saturated, applying {}", name, rejectionPolicy.getClass().getSimpleName());
+            rejectionPolicy.rejectedExecution(task, pool);
+        });
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
         return executor;
     }
-}
 
+    /**
+     * Binds the pool state gauges when Spring initialises the bean, to the executor that actually runs tasks
+     */
+    private static ExecutorService instrumented(ExecutorService executorService, String name,
+                                                MeterRegistry meterRegistry) {
+        new ExecutorServiceMetrics(executorService, name, Tags.empty()).bindTo(meterRegistry);
+        return executorService;
+    }
+
+    private static TaskDecorator timed(Timer idle, Timer run) {
+        return task -> {
+            long queuedAt = System.nanoTime();
+            return () -> {
+                long startedAt = System.nanoTime();
+                idle.record(startedAt - queuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    task.run();
+                } finally {
+                    run.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            };
+        };
+    }
+}
@@ -1,7 +1,17 @@
 package com.commandlinecommandos.campusmarketplace.config;
 
+import com.commandlinecommandos.campusmarketplace.cache.CacheInvalidationBus;
+import com.commandlinecommandos.campusmarketplace.cache.CacheValueCodec;
+import com.commandlinecommandos.campusmarketplace.cache.ListingCacheInvalidator;
+import com.commandlinecommandos.campusmarketplace.cache.TwoTierCacheManager;
+import com.commandlinecommandos.campusmarketplace.communication.service.UnreadCountService;
+import com.commandlinecommandos.campusmarketplace.security.TokenRevocationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
@@ -11,9 +21,14 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.cache.BatchStrategies;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
@@ -24,12 +39,14 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.github.benmanes.caffeine.cache.Caffeine;
 
 import java.time.Duration;
+import java.util.List;
 
 /**
  * Cache Configuration with graceful Redis fallback
  * 
  * Priority Order:
- * 1. Redis (if available) - Best for production, distributed caching
+ * 1. Redis (if available) - Two-tier: per-node Caffeine L1 in front of shared Redis L2,
+ *    with L1 invalidations broadcast over Redis pub/sub
  * 2. Caffeine (if Redis unavailable) - In-memory cache, good for single instance
  * 3. Simple (if caching disabled) - No caching, always hits database
  * 
@@ -40,23 +57,55 @@ import java.time.Duration;
  * 
  * Redis Automatic Fallback:
  * If CACHE_TYPE=redis but Redis is unavailable, automatically falls back to Caffeine
+ * 
+ * Listing caches (search results, autocomplete, recommended, recently viewed) are
+ * evicted by ListingCacheInvalidator when listings change, so they keep entries for
+ * app.cache.listing-ttl-minutes; other caches use the 10 minute default. In the
+ * Caffeine-only fallback authState and unreadCounts get their own short TTLs
+ * (app.cache.auth-state-ttl-seconds, app.cache.unread-counts-ttl-seconds), since
+ * evictions on one node never reach the others there
  */
 @Configuration
 @EnableCaching
 public class CacheConfig {
     
     private static final Logger log = LoggerFactory.getLogger(CacheConfig.class);
+    
+    @Value("${app.cache.l1.maximum-size:10000}")
+    private long l1MaximumSize;
+    
+    @Value("${app.cache.l1.time-to-live-seconds:60}")
+    private long l1TimeToLiveSeconds;
+    
+    @Value("${app.cache.listing-ttl-minutes:240}")
+    private long listingTtlMinutes;
+    
+    @Value("${app.cache.auth-state-ttl-seconds:30}")
+    private long authStateTtlSeconds;
+    
+    @Value("${app.cache.unread-counts-ttl-seconds:60}")
+    private long unreadCountsTtlSeconds;
+    
+    private static final List<String> LISTING_CACHES = List.of(
+        ListingCacheInvalidator.SEARCH_RESULTS,
+        ListingCacheInvalidator.AUTOCOMPLETE,
+        ListingCacheInvalidator.RECOMMENDED_ITEMS,
+        ListingCacheInvalidator.RECENTLY_VIEWED
+    );
 
     /**
      * Redis Cache Manager (Primary)
      * Used when CACHE_TYPE=redis and Redis is available
+     * Redis is the shared L2; each node keeps a small Caffeine L1 for hot keys
+     * (autocomplete, trendingProducts) so repeat hits skip the Redis round trip
      * Not used in test profile (test profile has its own testCacheManager)
      */
     @Bean
     @Primary
     @Profile("!test")
     @ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis", matchIfMissing = true)
-    public CacheManager redisCacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager redisCacheManager(RedisConnectionFactory connectionFactory,
+                                          ObjectProvider<MeterRegistry> meterRegistryProvider) {
         try {
             // Test Redis connection
             connectionFactory.getConnection().ping();
@@ -67,24 +116,51 @@ public class CacheConfig {
             objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
             GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(objectMapper);
             
+            // Search/discovery DTOs use a typed binary encoding; JSON is only the fallback for other values
+            CacheValueCodec valueCodec = new CacheValueCodec(jsonSerializer);
+            
             RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(10))
                 .serializeKeysWith(
                     RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer())
                 )
                 .serializeValuesWith(
-                    RedisSerializationContext.SerializationPair.fromSerializer(jsonSerializer)
+                    RedisSerializationContext.SerializationPair.fromSerializer(valueCodec)
                 )
                 .disableCachingNullValues();
 
-            log.info("✅ Redis cache enabled - Using distributed caching");
-            
             // Redis cache manager allows dynamic cache creation by default
             // No need to pre-define cache names - they're created on first use
-            return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(config)
-                .transactionAware()
-                .build();
+            // Transaction awareness is applied by the two-tier manager around both tiers
+            // Prefix evictions use SCAN rather than KEYS so they never block Redis
+            RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(
+                connectionFactory, BatchStrategies.scan(1000));
+            RedisCacheConfiguration listingConfig = config.entryTtl(Duration.ofMinutes(listingTtlMinutes));
+            RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager.builder(cacheWriter)
+                .cacheDefaults(config);
+            LISTING_CACHES.forEach(name -> builder.withCacheConfiguration(name, listingConfig));
+            RedisCacheManager redisCacheManager = builder.build();
+            redisCacheManager.afterPropertiesSet();
+            
+            MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+            StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+            CacheInvalidationBus invalidationBus = new CacheInvalidationBus(redisTemplate, meterRegistry);
+            
+            RedisMessageListenerContainer listenerContainer = new RedisMessageListenerContainer();
+            listenerContainer.setConnectionFactory(connectionFactory);
+            listenerContainer.addMessageListener(invalidationBus, new ChannelTopic(CacheInvalidationBus.CHANNEL));
+            listenerContainer.afterPropertiesSet();
+            listenerContainer.start();
+            
+            Caffeine<Object, Object> l1Spec = Caffeine.newBuilder()
+                .maximumSize(l1MaximumSize)
+                .expireAfterWrite(Duration.ofSeconds(l1TimeToLiveSeconds));
+            
+            log.info("✅ Redis cache enabled - Using two-tier caching (Caffeine L1: max={}, ttl={}s; Redis L2, listing ttl={}m)",
+                l1MaximumSize, l1TimeToLiveSeconds, listingTtlMinutes);
+            
+            return new TwoTierCacheManager(redisCacheManager, l1Spec, invalidationBus,
+                listenerContainer, meterRegistry, true);
                 
         } catch (Exception e) {
             log.warn("⚠️  Redis unavailable: {} - Falling back to Caffeine cache", e.getMessage());
@@ -118,11 +194,25 @@ public class CacheConfig {
             "autocomplete"
         );
         
+        // Listing caches are evicted on change, so they share the listing TTL
         cacheManager.setCaffeine(Caffeine.newBuilder()
             .maximumSize(1000)
-            .expireAfterWrite(Duration.ofMinutes(10))
+            .expireAfterWrite(Duration.ofMinutes(listingTtlMinutes))
             .recordStats());
         
+        // Without Redis an eviction only reaches this node, so per-user state must expire on its own:
+        // a revocation elsewhere is honoured within authStateTtlSeconds
+        cacheManager.registerCustomCache(TokenRevocationService.AUTH_STATE, Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(Duration.ofSeconds(authStateTtlSeconds))
+            .recordStats()
+            .build());
+        cacheManager.registerCustomCache(UnreadCountService.UNREAD_COUNTS, Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterWrite(Duration.ofSeconds(unreadCountsTtlSeconds))
+            .recordStats()
+            .build());
+        
         log.info("✅ Caffeine cache enabled - Using in-memory caching");
         
         return cacheManager;
@@ -0,0 +1,65 @@
+package com.commandlinecommandos.campusmarketplace.config;
+
+import com.commandlinecommandos.campusmarketplace.security.LocalLoginFailureStore;
+import com.commandlinecommandos.campusmarketplace.security.LoginFailureStore;
+import com.commandlinecommandos.campusmarketplace.security.RedisLoginFailureStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * Login lockout windows with graceful Redis fallback
+ *
+ * Modes (app.security.login-lockout.store):
+ * - local → failure windows on each node, bounded by max-tracked-keys
+ * - redis → windows shared by every node; falls back to local windows if Redis
+ *           is unavailable at startup or fails later
+ *
+ * Limits are applied by LoginAttemptService.
+ */
+@Configuration
+public class LoginLockoutConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginLockoutConfig.class);
+
+    @Bean
+    public LoginFailureStore loginFailureStore(@Value("${app.security.login-lockout.store:local}") String store,
+                                               @Value("${app.security.login-lockout.window-minutes:15}") int windowMinutes,
+                                               @Value("${app.security.login-lockout.max-tracked-keys:100000}") long maxTrackedKeys,
+                                               ObjectProvider<RedisConnectionFactory> connectionFactoryProvider,
+                                               ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        Duration window = Duration.ofMinutes(windowMinutes);
+        LocalLoginFailureStore local = new LocalLoginFailureStore(window, maxTrackedKeys);
+        MeterRegistry registry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        Gauge.builder("login.lockout.tracked-keys", local, LocalLoginFailureStore::size)
+            .description("Usernames and IPs with recent failed logins held on this node")
+            .register(registry);
+
+        if ("redis".equalsIgnoreCase(store)) {
+            RedisConnectionFactory connectionFactory = connectionFactoryProvider.getIfAvailable();
+            try {
+                if (connectionFactory == null) {
+                    throw new IllegalStateException("no Redis connection factory");
+                }
+                connectionFactory.getConnection().ping();
+                log.info("✅ Redis login lockout enabled - failure windows shared across instances");
+                return new RedisLoginFailureStore(new StringRedisTemplate(connectionFactory), window, local);
+            } catch (Exception e) {
+                log.warn("⚠️  Redis unavailable for login lockout: {} - Falling back to per-node windows", e.getMessage());
+            }
+        }
+
+        log.info("✅ Local login lockout enabled ({} minute window)", windowMinutes);
+        return local;
+    }
+}
@@ -1,70 +1,86 @@
 package com.commandlinecommandos.campusmarketplace.config;
 
+import com.commandlinecommandos.campusmarketplace.ratelimit.LocalRateLimiter;
+import com.commandlinecommandos.campusmarketplace.ratelimit.RateLimitFilter;
+import com.commandlinecommandos.campusmarketplace.ratelimit.RateLimitProperties;
+import com.commandlinecommandos.campusmarketplace.ratelimit.RateLimiter;
+import com.commandlinecommandos.campusmarketplace.ratelimit.RedisRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
-
+/**
+ * Rate limiting with graceful Redis fallback
+ *
+ * Modes (rate.limiting.store):
+ * - local → token buckets on each node, bounded by rate.limiting.max-buckets
+ * - redis → buckets shared by every node through a Lua script; falls back to
+ *           local buckets if Redis is unavailable at startup or fails later
+ *
+ * Limits are configured per endpoint under rate.limiting.endpoints (see RateLimitProperties).
+ * The filter is added to the security chain by WebSecurityConfig.
+ */
 @Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(name = "rate.limiting.enabled", havingValue = "true", matchIfMissing = true)
 public class RateLimitingConfig {
 
-    @Bean
-    public ConcurrentHashMap<String, RateLimitData> rateLimitBuckets() {
-        return new ConcurrentHashMap<>();
-    }
+    private static final Logger log = LoggerFactory.getLogger(RateLimitingConfig.class);
 
-    /**
-     * Simple rate limiter data structure
-     */
-    public static class RateLimitData {
-        private final AtomicInteger requestCount = new AtomicInteger(0);
-        private final AtomicLong windowStart = new AtomicLong(System.currentTimeMillis());
-        private final int maxRequests;
-        private final long windowSizeMs;
-
-        public RateLimitData(int maxRequests, long windowSizeMs) {
-            this.maxRequests = maxRequests;
-            this.windowSizeMs = windowSizeMs;
-        }
+    @Bean
+    public RateLimiter rateLimiter(RateLimitProperties properties,
+                                   ObjectProvider<RedisConnectionFactory> connectionFactoryProvider,
+                                   ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        LocalRateLimiter local = new LocalRateLimiter(properties.getMaxBuckets());
+        MeterRegistry registry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        Gauge.builder("ratelimit.buckets", local, LocalRateLimiter::size)
+            .description("Token buckets held on this node")
+            .register(registry);
 
-        public boolean tryConsume() {
-            long now = System.currentTimeMillis();
-            long windowStartTime = windowStart.get();
-            
-            // Reset window if it has expired
-            if (now - windowStartTime > windowSizeMs) {
-                if (windowStart.compareAndSet(windowStartTime, now)) {
-                    requestCount.set(0);
+        if (properties.getStore() == RateLimitProperties.Store.REDIS) {
+            RedisConnectionFactory connectionFactory = connectionFactoryProvider.getIfAvailable();
+            try {
+                if (connectionFactory == null) {
+                    throw new IllegalStateException("no Redis connection factory");
                 }
+                connectionFactory.getConnection().ping();
+                log.info("✅ Redis rate limiting enabled - buckets shared across instances");
+                return new RedisRateLimiter(new StringRedisTemplate(connectionFactory), local);
+            } catch (Exception e) {
+                log.warn("⚠️  Redis unavailable for rate limiting: {} - Falling back to per-node buckets", e.getMessage());
             }
-            
-            // Check if we can make a request
-            int currentCount = requestCount.get();
-            if (currentCount >= maxRequests) {
-                return false;
-            }
-            
-            // Increment and check again (race condition protection)
-            int newCount = requestCount.incrementAndGet();
-            return newCount <= maxRequests;
         }
+
+        log.info("✅ Local rate limiting enabled (max {} buckets)", properties.getMaxBuckets());
+        return local;
     }
 
-    /**
-     * Creates a rate limiter for authentication endpoints
-     * 5 requests per minute per IP address
-     */
-    public static RateLimitData createAuthRateLimiter() {
-        return new RateLimitData(5, 60_000); // 5 requests per 60 seconds
+    @Bean
+    public RateLimitFilter rateLimitFilter(RateLimiter rateLimiter, RateLimitProperties properties,
+                                           ObjectMapper objectMapper,
+                                           ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        return new RateLimitFilter(rateLimiter, properties, objectMapper,
+            meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new));
     }
 
     /**
-     * Creates a rate limiter for general API endpoints
-     * 100 requests per minute per IP address
+     * The filter runs inside the security chain; keep the servlet container from registering it again
      */
-    public static RateLimitData createGeneralRateLimiter() {
-        return new RateLimitData(100, 60_000); // 100 requests per 60 seconds
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
     }
 }
@@ -0,0 +1,36 @@
+package com.commandlinecommandos.campusmarketplace.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC settings for async requests
+ *
+ * StreamingResponseBody exports run on the bounded exportExecutor instead of
+ * Spring's default of one new thread per request.
+ *
+ * Configuration:
+ * - app.exports.timeout-ms → how long one export may stream before it is cut off
+ */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final ThreadPoolTaskExecutor exportExecutor;
+    private final long timeoutMs;
+
+    public WebMvcConfig(@Qualifier("exportExecutor") ThreadPoolTaskExecutor exportExecutor,
+                        @Value("${app.exports.timeout-ms:1800000}") long timeoutMs) {
+        this.exportExecutor = exportExecutor;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(exportExecutor);
+        configurer.setDefaultTimeout(timeoutMs);
+    }
+}
@@ -21,6 +21,7 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import com.commandlinecommandos.campusmarketplace.ratelimit.RateLimitFilter;
 import com.commandlinecommandos.campusmarketplace.security.JwtAuthenticationFilter;
 import com.commandlinecommandos.campusmarketplace.security.JwtAuthenticationEntryPoint;
 
@@ -38,6 +39,10 @@ public class WebSecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
     
+    // Absent when rate.limiting.enabled=false
+    @Autowired(required = false)
+    private RateLimitFilter rateLimitFilter;
+    
     @Autowired
     private JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     
@@ -84,6 +89,9 @@ public class WebSecurityConfig {
                 .requestMatchers("/public/**").permitAll()
                 .requestMatchers("/actuator/health").permitAll()
                 
+                // Chat stream authenticates its own token (EventSource can only pass it as a query parameter)
+                .requestMatchers("/chat/stream").permitAll()
+                
                 // Admin only endpoints (context path /api is already applied)
                 .requestMatchers("/admin/**").hasRole("ADMIN")
                 
@@ -92,7 +100,7 @@ public class WebSecurityConfig {
                 
                 // Listings endpoints (context path /api is already applied)
                 // Public read access for GET requests
-                .requestMatchers("/listings", "/listings/{id}", "/listings/seller/{sellerId}").permitAll()
+                .requestMatchers("/listings", "/listings/cards", "/listings/{id}", "/listings/seller/{sellerId}").permitAll()
                 // Protected write operations require SELLER role (students have both BUYER and SELLER by default)
                 .requestMatchers("/listings/**").hasAnyRole("SELLER", "ADMIN")
 
@@ -120,6 +128,10 @@ public class WebSecurityConfig {
         
         http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        if (rateLimitFilter != null) {
+            // After JWT authentication so limits can be kept per user
+            http.addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
+        }
         
         // For H2 Console (development only)
         http.headers(headers -> headers.frameOptions(frameOptions -> frameOptions.deny()));
@@ -146,7 +158,11 @@ public class WebSecurityConfig {
         ));
         configuration.setExposedHeaders(Arrays.asList(
             "Access-Control-Allow-Origin", 
-            "Access-Control-Allow-Credentials"
+            "Access-Control-Allow-Credentials",
+            "X-RateLimit-Limit",
+            "X-RateLimit-Remaining",
+            "X-RateLimit-Reset",
+            "Retry-After"
         ));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
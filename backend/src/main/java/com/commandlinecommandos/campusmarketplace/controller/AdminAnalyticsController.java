@@ -1,14 +1,15 @@
 package com.commandlinecommandos.campusmarketplace.controller;
 
 import com.commandlinecommandos.campusmarketplace.model.UserRole;
-import com.commandlinecommandos.campusmarketplace.model.VerificationStatus;
 import com.commandlinecommandos.campusmarketplace.model.ModerationStatus;
-import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
-import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
 import com.commandlinecommandos.campusmarketplace.repository.UserReportRepository;
-import com.commandlinecommandos.campusmarketplace.repository.LoginAttemptRepository;
-import com.commandlinecommandos.campusmarketplace.repository.AuditLogRepository;
 import com.commandlinecommandos.campusmarketplace.security.RequireRole;
+import com.commandlinecommandos.campusmarketplace.service.AdminAnalyticsService;
+import com.commandlinecommandos.campusmarketplace.service.AdminAnalyticsService.ListingSnapshot;
+import com.commandlinecommandos.campusmarketplace.service.AdminAnalyticsService.LoginCounts;
+import com.commandlinecommandos.campusmarketplace.service.AdminAnalyticsService.UserSnapshot;
+import com.commandlinecommandos.campusmarketplace.service.AnalyticsRollupService;
+import com.commandlinecommandos.campusmarketplace.service.AnalyticsRollupService.RollupTotals;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -22,6 +23,8 @@ import java.util.Map;
 
 /**
  * Admin controller for user analytics and reporting
+ * Every endpoint is served by a fixed number of aggregate queries; see
+ * AdminAnalyticsService (live counts) and AnalyticsRollupService (daily counters)
  */
 @RestController
 @RequestMapping("/admin/analytics")
@@ -31,20 +34,14 @@ public class AdminAnalyticsController {
     private static final Logger logger = LoggerFactory.getLogger(AdminAnalyticsController.class);
     
     @Autowired
-    private UserRepository userRepository;
+    private AdminAnalyticsService adminAnalyticsService;
     
     @Autowired
-    private ProductRepository productRepository;
+    private AnalyticsRollupService analyticsRollupService;
     
     @Autowired
     private UserReportRepository reportRepository;
     
-    @Autowired
-    private LoginAttemptRepository loginAttemptRepository;
-    
-    @Autowired
-    private AuditLogRepository auditLogRepository;
-    
     /**
      * Get analytics overview (simplified summary)
      */
@@ -52,49 +49,19 @@ public class AdminAnalyticsController {
     @RequireRole(UserRole.ADMIN)
     public ResponseEntity<?> getOverview() {
         try {
+            UserSnapshot users = adminAnalyticsService.userSnapshot();
+            RollupTotals totals = analyticsRollupService.totals();
+
             Map<String, Object> overview = new HashMap<>();
-            
-            // Total users
-            overview.put("totalUsers", userRepository.count());
-            
-            // Active users - use count query instead of loading all users
-            long activeUsersCount = userRepository.findAll().stream()
-                .filter(u -> u.isActive())
-                .count();
-            overview.put("activeUsers", activeUsersCount);
-            
-            // Suspended users (verification status SUSPENDED) - use count query
-            long suspendedUsersCount = userRepository.findAll().stream()
-                .filter(u -> u.getVerificationStatus() == VerificationStatus.SUSPENDED)
-                .count();
-            overview.put("suspendedUsers", suspendedUsersCount);
-            
-            // Students count - count users who have BUYER or SELLER role (students have both)
-            long studentsCount = userRepository.findAll().stream()
-                .filter(u -> u.hasRole(UserRole.BUYER) || u.hasRole(UserRole.SELLER))
-                .count();
-            overview.put("studentsCount", studentsCount);
-            
-            // Admins count - count users who have ADMIN role
-            long adminsCount = userRepository.findAll().stream()
-                .filter(u -> u.hasRole(UserRole.ADMIN))
-                .count();
-            overview.put("adminsCount", adminsCount);
-            
-            // New users this week (last 7 days) - handle null createdAt safely
-            LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(7);
-            long newUsersThisWeek = userRepository.findAll().stream()
-                .filter(u -> u.getCreatedAt() != null && u.getCreatedAt().isAfter(sevenDaysAgo))
-                .count();
-            overview.put("newUsersThisWeek", newUsersThisWeek);
-            
-            // New users this month (last 30 days) - handle null createdAt safely
-            LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-            long newUsersThisMonth = userRepository.findAll().stream()
-                .filter(u -> u.getCreatedAt() != null && u.getCreatedAt().isAfter(thirtyDaysAgo))
-                .count();
-            overview.put("newUsersThisMonth", newUsersThisMonth);
-            
+            overview.put("totalUsers", users.totalUsers());
+            overview.put("activeUsers", users.activeUsers());
+            overview.put("suspendedUsers", users.suspendedUsers());
+            // Students have BUYER, SELLER or both
+            overview.put("studentsCount", users.students());
+            overview.put("adminsCount", users.admins());
+            overview.put("newUsersThisWeek", totals.newUsersThisWeek());
+            overview.put("newUsersThisMonth", totals.newUsersThisMonth());
+
             return ResponseEntity.ok(overview);
         } catch (Exception e) {
             logger.error("Error getting analytics overview", e);
@@ -110,48 +77,7 @@ public class AdminAnalyticsController {
     @RequireRole(UserRole.ADMIN)
     public ResponseEntity<?> getUserStatistics() {
         try {
-            Map<String, Object> stats = new HashMap<>();
-            
-            // Total users
-            stats.put("totalUsers", userRepository.count());
-            
-            // Users by role (many-to-many: users can have multiple roles)
-            Map<String, Long> usersByRole = new HashMap<>();
-            usersByRole.put("BUYER", userRepository.findAll().stream()
-                .filter(u -> u.hasRole(UserRole.BUYER)).count());
-            usersByRole.put("SELLER", userRepository.findAll().stream()
-                .filter(u -> u.hasRole(UserRole.SELLER)).count());
-            usersByRole.put("ADMIN", userRepository.findAll().stream()
-                .filter(u -> u.hasRole(UserRole.ADMIN)).count());
-            stats.put("usersByRole", usersByRole);
-            
-            // Users by verification status
-            Map<String, Long> usersByStatus = new HashMap<>();
-            usersByStatus.put("PENDING", (long) userRepository.findByVerificationStatus(VerificationStatus.PENDING).size());
-            usersByStatus.put("VERIFIED", (long) userRepository.findByVerificationStatus(VerificationStatus.VERIFIED).size());
-            usersByStatus.put("REJECTED", (long) userRepository.findByVerificationStatus(VerificationStatus.REJECTED).size());
-            usersByStatus.put("SUSPENDED", (long) userRepository.findByVerificationStatus(VerificationStatus.SUSPENDED).size());
-            stats.put("usersByStatus", usersByStatus);
-            
-            // Active vs inactive users
-            stats.put("activeUsers", userRepository.findByIsActiveTrue().size());
-            stats.put("inactiveUsers", userRepository.count() - userRepository.findByIsActiveTrue().size());
-            
-            // Registration trends (last 30 days)
-            LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-            long newUsersLast30Days = userRepository.findAll().stream()
-                .filter(u -> u.getCreatedAt().isAfter(thirtyDaysAgo))
-                .count();
-            stats.put("newUsersLast30Days", newUsersLast30Days);
-            
-            // Recent registration trend (last 7 days)
-            LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(7);
-            long newUsersLast7Days = userRepository.findAll().stream()
-                .filter(u -> u.getCreatedAt().isAfter(sevenDaysAgo))
-                .count();
-            stats.put("newUsersLast7Days", newUsersLast7Days);
-            
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok(userStatistics(adminAnalyticsService.userSnapshot(), analyticsRollupService.totals()));
         } catch (Exception e) {
             logger.error("Error getting user statistics", e);
             return ResponseEntity.internalServerError()
@@ -166,35 +92,8 @@ public class AdminAnalyticsController {
     @RequireRole(UserRole.ADMIN)
     public ResponseEntity<?> getSecurityAnalytics() {
         try {
-            Map<String, Object> security = new HashMap<>();
-            
-            // Failed login attempts (last 24 hours)
-            LocalDateTime last24Hours = LocalDateTime.now().minusHours(24);
-            long failedLoginsLast24Hours = loginAttemptRepository.findAll().stream()
-                .filter(la -> !la.isSuccess() && la.getCreatedAt().isAfter(last24Hours))
-                .count();
-            security.put("failedLoginsLast24Hours", failedLoginsLast24Hours);
-            
-            // Successful logins (last 24 hours)
-            long successfulLoginsLast24Hours = loginAttemptRepository.findAll().stream()
-                .filter(la -> la.isSuccess() && la.getCreatedAt().isAfter(last24Hours))
-                .count();
-            security.put("successfulLoginsLast24Hours", successfulLoginsLast24Hours);
-            
-            // Security events by severity
-            Map<String, Long> eventsBySeverity = new HashMap<>();
-            eventsBySeverity.put("CRITICAL", auditLogRepository.countBySeverity(com.commandlinecommandos.campusmarketplace.model.AuditLog.Severity.CRITICAL));
-            eventsBySeverity.put("ERROR", auditLogRepository.countBySeverity(com.commandlinecommandos.campusmarketplace.model.AuditLog.Severity.ERROR));
-            eventsBySeverity.put("WARNING", auditLogRepository.countBySeverity(com.commandlinecommandos.campusmarketplace.model.AuditLog.Severity.WARNING));
-            security.put("eventsBySeverity", eventsBySeverity);
-            
-            // Account actions (last 30 days)
-            long suspensionsLast30Days = auditLogRepository.findAll().stream()
-                .filter(al -> "SUSPENDED".equals(al.getAction()) && al.getCreatedAt().isAfter(LocalDateTime.now().minusDays(30)))
-                .count();
-            security.put("suspensionsLast30Days", suspensionsLast30Days);
-            
-            return ResponseEntity.ok(security);
+            return ResponseEntity.ok(securityAnalytics(
+                adminAnalyticsService.loginsSince(LocalDateTime.now().minusHours(24)), analyticsRollupService.totals()));
         } catch (Exception e) {
             logger.error("Error getting security analytics", e);
             return ResponseEntity.internalServerError()
@@ -209,29 +108,7 @@ public class AdminAnalyticsController {
     @RequireRole(UserRole.ADMIN)
     public ResponseEntity<?> getActivityAnalytics() {
         try {
-            Map<String, Object> activity = new HashMap<>();
-            
-            // Users who logged in last 7 days
-            LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(7);
-            long activeUsersLast7Days = userRepository.findAll().stream()
-                .filter(u -> u.getLastLoginAt() != null && u.getLastLoginAt().isAfter(sevenDaysAgo))
-                .count();
-            activity.put("activeUsersLast7Days", activeUsersLast7Days);
-            
-            // Users who logged in last 30 days
-            LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-            long activeUsersLast30Days = userRepository.findAll().stream()
-                .filter(u -> u.getLastLoginAt() != null && u.getLastLoginAt().isAfter(thirtyDaysAgo))
-                .count();
-            activity.put("activeUsersLast30Days", activeUsersLast30Days);
-            
-            // Users who never logged in
-            long neverLoggedIn = userRepository.findAll().stream()
-                .filter(u -> u.getLastLoginAt() == null)
-                .count();
-            activity.put("neverLoggedIn", neverLoggedIn);
-            
-            return ResponseEntity.ok(activity);
+            return ResponseEntity.ok(activityAnalytics(adminAnalyticsService.userSnapshot()));
         } catch (Exception e) {
             logger.error("Error getting activity analytics", e);
             return ResponseEntity.internalServerError()
@@ -246,12 +123,15 @@ public class AdminAnalyticsController {
     @RequireRole(UserRole.ADMIN)
     public ResponseEntity<?> getDashboard() {
         try {
+            // One snapshot of each kind feeds every section
+            UserSnapshot users = adminAnalyticsService.userSnapshot();
+            RollupTotals totals = analyticsRollupService.totals();
+            LoginCounts logins = adminAnalyticsService.loginsSince(LocalDateTime.now().minusHours(24));
+
             Map<String, Object> dashboard = new HashMap<>();
-            
-            // Get all analytics in one call
-            dashboard.put("users", getUserStatistics().getBody());
-            dashboard.put("security", getSecurityAnalytics().getBody());
-            dashboard.put("activity", getActivityAnalytics().getBody());
+            dashboard.put("users", userStatistics(users, totals));
+            dashboard.put("security", securityAnalytics(logins, totals));
+            dashboard.put("activity", activityAnalytics(users));
             
             return ResponseEntity.ok(dashboard);
         } catch (Exception e) {
@@ -271,15 +151,17 @@ public class AdminAnalyticsController {
         try {
             Map<String, Object> analytics = new HashMap<>();
             
+            UserSnapshot users = adminAnalyticsService.userSnapshot();
+            ListingSnapshot listings = adminAnalyticsService.listingSnapshot();
+            RollupTotals totals = analyticsRollupService.totals();
+
             // User statistics
-            analytics.put("totalUsers", userRepository.count());
-            analytics.put("activeUsers", userRepository.findByIsActiveTrue().size());
+            analytics.put("totalUsers", users.totalUsers());
+            analytics.put("activeUsers", users.activeUsers());
             
             // Product/Listing statistics
-            long totalProducts = productRepository.count();
-            long activeListings = productRepository.findByModerationStatus(ModerationStatus.APPROVED).size();
-            analytics.put("totalProducts", totalProducts);
-            analytics.put("activeListings", activeListings);
+            analytics.put("totalProducts", listings.totalListings());
+            analytics.put("activeListings", listings.approvedListings());
             
             // Order statistics (placeholder - orders not fully implemented)
             analytics.put("totalOrders", 0L);
@@ -296,20 +178,10 @@ public class AdminAnalyticsController {
             
             // Recent activity
             Map<String, Object> recentActivity = new HashMap<>();
-            LocalDateTime today = LocalDateTime.now().withHour(0).withMinute(0).withSecond(0);
-            LocalDateTime weekAgo = LocalDateTime.now().minusDays(7);
-            
-            long newUsersToday = userRepository.findAll().stream()
-                .filter(u -> u.getCreatedAt() != null && u.getCreatedAt().isAfter(today))
-                .count();
-            long newUsersThisWeek = userRepository.findAll().stream()
-                .filter(u -> u.getCreatedAt() != null && u.getCreatedAt().isAfter(weekAgo))
-                .count();
-            
-            recentActivity.put("newUsersToday", newUsersToday);
-            recentActivity.put("newUsersThisWeek", newUsersThisWeek);
-            recentActivity.put("newListingsToday", 0L);
-            recentActivity.put("newListingsThisWeek", 0L);
+            recentActivity.put("newUsersToday", totals.newUsersToday());
+            recentActivity.put("newUsersThisWeek", totals.newUsersThisWeek());
+            recentActivity.put("newListingsToday", totals.newListingsToday());
+            recentActivity.put("newListingsThisWeek", totals.newListingsThisWeek());
             recentActivity.put("ordersToday", 0L);
             recentActivity.put("ordersThisWeek", 0L);
             
@@ -329,5 +201,54 @@ public class AdminAnalyticsController {
                 .body(Map.of("error", "Failed to retrieve analytics", "message", e.getMessage()));
         }
     }
-}
 
+    private static Map<String, Object> userStatistics(UserSnapshot users, RollupTotals totals) {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalUsers", users.totalUsers());
+        
+        // Users by role (many-to-many: users can have multiple roles)
+        Map<String, Long> usersByRole = new HashMap<>();
+        usersByRole.put("BUYER", users.buyers());
+        usersByRole.put("SELLER", users.sellers());
+        usersByRole.put("ADMIN", users.admins());
+        stats.put("usersByRole", usersByRole);
+        
+        Map<String, Long> usersByStatus = new HashMap<>();
+        usersByStatus.put("PENDING", users.pendingUsers());
+        usersByStatus.put("VERIFIED", users.verifiedUsers());
+        usersByStatus.put("REJECTED", users.rejectedUsers());
+        usersByStatus.put("SUSPENDED", users.suspendedUsers());
+        stats.put("usersByStatus", usersByStatus);
+        
+        stats.put("activeUsers", users.activeUsers());
+        stats.put("inactiveUsers", users.totalUsers() - users.activeUsers());
+        
+        // Registration trends come from the daily rollup
+        stats.put("newUsersLast30Days", totals.newUsersThisMonth());
+        stats.put("newUsersLast7Days", totals.newUsersThisWeek());
+        return stats;
+    }
+    
+    private static Map<String, Object> securityAnalytics(LoginCounts logins, RollupTotals totals) {
+        Map<String, Object> security = new HashMap<>();
+        security.put("failedLoginsLast24Hours", logins.failed());
+        security.put("successfulLoginsLast24Hours", logins.successful());
+        
+        Map<String, Long> eventsBySeverity = new HashMap<>();
+        eventsBySeverity.put("CRITICAL", totals.criticalEvents());
+        eventsBySeverity.put("ERROR", totals.errorEvents());
+        eventsBySeverity.put("WARNING", totals.warningEvents());
+        security.put("eventsBySeverity", eventsBySeverity);
+        
+        security.put("suspensionsLast30Days", totals.suspensionsThisMonth());
+        return security;
+    }
+    
+    private static Map<String, Object> activityAnalytics(UserSnapshot users) {
+        Map<String, Object> activity = new HashMap<>();
+        activity.put("activeUsersLast7Days", users.loggedInLast7Days());
+        activity.put("activeUsersLast30Days", users.loggedInLast30Days());
+        activity.put("neverLoggedIn", users.neverLoggedIn());
+        return activity;
+    }
+}
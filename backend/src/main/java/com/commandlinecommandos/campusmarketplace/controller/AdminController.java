@@ -2,6 +2,7 @@ package com.commandlinecommandos.campusmarketplace.controller;
 
 import com.commandlinecommandos.campusmarketplace.dto.CreateAdminRequest;
 import com.commandlinecommandos.campusmarketplace.dto.UserResponse;
+import com.commandlinecommandos.campusmarketplace.listing.event.ListingChangedEvent;
 import com.commandlinecommandos.campusmarketplace.model.ModerationStatus;
 import com.commandlinecommandos.campusmarketplace.model.Product;
 import com.commandlinecommandos.campusmarketplace.model.User;
@@ -14,6 +15,7 @@ import com.commandlinecommandos.campusmarketplace.service.EmailService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -52,6 +54,9 @@ public class AdminController {
     
     @Autowired(required = false)
     private EmailService emailService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     
     /**
      * Get admin dashboard with real statistics
@@ -108,6 +113,7 @@ public class AdminController {
             
             product.setModerationStatus(newStatus);
             productRepository.save(product);
+            eventPublisher.publishEvent(ListingChangedEvent.of(product, ListingChangedEvent.ChangeType.MODERATED));
             
             // Send email notification for rejected listings
             if (newStatus == ModerationStatus.REJECTED && emailService != null) {
@@ -0,0 +1,111 @@
+package com.commandlinecommandos.campusmarketplace.controller;
+
+import com.commandlinecommandos.campusmarketplace.dto.UserSearchRequest;
+import com.commandlinecommandos.campusmarketplace.model.AuditLog;
+import com.commandlinecommandos.campusmarketplace.model.ModerationStatus;
+import com.commandlinecommandos.campusmarketplace.model.UserRole;
+import com.commandlinecommandos.campusmarketplace.model.VerificationStatus;
+import com.commandlinecommandos.campusmarketplace.security.RequireRole;
+import com.commandlinecommandos.campusmarketplace.service.ExportService;
+import com.commandlinecommandos.campusmarketplace.service.ExportService.ExportQuery;
+import com.commandlinecommandos.campusmarketplace.service.ExportService.Format;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Admin controller for bulk exports
+ * Streams every matching row as CSV (default) or NDJSON instead of paging 20 at a time
+ */
+@RestController
+@RequestMapping("/admin/exports")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"}, maxAge = 3600)
+public class AdminExportController {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @Autowired
+    private ExportService exportService;
+
+    /**
+     * Export users; filters match POST /admin/users/search
+     */
+    @GetMapping("/users")
+    @RequireRole(UserRole.ADMIN)
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) String searchTerm,
+            @RequestParam(required = false) UserRole role,
+            @RequestParam(required = false) VerificationStatus verificationStatus,
+            @RequestParam(required = false) Boolean isActive,
+            @RequestParam(required = false) String universityId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAfter,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "DESC") String sortDirection) {
+        UserSearchRequest request = new UserSearchRequest();
+        request.setSearchTerm(searchTerm);
+        request.setRole(role);
+        request.setVerificationStatus(verificationStatus);
+        request.setIsActive(isActive);
+        request.setUniversityId(universityId);
+        request.setCreatedAfter(createdAfter);
+        request.setCreatedBefore(createdBefore);
+        request.setSortBy(sortBy);
+        request.setSortDirection(sortDirection);
+
+        return export("users", parseFormat(format), exportService.usersQuery(request));
+    }
+
+    /**
+     * Export moderation reports, optionally of one status
+     */
+    @GetMapping("/reports")
+    @RequireRole(UserRole.ADMIN)
+    public ResponseEntity<StreamingResponseBody> exportReports(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) ModerationStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAfter,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdBefore) {
+        return export("reports", parseFormat(format), exportService.reportsQuery(status, createdAfter, createdBefore));
+    }
+
+    /**
+     * Export audit logs in a date range, optionally of one severity
+     */
+    @GetMapping("/audit-logs")
+    @RequireRole(UserRole.ADMIN)
+    public ResponseEntity<StreamingResponseBody> exportAuditLogs(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) AuditLog.Severity severity) {
+        return export("audit-logs", parseFormat(format), exportService.auditLogsQuery(startDate, endDate, severity));
+    }
+
+    private ResponseEntity<StreamingResponseBody> export(String name, Format format, ExportQuery query) {
+        String filename = name + "-" + LocalDateTime.now().format(FILE_TIMESTAMP) + "." + format.getExtension();
+        StreamingResponseBody body = out -> exportService.stream(query, format, out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+            .body(body);
+    }
+
+    private static Format parseFormat(String format) {
+        try {
+            return Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + format + " (expected csv or ndjson)");
+        }
+    }
+}
@@ -166,8 +166,9 @@ public class AuthController {
 
             // Try to get User object from principal, fallback to username lookup for tests
             User user = null;
-            if (authentication.getPrincipal() instanceof User) {
-                user = (User) authentication.getPrincipal();
+            if (authentication.getPrincipal() instanceof User principal) {
+                // Token principals carry no profile fields, so load the full record
+                user = userRepository.findById(principal.getUserId()).orElse(null);
             } else {
                 // For tests with @WithMockUser, lookup user by username
                 user = userRepository.findByUsername(username)
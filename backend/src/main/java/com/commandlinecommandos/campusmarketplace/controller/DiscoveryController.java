@@ -8,6 +8,7 @@ import com.commandlinecommandos.campusmarketplace.dto.RecentlyViewedResponse;
 import com.commandlinecommandos.campusmarketplace.dto.ErrorResponse;
 import com.commandlinecommandos.campusmarketplace.exception.NotFoundException;
 import com.commandlinecommandos.campusmarketplace.exception.UnauthorizedException;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
 import com.commandlinecommandos.campusmarketplace.model.User;
 import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
 import com.commandlinecommandos.campusmarketplace.security.JwtUtil;
@@ -49,6 +50,7 @@ public class DiscoveryController {
      * Returns most popular products based on views and favorites
      * 
      * @param limit Maximum number of products (default: 10)
+     * @param category Optional category to rank within
      * @param token JWT authorization token
      * @return List of trending products
      */
@@ -58,6 +60,8 @@ public class DiscoveryController {
     public ResponseEntity<?> getTrending(
             @Parameter(description = "Maximum number of products") 
             @RequestParam(defaultValue = "10") int limit,
+            @Parameter(description = "Optional category filter")
+            @RequestParam(required = false) ProductCategory category,
             @RequestHeader(value = "Authorization", required = false) String token) {
         
         try {
@@ -69,7 +73,7 @@ public class DiscoveryController {
             // Get user and their university (will throw UnauthorizedException if token is missing/invalid)
             User user = getCurrentUser(token);
             List<ProductSummary> trending = discoveryService.getTrendingItems(
-                user.getUniversity().getUniversityId(), limit);
+                user.getUniversity().getUniversityId(), category, limit);
             
             log.debug("Trending items: user={}, universityId={}, count={}", 
                 user.getUsername(), user.getUniversity().getUniversityId(), trending.size());
@@ -101,7 +105,7 @@ public class DiscoveryController {
         
         try {
             User user = getCurrentUser(token);
-            List<ProductSummary> recommended = discoveryService.getRecommendedItems(user, limit);
+            List<ProductSummary> recommended = firstN(discoveryService.getRecommendedItems(user), limit);
             
             log.debug("Recommended items: user={}, count={}", user.getUsername(), recommended.size());
             return ResponseEntity.ok(new RecommendedResponse(recommended));
@@ -179,7 +183,7 @@ public class DiscoveryController {
         
         try {
             User user = getCurrentUser(token);
-            List<ProductSummary> recentlyViewed = discoveryService.getRecentlyViewedItems(user, limit);
+            List<ProductSummary> recentlyViewed = firstN(discoveryService.getRecentlyViewedItems(user), limit);
             
             log.debug("Recently viewed: user={}, count={}", user.getUsername(), recentlyViewed.size());
             return ResponseEntity.ok(new RecentlyViewedResponse(recentlyViewed));
@@ -192,6 +196,13 @@ public class DiscoveryController {
         }
     }
     
+    /**
+     * First limit items of a cached per-user list (empty for a non-positive limit)
+     */
+    private static List<ProductSummary> firstN(List<ProductSummary> items, int limit) {
+        return items.subList(0, Math.max(0, Math.min(limit, items.size())));
+    }
+    
     /**
      * Helper method to extract user from JWT token
      * 
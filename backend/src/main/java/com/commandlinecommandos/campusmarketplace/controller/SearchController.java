@@ -7,6 +7,7 @@ import com.commandlinecommandos.campusmarketplace.model.User;
 import com.commandlinecommandos.campusmarketplace.repository.SearchHistoryRepository;
 import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
 import com.commandlinecommandos.campusmarketplace.security.JwtUtil;
+import com.commandlinecommandos.campusmarketplace.service.SearchHistoryService;
 import com.commandlinecommandos.campusmarketplace.service.SearchService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,10 +15,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.UUID;
 
 /**
  * Controller for product search and autocomplete
@@ -30,9 +33,15 @@ public class SearchController {
     
     private static final Logger log = LoggerFactory.getLogger(SearchController.class);
     
+    /** Most recent searches returned by GET /search/history */
+    private static final int HISTORY_LIMIT = 50;
+    
     @Autowired
     private SearchService searchService;
     
+    @Autowired
+    private SearchHistoryService searchHistoryService;
+    
     @Autowired
     private JwtUtil jwtUtil;
     
@@ -77,6 +86,13 @@ public class SearchController {
             }
             SearchResponse response = searchService.search(request, user);
             
+            // Queue search history (outside the cached search so hits are recorded too)
+            if (request.getQuery() != null && !request.getQuery().trim().isEmpty()) {
+                UUID universityId = user.getUniversity() != null ? user.getUniversity().getUniversityId() : null;
+                searchHistoryService.recordSearch(user.getUserId(), universityId,
+                    request.getQuery(), (int) response.getTotalResults());
+            }
+            
             log.info("Search request: user={}, query='{}', results={}",
                     user.getUsername(), request.getQuery(), response.getTotalResults());
             
@@ -152,7 +168,8 @@ public class SearchController {
         
         try {
             User user = getCurrentUser(token);
-            List<SearchHistory> history = searchHistoryRepository.findByUserOrderByCreatedAtDesc(user);
+            List<SearchHistory> history = searchHistoryRepository.findByUserUserIdOrderByCreatedAtDesc(
+                user.getUserId(), PageRequest.of(0, HISTORY_LIMIT));
             
             // Convert to DTOs to avoid Hibernate proxy serialization issues
             List<SearchHistoryItem> historyItems = history.stream()
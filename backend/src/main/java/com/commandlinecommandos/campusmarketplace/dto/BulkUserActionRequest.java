@@ -10,12 +10,15 @@ import java.util.List;
 import java.util.UUID;
 
 /**
- * DTO for bulk operations on users (max 100 users at once)
+ * DTO for bulk operations on users (max 5000 users at once)
  */
 public class BulkUserActionRequest {
     
+    /** Bulk actions are set-based, so this only bounds the size of one request and its ID array */
+    public static final int MAX_USERS = 5000;
+    
     @NotEmpty(message = "User IDs list cannot be empty")
-    @Size(max = 100, message = "Cannot perform bulk action on more than 100 users at once")
+    @Size(max = MAX_USERS, message = "Cannot perform bulk action on more than 5000 users at once")
     private List<UUID> userIds;
     
     @NotNull(message = "Action is required")
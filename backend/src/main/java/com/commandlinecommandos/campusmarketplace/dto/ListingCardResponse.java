@@ -0,0 +1,86 @@
+package com.commandlinecommandos.campusmarketplace.dto;
+
+/**
+ * Slim listing DTO for browse grids
+ * Carries only what a card shows; open the listing for ListingDetailResponse
+ */
+public class ListingCardResponse {
+
+    private String id;  // UUID as string
+    private String title;
+    private Double price;
+    private String imageUrl;  // Primary image
+    private String condition;  // ProductCondition enum as string
+    private String sellerName;  // Full name, or username when no name is set
+    private Integer viewCount;
+    private Integer favoriteCount;
+
+    // Constructors
+    public ListingCardResponse() {
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public Double getPrice() {
+        return price;
+    }
+
+    public void setPrice(Double price) {
+        this.price = price;
+    }
+
+    public String getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(String imageUrl) {
+        this.imageUrl = imageUrl;
+    }
+
+    public String getCondition() {
+        return condition;
+    }
+
+    public void setCondition(String condition) {
+        this.condition = condition;
+    }
+
+    public String getSellerName() {
+        return sellerName;
+    }
+
+    public void setSellerName(String sellerName) {
+        this.sellerName = sellerName;
+    }
+
+    public Integer getViewCount() {
+        return viewCount;
+    }
+
+    public void setViewCount(Integer viewCount) {
+        this.viewCount = viewCount;
+    }
+
+    public Integer getFavoriteCount() {
+        return favoriteCount;
+    }
+
+    public void setFavoriteCount(Integer favoriteCount) {
+        this.favoriteCount = favoriteCount;
+    }
+}
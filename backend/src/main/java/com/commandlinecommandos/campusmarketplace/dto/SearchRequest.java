@@ -72,13 +72,14 @@ public class SearchRequest {
      * @return Cache key string
      */
     public String cacheKey() {
-        return String.format("%s_%s_%s_%s_%s_%s_%s_%d_%d", 
+        return String.format("%s_%s_%s_%s_%s_%s_%s_%s_%d_%d", 
             query != null ? query : "all",
             categories != null ? categories.toString() : "all",
             conditions != null ? conditions.toString() : "all",
             minPrice != null ? minPrice : "0",
             maxPrice != null ? maxPrice : "max",
             location != null ? location : "all",
+            dateFrom != null ? dateFrom : "any",
             sortBy != null ? sortBy : "relevance",
             page, 
             size);
@@ -5,6 +5,7 @@ import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -342,6 +343,20 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(errorResponse);
     }
     
+    // ===== Capacity =====
+    
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleTaskRejected(TaskRejectedException ex, WebRequest request) {
+        log.warn("Async request rejected, executor saturated: {}", ex.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse(
+            "SERVICE_BUSY",
+            "Too many exports are running. Please try again shortly.",
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+    
     // ===== Generic Exception Handler (catch-all) =====
     
     @ExceptionHandler(IllegalArgumentException.class)
@@ -1,12 +1,14 @@
 package com.commandlinecommandos.campusmarketplace.listing.controller;
 
 import com.commandlinecommandos.campusmarketplace.dto.ErrorResponse;
+import com.commandlinecommandos.campusmarketplace.dto.ListingCardResponse;
 import com.commandlinecommandos.campusmarketplace.dto.ListingDetailResponse;
 import com.commandlinecommandos.campusmarketplace.model.Product;
 import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
 import com.commandlinecommandos.campusmarketplace.model.User;
 import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
 import com.commandlinecommandos.campusmarketplace.service.ListingsService;
+import com.commandlinecommandos.campusmarketplace.service.ProductViewService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -25,7 +27,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * REST Controller for Listing/Product Management
@@ -46,6 +47,9 @@ public class ListingController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ProductViewService productViewService;
+
     /**
      * Get all listings with pagination and optional filtering
      */
@@ -69,9 +73,7 @@ public class ListingController {
             }
 
             // Convert to new DTO format matching frontend mockdata
-            List<ListingDetailResponse> listings = productsPage.getContent().stream()
-                .map(listingsService::toListingDetailResponse)
-                .collect(Collectors.toList());
+            List<ListingDetailResponse> listings = listingsService.toListingDetailResponses(productsPage.getContent());
 
             Map<String, Object> response = new HashMap<>();
             response.put("content", listings);
@@ -95,6 +97,45 @@ public class ListingController {
         }
     }
 
+    /**
+     * Get listing cards for browse grids
+     */
+    @GetMapping("/cards")
+    @Operation(summary = "Get listing cards", description = "Retrieve a paginated slim card view of active listings")
+    public ResponseEntity<?> getListingCards(
+            @Parameter(description = "Page number (0-indexed)")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Number of items per page")
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Filter by category")
+            @RequestParam(required = false) ProductCategory category) {
+        try {
+            log.info("Fetching listing cards - page: {}, size: {}, category: {}", page, size, category);
+
+            Page<ListingCardResponse> cardsPage = listingsService.getListingCards(category, page, size);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("content", cardsPage.getContent());
+            response.put("totalElements", cardsPage.getTotalElements());
+            response.put("totalPages", cardsPage.getTotalPages());
+            response.put("number", cardsPage.getNumber());
+            response.put("size", cardsPage.getSize());
+            response.put("first", cardsPage.isFirst());
+            response.put("last", cardsPage.isLast());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            log.error("Error fetching listing cards: {}", e.getMessage(), e);
+            ErrorResponse error = new ErrorResponse(
+                "LISTING_FETCH_ERROR",
+                "Failed to fetch listings: " + e.getMessage(),
+                HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                "/listings/cards"
+            );
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+
     /**
      * Get a specific listing by ID
      */
@@ -102,11 +143,17 @@ public class ListingController {
     @Operation(summary = "Get listing by ID", description = "Retrieve detailed information about a specific listing")
     public ResponseEntity<?> getListingById(
             @Parameter(description = "Listing UUID")
-            @PathVariable UUID id) {
+            @PathVariable UUID id,
+            Authentication authentication) {
         try {
             log.info("Fetching listing with ID: {}", id);
             Product product = listingsService.getListingById(id);
             
+            // Feeds recently viewed and trending; buffered, so no write on this request
+            if (authentication != null && authentication.getPrincipal() instanceof User viewer) {
+                productViewService.trackView(viewer, product);
+            }
+            
             // Use new DTO format matching frontend mockdata
             ListingDetailResponse listing = listingsService.toListingDetailResponse(product);
             return ResponseEntity.ok(listing);
@@ -235,9 +282,7 @@ public class ListingController {
 
             Page<Product> productsPage = listingsService.getListingsBySeller(sellerId, page, size);
 
-            List<ListingDetailResponse> listings = productsPage.getContent().stream()
-                .map(listingsService::toListingDetailResponse)
-                .collect(Collectors.toList());
+            List<ListingDetailResponse> listings = listingsService.toListingDetailResponses(productsPage.getContent());
 
             Map<String, Object> response = new HashMap<>();
             response.put("content", listings);
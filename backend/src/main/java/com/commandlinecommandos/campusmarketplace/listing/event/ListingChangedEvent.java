@@ -0,0 +1,118 @@
+package com.commandlinecommandos.campusmarketplace.listing.event;
+
+import com.commandlinecommandos.campusmarketplace.model.Product;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+
+import java.util.UUID;
+
+/**
+ * Published whenever a listing is created, edited, deactivated or moderated
+ *
+ * Carries the dimensions derived data is keyed by (university, category, seller)
+ * so listeners can drop or rebuild exactly what the change affects. Listeners run
+ * after the surrounding transaction commits.
+ */
+public class ListingChangedEvent {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DEACTIVATED,
+        REACTIVATED,
+        MODERATED
+    }
+
+    private final UUID listingId;
+    private final UUID universityId;
+    private final UUID sellerId;
+    private final ProductCategory category;
+    private final ProductCategory previousCategory;
+    private final ChangeType changeType;
+    private final boolean titleChanged;
+
+    public ListingChangedEvent(UUID listingId, UUID universityId, UUID sellerId,
+                               ProductCategory category, ProductCategory previousCategory,
+                               ChangeType changeType, boolean titleChanged) {
+        this.listingId = listingId;
+        this.universityId = universityId;
+        this.sellerId = sellerId;
+        this.category = category;
+        this.previousCategory = previousCategory;
+        this.changeType = changeType;
+        this.titleChanged = titleChanged;
+    }
+
+    /**
+     * Event for a change that did not touch title or category
+     */
+    public static ListingChangedEvent of(Product product, ChangeType changeType) {
+        return of(product, changeType, product.getCategory(), changeType == ChangeType.CREATED);
+    }
+
+    /**
+     * Event for an edit, given the category and title state from before the edit
+     */
+    public static ListingChangedEvent of(Product product, ChangeType changeType,
+                                         ProductCategory previousCategory, boolean titleChanged) {
+        return new ListingChangedEvent(
+            product.getProductId(),
+            product.getUniversity() != null ? product.getUniversity().getUniversityId() : null,
+            product.getSeller() != null ? product.getSeller().getUserId() : null,
+            product.getCategory(),
+            previousCategory,
+            changeType,
+            titleChanged);
+    }
+
+    public UUID getListingId() {
+        return listingId;
+    }
+
+    public UUID getUniversityId() {
+        return universityId;
+    }
+
+    public UUID getSellerId() {
+        return sellerId;
+    }
+
+    public ProductCategory getCategory() {
+        return category;
+    }
+
+    /**
+     * Category before the change; equal to getCategory() unless the edit moved the listing
+     */
+    public ProductCategory getPreviousCategory() {
+        return previousCategory;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public boolean isTitleChanged() {
+        return titleChanged;
+    }
+
+    /**
+     * Whether the listing may have entered or left the marketplace
+     * (anything other than an in-place edit of a listing that stayed visible)
+     */
+    public boolean isVisibilityChange() {
+        return changeType != ChangeType.UPDATED;
+    }
+
+    /**
+     * Whether the set of titles a university's listings expose may have changed
+     */
+    public boolean affectsTitles() {
+        return titleChanged || isVisibilityChange();
+    }
+
+    @Override
+    public String toString() {
+        return "ListingChangedEvent{" + changeType + " " + listingId + ", university=" + universityId
+            + ", category=" + category + ", seller=" + sellerId + "}";
+    }
+}
@@ -0,0 +1,89 @@
+package com.commandlinecommandos.campusmarketplace.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One day of admin analytics counters
+ * Rows are rewritten by AnalyticsRollupService; nothing else writes this table
+ */
+@Entity
+@Table(name = "analytics_daily_counters")
+public class AnalyticsDailyCounter {
+
+    @Id
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "new_users", nullable = false)
+    private long newUsers;
+
+    @Column(name = "new_listings", nullable = false)
+    private long newListings;
+
+    @Column(name = "successful_logins", nullable = false)
+    private long successfulLogins;
+
+    @Column(name = "failed_logins", nullable = false)
+    private long failedLogins;
+
+    @Column(name = "suspensions", nullable = false)
+    private long suspensions;
+
+    @Column(name = "critical_events", nullable = false)
+    private long criticalEvents;
+
+    @Column(name = "error_events", nullable = false)
+    private long errorEvents;
+
+    @Column(name = "warning_events", nullable = false)
+    private long warningEvents;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private LocalDateTime refreshedAt;
+
+    public AnalyticsDailyCounter() {
+    }
+
+    public LocalDate getStatDate() {
+        return statDate;
+    }
+
+    public long getNewUsers() {
+        return newUsers;
+    }
+
+    public long getNewListings() {
+        return newListings;
+    }
+
+    public long getSuccessfulLogins() {
+        return successfulLogins;
+    }
+
+    public long getFailedLogins() {
+        return failedLogins;
+    }
+
+    public long getSuspensions() {
+        return suspensions;
+    }
+
+    public long getCriticalEvents() {
+        return criticalEvents;
+    }
+
+    public long getErrorEvents() {
+        return errorEvents;
+    }
+
+    public long getWarningEvents() {
+        return warningEvents;
+    }
+
+    public LocalDateTime getRefreshedAt() {
+        return refreshedAt;
+    }
+}
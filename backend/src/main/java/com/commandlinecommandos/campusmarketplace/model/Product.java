@@ -133,7 +133,7 @@ public class Product {
     @Column(name = "primary_image_url")
     private String primaryImageUrl;
     
-    // SEO & Search (search_vector handled by PostgreSQL trigger)
+    // SEO & Search (search_vector is maintained by a PostgreSQL trigger, see V21; not mapped)
     
     // Timestamps
     @Column(name = "published_at")
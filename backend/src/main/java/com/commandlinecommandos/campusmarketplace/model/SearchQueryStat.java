@@ -0,0 +1,90 @@
+package com.commandlinecommandos.campusmarketplace.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Number of times a university searched for one normalised query on one day
+ * Rows are incremented by SearchHistoryWriter; nothing else writes this table
+ */
+@Entity
+@Table(name = "search_query_stats", indexes = {
+    @Index(name = "idx_search_query_stats_university", columnList = "university_id,stat_date"),
+    @Index(name = "idx_search_query_stats_date", columnList = "stat_date")
+})
+@IdClass(SearchQueryStat.Key.class)
+public class SearchQueryStat {
+
+    @Id
+    @Column(name = "university_id", nullable = false)
+    private UUID universityId;
+
+    @Id
+    @Column(name = "search_query", nullable = false, length = 200)
+    private String searchQuery;
+
+    @Id
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(name = "search_count", nullable = false)
+    private long searchCount;
+
+    @Column(name = "last_searched_at", nullable = false)
+    private LocalDateTime lastSearchedAt;
+
+    public SearchQueryStat() {
+    }
+
+    public UUID getUniversityId() {
+        return universityId;
+    }
+
+    public String getSearchQuery() {
+        return searchQuery;
+    }
+
+    public LocalDate getStatDate() {
+        return statDate;
+    }
+
+    public long getSearchCount() {
+        return searchCount;
+    }
+
+    public LocalDateTime getLastSearchedAt() {
+        return lastSearchedAt;
+    }
+
+    /**
+     * Composite primary key
+     */
+    public static class Key implements Serializable {
+
+        private UUID universityId;
+        private String searchQuery;
+        private LocalDate statDate;
+
+        public Key() {
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(universityId, key.universityId)
+                && Objects.equals(searchQuery, key.searchQuery)
+                && Objects.equals(statDate, key.statDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(universityId, searchQuery, statDate);
+        }
+    }
+}
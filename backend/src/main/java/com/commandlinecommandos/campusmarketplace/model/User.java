@@ -122,6 +122,10 @@ public class User implements UserDetails {
     @Column(name = "is_active")
     private boolean isActive = true;
     
+    // Bumped to invalidate every access token issued before the change
+    @Column(name = "auth_version", nullable = false)
+    private long authVersion = 0;
+    
     @Column(name = "last_login_at")
     private LocalDateTime lastLoginAt;
     
@@ -287,6 +291,14 @@ public class User implements UserDetails {
         this.isActive = false;
     }
     
+    /**
+     * Invalidate all access tokens issued so far
+     * Use TokenRevocationService.revokeTokens so cached auth state is dropped too
+     */
+    public void bumpAuthVersion() {
+        this.authVersion++;
+    }
+    
     public void recordLogin() {
         this.lastLoginAt = LocalDateTime.now();
     }
@@ -436,6 +448,14 @@ public class User implements UserDetails {
         isActive = active;
     }
     
+    public long getAuthVersion() {
+        return authVersion;
+    }
+    
+    public void setAuthVersion(long authVersion) {
+        this.authVersion = authVersion;
+    }
+    
     public LocalDateTime getLastLoginAt() {
         return lastLoginAt;
     }
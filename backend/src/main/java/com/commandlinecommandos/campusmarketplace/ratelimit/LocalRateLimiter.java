@@ -0,0 +1,57 @@
+package com.commandlinecommandos.campusmarketplace.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * Per-node token buckets in a bounded, expiring map
+ *
+ * A bucket idle for one period has refilled completely, so it expires then and
+ * is recreated full on the next request. Past maxBuckets the least recently used
+ * buckets are dropped, which at worst hands a client a fresh bucket early.
+ */
+public class LocalRateLimiter implements RateLimiter {
+
+    private final Cache<String, TokenBucket> buckets;
+
+    public LocalRateLimiter(long maxBuckets) {
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(maxBuckets)
+            .expireAfter(new IdleForOnePeriod())
+            .build();
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(String key, RateLimitProperties.Limit rule) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(key, k -> new TokenBucket(rule.getCapacity(), rule.getPeriod().toNanos(), now));
+        return bucket.tryAcquire(now);
+    }
+
+    /**
+     * Buckets currently held
+     */
+    public long size() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    private static final class IdleForOnePeriod implements Expiry<String, TokenBucket> {
+
+        @Override
+        public long expireAfterCreate(String key, TokenBucket bucket, long currentTime) {
+            return bucket.periodNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, TokenBucket bucket, long currentTime, long currentDuration) {
+            return bucket.periodNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, TokenBucket bucket, long currentTime, long currentDuration) {
+            return bucket.periodNanos();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.commandlinecommandos.campusmarketplace.ratelimit;
+
+/**
+ * Outcome of one rate limit check
+ *
+ * @param allowed      Whether the request may proceed
+ * @param limit        Bucket capacity
+ * @param remaining    Requests still allowed right now
+ * @param resetMillis  Time until the bucket is full again
+ * @param retryAfterMillis Time until the next request would be allowed (0 when allowed)
+ */
+public record RateLimitDecision(boolean allowed, int limit, long remaining, long resetMillis, long retryAfterMillis) {
+}
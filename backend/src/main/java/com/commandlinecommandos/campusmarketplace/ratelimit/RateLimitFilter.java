@@ -0,0 +1,151 @@
+package com.commandlinecommandos.campusmarketplace.ratelimit;
+
+import com.commandlinecommandos.campusmarketplace.model.User;
+import com.commandlinecommandos.campusmarketplace.ratelimit.RateLimitProperties.KeyType;
+import com.commandlinecommandos.campusmarketplace.ratelimit.RateLimitProperties.Limit;
+import com.commandlinecommandos.campusmarketplace.security.ClientAddress;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies token-bucket limits to every API request
+ *
+ * Runs in the security chain after JWT authentication, so USER-keyed rules can
+ * spend the signed-in user's budget (students behind one campus NAT share an IP);
+ * anonymous requests fall back to the client address.
+ *
+ * Every limited response carries:
+ * - X-RateLimit-Limit     → bucket capacity
+ * - X-RateLimit-Remaining → requests left right now
+ * - X-RateLimit-Reset     → seconds until the bucket is full again
+ * Rejected requests get 429 with Retry-After (seconds).
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+    private final Map<String, Counter> rejectedCounters = new ConcurrentHashMap<>();
+
+    public RateLimitFilter(RateLimiter rateLimiter, RateLimitProperties properties,
+                           ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String path = urlPathHelper.getPathWithinApplication(request);
+        return "OPTIONS".equals(request.getMethod()) || matchesAny(properties.getExcludePaths(), path);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        Limit rule = ruleFor(request.getMethod(), urlPathHelper.getPathWithinApplication(request));
+        if (rule.getCapacity() <= 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String client = clientKey(request, rule.getKey());
+        RateLimitDecision decision = rateLimiter.tryAcquire(rule.getName() + ":" + client, rule);
+
+        response.setHeader("X-RateLimit-Limit", Integer.toString(decision.limit()));
+        response.setHeader("X-RateLimit-Remaining", Long.toString(decision.remaining()));
+        response.setHeader("X-RateLimit-Reset", Long.toString(toSeconds(decision.resetMillis())));
+
+        if (decision.allowed()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long retryAfter = Math.max(1, toSeconds(decision.retryAfterMillis()));
+        logger.warn("Rate limit '{}' exceeded for {} on {} {}", rule.getName(), client, request.getMethod(), request.getRequestURI());
+        rejectedCounter(rule.getName()).increment();
+
+        Map<String, String> error = new LinkedHashMap<>();
+        error.put("error", "Rate limit exceeded");
+        error.put("message", "Too many requests. Please try again later.");
+        error.put("retryAfter", Long.toString(retryAfter));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    /**
+     * First endpoint rule matching the request, else the default
+     */
+    Limit ruleFor(String method, String path) {
+        for (Limit rule : properties.getEndpoints()) {
+            boolean methodMatches = rule.getMethods().isEmpty()
+                || rule.getMethods().stream().anyMatch(method::equalsIgnoreCase);
+            if (methodMatches && (rule.getPaths().isEmpty() || matchesAny(rule.getPaths(), path))) {
+                return rule;
+            }
+        }
+        return properties.getDefaultLimit();
+    }
+
+    private String clientKey(HttpServletRequest request, KeyType keyType) {
+        if (keyType == KeyType.USER) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof User user && user.getUserId() != null) {
+                return "user:" + user.getUserId();
+            }
+        }
+        return "ip:" + ClientAddress.of(request);
+    }
+
+    private boolean matchesAny(List<String> patterns, String path) {
+        for (String pattern : patterns) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Counter rejectedCounter(String rule) {
+        return rejectedCounters.computeIfAbsent(rule, name -> Counter.builder("ratelimit.rejected")
+            .description("Requests rejected by rate limiting")
+            .tag("rule", name)
+            .register(meterRegistry));
+    }
+
+    private static long toSeconds(long millis) {
+        return (millis + 999) / 1000;
+    }
+}
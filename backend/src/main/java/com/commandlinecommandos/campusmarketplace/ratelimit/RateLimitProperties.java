@@ -0,0 +1,163 @@
+package com.commandlinecommandos.campusmarketplace.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rate limiting settings (prefix rate.limiting)
+ *
+ * Each request is checked against the first endpoint rule whose paths and methods
+ * match, or against the default rule. Paths are Ant patterns relative to the
+ * context path (e.g. /auth/login, /search/**).
+ */
+@ConfigurationProperties(prefix = "rate.limiting")
+public class RateLimitProperties {
+
+    public enum Store { LOCAL, REDIS }
+
+    /** Whose budget a request spends: the client address, or the signed-in user when there is one */
+    public enum KeyType { IP, USER }
+
+    private boolean enabled = true;
+
+    private Store store = Store.LOCAL;
+
+    /** Buckets kept per node in LOCAL mode (and as the Redis fallback); least recently used go first */
+    private long maxBuckets = 100_000;
+
+    /** Never limited */
+    private List<String> excludePaths = new ArrayList<>(List.of("/actuator/**", "/h2-console/**"));
+
+    private Limit defaultLimit = new Limit("default", 100, Duration.ofMinutes(1), KeyType.USER);
+
+    private List<Limit> endpoints = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Store getStore() {
+        return store;
+    }
+
+    public void setStore(Store store) {
+        this.store = store;
+    }
+
+    public long getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    public void setMaxBuckets(long maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    public List<String> getExcludePaths() {
+        return excludePaths;
+    }
+
+    public void setExcludePaths(List<String> excludePaths) {
+        this.excludePaths = excludePaths;
+    }
+
+    public Limit getDefaultLimit() {
+        return defaultLimit;
+    }
+
+    public void setDefaultLimit(Limit defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    public List<Limit> getEndpoints() {
+        return endpoints;
+    }
+
+    public void setEndpoints(List<Limit> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    /**
+     * capacity requests per period, refilled continuously; a full bucket allows a burst of capacity
+     */
+    public static class Limit {
+
+        private String name;
+
+        /** Ant patterns; empty matches every path */
+        private List<String> paths = new ArrayList<>();
+
+        /** HTTP methods; empty matches every method */
+        private List<String> methods = new ArrayList<>();
+
+        private int capacity;
+
+        private Duration period = Duration.ofMinutes(1);
+
+        private KeyType key = KeyType.IP;
+
+        public Limit() {
+        }
+
+        public Limit(String name, int capacity, Duration period, KeyType key) {
+            this.name = name;
+            this.capacity = capacity;
+            this.period = period;
+            this.key = key;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public Duration getPeriod() {
+            return period;
+        }
+
+        public void setPeriod(Duration period) {
+            this.period = period;
+        }
+
+        public KeyType getKey() {
+            return key;
+        }
+
+        public void setKey(KeyType key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.commandlinecommandos.campusmarketplace.ratelimit;
+
+/**
+ * Takes one request from the bucket identified by key
+ */
+public interface RateLimiter {
+
+    /**
+     * @param key  Bucket key; already scoped by rule name
+     * @param rule The limit the bucket enforces
+     */
+    RateLimitDecision tryAcquire(String key, RateLimitProperties.Limit rule);
+}
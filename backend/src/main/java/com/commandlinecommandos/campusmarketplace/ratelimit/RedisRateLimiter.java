@@ -0,0 +1,90 @@
+package com.commandlinecommandos.campusmarketplace.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.List;
+
+/**
+ * Token buckets shared by every node, kept in Redis
+ *
+ * The same GCRA bucket as TokenBucket, evaluated atomically by a Lua script using
+ * the Redis clock, so nodes with skewed clocks still agree. One round trip per
+ * request; each key expires once its bucket would be full.
+ *
+ * If Redis fails, the request is checked against this node's local buckets
+ * instead, so an outage degrades to per-node limits rather than no limits.
+ */
+public class RedisRateLimiter implements RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisRateLimiter.class);
+
+    private static final String KEY_PREFIX = "ratelimit:";
+
+    /**
+     * KEYS[1] bucket; ARGV[1] emission interval (µs); ARGV[2] period (µs)
+     * Returns {allowed, remaining, reset µs, retry-after µs}
+     */
+    private static final String SCRIPT = """
+        local time = redis.call('TIME')
+        local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+        local interval = tonumber(ARGV[1])
+        local period = tonumber(ARGV[2])
+        local tat = tonumber(redis.call('GET', KEYS[1]) or now)
+        if tat < now then tat = now end
+        local newTat = tat + interval
+        local allowAt = newTat - period
+        if allowAt > now then
+          return {0, 0, tat - now, allowAt - now}
+        end
+        redis.call('SET', KEYS[1], newTat, 'PX', math.ceil((newTat - now) / 1000))
+        return {1, math.floor((period - (newTat - now)) / interval), newTat - now, 0}
+        """;
+
+    private final StringRedisTemplate redisTemplate;
+    private final RateLimiter fallback;
+    private final DefaultRedisScript<List> script = new DefaultRedisScript<>(SCRIPT, List.class);
+
+    private volatile boolean degraded;
+
+    public RedisRateLimiter(StringRedisTemplate redisTemplate, RateLimiter fallback) {
+        this.redisTemplate = redisTemplate;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(String key, RateLimitProperties.Limit rule) {
+        long periodMicros = rule.getPeriod().toNanos() / 1000;
+        long intervalMicros = Math.max(1, periodMicros / rule.getCapacity());
+        try {
+            List<?> result = redisTemplate.execute(script, List.of(KEY_PREFIX + key),
+                Long.toString(intervalMicros), Long.toString(periodMicros));
+            if (degraded) {
+                degraded = false;
+                logger.info("✅ Redis rate limiting recovered");
+            }
+            return new RateLimitDecision(
+                toLong(result.get(0)) == 1,
+                rule.getCapacity(),
+                toLong(result.get(1)),
+                microsToMillis(toLong(result.get(2))),
+                microsToMillis(toLong(result.get(3))));
+        } catch (Exception e) {
+            if (!degraded) {
+                degraded = true;
+                logger.warn("⚠️  Redis rate limiting failed: {} - using per-node buckets until it recovers", e.getMessage());
+            }
+            return fallback.tryAcquire(key, rule);
+        }
+    }
+
+    private static long toLong(Object value) {
+        return ((Number) value).longValue();
+    }
+
+    private static long microsToMillis(long micros) {
+        return (micros + 999) / 1000;
+    }
+}
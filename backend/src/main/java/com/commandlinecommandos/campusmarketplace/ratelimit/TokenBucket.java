@@ -0,0 +1,54 @@
+package com.commandlinecommandos.campusmarketplace.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket
+ *
+ * Stored as a single theoretical arrival time (the GCRA formulation): a bucket of
+ * capacity tokens refilled at capacity per period is full when tat <= now, and
+ * each request moves tat forward by period / capacity. A request is allowed while
+ * tat stays within one period of now. Updates are a CAS on one long, so there is
+ * no separate counter/window pair to reset and race on.
+ */
+final class TokenBucket {
+
+    private final AtomicLong theoreticalArrival;
+    private final int capacity;
+    private final long periodNanos;
+    private final long intervalNanos;
+
+    TokenBucket(int capacity, long periodNanos, long now) {
+        this.capacity = capacity;
+        this.periodNanos = periodNanos;
+        this.intervalNanos = Math.max(1, periodNanos / capacity);
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    RateLimitDecision tryAcquire(long now) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = Math.max(tat, now);
+            long newTat = base + intervalNanos;
+            long allowAt = newTat - periodNanos;
+            if (allowAt > now) {
+                return new RateLimitDecision(false, capacity, 0, toMillis(base - now), toMillis(allowAt - now));
+            }
+            if (theoreticalArrival.compareAndSet(tat, newTat)) {
+                long remaining = (periodNanos - (newTat - now)) / intervalNanos;
+                return new RateLimitDecision(true, capacity, remaining, toMillis(newTat - now), 0);
+            }
+        }
+    }
+
+    /**
+     * A bucket untouched for this long is full, so it can be dropped and recreated
+     */
+    long periodNanos() {
+        return periodNanos;
+    }
+
+    private static long toMillis(long nanos) {
+        return (nanos + 999_999) / 1_000_000;
+    }
+}
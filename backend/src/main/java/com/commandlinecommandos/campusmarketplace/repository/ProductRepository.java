@@ -2,11 +2,14 @@ package com.commandlinecommandos.campusmarketplace.repository;
 
 import com.commandlinecommandos.campusmarketplace.model.Product;
 import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
 import com.commandlinecommandos.campusmarketplace.model.ModerationStatus;
 import com.commandlinecommandos.campusmarketplace.model.User;
 import com.commandlinecommandos.campusmarketplace.model.University;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
@@ -15,15 +18,20 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 /**
  * Repository for Product entity
  * Supports marketplace search and filtering with full-text search capabilities
+ *
+ * Page queries whose results are mapped to listing DTOs fetch the seller in the
+ * same select, so mapping a page never lazy-loads sellers one row at a time.
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product>,
+                                           RankedListingSearch {
     
     /**
      * Find all active products for a university
@@ -33,6 +41,7 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
     /**
      * Find products by category for a university
      */
+    @EntityGraph(attributePaths = "seller")
     Page<Product> findByUniversityAndCategoryAndIsActiveTrueAndModerationStatus(
         University university, 
         ProductCategory category, 
@@ -43,6 +52,7 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
     /**
      * Find products by seller
      */
+    @EntityGraph(attributePaths = "seller")
     Page<Product> findBySeller(User seller, Pageable pageable);
     
     /**
@@ -97,44 +107,13 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
     long countBySellerAndIsActiveTrue(User seller);
     
     /**
-     * Full-text search with PostgreSQL ts_rank (falls back gracefully for H2)
+     * Find title suggestions for autocomplete with the pg_trgm % operator
      */
-    @Query(value = "SELECT p.* FROM listings p " +
+    @Query(value = "SELECT p.title FROM listings p " +
            "WHERE p.university_id = :universityId " +
            "AND p.is_active = true " +
-           "AND p.moderation_status = 'APPROVED' " +
-           "AND (to_tsvector('english', p.title || ' ' || p.description) @@ plainto_tsquery('english', :query)) " +
-           "ORDER BY ts_rank(to_tsvector('english', p.title || ' ' || p.description), plainto_tsquery('english', :query)) DESC",
-           nativeQuery = true)
-    Page<Product> searchWithFullText(
-        @Param("universityId") UUID universityId,
-        @Param("query") String query,
-        Pageable pageable
-    );
-    
-    /**
-     * Fuzzy search using PostgreSQL similarity() function
-     */
-    @Query(value = "SELECT p.* FROM listings p " +
-           "WHERE p.university_id = :universityId " +
-           "AND p.is_active = true " +
-           "AND p.moderation_status = 'APPROVED' " +
-           "AND (similarity(p.title, :query) > 0.3 OR similarity(p.description, :query) > 0.2) " +
-           "ORDER BY similarity(p.title, :query) DESC",
-           nativeQuery = true)
-    Page<Product> fuzzySearch(
-        @Param("universityId") UUID universityId,
-        @Param("query") String query,
-        Pageable pageable
-    );
-    
-    /**
-     * Find title suggestions for autocomplete using PostgreSQL similarity()
-     */
-    @Query(value = "SELECT DISTINCT p.title FROM listings p " +
-           "WHERE p.university_id = :universityId " +
-           "AND p.is_active = true " +
-           "AND similarity(p.title, :query) > 0.3 " +
+           "AND p.title % :query " +
+           "GROUP BY p.title " +
            "ORDER BY similarity(p.title, :query) DESC " +
            "LIMIT 10",
            nativeQuery = true)
@@ -159,7 +138,7 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
     /**
      * Find top products by views
      */
-    @Query("SELECT p FROM Product p WHERE p.university = :university " +
+    @Query("SELECT p FROM Product p JOIN FETCH p.seller WHERE p.university = :university " +
            "AND p.isActive = true " +
            "ORDER BY COALESCE(p.viewCount, 0) DESC, p.createdAt DESC")
     List<Product> findTopByViews(@Param("university") University university, Pageable pageable);
@@ -167,11 +146,13 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
     /**
      * Find all active products with approved status
      */
+    @EntityGraph(attributePaths = "seller")
     Page<Product> findByIsActiveTrueAndModerationStatus(ModerationStatus moderationStatus, Pageable pageable);
     
     /**
      * Find products by category with approved status
      */
+    @EntityGraph(attributePaths = "seller")
     Page<Product> findByCategoryAndIsActiveTrueAndModerationStatus(
         ProductCategory category,
         ModerationStatus moderationStatus,
@@ -181,6 +162,103 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
     /**
      * Find active products by seller ID
      */
+    @EntityGraph(attributePaths = "seller")
     Page<Product> findBySellerUserIdAndIsActiveTrue(UUID sellerId, Pageable pageable);
-}
 
+    /**
+     * Specification search (filters-only and fallback text search), sellers included
+     */
+    @Override
+    @EntityGraph(attributePaths = "seller")
+    Page<Product> findAll(Specification<Product> spec, Pageable pageable);
+
+    /**
+     * Scoring inputs for every active, approved listing (no entity loading)
+     * Used by the trending refresh job
+     */
+    @Query("SELECT p.productId AS productId, p.university.universityId AS universityId, " +
+           "p.category AS category, p.viewCount AS viewCount, p.favoriteCount AS favoriteCount, " +
+           "p.createdAt AS createdAt " +
+           "FROM Product p WHERE p.isActive = true AND p.moderationStatus = :status")
+    List<TrendingCandidate> findTrendingCandidates(@Param("status") ModerationStatus status);
+
+    /**
+     * Load listings with their sellers in one query
+     */
+    @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.seller WHERE p.productId IN :ids")
+    List<Product> findWithSellerByProductIdIn(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Card fields for approved, active listings (browse grids)
+     * Selects only the columns a card shows, so the description, image list and
+     * attributes JSON are neither transferred nor parsed
+     */
+    @Query(value = "SELECT p.productId AS productId, p.title AS title, p.price AS price, " +
+                   "p.primaryImageUrl AS primaryImageUrl, p.condition AS condition, " +
+                   "s.username AS sellerUsername, s.firstName AS sellerFirstName, s.lastName AS sellerLastName, " +
+                   "p.viewCount AS viewCount, p.favoriteCount AS favoriteCount " +
+                   "FROM Product p JOIN p.seller s " +
+                   "WHERE p.isActive = true AND p.moderationStatus = :status",
+           countQuery = "SELECT COUNT(p) FROM Product p WHERE p.isActive = true AND p.moderationStatus = :status")
+    Page<ListingCardRow> findListingCards(@Param("status") ModerationStatus status, Pageable pageable);
+
+    /**
+     * Card fields for approved, active listings in one category
+     */
+    @Query(value = "SELECT p.productId AS productId, p.title AS title, p.price AS price, " +
+                   "p.primaryImageUrl AS primaryImageUrl, p.condition AS condition, " +
+                   "s.username AS sellerUsername, s.firstName AS sellerFirstName, s.lastName AS sellerLastName, " +
+                   "p.viewCount AS viewCount, p.favoriteCount AS favoriteCount " +
+                   "FROM Product p JOIN p.seller s " +
+                   "WHERE p.category = :category AND p.isActive = true AND p.moderationStatus = :status",
+           countQuery = "SELECT COUNT(p) FROM Product p " +
+                        "WHERE p.category = :category AND p.isActive = true AND p.moderationStatus = :status")
+    Page<ListingCardRow> findListingCardsByCategory(@Param("category") ProductCategory category,
+                                                    @Param("status") ModerationStatus status,
+                                                    Pageable pageable);
+
+    /**
+     * Projection for findListingCards
+     */
+    interface ListingCardRow {
+        UUID getProductId();
+        String getTitle();
+        BigDecimal getPrice();
+        String getPrimaryImageUrl();
+        ProductCondition getCondition();
+        String getSellerUsername();
+        String getSellerFirstName();
+        String getSellerLastName();
+        Integer getViewCount();
+        Integer getFavoriteCount();
+    }
+
+    /**
+     * Titles of every active listing with the given status (no entity loading)
+     * Used by the autocomplete index build
+     */
+    @Query("SELECT p.productId AS listingId, p.university.universityId AS universityId, p.title AS title " +
+           "FROM Product p WHERE p.isActive = true AND p.moderationStatus = :status")
+    List<ListingTitle> findListingTitles(@Param("status") ModerationStatus status);
+
+    /**
+     * Projection for findListingTitles
+     */
+    interface ListingTitle {
+        UUID getListingId();
+        UUID getUniversityId();
+        String getTitle();
+    }
+
+    /**
+     * Projection for findTrendingCandidates
+     */
+    interface TrendingCandidate {
+        UUID getProductId();
+        UUID getUniversityId();
+        ProductCategory getCategory();
+        Integer getViewCount();
+        Integer getFavoriteCount();
+        LocalDateTime getCreatedAt();
+    }
+}
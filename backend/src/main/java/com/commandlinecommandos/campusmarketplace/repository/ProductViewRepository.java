@@ -44,6 +44,29 @@ public interface ProductViewRepository extends JpaRepository<ProductView, UUID>
            "ORDER BY pv.viewedAt DESC")
     List<Product> findRecentlyViewedByUser(@Param("user") User user, Pageable pageable);
     
+    /**
+     * Find the IDs of recently viewed products, most recent view first
+     * Callers load the page with ProductRepository.findWithSellerByProductIdIn, so the
+     * listings and their sellers cost one more query rather than one per seller
+     * @param user The user
+     * @param pageable Pagination settings
+     * @return Distinct product IDs ordered by latest view
+     */
+    @Query("SELECT pv.product.productId FROM ProductView pv " +
+           "WHERE pv.user = :user " +
+           "GROUP BY pv.product.productId " +
+           "ORDER BY MAX(pv.viewedAt) DESC")
+    List<UUID> findRecentlyViewedProductIds(@Param("user") User user, Pageable pageable);
+    
+    /**
+     * Find the users who have viewed a product
+     * Used to invalidate their cached recently viewed lists when the product changes
+     * @param productId The product ID
+     * @return Distinct viewer user IDs
+     */
+    @Query("SELECT DISTINCT pv.user.userId FROM ProductView pv WHERE pv.product.productId = :productId")
+    List<UUID> findViewerIdsByProductId(@Param("productId") UUID productId);
+    
     /**
      * Update view timestamp for existing view
      * @param user The user
@@ -82,5 +105,24 @@ public interface ProductViewRepository extends JpaRepository<ProductView, UUID>
         nativeQuery = true)
     List<UUID> findFrequentlyViewedTogether(@Param("productId") UUID productId, 
                                             @Param("limit") int limit);
-}
 
+    /**
+     * Daily view counts per product since a date
+     * Used by the trending refresh job to weight recent views more heavily
+     * @param since First day to include
+     * @return One row per product per day with views
+     */
+    @Query("SELECT pv.product.productId AS productId, pv.viewedAtDate AS viewedOn, COUNT(pv) AS views " +
+           "FROM ProductView pv WHERE pv.viewedAtDate >= :since " +
+           "GROUP BY pv.product.productId, pv.viewedAtDate")
+    List<DailyViewCount> countDailyViewsSince(@Param("since") LocalDate since);
+    
+    /**
+     * Projection for countDailyViewsSince
+     */
+    interface DailyViewCount {
+        UUID getProductId();
+        LocalDate getViewedOn();
+        long getViews();
+    }
+}
@@ -0,0 +1,54 @@
+package com.commandlinecommandos.campusmarketplace.repository;
+
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ranked text search over active, approved listings, combined with the search filters
+ * Fragment of ProductRepository; the SQL only carries the filters that are set, so the
+ * text predicate and its rank ordering apply to filtered searches too.
+ * PostgreSQL only - callers fall back to a LIKE specification on H2
+ */
+public interface RankedListingSearch {
+
+    /**
+     * Full-text search over the stored, weighted search_vector (V21), best ts_rank first
+     * Returns listing IDs with their rank; callers load the page with findWithSellerByProductIdIn.
+     * A sorted pageable (price, createdAt, viewCount, favoriteCount) replaces the rank order.
+     */
+    Page<RankedListing> searchWithFullText(UUID universityId, String query, Filters filters, Pageable pageable);
+
+    /**
+     * Fuzzy search with the pg_trgm % operator (trigram GIN indexes), ranked by title similarity
+     * % matches at pg_trgm.similarity_threshold (0.3 by default); sorts as searchWithFullText
+     */
+    Page<RankedListing> fuzzySearch(UUID universityId, String query, Filters filters, Pageable pageable);
+
+    /**
+     * Optional filters, as in ProductSpecifications.withFilters; null or empty means not filtered
+     */
+    record Filters(List<ProductCategory> categories,
+                   List<ProductCondition> conditions,
+                   BigDecimal minPrice,
+                   BigDecimal maxPrice,
+                   String location,
+                   LocalDateTime dateFrom) {
+
+        public static final Filters NONE = new Filters(null, null, null, null, null, null);
+    }
+
+    /**
+     * A matching listing and its rank
+     */
+    interface RankedListing {
+        UUID getListingId();
+        Float getRank();
+    }
+}
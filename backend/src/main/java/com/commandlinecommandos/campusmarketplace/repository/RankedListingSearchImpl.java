@@ -0,0 +1,137 @@
+package com.commandlinecommandos.campusmarketplace.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * SQL for RankedListingSearch
+ * Text match, filters, ordering and the count share one WHERE clause.
+ * Sort properties map to columns through SORT_COLUMNS; anything else is rejected.
+ */
+class RankedListingSearchImpl implements RankedListingSearch {
+
+    private static final String FULL_TEXT_FROM = "FROM listings p, plainto_tsquery('english', :query) q ";
+    private static final String FULL_TEXT_MATCH = "p.search_vector @@ q";
+    private static final String FULL_TEXT_RANK = "ts_rank(p.search_vector, q)";
+
+    private static final String FUZZY_FROM = "FROM listings p ";
+    private static final String FUZZY_MATCH = "(p.title % :query OR p.description % :query)";
+    private static final String FUZZY_RANK = "similarity(p.title, :query)";
+
+    // Counts are nullable; missing counts sort as zero, as in the listing index
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+        "price", "p.price",
+        "createdAt", "p.created_at",
+        "viewCount", "COALESCE(p.view_count, 0)",
+        "favoriteCount", "COALESCE(p.favorite_count, 0)");
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public Page<RankedListing> searchWithFullText(UUID universityId, String query, Filters filters, Pageable pageable) {
+        return search(FULL_TEXT_FROM, FULL_TEXT_MATCH, FULL_TEXT_RANK, universityId, query, filters, pageable);
+    }
+
+    @Override
+    public Page<RankedListing> fuzzySearch(UUID universityId, String query, Filters filters, Pageable pageable) {
+        return search(FUZZY_FROM, FUZZY_MATCH, FUZZY_RANK, universityId, query, filters, pageable);
+    }
+
+    private Page<RankedListing> search(String from, String match, String rank, UUID universityId, String query,
+                                       Filters filters, Pageable pageable) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("universityId", universityId)
+            .addValue("query", query);
+        String where = where(match, filters != null ? filters : Filters.NONE, params);
+
+        params.addValue("limit", pageable.getPageSize()).addValue("offset", pageable.getOffset());
+        List<RankedListing> content = jdbcTemplate.query(
+            "SELECT p.listing_id, " + rank + " AS rank " + from + where +
+            "ORDER BY " + orderBy(pageable.getSort(), rank) + " LIMIT :limit OFFSET :offset",
+            params,
+            (rs, rowNum) -> new Hit(rs.getObject("listing_id", UUID.class), rs.getFloat("rank")));
+
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) " + from + where, params, Long.class);
+        return new PageImpl<>(content, pageable, total != null ? total : 0);
+    }
+
+    /**
+     * Rank order when unsorted; otherwise the requested columns, newest first on ties
+     */
+    private static String orderBy(Sort sort, String rank) {
+        if (sort.isUnsorted()) {
+            return rank + " DESC, p.created_at DESC";
+        }
+        List<String> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+            }
+            orders.add(column + (order.isAscending() ? " ASC" : " DESC"));
+        }
+        if (sort.getOrderFor("createdAt") == null) {
+            orders.add("p.created_at DESC");
+        }
+        return String.join(", ", orders);
+    }
+
+    private static String where(String match, Filters filters, MapSqlParameterSource params) {
+        StringBuilder where = new StringBuilder(
+            "WHERE p.university_id = :universityId " +
+            "AND p.is_active = true " +
+            "AND p.moderation_status = 'APPROVED' " +
+            "AND " + match + " ");
+        // category and condition are PostgreSQL enum types, so compare them as text
+        if (filters.categories() != null && !filters.categories().isEmpty()) {
+            where.append("AND CAST(p.category AS text) IN (:categories) ");
+            params.addValue("categories", filters.categories().stream().map(Enum::name).toList());
+        }
+        if (filters.conditions() != null && !filters.conditions().isEmpty()) {
+            where.append("AND CAST(p.condition AS text) IN (:conditions) ");
+            params.addValue("conditions", filters.conditions().stream().map(Enum::name).toList());
+        }
+        if (filters.minPrice() != null) {
+            where.append("AND p.price >= :minPrice ");
+            params.addValue("minPrice", filters.minPrice());
+        }
+        if (filters.maxPrice() != null) {
+            where.append("AND p.price <= :maxPrice ");
+            params.addValue("maxPrice", filters.maxPrice());
+        }
+        if (filters.location() != null && !filters.location().trim().isEmpty()) {
+            where.append("AND LOWER(p.pickup_location) LIKE :location ");
+            params.addValue("location", "%" + filters.location().toLowerCase(Locale.ROOT) + "%");
+        }
+        if (filters.dateFrom() != null) {
+            where.append("AND p.created_at >= :dateFrom ");
+            params.addValue("dateFrom", filters.dateFrom());
+        }
+        return where.toString();
+    }
+
+    private record Hit(UUID listingId, Float rank) implements RankedListing {
+
+        @Override
+        public UUID getListingId() {
+            return listingId;
+        }
+
+        @Override
+        public Float getRank() {
+            return rank;
+        }
+    }
+}
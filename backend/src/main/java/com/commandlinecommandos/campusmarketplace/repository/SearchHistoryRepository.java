@@ -1,7 +1,7 @@
 package com.commandlinecommandos.campusmarketplace.repository;
 
 import com.commandlinecommandos.campusmarketplace.model.SearchHistory;
-import com.commandlinecommandos.campusmarketplace.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -18,35 +18,23 @@ import java.util.UUID;
 public interface SearchHistoryRepository extends JpaRepository<SearchHistory, UUID> {
     
     /**
-     * Find recent searches for a user
-     * @param user The user
-     * @param limit Maximum number of results
-     * @return List of recent search queries
+     * Find a user's distinct recent search queries
+     * Served by idx_search_history_user (user_id, created_at)
+     * @param userId The user
+     * @param pageable Maximum number of results
+     * @return Queries, most recently searched first
      */
-    @Query("SELECT DISTINCT sh.searchQuery FROM SearchHistory sh " +
-           "WHERE sh.user = :user " +
-           "ORDER BY sh.createdAt DESC")
-    List<String> findRecentSearchesByUser(@Param("user") User user, @Param("limit") int limit);
+    @Query("SELECT sh.searchQuery FROM SearchHistory sh " +
+           "WHERE sh.user.userId = :userId " +
+           "GROUP BY sh.searchQuery " +
+           "ORDER BY MAX(sh.createdAt) DESC")
+    List<String> findRecentSearchesByUser(@Param("userId") UUID userId, Pageable pageable);
     
     /**
      * Find recent search history entities for a user
-     * @param user The user
+     * @param userId The user
+     * @param pageable Maximum number of results
      * @return List of SearchHistory entities ordered by most recent
      */
-    List<SearchHistory> findByUserOrderByCreatedAtDesc(User user);
-    
-    /**
-     * Find popular search queries (for autocomplete suggestions)
-     * @param limit Maximum number of results
-     * @return List of popular search queries
-     */
-    @Query(value = "SELECT search_query, COUNT(*) as count " +
-           "FROM search_history " +
-           "WHERE created_at > CURRENT_TIMESTAMP - INTERVAL '30 days' " +
-           "GROUP BY search_query " +
-           "ORDER BY count DESC, MAX(created_at) DESC " +
-           "LIMIT :limit",
-           nativeQuery = true)
-    List<String> findPopularSearches(@Param("limit") int limit);
+    List<SearchHistory> findByUserUserIdOrderByCreatedAtDesc(UUID userId, Pageable pageable);
 }
-
@@ -0,0 +1,71 @@
+package com.commandlinecommandos.campusmarketplace.repository;
+
+import com.commandlinecommandos.campusmarketplace.model.SearchQueryStat;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for the per-university daily search counts
+ * Reads only; SearchHistoryWriter maintains the rows with JDBC batches
+ */
+@Repository
+public interface SearchQueryStatRepository extends JpaRepository<SearchQueryStat, SearchQueryStat.Key> {
+
+    /**
+     * Most searched queries across all universities since a day
+     * @param since First day counted
+     * @param pageable Number of queries wanted
+     * @return Normalised queries, most searched first
+     */
+    @Query("SELECT s.searchQuery FROM SearchQueryStat s " +
+           "WHERE s.statDate >= :since " +
+           "GROUP BY s.searchQuery " +
+           "ORDER BY SUM(s.searchCount) DESC, MAX(s.lastSearchedAt) DESC")
+    List<String> findTopQueries(@Param("since") LocalDate since, Pageable pageable);
+
+    /**
+     * Most searched queries in one university since a day
+     * @param universityId The university
+     * @param since First day counted
+     * @param pageable Number of queries wanted
+     * @return Normalised queries, most searched first
+     */
+    @Query("SELECT s.searchQuery FROM SearchQueryStat s " +
+           "WHERE s.universityId = :universityId AND s.statDate >= :since " +
+           "GROUP BY s.searchQuery " +
+           "ORDER BY SUM(s.searchCount) DESC, MAX(s.lastSearchedAt) DESC")
+    List<String> findTopQueriesByUniversity(@Param("universityId") UUID universityId,
+                                            @Param("since") LocalDate since,
+                                            Pageable pageable);
+
+    /**
+     * Search counts per university and normalised query since a day
+     * Used to weight autocomplete suggestions
+     * @param since First day counted
+     * @param minCount Leave out queries searched fewer times than this
+     * @return One row per university and query
+     */
+    @Query("SELECT s.universityId AS universityId, s.searchQuery AS query, SUM(s.searchCount) AS searchCount " +
+           "FROM SearchQueryStat s " +
+           "WHERE s.statDate >= :since " +
+           "GROUP BY s.universityId, s.searchQuery " +
+           "HAVING SUM(s.searchCount) >= :minCount")
+    List<PopularSearch> findPopularSearchesByUniversity(@Param("since") LocalDate since,
+                                                        @Param("minCount") long minCount);
+
+    /**
+     * Projection for findPopularSearchesByUniversity
+     */
+    interface PopularSearch {
+        UUID getUniversityId();
+        String getQuery();
+        long getSearchCount();
+    }
+}
@@ -10,7 +10,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -22,7 +24,9 @@ public interface UserFavoriteRepository extends JpaRepository<UserFavorite, UUID
     /**
      * Find user's favorites with product details
      */
-    @Query("SELECT f FROM UserFavorite f JOIN FETCH f.product WHERE f.user = :user ORDER BY f.createdAt DESC")
+    @Query(value = "SELECT f FROM UserFavorite f JOIN FETCH f.product p JOIN FETCH p.seller " +
+                   "WHERE f.user = :user ORDER BY f.createdAt DESC",
+           countQuery = "SELECT COUNT(f) FROM UserFavorite f WHERE f.user = :user")
     Page<UserFavorite> findByUserWithProduct(@Param("user") User user, Pageable pageable);
     
     /**
@@ -30,6 +34,14 @@ public interface UserFavoriteRepository extends JpaRepository<UserFavorite, UUID
      */
     boolean existsByUserAndProduct(User user, Product product);
     
+    /**
+     * Which of the given products the user has favorited (one query for a whole page)
+     */
+    @Query("SELECT f.product.productId FROM UserFavorite f " +
+           "WHERE f.user.userId = :userId AND f.product.productId IN :productIds")
+    Set<UUID> findFavoritedProductIds(@Param("userId") UUID userId,
+                                      @Param("productIds") Collection<UUID> productIds);
+    
     /**
      * Find specific favorite
      */
@@ -88,4 +88,11 @@ public interface UserRepository extends JpaRepository<User, UUID>, JpaSpecificat
      * Count users by university
      */
     long countByUniversity(University university);
+    
+    /**
+     * Current auth version of an active user; empty for inactive or missing users
+     * Single-column lookup for the JWT filter, without loading roles
+     */
+    @Query("SELECT u.authVersion FROM User u WHERE u.userId = :userId AND u.isActive = true")
+    Optional<Long> findActiveAuthVersion(@Param("userId") UUID userId);
 }
@@ -0,0 +1,202 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.listing.event.ListingChangedEvent;
+import com.commandlinecommandos.campusmarketplace.model.ModerationStatus;
+import com.commandlinecommandos.campusmarketplace.model.Product;
+import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
+import com.commandlinecommandos.campusmarketplace.repository.ProductRepository.ListingTitle;
+import com.commandlinecommandos.campusmarketplace.repository.SearchQueryStatRepository;
+import com.commandlinecommandos.campusmarketplace.repository.SearchQueryStatRepository.PopularSearch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-process autocomplete, one completion trie per university
+ *
+ * Phrases are the titles of active, approved listings plus the university's most
+ * frequent searches in the search_query_stats window; a phrase's weight is the number
+ * of listings carrying that title plus the number of times it was searched. Titles follow
+ * ListingChangedEvents once each change has committed; the whole index, including
+ * search counts, is rebuilt on a schedule. Until the first build completes isReady()
+ * returns false and callers should fall back to the database.
+ *
+ * Configuration:
+ * - app.search.autocomplete.enabled             → turn the index off entirely (default true)
+ * - app.search.autocomplete.max-suggestions     → completions kept per prefix (default 10)
+ * - app.search.autocomplete.refresh-interval-ms → time between full rebuilds (default 10 minutes)
+ * - app.search.autocomplete.popular-searches    → most frequent searches used per university
+ * - app.search.autocomplete.min-search-count    → searches needed before a query is suggested
+ */
+@Component
+public class AutocompleteIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(AutocompleteIndex.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SearchQueryStatRepository searchQueryStatRepository;
+
+    @Value("${app.search.history.window-days:30}")
+    private int searchWindowDays;
+
+    @Value("${app.search.autocomplete.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.search.autocomplete.max-suggestions:10}")
+    private int maxSuggestions;
+
+    @Value("${app.search.autocomplete.popular-searches:500}")
+    private int popularSearches;
+
+    @Value("${app.search.autocomplete.min-search-count:2}")
+    private long minSearchCount;
+
+    private volatile Map<UUID, CompletionTrie> tries = new ConcurrentHashMap<>();
+
+    // Title each listing currently contributes, so a change can take back the old one
+    private Map<UUID, ListingTitleEntry> listings = new HashMap<>();
+
+    // Listings changed while a rebuild was reading the database; re-read once it is swapped in
+    private volatile Set<UUID> changedDuringRebuild;
+
+    private volatile boolean ready;
+
+    private record ListingTitleEntry(UUID universityId, String title) {
+    }
+
+    /**
+     * Build every university's trie from listing titles and popular searches
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.search.autocomplete.refresh-interval-ms:600000}",
+               initialDelayString = "${app.search.autocomplete.refresh-interval-ms:600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        changedDuringRebuild = ConcurrentHashMap.newKeySet();
+        try {
+            Map<UUID, CompletionTrie> built = new HashMap<>();
+            Map<UUID, ListingTitleEntry> titles = new HashMap<>();
+            for (ListingTitle listing : productRepository.findListingTitles(ModerationStatus.APPROVED)) {
+                if (listing.getUniversityId() == null || listing.getTitle() == null) {
+                    continue;
+                }
+                titles.put(listing.getListingId(), new ListingTitleEntry(listing.getUniversityId(), listing.getTitle()));
+                trie(built, listing.getUniversityId()).add(listing.getTitle(), 1);
+            }
+
+            List<PopularSearch> searches = searchQueryStatRepository.findPopularSearchesByUniversity(
+                LocalDate.now().minusDays(searchWindowDays), minSearchCount);
+            Map<UUID, List<PopularSearch>> byUniversity = searches.stream()
+                .collect(Collectors.groupingBy(PopularSearch::getUniversityId));
+            byUniversity.forEach((universityId, queries) -> queries.stream()
+                .sorted(Comparator.comparingLong(PopularSearch::getSearchCount).reversed())
+                .limit(popularSearches)
+                .forEach(search -> trie(built, universityId).add(search.getQuery(), search.getSearchCount())));
+
+            synchronized (this) {
+                tries = new ConcurrentHashMap<>(built);
+                listings = titles;
+            }
+            ready = true;
+            log.info("✅ Autocomplete index built: {} titles, {} popular searches across {} universities in {}ms",
+                    titles.size(), searches.size(), built.size(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.warn("⚠️  Autocomplete index build failed: {} - autocomplete will use the database", e.getMessage());
+        } finally {
+            Set<UUID> changed = changedDuringRebuild;
+            changedDuringRebuild = null;
+            changed.forEach(this::reload);
+        }
+    }
+
+    /**
+     * Whether suggestions can be answered from the index
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Best completions for what the user has typed so far
+     */
+    public List<String> complete(UUID universityId, String prefix) {
+        CompletionTrie trie = tries.get(universityId);
+        return trie != null ? trie.complete(prefix, maxSuggestions) : List.of();
+    }
+
+    /**
+     * Re-read a changed listing and apply its committed title
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Set<UUID> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(event.getListingId());
+        }
+        reload(event.getListingId());
+    }
+
+    private void reload(UUID listingId) {
+        try {
+            apply(listingId, productRepository.findById(listingId).orElse(null));
+        } catch (Exception e) {
+            log.warn("Failed to update autocomplete for listing {}: {}", listingId, e.getMessage());
+        }
+    }
+
+    /**
+     * Replace the title a listing contributes (null or unsuggestable product removes it)
+     */
+    synchronized void apply(UUID listingId, Product product) {
+        ListingTitleEntry previous = listings.remove(listingId);
+        if (previous != null) {
+            CompletionTrie trie = tries.get(previous.universityId());
+            if (trie != null) {
+                trie.subtract(previous.title(), 1);
+            }
+        }
+        if (product != null && isSuggestable(product)) {
+            UUID universityId = product.getUniversity().getUniversityId();
+            listings.put(listingId, new ListingTitleEntry(universityId, product.getTitle()));
+            trie(tries, universityId).add(product.getTitle(), 1);
+        }
+    }
+
+    private CompletionTrie trie(Map<UUID, CompletionTrie> byUniversity, UUID universityId) {
+        return byUniversity.computeIfAbsent(universityId, id -> new CompletionTrie(maxSuggestions));
+    }
+
+    private boolean isSuggestable(Product product) {
+        return product.isActive()
+            && product.getModerationStatus() == ModerationStatus.APPROVED
+            && product.getTitle() != null
+            && product.getUniversity() != null
+            && product.getUniversity().getUniversityId() != null;
+    }
+}
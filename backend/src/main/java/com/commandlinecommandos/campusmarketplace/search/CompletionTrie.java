@@ -0,0 +1,261 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prefix trie of weighted completion phrases for one university
+ *
+ * Every node caches the best completions beneath it, so a lookup is a walk down the
+ * typed prefix followed by a copy of that node's list. A phrase is reachable from the
+ * start of each of its first few words ("calc" finds "Used Calculus Textbook"), and
+ * keys are cut at a fixed length since nobody types a whole title to get it suggested.
+ *
+ * Children are kept in small sorted arrays rather than maps to keep per-node overhead
+ * low, and are replaced copy-on-write. Writers must not run concurrently
+ * (AutocompleteIndex serialises them); readers never lock and see either the old or
+ * the new ranking of a node.
+ */
+final class CompletionTrie {
+
+    static final int MAX_KEY_LENGTH = 40;
+    static final int MAX_WORD_STARTS = 4;
+
+    /**
+     * A phrase with its display text and accumulated weight
+     */
+    record Suggestion(String key, String text, long weight) {
+    }
+
+    private static final Comparator<Suggestion> BEST_FIRST = Comparator.comparingLong(Suggestion::weight)
+        .reversed()
+        .thenComparing(Suggestion::key);
+
+    private final int maxSuggestions;
+    private final Node root = new Node();
+    private final Map<String, Suggestion> phrases = new HashMap<>();
+
+    CompletionTrie(int maxSuggestions) {
+        this.maxSuggestions = maxSuggestions;
+    }
+
+    /**
+     * Add weight to a phrase, inserting it if new
+     * A mixed-case display text (a listing title) replaces an all-lowercase one (a typed query)
+     */
+    void add(String text, long weight) {
+        String key = normalize(text);
+        if (key.isEmpty() || weight <= 0) {
+            return;
+        }
+        Suggestion current = phrases.get(key);
+        String display = current == null || (current.text().equals(key) && !text.trim().equals(key))
+            ? text.trim()
+            : current.text();
+        Suggestion updated = new Suggestion(key, display, (current != null ? current.weight() : 0) + weight);
+        phrases.put(key, updated);
+        for (String suffix : suffixes(key)) {
+            update(suffix, key, true);
+        }
+    }
+
+    /**
+     * Take weight away from a phrase, dropping it once nothing supports it
+     */
+    void subtract(String text, long weight) {
+        String key = normalize(text);
+        Suggestion current = phrases.get(key);
+        if (current == null || weight <= 0) {
+            return;
+        }
+        boolean keep = current.weight() > weight;
+        if (keep) {
+            phrases.put(key, new Suggestion(key, current.text(), current.weight() - weight));
+        } else {
+            phrases.remove(key);
+        }
+        for (String suffix : suffixes(key)) {
+            update(suffix, key, keep);
+        }
+    }
+
+    /**
+     * Best completions for a prefix, highest weight first
+     */
+    List<String> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.length() > MAX_KEY_LENGTH) {
+            key = key.substring(0, MAX_KEY_LENGTH);
+        }
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        List<Suggestion> best = node.best;
+        List<String> result = new ArrayList<>(Math.min(limit, best.size()));
+        for (int i = 0; i < best.size() && result.size() < limit; i++) {
+            result.add(best.get(i).text());
+        }
+        return result;
+    }
+
+    /**
+     * Number of distinct phrases
+     */
+    int size() {
+        return phrases.size();
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Keys a phrase is reachable from: itself and the text from each of its next few words on
+     */
+    static Set<String> suffixes(String key) {
+        Set<String> suffixes = new HashSet<>();
+        int start = 0;
+        for (int word = 0; word < MAX_WORD_STARTS && start < key.length(); word++) {
+            suffixes.add(key.substring(start, Math.min(key.length(), start + MAX_KEY_LENGTH)));
+            int space = key.indexOf(' ', start);
+            if (space < 0) {
+                break;
+            }
+            start = space + 1;
+        }
+        return suffixes;
+    }
+
+    /**
+     * Attach or detach a phrase at the end of one suffix path, then re-rank the path bottom-up
+     */
+    private void update(String suffix, String phraseKey, boolean attach) {
+        Node[] path = new Node[suffix.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < suffix.length(); i++) {
+            Node next = path[i].child(suffix.charAt(i));
+            if (next == null) {
+                if (!attach) {
+                    return;
+                }
+                next = new Node();
+                path[i].putChild(suffix.charAt(i), next);
+            }
+            path[i + 1] = next;
+        }
+
+        Node end = path[suffix.length()];
+        if (attach) {
+            end.terminals.add(phraseKey);
+        } else {
+            end.terminals.remove(phraseKey);
+        }
+
+        for (int i = suffix.length(); i >= 0; i--) {
+            Node node = path[i];
+            if (i > 0 && node.terminals.isEmpty() && node.isLeaf()) {
+                path[i - 1].removeChild(suffix.charAt(i - 1));
+                continue;
+            }
+            node.best = rank(node);
+        }
+    }
+
+    /**
+     * A node's best completions are the best of its own phrases and its children's lists
+     */
+    private List<Suggestion> rank(Node node) {
+        Map<String, Suggestion> candidates = new LinkedHashMap<>();
+        for (String key : node.terminals) {
+            Suggestion suggestion = phrases.get(key);
+            if (suggestion != null) {
+                candidates.put(key, suggestion);
+            }
+        }
+        for (Node child : node.children()) {
+            for (Suggestion suggestion : child.best) {
+                // Paths of the phrase's other suffixes are re-ranked after this one; use current weights
+                Suggestion current = phrases.get(suggestion.key());
+                if (current != null) {
+                    candidates.putIfAbsent(current.key(), current);
+                }
+            }
+        }
+        List<Suggestion> ranked = new ArrayList<>(candidates.values());
+        ranked.sort(BEST_FIRST);
+        return ranked.size() > maxSuggestions ? List.copyOf(ranked.subList(0, maxSuggestions)) : List.copyOf(ranked);
+    }
+
+    /**
+     * Child labels and nodes, replaced as a whole so readers always see a matching pair
+     */
+    private record Edges(char[] labels, Node[] nodes) {
+        static final Edges NONE = new Edges(new char[0], new Node[0]);
+    }
+
+    private static final class Node {
+        volatile Edges edges = Edges.NONE;
+        volatile List<Suggestion> best = List.of();
+        final Set<String> terminals = new HashSet<>(2);
+
+        Node child(char label) {
+            Edges current = edges;
+            int index = Arrays.binarySearch(current.labels(), label);
+            return index >= 0 ? current.nodes()[index] : null;
+        }
+
+        boolean isLeaf() {
+            return edges.labels().length == 0;
+        }
+
+        Node[] children() {
+            return edges.nodes();
+        }
+
+        void putChild(char label, Node child) {
+            Edges current = edges;
+            int index = -Arrays.binarySearch(current.labels(), label) - 1;
+            int size = current.labels().length;
+            char[] labels = new char[size + 1];
+            Node[] nodes = new Node[size + 1];
+            System.arraycopy(current.labels(), 0, labels, 0, index);
+            System.arraycopy(current.nodes(), 0, nodes, 0, index);
+            labels[index] = label;
+            nodes[index] = child;
+            System.arraycopy(current.labels(), index, labels, index + 1, size - index);
+            System.arraycopy(current.nodes(), index, nodes, index + 1, size - index);
+            edges = new Edges(labels, nodes);
+        }
+
+        void removeChild(char label) {
+            Edges current = edges;
+            int index = Arrays.binarySearch(current.labels(), label);
+            if (index < 0) {
+                return;
+            }
+            int size = current.labels().length;
+            char[] labels = new char[size - 1];
+            Node[] nodes = new Node[size - 1];
+            System.arraycopy(current.labels(), 0, labels, 0, index);
+            System.arraycopy(current.nodes(), 0, nodes, 0, index);
+            System.arraycopy(current.labels(), index + 1, labels, index, size - index - 1);
+            System.arraycopy(current.nodes(), index + 1, nodes, index, size - index - 1);
+            edges = new Edges(labels, nodes);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+/**
+ * Light English stemmer (Porter step 1: plurals, -ed/-ing, terminal y)
+ * Conservative on purpose: listing titles are short and over-stemming hurts precision
+ * more than it helps recall (e.g. "textbooks" -> "textbook", "charging" -> "charg")
+ */
+final class EnglishStemmer {
+
+    private EnglishStemmer() {
+    }
+
+    /**
+     * Stem a single lowercase token
+     */
+    static String stem(String word) {
+        if (word.length() <= 3 || containsDigit(word)) {
+            return word;
+        }
+        String w = step1a(word);
+        w = step1b(w);
+        return step1c(w);
+    }
+
+    private static String step1a(String w) {
+        if (w.endsWith("sses")) {
+            return w.substring(0, w.length() - 2);
+        }
+        if (w.endsWith("ies")) {
+            return w.substring(0, w.length() - 2);
+        }
+        if (w.endsWith("ss")) {
+            return w;
+        }
+        if (w.endsWith("s") && w.length() > 3) {
+            return w.substring(0, w.length() - 1);
+        }
+        return w;
+    }
+
+    private static String step1b(String w) {
+        if (w.endsWith("eed")) {
+            String stem = w.substring(0, w.length() - 3);
+            return measure(stem) > 0 ? stem + "ee" : w;
+        }
+
+        String stem;
+        if (w.endsWith("ed")) {
+            stem = w.substring(0, w.length() - 2);
+        } else if (w.endsWith("ing")) {
+            stem = w.substring(0, w.length() - 3);
+        } else {
+            return w;
+        }
+        if (!containsVowel(stem)) {
+            return w;
+        }
+
+        if (stem.endsWith("at") || stem.endsWith("bl") || stem.endsWith("iz")) {
+            return stem + "e";
+        }
+        if (endsWithDoubleConsonant(stem)) {
+            char last = stem.charAt(stem.length() - 1);
+            if (last != 'l' && last != 's' && last != 'z') {
+                return stem.substring(0, stem.length() - 1);
+            }
+            return stem;
+        }
+        if (measure(stem) == 1 && endsWithCvc(stem)) {
+            return stem + "e";
+        }
+        return stem;
+    }
+
+    private static String step1c(String w) {
+        if (w.endsWith("y") && containsVowel(w.substring(0, w.length() - 1))) {
+            return w.substring(0, w.length() - 1) + "i";
+        }
+        return w;
+    }
+
+    private static boolean isConsonant(String w, int i) {
+        switch (w.charAt(i)) {
+            case 'a', 'e', 'i', 'o', 'u':
+                return false;
+            case 'y':
+                return i == 0 || !isConsonant(w, i - 1);
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Porter's m: number of VC sequences in the stem
+     */
+    private static int measure(String w) {
+        int m = 0;
+        int i = 0;
+        int n = w.length();
+        while (i < n && isConsonant(w, i)) {
+            i++;
+        }
+        while (i < n) {
+            while (i < n && !isConsonant(w, i)) {
+                i++;
+            }
+            if (i >= n) {
+                break;
+            }
+            while (i < n && isConsonant(w, i)) {
+                i++;
+            }
+            m++;
+        }
+        return m;
+    }
+
+    private static boolean containsVowel(String w) {
+        for (int i = 0; i < w.length(); i++) {
+            if (!isConsonant(w, i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean endsWithDoubleConsonant(String w) {
+        int n = w.length();
+        return n >= 2 && w.charAt(n - 1) == w.charAt(n - 2) && isConsonant(w, n - 1);
+    }
+
+    private static boolean endsWithCvc(String w) {
+        int n = w.length();
+        if (n < 3 || !isConsonant(w, n - 3) || isConsonant(w, n - 2) || !isConsonant(w, n - 1)) {
+            return false;
+        }
+        char last = w.charAt(n - 1);
+        return last != 'w' && last != 'x' && last != 'y';
+    }
+
+    private static boolean containsDigit(String w) {
+        for (int i = 0; i < w.length(); i++) {
+            if (Character.isDigit(w.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,204 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Inverted index over the listings of a single university
+ * Scores with BM25; title terms count TITLE_WEIGHT times towards term frequency
+ * Reads take a shared lock so concurrent searches never block each other
+ */
+final class InvertedIndex {
+
+    static final int TITLE_WEIGHT = 2;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final Map<String, Map<UUID, Integer>> postings = new HashMap<>();
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long totalLength;
+
+    private static final class Entry {
+        private final ListingDocument document;
+        private final Map<String, Integer> termFrequencies;
+        private final int length;
+
+        private Entry(ListingDocument document, Map<String, Integer> termFrequencies, int length) {
+            this.document = document;
+            this.termFrequencies = termFrequencies;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Add or replace a listing
+     */
+    void put(ListingDocument document, String title, String description) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String term : TextAnalyzer.analyze(title)) {
+            frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+            length += TITLE_WEIGHT;
+        }
+        for (String term : TextAnalyzer.analyze(description)) {
+            frequencies.merge(term, 1, Integer::sum);
+            length++;
+        }
+        Entry entry = new Entry(document, frequencies, length);
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(document.getListingId());
+            entries.put(document.getListingId(), entry);
+            totalLength += length;
+            for (Map.Entry<String, Integer> tf : frequencies.entrySet()) {
+                postings.computeIfAbsent(tf.getKey(), k -> new HashMap<>())
+                    .put(document.getListingId(), tf.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a listing if present
+     */
+    void remove(UUID listingId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(listingId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Find listings containing every query term (plainto_tsquery semantics)
+     *
+     * @param queryTerms Analyzed query terms
+     * @param filter Structured filters, applied during the postings walk
+     * @param order Final ordering of hits
+     * @param offset Number of hits to skip
+     * @param limit Maximum number of hits to return
+     */
+    SearchHits search(List<String> queryTerms, Predicate<ListingDocument> filter,
+                      Comparator<ScoredListing> order, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(queryTerms));
+        if (terms.isEmpty()) {
+            return SearchHits.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Map<UUID, Integer>> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<UUID, Integer> list = postings.get(term);
+                if (list == null) {
+                    return SearchHits.empty();
+                }
+                lists.add(list);
+            }
+
+            int documentCount = entries.size();
+            double averageLength = documentCount == 0 ? 1.0 : (double) totalLength / documentCount;
+            double[] idf = new double[lists.size()];
+            for (int i = 0; i < lists.size(); i++) {
+                int df = lists.get(i).size();
+                idf[i] = Math.log(1.0 + (documentCount - df + 0.5) / (df + 0.5));
+            }
+
+            // Walk the shortest postings list and probe the others
+            int driver = 0;
+            for (int i = 1; i < lists.size(); i++) {
+                if (lists.get(i).size() < lists.get(driver).size()) {
+                    driver = i;
+                }
+            }
+
+            int window = offset + limit;
+            PriorityQueue<ScoredListing> top = new PriorityQueue<>(Math.max(1, window), order.reversed());
+            long total = 0;
+
+            for (UUID listingId : lists.get(driver).keySet()) {
+                Entry entry = entries.get(listingId);
+                if (entry == null || !filter.test(entry.document)) {
+                    continue;
+                }
+
+                double score = 0.0;
+                boolean matchesAll = true;
+                double norm = K1 * (1.0 - B + B * entry.length / averageLength);
+                for (int i = 0; i < lists.size(); i++) {
+                    Integer tf = lists.get(i).get(listingId);
+                    if (tf == null) {
+                        matchesAll = false;
+                        break;
+                    }
+                    score += idf[i] * (tf * (K1 + 1.0)) / (tf + norm);
+                }
+                if (!matchesAll) {
+                    continue;
+                }
+
+                total++;
+                if (window <= 0) {
+                    continue;
+                }
+                ScoredListing hit = new ScoredListing(entry.document, (float) score);
+                if (top.size() < window) {
+                    top.add(hit);
+                } else if (order.compare(hit, top.peek()) < 0) {
+                    top.poll();
+                    top.add(hit);
+                }
+            }
+
+            List<ScoredListing> ordered = new ArrayList<>(top);
+            ordered.sort(order);
+            List<ScoredListing> page = offset >= ordered.size()
+                ? Collections.emptyList()
+                : ordered.subList(offset, ordered.size());
+            return new SearchHits(total, List.copyOf(page));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(UUID listingId) {
+        Entry previous = entries.remove(listingId);
+        if (previous == null) {
+            return;
+        }
+        totalLength -= previous.length;
+        for (String term : previous.termFrequencies.keySet()) {
+            Map<UUID, Integer> list = postings.get(term);
+            if (list != null) {
+                list.remove(listingId);
+                if (list.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.model.Product;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of the listing fields the index filters and sorts on
+ * Text is not retained - only the analyzed terms live in the postings
+ */
+public final class ListingDocument {
+
+    private final UUID listingId;
+    private final UUID universityId;
+    private final ProductCategory category;
+    private final ProductCondition condition;
+    private final BigDecimal price;
+    private final String pickupLocation;
+    private final LocalDateTime createdAt;
+    private final int viewCount;
+    private final int favoriteCount;
+
+    public ListingDocument(UUID listingId, UUID universityId, ProductCategory category,
+                           ProductCondition condition, BigDecimal price, String pickupLocation,
+                           LocalDateTime createdAt, int viewCount, int favoriteCount) {
+        this.listingId = listingId;
+        this.universityId = universityId;
+        this.category = category;
+        this.condition = condition;
+        this.price = price;
+        this.pickupLocation = pickupLocation != null ? pickupLocation.toLowerCase(Locale.ROOT) : null;
+        this.createdAt = createdAt;
+        this.viewCount = viewCount;
+        this.favoriteCount = favoriteCount;
+    }
+
+    /**
+     * Build a snapshot from a Product entity
+     * Only reads the university id, so an uninitialized university proxy is fine.
+     * A freshly persisted listing may not have its creation timestamp until flush,
+     * in which case "now" is used for date filtering and sorting
+     */
+    public static ListingDocument from(Product product) {
+        return new ListingDocument(
+            product.getProductId(),
+            product.getUniversity() != null ? product.getUniversity().getUniversityId() : null,
+            product.getCategory(),
+            product.getCondition(),
+            product.getPrice(),
+            product.getPickupLocation(),
+            product.getCreatedAt() != null ? product.getCreatedAt() : LocalDateTime.now(),
+            product.getViewCount() != null ? product.getViewCount() : 0,
+            product.getFavoriteCount() != null ? product.getFavoriteCount() : 0
+        );
+    }
+
+    public UUID getListingId() {
+        return listingId;
+    }
+
+    public UUID getUniversityId() {
+        return universityId;
+    }
+
+    public ProductCategory getCategory() {
+        return category;
+    }
+
+    public ProductCondition getCondition() {
+        return condition;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    /**
+     * Pickup location, lowercased for case-insensitive contains filtering
+     */
+    public String getPickupLocation() {
+        return pickupLocation;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getViewCount() {
+        return viewCount;
+    }
+
+    public int getFavoriteCount() {
+        return favoriteCount;
+    }
+}
@@ -0,0 +1,216 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.listing.event.ListingChangedEvent;
+import com.commandlinecommandos.campusmarketplace.model.ModerationStatus;
+import com.commandlinecommandos.campusmarketplace.model.Product;
+import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * In-process full-text index of searchable listings, one inverted index per university
+ *
+ * Built from the listings table once the application is ready and kept current from
+ * ListingChangedEvents once each change has committed. Those events only reach the node
+ * that made the change, and view and favorite counts change in SQL without one, so the
+ * whole index is also rebuilt on a schedule. A rebuild fills new indexes and swaps them in,
+ * so searches keep using the old ones meanwhile. Until the initial build completes
+ * isReady() returns false and callers should fall back to database search.
+ *
+ * Configuration:
+ * - app.search.index.enabled             → turn the index off entirely (default true)
+ * - app.search.index.build-batch-size    → listings loaded per page during a build
+ * - app.search.index.refresh-interval-ms → time between full rebuilds (default 10 minutes)
+ */
+@Component
+public class ListingSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ListingSearchIndex.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${app.search.index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.search.index.build-batch-size:500}")
+    private int buildBatchSize;
+
+    private volatile Map<UUID, InvertedIndex> indexes = new ConcurrentHashMap<>();
+
+    // Listings changed while a rebuild was reading the database; re-read once it is swapped in
+    private volatile Set<UUID> changedDuringRebuild;
+
+    private volatile boolean ready;
+
+    /**
+     * Load every active, approved listing into new indexes and swap them in
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.search.index.refresh-interval-ms:600000}",
+               initialDelayString = "${app.search.index.refresh-interval-ms:600000}")
+    public void rebuild() {
+        if (!enabled) {
+            log.info("Listing search index disabled - search will use the database");
+            return;
+        }
+
+        long startTime = System.currentTimeMillis();
+        changedDuringRebuild = ConcurrentHashMap.newKeySet();
+        try {
+            Map<UUID, InvertedIndex> built = new ConcurrentHashMap<>();
+            int pageNumber = 0;
+            long indexed = 0;
+            Page<Product> page;
+            do {
+                page = productRepository.findByIsActiveTrueAndModerationStatus(
+                    ModerationStatus.APPROVED,
+                    PageRequest.of(pageNumber++, buildBatchSize, Sort.by("productId")));
+                for (Product product : page.getContent()) {
+                    if (add(built, product)) {
+                        indexed++;
+                    }
+                }
+            } while (page.hasNext());
+
+            indexes = built;
+            ready = true;
+            log.info("✅ Listing search index built: {} listings across {} universities in {}ms",
+                    indexed, built.size(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.warn("⚠️  Listing search index build failed: {} - {}", e.getMessage(),
+                    ready ? "keeping the previous index" : "search will use the database");
+        } finally {
+            Set<UUID> changed = changedDuringRebuild;
+            changedDuringRebuild = null;
+            changed.forEach(this::reload);
+        }
+    }
+
+    /**
+     * Whether searches can be answered from the index
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Re-read a changed listing and apply its committed state
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Set<UUID> changed = changedDuringRebuild;
+        if (changed != null) {
+            changed.add(event.getListingId());
+        }
+        reload(event.getListingId());
+    }
+
+    private void reload(UUID listingId) {
+        try {
+            productRepository.findById(listingId)
+                .ifPresentOrElse(this::index, () -> remove(listingId));
+        } catch (Exception e) {
+            log.warn("Failed to reindex listing {}: {}", listingId, e.getMessage());
+        }
+    }
+
+    /**
+     * Add, replace or remove a listing depending on whether it is currently searchable
+     */
+    public void index(Product product) {
+        if (!enabled || product == null || product.getProductId() == null) {
+            return;
+        }
+        if (isSearchable(product)) {
+            Map<UUID, InvertedIndex> current = indexes;
+            UUID universityId = product.getUniversity().getUniversityId();
+            // A listing only ever lives in its own university's index
+            current.forEach((id, index) -> {
+                if (!id.equals(universityId)) {
+                    index.remove(product.getProductId());
+                }
+            });
+            add(current, product);
+        } else {
+            remove(product.getProductId());
+        }
+    }
+
+    /**
+     * Remove a listing from the index
+     */
+    public void remove(UUID listingId) {
+        if (!enabled || listingId == null) {
+            return;
+        }
+        indexes.values().forEach(index -> index.remove(listingId));
+    }
+
+    /**
+     * Search a university's listings
+     *
+     * @param universityId University to search within
+     * @param query Raw query text
+     * @param filter Structured filters evaluated against each candidate
+     * @param order Result ordering
+     * @param offset Number of hits to skip
+     * @param limit Page size
+     * @return Matching hits for the requested page and the total hit count
+     */
+    public SearchHits search(UUID universityId, String query, Predicate<ListingDocument> filter,
+                             Comparator<ScoredListing> order, int offset, int limit) {
+        InvertedIndex index = indexes.get(universityId);
+        if (index == null) {
+            return SearchHits.empty();
+        }
+        List<String> terms = TextAnalyzer.analyze(query);
+        return index.search(terms, filter, order, offset, limit);
+    }
+
+    /**
+     * Number of listings indexed for a university
+     */
+    public int size(UUID universityId) {
+        InvertedIndex index = indexes.get(universityId);
+        return index != null ? index.size() : 0;
+    }
+
+    private boolean add(Map<UUID, InvertedIndex> byUniversity, Product product) {
+        if (!isSearchable(product)) {
+            return false;
+        }
+        ListingDocument document = ListingDocument.from(product);
+        byUniversity.computeIfAbsent(document.getUniversityId(), id -> new InvertedIndex())
+            .put(document, product.getTitle(), product.getDescription());
+        return true;
+    }
+
+    private boolean isSearchable(Product product) {
+        return product.isActive()
+            && product.getModerationStatus() == ModerationStatus.APPROVED
+            && product.getUniversity() != null
+            && product.getUniversity().getUniversityId() != null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import java.util.UUID;
+
+/**
+ * A listing matched by the index together with its BM25 relevance score
+ */
+public final class ScoredListing {
+
+    private final ListingDocument document;
+    private final float score;
+
+    public ScoredListing(ListingDocument document, float score) {
+        this.document = document;
+        this.score = score;
+    }
+
+    public ListingDocument getDocument() {
+        return document;
+    }
+
+    public UUID getListingId() {
+        return document.getListingId();
+    }
+
+    public float getScore() {
+        return score;
+    }
+}
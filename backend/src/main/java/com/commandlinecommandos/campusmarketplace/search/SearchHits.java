@@ -0,0 +1,34 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import java.util.List;
+
+/**
+ * One page of index hits plus the total number of matching listings
+ */
+public final class SearchHits {
+
+    private static final SearchHits EMPTY = new SearchHits(0, List.of());
+
+    private final long totalHits;
+    private final List<ScoredListing> hits;
+
+    public SearchHits(long totalHits, List<ScoredListing> hits) {
+        this.totalHits = totalHits;
+        this.hits = hits;
+    }
+
+    public static SearchHits empty() {
+        return EMPTY;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    /**
+     * Hits for the requested page, already in final order
+     */
+    public List<ScoredListing> getHits() {
+        return hits;
+    }
+}
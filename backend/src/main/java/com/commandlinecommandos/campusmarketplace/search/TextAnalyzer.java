@@ -0,0 +1,68 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Text analyzer for the in-memory listing index
+ * Lowercases, splits on non-alphanumeric characters, drops English stop words and stems
+ * Index and query text must go through the same analyzer so terms line up
+ */
+public final class TextAnalyzer {
+
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final int MAX_TOKEN_LENGTH = 40;
+
+    /**
+     * Stop words roughly matching PostgreSQL's 'english' text search configuration
+     */
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from",
+        "has", "have", "he", "her", "his", "if", "in", "into", "is", "it", "its",
+        "my", "no", "not", "of", "on", "or", "our", "she", "so", "such", "that",
+        "the", "their", "then", "there", "these", "they", "this", "to", "was",
+        "were", "will", "with", "you", "your"
+    );
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * Analyze text into index terms (duplicates preserved for term frequency)
+     *
+     * @param text Raw text, may be null
+     * @return List of stemmed terms in document order
+     */
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+
+        String lower = text.toLowerCase(Locale.ROOT);
+        int length = lower.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean tokenChar = i < length && Character.isLetterOrDigit(lower.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                addTerm(terms, lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    private static void addTerm(List<String> terms, String token) {
+        if (token.length() < MIN_TOKEN_LENGTH || token.length() > MAX_TOKEN_LENGTH) {
+            return;
+        }
+        if (STOP_WORDS.contains(token)) {
+            return;
+        }
+        terms.add(EnglishStemmer.stem(token));
+    }
+}
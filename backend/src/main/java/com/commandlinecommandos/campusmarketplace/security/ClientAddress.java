@@ -0,0 +1,38 @@
+package com.commandlinecommandos.campusmarketplace.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Client address used for login lockouts, rate limits and audit records
+ *
+ * The container has already applied X-Forwarded-For from trusted proxies only
+ * (server.forward-headers-strategy=native, server.tomcat.remoteip.internal-proxies),
+ * so getRemoteAddr() is the address the first trusted proxy saw. Forwarding
+ * headers are never read here: anything before that hop is set by the client.
+ */
+public final class ClientAddress {
+
+    public static final String UNKNOWN = "unknown";
+
+    private ClientAddress() {
+    }
+
+    public static String of(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        return address != null ? address : UNKNOWN;
+    }
+
+    /**
+     * Address of the request bound to this thread, or "unknown" outside a request
+     */
+    public static String current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            return of(servletAttributes.getRequest());
+        }
+        return UNKNOWN;
+    }
+}
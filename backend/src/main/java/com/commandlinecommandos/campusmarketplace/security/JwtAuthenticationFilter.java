@@ -1,10 +1,13 @@
 package com.commandlinecommandos.campusmarketplace.security;
 
+import com.commandlinecommandos.campusmarketplace.model.User;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,7 +21,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.UUID;
 
+/**
+ * Authenticates requests carrying a Bearer access token
+ *
+ * The token is parsed and verified once per request. In stateless mode (default)
+ * the principal is a User built from the token claims (userId, username, email,
+ * roles, universityId) and TokenRevocationService checks the token's auth version
+ * against a cached value, so a normal request does no database work for auth.
+ * Principals in this mode carry no profile fields; load the user by ID for those.
+ *
+ * Configuration:
+ * - app.security.jwt.stateless → false loads the user from the database on every request
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
@@ -30,6 +46,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
     
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
+    @Value("${app.security.jwt.stateless:true}")
+    private boolean stateless;
+    
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
@@ -38,7 +60,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
         String username = null;
         
         // Check if Authorization header exists and starts with "Bearer "
@@ -48,51 +69,43 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         
         // Extract JWT token
-        jwt = authHeader.substring(7);
+        final String jwt = authHeader.substring(7);
         
         try {
-            // Extract username from JWT
-            username = jwtUtil.extractUsername(jwt);
-            logger.debug("Extracted username from JWT: {}", username);
+            // Signature and expiry are verified here, once
+            Claims claims = jwtUtil.parseClaims(jwt);
+            username = claims.getSubject();
             
-            // If username is valid and no authentication is set in SecurityContext
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                
-                // Load user details
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                logger.debug("Loaded user details for: {}", username);
+            if (username == null) {
+                logger.warn("Failed to extract username from JWT token. Request URI: {}", request.getRequestURI());
+            } else if (jwtUtil.isRefreshToken(claims)) {
+                logger.warn("Refresh token used as access token for user: {}. Request URI: {}", username, request.getRequestURI());
+            } else if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails principal = stateless
+                    ? principalFromClaims(claims)
+                    : principalFromDatabase(claims, username);
                 
-                // Validate token
-                if (jwtUtil.validateToken(jwt, userDetails)) {
-                    // Create authentication token
-                    UsernamePasswordAuthenticationToken authToken = 
-                        new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                        );
-                    
-                    // Set authentication details
+                if (principal != null) {
+                    UsernamePasswordAuthenticationToken authToken =
+                        new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    
-                    // Set authentication in SecurityContext
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                     logger.debug("JWT authentication successful for user: {}", username);
                 } else {
-                    logger.warn("JWT token validation failed for user: {} - token is invalid or expired. Request URI: {}", username, request.getRequestURI());
+                    logger.warn("JWT token rejected for user: {} - token revoked or account inactive. Request URI: {}", username, request.getRequestURI());
                 }
-            } else if (username == null) {
-                logger.warn("Failed to extract username from JWT token. Request URI: {}", request.getRequestURI());
             }
         } catch (UsernameNotFoundException e) {
             // User not found in database - log at WARN level for visibility
             String usernameForLog = username != null ? username : "unknown";
             logger.warn("JWT token validation failed: User '{}' not found in database. Token may be valid but user was deleted. Request URI: {}", usernameForLog, request.getRequestURI(), e);
+        } catch (io.jsonwebtoken.ExpiredJwtException e) {
+            logger.warn("JWT token validation failed for user: {} - token is expired. Request URI: {}", e.getClaims().getSubject(), request.getRequestURI());
         } catch (io.jsonwebtoken.JwtException e) {
             // JWT parsing/signature errors
             logger.warn("JWT token parsing failed: {}. This usually means the token signature is invalid or the JWT secret doesn't match. Request URI: {}", e.getMessage(), request.getRequestURI());
         } catch (Exception e) {
-            // Log other exceptions (JWT parsing errors, etc.) at WARN level
+            // Log other exceptions at WARN level
             String usernameForLog = username != null ? username : "unknown";
             logger.warn("JWT token validation failed for user '{}': {}. Request URI: {}", usernameForLog, e.getMessage(), request.getRequestURI(), e);
         }
@@ -100,4 +113,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Continue with the filter chain
         filterChain.doFilter(request, response);
     }
+    
+    /**
+     * Stateless mode: principal from claims, revocation from the auth version cache
+     */
+    private UserDetails principalFromClaims(Claims claims) {
+        String userId = claims.get(JwtUtil.CLAIM_USER_ID, String.class);
+        if (userId == null) {
+            return null;
+        }
+        if (!tokenRevocationService.isCurrent(UUID.fromString(userId), jwtUtil.extractAuthVersion(claims))) {
+            return null;
+        }
+        return jwtUtil.toPrincipal(claims);
+    }
+    
+    /**
+     * Database mode: the loaded user must be enabled and still on the token's auth version
+     */
+    private UserDetails principalFromDatabase(Claims claims, String username) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        if (!userDetails.isEnabled()) {
+            return null;
+        }
+        if (userDetails instanceof User user && user.getAuthVersion() != jwtUtil.extractAuthVersion(claims)) {
+            return null;
+        }
+        return userDetails;
+    }
 }
@@ -1,27 +1,61 @@
 package com.commandlinecommandos.campusmarketplace.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import com.commandlinecommandos.campusmarketplace.model.University;
 import com.commandlinecommandos.campusmarketplace.model.User;
 import com.commandlinecommandos.campusmarketplace.model.UserRole;
 
 import javax.crypto.SecretKey;
-import java.util.Arrays;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Issues and verifies JWTs
+ *
+ * The signing key and parser are built once at startup; the parser is immutable
+ * and shared across threads. Verified claims are cached by SHA-256 digest of the
+ * token until the token expires, so the filter and controllers reading several
+ * claims from the same token pay for one signature check. Tokens that fail
+ * verification are never cached.
+ *
+ * Configuration:
+ * - app.security.jwt.claims-cache.max-size   → cached tokens (0 disables the cache)
+ * - app.security.jwt.claims-cache.max-ttl-ms → upper bound on an entry's lifetime; exp always applies
+ */
 @Component
 public class JwtUtil {
     
+    public static final String CLAIM_USER_ID = "userId";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_EMAIL = "email";
+    public static final String CLAIM_UNIVERSITY_ID = "universityId";
+    public static final String CLAIM_AUTH_VERSION = "ver";
+    public static final String CLAIM_TOKEN_TYPE = "tokenType";
+    
     @Value("${jwt.secret:myVerySecureSecretKeyForJWTTokensThatShouldBeAtLeast256BitsLongForHS256AlgorithmUpdated2024}")
     private String secret;
     
@@ -31,8 +65,34 @@ public class JwtUtil {
     @Value("${jwt.refresh-token.expiration:604800000}") // 7 days
     private Long refreshTokenExpiration;
     
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${app.security.jwt.claims-cache.max-size:10000}")
+    private long claimsCacheMaxSize = 10000;
+    
+    @Value("${app.security.jwt.claims-cache.max-ttl-ms:300000}")
+    private long claimsCacheMaxTtlMs = 300000;
+    
+    @Autowired(required = false)
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+    
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, Claims> claimsCache;
+    
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        claimsCache = claimsCacheMaxSize > 0
+            ? Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new UntilTokenExpiry(claimsCacheMaxTtlMs))
+                .recordStats()
+                .build()
+            : null;
+        MeterRegistry registry = meterRegistryProvider != null ? meterRegistryProvider.getIfAvailable() : null;
+        if (registry != null && claimsCache != null) {
+            CaffeineCacheMetrics.monitor(registry, claimsCache, "jwtClaims");
+        }
     }
     
     public String extractUsername(String token) {
@@ -47,19 +107,22 @@ public class JwtUtil {
      * Extract all roles from the JWT token.
      * @return Set of UserRole from the token
      */
-    @SuppressWarnings("unchecked")
     public Set<UserRole> extractRoles(String token) {
-        Object rolesObj = extractClaim(token, claims -> claims.get("roles"));
+        return rolesFrom(extractClaim(token, claims -> claims.get(CLAIM_ROLES)));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Set<UserRole> rolesFrom(Object rolesObj) {
         if (rolesObj instanceof List) {
             return ((List<String>) rolesObj).stream()
                 .map(UserRole::valueOf)
-                .collect(Collectors.toSet());
+                .collect(Collectors.toCollection(HashSet::new));
         }
         // Handle legacy single role format
         if (rolesObj instanceof String) {
-            return Set.of(UserRole.valueOf((String) rolesObj));
+            return new HashSet<>(Set.of(UserRole.valueOf((String) rolesObj)));
         }
-        return Set.of();
+        return new HashSet<>();
     }
     
     /**
@@ -77,8 +140,52 @@ public class JwtUtil {
         return roles.stream().findFirst().orElse(null);
     }
     
+    /**
+     * Parse and verify a token once; callers read every claim they need from the result
+     * @throws JwtException if the signature is invalid or the token has expired
+     */
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
+    }
+    
+    public boolean isRefreshToken(Claims claims) {
+        return "refresh".equals(claims.get(CLAIM_TOKEN_TYPE, String.class));
+    }
+    
+    /**
+     * Auth version the token was issued under; tokens issued before versioning count as 0
+     */
+    public long extractAuthVersion(Claims claims) {
+        Object version = claims.get(CLAIM_AUTH_VERSION);
+        return version instanceof Number number ? number.longValue() : 0L;
+    }
+    
+    /**
+     * Build the request principal from access token claims without a database lookup.
+     * The result is a detached User carrying only ID, username, email, roles and
+     * university ID; profile fields are not populated, so load the user by ID when
+     * they are needed.
+     */
+    public User toPrincipal(Claims claims) {
+        User user = new User();
+        String userId = claims.get(CLAIM_USER_ID, String.class);
+        user.setUserId(userId != null ? UUID.fromString(userId) : null);
+        user.setUsername(claims.getSubject());
+        user.setEmail(claims.get(CLAIM_EMAIL, String.class));
+        user.setRoles(rolesFrom(claims.get(CLAIM_ROLES)));
+        user.setAuthVersion(extractAuthVersion(claims));
+        user.setActive(true);
+        String universityId = claims.get(CLAIM_UNIVERSITY_ID, String.class);
+        if (universityId != null) {
+            University university = new University();
+            university.setUniversityId(UUID.fromString(universityId));
+            user.setUniversity(university);
+        }
+        return user;
+    }
+    
     public UUID extractUserId(String token) {
-        String userIdStr = extractClaim(token, claims -> claims.get("userId", String.class));
+        String userIdStr = extractClaim(token, claims -> claims.get(CLAIM_USER_ID, String.class));
         return userIdStr != null ? UUID.fromString(userIdStr) : null;
     }
     
@@ -88,32 +195,41 @@ public class JwtUtil {
     }
     
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        if (claimsCache == null || token == null) {
+            return verify(token);
+        }
+        // Failed verifications throw out of the loader and leave nothing behind
+        return claimsCache.get(digest(token), key -> verify(token));
     }
     
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private Claims verify(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+    
+    private Boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
     
     public String generateAccessToken(User user) {
         Map<String, Object> claims = new HashMap<>();
         // Store roles as array for many-to-many support
-        claims.put("roles", user.getRoles().stream()
+        claims.put(CLAIM_ROLES, user.getRoles().stream()
             .map(role -> role.name())
             .toArray(String[]::new));
-        claims.put("userId", user.getUserId() != null ? user.getUserId().toString() : null);
-        claims.put("email", user.getEmail());
+        claims.put(CLAIM_USER_ID, user.getUserId() != null ? user.getUserId().toString() : null);
+        claims.put(CLAIM_EMAIL, user.getEmail());
+        // Lets the JWT filter build the principal and check revocation without loading the user
+        if (user.getUniversity() != null && user.getUniversity().getUniversityId() != null) {
+            claims.put(CLAIM_UNIVERSITY_ID, user.getUniversity().getUniversityId().toString());
+        }
+        claims.put(CLAIM_AUTH_VERSION, user.getAuthVersion());
         return createToken(claims, user.getUsername(), accessTokenExpiration);
     }
     
     public String generateRefreshToken(User user) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("userId", user.getUserId() != null ? user.getUserId().toString() : null);
-        claims.put("tokenType", "refresh");
+        claims.put(CLAIM_USER_ID, user.getUserId() != null ? user.getUserId().toString() : null);
+        claims.put(CLAIM_TOKEN_TYPE, "refresh");
         return createToken(claims, user.getUsername(), refreshTokenExpiration);
     }
     
@@ -123,14 +239,14 @@ public class JwtUtil {
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
     
     public Boolean validateToken(String token, UserDetails userDetails) {
         try {
-            final String username = extractUsername(token);
-            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+            final Claims claims = extractAllClaims(token);
+            return (claims.getSubject().equals(userDetails.getUsername()) && !isTokenExpired(claims));
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
@@ -138,8 +254,7 @@ public class JwtUtil {
     
     public Boolean validateToken(String token) {
         try {
-            extractAllClaims(token);
-            return !isTokenExpired(token);
+            return !isTokenExpired(extractAllClaims(token));
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
@@ -152,4 +267,49 @@ public class JwtUtil {
     public Long getRefreshTokenExpiration() {
         return refreshTokenExpiration / 1000; // return in seconds
     }
+    
+    /**
+     * Cache key: the token itself is a bearer credential, so only its digest is kept
+     */
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * Keeps verified claims no longer than the token is valid, and never past the cap
+     */
+    private static final class UntilTokenExpiry implements Expiry<String, Claims> {
+        
+        private final long maxTtlNanos;
+        
+        UntilTokenExpiry(long maxTtlMs) {
+            this.maxTtlNanos = TimeUnit.MILLISECONDS.toNanos(maxTtlMs);
+        }
+        
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return maxTtlNanos;
+            }
+            long remainingMs = expiration.getTime() - System.currentTimeMillis();
+            return Math.max(0, Math.min(maxTtlNanos, TimeUnit.MILLISECONDS.toNanos(remainingMs)));
+        }
+        
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+        
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
 }
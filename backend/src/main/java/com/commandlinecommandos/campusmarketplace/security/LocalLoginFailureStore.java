@@ -0,0 +1,88 @@
+package com.commandlinecommandos.campusmarketplace.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Per-node failure windows in a bounded, expiring map
+ *
+ * Each key holds at most limit timestamps, so memory per key is fixed however
+ * hard it is hammered. A key with no failure for one window has nothing left to
+ * count and expires; past maxKeys the least recently used keys are dropped.
+ */
+public class LocalLoginFailureStore implements LoginFailureStore {
+
+    private final long windowMillis;
+    private final Cache<String, Failures> windows;
+
+    public LocalLoginFailureStore(Duration window, long maxKeys) {
+        this.windowMillis = window.toMillis();
+        this.windows = Caffeine.newBuilder()
+            .maximumSize(maxKeys)
+            .expireAfterWrite(window)
+            .build();
+    }
+
+    @Override
+    public LoginFailureWindow recordFailure(String key, int limit, long nowMillis) {
+        // compute() counts as a write, so the key's expiry moves with its latest failure
+        Failures failures = windows.asMap().compute(key, (k, existing) -> {
+            Failures window = existing != null ? existing : new Failures();
+            window.add(nowMillis, limit, windowMillis);
+            return window;
+        });
+        return failures.snapshot(nowMillis, windowMillis);
+    }
+
+    @Override
+    public LoginFailureWindow current(String key, long nowMillis) {
+        Failures failures = windows.getIfPresent(key);
+        return failures != null ? failures.snapshot(nowMillis, windowMillis) : LoginFailureWindow.EMPTY;
+    }
+
+    @Override
+    public void clear(String key) {
+        windows.invalidate(key);
+    }
+
+    /**
+     * Keys currently held
+     */
+    public long size() {
+        windows.cleanUp();
+        return windows.estimatedSize();
+    }
+
+    /**
+     * Failure timestamps for one key, oldest first
+     */
+    private static final class Failures {
+
+        private final Deque<Long> timestamps = new ArrayDeque<>();
+
+        synchronized void add(long nowMillis, int limit, long windowMillis) {
+            expire(nowMillis, windowMillis);
+            timestamps.addLast(nowMillis);
+            while (timestamps.size() > limit) {
+                timestamps.removeFirst();
+            }
+        }
+
+        synchronized LoginFailureWindow snapshot(long nowMillis, long windowMillis) {
+            expire(nowMillis, windowMillis);
+            return timestamps.isEmpty()
+                ? LoginFailureWindow.EMPTY
+                : new LoginFailureWindow(timestamps.size(), timestamps.peekFirst());
+        }
+
+        private void expire(long nowMillis, long windowMillis) {
+            while (!timestamps.isEmpty() && timestamps.peekFirst() <= nowMillis - windowMillis) {
+                timestamps.removeFirst();
+            }
+        }
+    }
+}
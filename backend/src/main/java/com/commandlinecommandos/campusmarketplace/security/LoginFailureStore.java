@@ -0,0 +1,28 @@
+package com.commandlinecommandos.campusmarketplace.security;
+
+/**
+ * Sliding windows of recent failed logins, keyed by username or client IP
+ *
+ * A window keeps at most limit timestamps: once it is full the key is locked
+ * until its oldest failure leaves the window.
+ */
+public interface LoginFailureStore {
+
+    /**
+     * Add a failure at nowMillis and return the window including it
+     *
+     * @param key   Window key; already scoped ("user:..." or "ip:...")
+     * @param limit Failures that lock the key; older ones beyond it are discarded
+     */
+    LoginFailureWindow recordFailure(String key, int limit, long nowMillis);
+
+    /**
+     * Failures still inside the window at nowMillis
+     */
+    LoginFailureWindow current(String key, long nowMillis);
+
+    /**
+     * Forget every failure for the key (after a successful login)
+     */
+    void clear(String key);
+}
@@ -0,0 +1,26 @@
+package com.commandlinecommandos.campusmarketplace.security;
+
+/**
+ * Failed logins inside the window for one key
+ *
+ * @param failures     Failures inside the window, capped at the key's limit
+ * @param oldestMillis Epoch millis of the oldest of them; 0 if there are none
+ */
+public record LoginFailureWindow(int failures, long oldestMillis) {
+
+    public static final LoginFailureWindow EMPTY = new LoginFailureWindow(0, 0);
+
+    public boolean isLocked(int limit) {
+        return failures >= limit;
+    }
+
+    /**
+     * Milliseconds until the key drops below its limit again; 0 if it is not locked
+     */
+    public long lockedForMillis(int limit, long windowMillis, long nowMillis) {
+        if (!isLocked(limit)) {
+            return 0;
+        }
+        return Math.max(0, oldestMillis + windowMillis - nowMillis);
+    }
+}
@@ -0,0 +1,111 @@
+package com.commandlinecommandos.campusmarketplace.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Failure windows shared by every node, kept in Redis
+ *
+ * Each key is a sorted set of failure timestamps. A Lua script trims entries
+ * that left the window, optionally adds the new failure (keeping at most limit
+ * entries) and returns the count and oldest timestamp, all in one round trip.
+ * Timestamps come from the calling node, so lockouts are as precise as the
+ * nodes' clocks agree.
+ *
+ * If Redis fails, this node's local windows are used instead, so an outage
+ * degrades to per-node lockout rather than none.
+ */
+public class RedisLoginFailureStore implements LoginFailureStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisLoginFailureStore.class);
+
+    private static final String KEY_PREFIX = "login-failures:";
+
+    /**
+     * KEYS[1] window; ARGV[1] now (ms); ARGV[2] window (ms); ARGV[3] limit, or 0 to only read; ARGV[4] member
+     * Returns {failures, oldest ms}
+     */
+    private static final String SCRIPT = """
+        local now = tonumber(ARGV[1])
+        local window = tonumber(ARGV[2])
+        local limit = tonumber(ARGV[3])
+        redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - window)
+        if limit > 0 then
+          redis.call('ZADD', KEYS[1], now, ARGV[4])
+          redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -(limit + 1))
+          redis.call('PEXPIRE', KEYS[1], window)
+        end
+        local count = redis.call('ZCARD', KEYS[1])
+        local oldest = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES')
+        return {count, tonumber(oldest[2] or 0)}
+        """;
+
+    private final StringRedisTemplate redisTemplate;
+    private final LoginFailureStore fallback;
+    private final long windowMillis;
+    private final DefaultRedisScript<List> script = new DefaultRedisScript<>(SCRIPT, List.class);
+
+    private volatile boolean degraded;
+
+    public RedisLoginFailureStore(StringRedisTemplate redisTemplate, Duration window, LoginFailureStore fallback) {
+        this.redisTemplate = redisTemplate;
+        this.windowMillis = window.toMillis();
+        this.fallback = fallback;
+    }
+
+    @Override
+    public LoginFailureWindow recordFailure(String key, int limit, long nowMillis) {
+        try {
+            return run(key, limit, nowMillis);
+        } catch (Exception e) {
+            degrade(e);
+            return fallback.recordFailure(key, limit, nowMillis);
+        }
+    }
+
+    @Override
+    public LoginFailureWindow current(String key, long nowMillis) {
+        try {
+            return run(key, 0, nowMillis);
+        } catch (Exception e) {
+            degrade(e);
+            return fallback.current(key, nowMillis);
+        }
+    }
+
+    @Override
+    public void clear(String key) {
+        fallback.clear(key);
+        try {
+            redisTemplate.delete(KEY_PREFIX + key);
+        } catch (Exception e) {
+            degrade(e);
+        }
+    }
+
+    private LoginFailureWindow run(String key, int limit, long nowMillis) {
+        List<?> result = redisTemplate.execute(script, List.of(KEY_PREFIX + key),
+            Long.toString(nowMillis), Long.toString(windowMillis), Integer.toString(limit),
+            nowMillis + ":" + UUID.randomUUID());
+        if (degraded) {
+            degraded = false;
+            logger.info("✅ Redis login lockout recovered");
+        }
+        int failures = ((Number) result.get(0)).intValue();
+        return failures == 0 ? LoginFailureWindow.EMPTY
+            : new LoginFailureWindow(failures, ((Number) result.get(1)).longValue());
+    }
+
+    private void degrade(Exception e) {
+        if (!degraded) {
+            degraded = true;
+            logger.warn("⚠️  Redis login lockout failed: {} - using per-node windows until it recovers", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.commandlinecommandos.campusmarketplace.security;
+
+import com.commandlinecommandos.campusmarketplace.model.User;
+import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Version-stamped revocation check for stateless access tokens
+ *
+ * Access tokens carry the user's auth_version as the "ver" claim. A token is
+ * accepted only while its version matches the user's current one and the user
+ * is active. Current versions live in the authState cache (key: userId), so the
+ * request path is a cache lookup; a miss costs one single-column query.
+ *
+ * Revoking bumps the version on the entity and evicts the cache entry after the
+ * caller's transaction commits. With the Redis cache manager the eviction reaches
+ * every node; with the in-memory fallback other nodes catch up when entries expire.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    public static final String AUTH_STATE = "authState";
+
+    /** Cached for inactive, suspended and deleted users */
+    private static final long INACTIVE = -1L;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /**
+     * Whether a token issued under tokenVersion is still valid for the user
+     *
+     * @param userId The user ID from the token
+     * @param tokenVersion The token's auth version
+     * @return false if the user is inactive or the token predates a revocation
+     */
+    public boolean isCurrent(UUID userId, long tokenVersion) {
+        long current = currentVersion(userId);
+        return current != INACTIVE && current == tokenVersion;
+    }
+
+    /**
+     * Invalidate every access token the user holds
+     * Call inside the transaction that saves the user; cached state is dropped once it commits.
+     *
+     * @param user The managed user entity
+     */
+    public void revokeTokens(User user) {
+        user.bumpAuthVersion();
+        evictAfterCommit(user.getUserId());
+    }
+
+    /**
+     * Drop cached state after a change that does not revoke tokens (e.g. reactivation)
+     *
+     * @param userId The user ID
+     */
+    public void refresh(UUID userId) {
+        evictAfterCommit(userId);
+    }
+
+    /**
+     * Drop cached state for many users, e.g. after a set-based UPDATE that bumped auth_version in SQL
+     *
+     * @param userIds The user IDs
+     */
+    public void refresh(Collection<UUID> userIds) {
+        List<UUID> ids = List.copyOf(userIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ids.forEach(TokenRevocationService.this::evict);
+                }
+            });
+        } else {
+            ids.forEach(this::evict);
+        }
+    }
+
+    private long currentVersion(UUID userId) {
+        Cache cache = cacheManager.getCache(AUTH_STATE);
+        String key = userId.toString();
+        if (cache != null) {
+            Cache.ValueWrapper wrapper = cache.get(key);
+            // JSON-serialised caches may hand small numbers back as Integer
+            if (wrapper != null && wrapper.get() instanceof Number number) {
+                return number.longValue();
+            }
+        }
+        long version = userRepository.findActiveAuthVersion(userId).orElse(INACTIVE);
+        if (cache != null) {
+            cache.put(key, version);
+        }
+        return version;
+    }
+
+    private void evictAfterCommit(UUID userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        } else {
+            evict(userId);
+        }
+    }
+
+    private void evict(UUID userId) {
+        try {
+            Cache cache = cacheManager.getCache(AUTH_STATE);
+            if (cache != null) {
+                // evictIfPresent is immediate even on transaction-aware caches, which matters inside afterCommit
+                cache.evictIfPresent(userId.toString());
+            }
+        } catch (Exception e) {
+            logger.warn("Auth state eviction failed for user {}: {}", userId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Sends suspension notices for a bulk suspension once it has committed
+ *
+ * The bulk UPDATE's row locks and connection are released before any SMTP call,
+ * and nothing is sent if the suspension rolls back. Sends run on the emailExecutor
+ * pool; when it is saturated the listener thread sends the rest itself.
+ */
+@Component
+public class AccountSuspensionNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountSuspensionNotifier.class);
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    @Qualifier("emailExecutor")
+    private TaskExecutor emailExecutor;
+
+    /**
+     * Published by UserManagementService after a bulk suspension
+     */
+    public record UsersSuspendedEvent(List<Recipient> recipients, String reason) {
+    }
+
+    public record Recipient(String email, String username) {
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUsersSuspended(UsersSuspendedEvent event) {
+        log.info("Sending {} account suspension emails", event.recipients().size());
+        for (Recipient recipient : event.recipients()) {
+            emailExecutor.execute(() ->
+                emailService.sendAccountSuspensionEmail(recipient.email(), recipient.username(), event.reason()));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Point-in-time counts for the admin analytics dashboards
+ *
+ * Each snapshot is one aggregate query (COUNT ... FILTER) over its table, so a
+ * dashboard costs the same few queries and the same memory however many users,
+ * listings or login attempts there are. Counts over past days (registrations,
+ * suspensions, events by severity) come from AnalyticsRollupService instead.
+ */
+@Service
+public class AdminAnalyticsService {
+
+    private static final String USER_SNAPSHOT =
+        "SELECT COUNT(*) AS total_users, " +
+        "COUNT(*) FILTER (WHERE u.is_active) AS active_users, " +
+        "COUNT(*) FILTER (WHERE u.verification_status = 'PENDING') AS pending_users, " +
+        "COUNT(*) FILTER (WHERE u.verification_status = 'VERIFIED') AS verified_users, " +
+        "COUNT(*) FILTER (WHERE u.verification_status = 'REJECTED') AS rejected_users, " +
+        "COUNT(*) FILTER (WHERE u.verification_status = 'SUSPENDED') AS suspended_users, " +
+        "COUNT(*) FILTER (WHERE EXISTS (SELECT 1 FROM user_roles r WHERE r.user_id = u.user_id AND r.role = 'BUYER')) AS buyers, " +
+        "COUNT(*) FILTER (WHERE EXISTS (SELECT 1 FROM user_roles r WHERE r.user_id = u.user_id AND r.role = 'SELLER')) AS sellers, " +
+        "COUNT(*) FILTER (WHERE EXISTS (SELECT 1 FROM user_roles r WHERE r.user_id = u.user_id AND r.role = 'ADMIN')) AS admins, " +
+        "COUNT(*) FILTER (WHERE EXISTS (SELECT 1 FROM user_roles r WHERE r.user_id = u.user_id AND r.role IN ('BUYER', 'SELLER'))) AS students, " +
+        "COUNT(*) FILTER (WHERE u.last_login_at >= ?) AS logged_in_last_7_days, " +
+        "COUNT(*) FILTER (WHERE u.last_login_at >= ?) AS logged_in_last_30_days, " +
+        "COUNT(*) FILTER (WHERE u.last_login_at IS NULL) AS never_logged_in " +
+        "FROM users u";
+
+    private static final String LISTING_SNAPSHOT =
+        "SELECT COUNT(*) AS total_listings, " +
+        "COUNT(*) FILTER (WHERE moderation_status = 'APPROVED') AS approved_listings " +
+        "FROM listings";
+
+    private static final String LOGINS_SINCE =
+        "SELECT COUNT(*) FILTER (WHERE success) AS successful_logins, " +
+        "COUNT(*) FILTER (WHERE NOT success) AS failed_logins " +
+        "FROM login_attempts WHERE created_at >= ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * User counts by status, role and last login, in one query
+     */
+    public UserSnapshot userSnapshot() {
+        LocalDateTime now = LocalDateTime.now();
+        return jdbcTemplate.queryForObject(USER_SNAPSHOT, (rs, rowNum) -> new UserSnapshot(
+            rs.getLong("total_users"),
+            rs.getLong("active_users"),
+            rs.getLong("pending_users"),
+            rs.getLong("verified_users"),
+            rs.getLong("rejected_users"),
+            rs.getLong("suspended_users"),
+            rs.getLong("buyers"),
+            rs.getLong("sellers"),
+            rs.getLong("admins"),
+            rs.getLong("students"),
+            rs.getLong("logged_in_last_7_days"),
+            rs.getLong("logged_in_last_30_days"),
+            rs.getLong("never_logged_in")),
+            Timestamp.valueOf(now.minusDays(7)), Timestamp.valueOf(now.minusDays(30)));
+    }
+
+    /**
+     * Listing totals, in one query
+     */
+    public ListingSnapshot listingSnapshot() {
+        return jdbcTemplate.queryForObject(LISTING_SNAPSHOT, (rs, rowNum) -> new ListingSnapshot(
+            rs.getLong("total_listings"),
+            rs.getLong("approved_listings")));
+    }
+
+    /**
+     * Login attempts since the given time, read from the created_at index
+     */
+    public LoginCounts loginsSince(LocalDateTime since) {
+        return jdbcTemplate.queryForObject(LOGINS_SINCE, (rs, rowNum) -> new LoginCounts(
+            rs.getLong("successful_logins"),
+            rs.getLong("failed_logins")),
+            Timestamp.valueOf(since));
+    }
+
+    public record UserSnapshot(long totalUsers, long activeUsers, long pendingUsers, long verifiedUsers,
+                               long rejectedUsers, long suspendedUsers, long buyers, long sellers, long admins,
+                               long students, long loggedInLast7Days, long loggedInLast30Days,
+                               long neverLoggedIn) {
+    }
+
+    public record ListingSnapshot(long totalListings, long approvedListings) {
+    }
+
+    public record LoginCounts(long successful, long failed) {
+    }
+}
@@ -0,0 +1,237 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Daily counters behind the admin analytics dashboards
+ *
+ * A scheduled job recomputes analytics_daily_counters for the most recent days
+ * with one GROUP BY query per source table (users, listings, login_attempts,
+ * audit_logs) and rewrites those rows in one transaction. If the node was down,
+ * the next refresh starts from the last day already rolled up, and an empty table
+ * is rebuilt from the full history. Dashboards then read a single row of sums
+ * (totals()) however large the source tables grow.
+ *
+ * Counters for today lag by at most one refresh interval.
+ *
+ * Configuration:
+ * - app.analytics.rollup.enabled             → refresh the rollup (default true)
+ * - app.analytics.rollup.refresh-interval-ms → delay between refreshes (default 5 min)
+ * - app.analytics.rollup.refresh-days        → trailing days recomputed on every refresh,
+ *                                              so rows written late by the write-behind buffers are counted
+ */
+@Service
+public class AnalyticsRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsRollupService.class);
+
+    /** Starting point when the rollup is empty */
+    private static final LocalDate FULL_HISTORY = LocalDate.of(1970, 1, 1);
+
+    private static final String NEW_USERS_BY_DAY =
+        "SELECT CAST(created_at AS DATE) AS stat_date, COUNT(*) AS new_users " +
+        "FROM users WHERE created_at >= ? GROUP BY CAST(created_at AS DATE)";
+
+    private static final String NEW_LISTINGS_BY_DAY =
+        "SELECT CAST(created_at AS DATE) AS stat_date, COUNT(*) AS new_listings " +
+        "FROM listings WHERE created_at >= ? GROUP BY CAST(created_at AS DATE)";
+
+    private static final String LOGINS_BY_DAY =
+        "SELECT CAST(created_at AS DATE) AS stat_date, " +
+        "COUNT(*) FILTER (WHERE success) AS successful_logins, " +
+        "COUNT(*) FILTER (WHERE NOT success) AS failed_logins " +
+        "FROM login_attempts WHERE created_at >= ? GROUP BY CAST(created_at AS DATE)";
+
+    private static final String AUDIT_EVENTS_BY_DAY =
+        "SELECT CAST(created_at AS DATE) AS stat_date, " +
+        "COUNT(*) FILTER (WHERE action = 'SUSPENDED') AS suspensions, " +
+        "COUNT(*) FILTER (WHERE severity = 'CRITICAL') AS critical_events, " +
+        "COUNT(*) FILTER (WHERE severity = 'ERROR') AS error_events, " +
+        "COUNT(*) FILTER (WHERE severity = 'WARNING') AS warning_events " +
+        "FROM audit_logs WHERE created_at >= ? GROUP BY CAST(created_at AS DATE)";
+
+    private static final String DELETE_FROM =
+        "DELETE FROM analytics_daily_counters WHERE stat_date >= ?";
+
+    private static final String INSERT_COUNTERS =
+        "INSERT INTO analytics_daily_counters (stat_date, new_users, new_listings, successful_logins, " +
+        "failed_logins, suspensions, critical_events, error_events, warning_events, refreshed_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String TOTALS =
+        "SELECT " +
+        "COALESCE(SUM(new_users) FILTER (WHERE stat_date = ?), 0) AS new_users_today, " +
+        "COALESCE(SUM(new_users) FILTER (WHERE stat_date > ?), 0) AS new_users_week, " +
+        "COALESCE(SUM(new_users) FILTER (WHERE stat_date > ?), 0) AS new_users_month, " +
+        "COALESCE(SUM(new_listings) FILTER (WHERE stat_date = ?), 0) AS new_listings_today, " +
+        "COALESCE(SUM(new_listings) FILTER (WHERE stat_date > ?), 0) AS new_listings_week, " +
+        "COALESCE(SUM(suspensions) FILTER (WHERE stat_date > ?), 0) AS suspensions_month, " +
+        "COALESCE(SUM(critical_events), 0) AS critical_events, " +
+        "COALESCE(SUM(error_events), 0) AS error_events, " +
+        "COALESCE(SUM(warning_events), 0) AS warning_events, " +
+        "MAX(refreshed_at) AS refreshed_at " +
+        "FROM analytics_daily_counters";
+
+    // Positions in the per-day counter array, in INSERT_COUNTERS column order
+    private static final int NEW_USERS = 0;
+    private static final int NEW_LISTINGS = 1;
+    private static final int SUCCESSFUL_LOGINS = 2;
+    private static final int FAILED_LOGINS = 3;
+    private static final int SUSPENSIONS = 4;
+    private static final int CRITICAL_EVENTS = 5;
+    private static final int ERROR_EVENTS = 6;
+    private static final int WARNING_EVENTS = 7;
+    private static final int COUNTER_COUNT = 8;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.analytics.rollup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.analytics.rollup.refresh-days:2}")
+    private int refreshDays;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        refresh();
+    }
+
+    /**
+     * Recompute the trailing days, plus any days missed since the last refresh
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.rollup.refresh-interval-ms:300000}",
+               initialDelayString = "${app.analytics.rollup.refresh-interval-ms:300000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            LocalDate from = LocalDate.now().minusDays(Math.max(refreshDays, 1) - 1L);
+            LocalDate lastRolledUp = jdbcTemplate.queryForObject(
+                "SELECT MAX(stat_date) FROM analytics_daily_counters", LocalDate.class);
+            if (lastRolledUp == null) {
+                from = FULL_HISTORY;
+            } else if (lastRolledUp.isBefore(from)) {
+                from = lastRolledUp;
+            }
+            int days = rebuildFrom(from);
+            log.debug("Analytics rollup refreshed from {}: {} days in {}ms",
+                from, days, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.warn("⚠️  Analytics rollup refresh failed: {} - keeping previous counters", e.getMessage());
+        }
+    }
+
+    /**
+     * Rewrite every counter row from the given day onwards
+     *
+     * @return number of days with activity that were written
+     */
+    public int rebuildFrom(LocalDate from) {
+        Timestamp since = Timestamp.valueOf(from.atStartOfDay());
+        Map<LocalDate, long[]> counters = new TreeMap<>();
+
+        jdbcTemplate.query(NEW_USERS_BY_DAY, rs -> {
+            day(counters, rs)[NEW_USERS] = rs.getLong("new_users");
+        }, since);
+        jdbcTemplate.query(NEW_LISTINGS_BY_DAY, rs -> {
+            day(counters, rs)[NEW_LISTINGS] = rs.getLong("new_listings");
+        }, since);
+        jdbcTemplate.query(LOGINS_BY_DAY, rs -> {
+            long[] day = day(counters, rs);
+            day[SUCCESSFUL_LOGINS] = rs.getLong("successful_logins");
+            day[FAILED_LOGINS] = rs.getLong("failed_logins");
+        }, since);
+        jdbcTemplate.query(AUDIT_EVENTS_BY_DAY, rs -> {
+            long[] day = day(counters, rs);
+            day[SUSPENSIONS] = rs.getLong("suspensions");
+            day[CRITICAL_EVENTS] = rs.getLong("critical_events");
+            day[ERROR_EVENTS] = rs.getLong("error_events");
+            day[WARNING_EVENTS] = rs.getLong("warning_events");
+        }, since);
+
+        Timestamp refreshedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(counters.size());
+        counters.forEach((statDate, values) -> {
+            Object[] row = new Object[COUNTER_COUNT + 2];
+            row[0] = Date.valueOf(statDate);
+            for (int i = 0; i < COUNTER_COUNT; i++) {
+                row[i + 1] = values[i];
+            }
+            row[COUNTER_COUNT + 1] = refreshedAt;
+            rows.add(row);
+        });
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update(DELETE_FROM, Date.valueOf(from));
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_COUNTERS, rows);
+            }
+        });
+        return rows.size();
+    }
+
+    /**
+     * Sums for every dashboard window in one query
+     * Windows are calendar days ending today: "week" is the last 7 days, "month" the last 30
+     */
+    public RollupTotals totals() {
+        LocalDate today = LocalDate.now();
+        Date todayDate = Date.valueOf(today);
+        Date weekStart = Date.valueOf(today.minusDays(7));
+        Date monthStart = Date.valueOf(today.minusDays(30));
+        return jdbcTemplate.queryForObject(TOTALS, (rs, rowNum) -> {
+            Timestamp refreshedAt = rs.getTimestamp("refreshed_at");
+            return new RollupTotals(
+                rs.getLong("new_users_today"),
+                rs.getLong("new_users_week"),
+                rs.getLong("new_users_month"),
+                rs.getLong("new_listings_today"),
+                rs.getLong("new_listings_week"),
+                rs.getLong("suspensions_month"),
+                rs.getLong("critical_events"),
+                rs.getLong("error_events"),
+                rs.getLong("warning_events"),
+                refreshedAt != null ? refreshedAt.toLocalDateTime() : null);
+        }, todayDate, weekStart, monthStart, todayDate, weekStart, monthStart);
+    }
+
+    private static long[] day(Map<LocalDate, long[]> counters, ResultSet rs) throws SQLException {
+        return counters.computeIfAbsent(rs.getDate("stat_date").toLocalDate(), d -> new long[COUNTER_COUNT]);
+    }
+
+    /**
+     * Rollup sums for the dashboard windows; refreshedAt is null until the first refresh
+     */
+    public record RollupTotals(long newUsersToday, long newUsersThisWeek, long newUsersThisMonth,
+                               long newListingsToday, long newListingsThisWeek, long suspensionsThisMonth,
+                               long criticalEvents, long errorEvents, long warningEvents,
+                               LocalDateTime refreshedAt) {
+    }
+}
@@ -0,0 +1,241 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.model.AuditLog;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for audit_logs rows
+ *
+ * AuditService builds each entry on the caller's thread, request details
+ * included, and hands it here. enqueue() snapshots the entry into a bounded
+ * ring buffer and returns; a scheduled flush drains it in JDBC batches instead
+ * of one save and one transaction per event. When the buffer
+ * is full new entries are dropped and counted rather than blocking requests.
+ *
+ * A batch the database rejects (e.g. a user deleted before the flush) is retried
+ * row by row so one bad entry costs only itself.
+ *
+ * Configuration:
+ * - app.audit.flush-interval-ms → delay between flushes (default 1s)
+ * - app.audit.max-pending       → buffered entries before new ones are dropped
+ * - app.audit.batch-size        → rows per INSERT batch
+ */
+@Component
+public class AuditLogWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private static final String INSERT_AUDIT =
+        "INSERT INTO audit_logs (audit_id, user_id, username, table_name, record_id, action, " +
+        "old_values, new_values, description, ip_address, user_agent, severity, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, %s, %s, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    @Value("${app.audit.max-pending:20000}")
+    private int maxPending;
+
+    @Value("${app.audit.batch-size:500}")
+    private int batchSize;
+
+    private String insertSql;
+    private BlockingQueue<PendingAudit> pending;
+    private Counter dropped;
+    private Counter written;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @PostConstruct
+    void init() {
+        insertSql = insertSql();
+        pending = new ArrayBlockingQueue<>(maxPending);
+        MeterRegistry registry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        dropped = Counter.builder("audit.buffer.dropped")
+            .description("Audit events not stored because the buffer was full or the row was rejected")
+            .register(registry);
+        written = Counter.builder("audit.buffer.written").description("Audit rows written")
+            .register(registry);
+        Gauge.builder("audit.buffer.pending", this, AuditLogWriter::pendingCount)
+            .description("Audit events waiting to be written")
+            .register(registry);
+        Gauge.builder("audit.buffer.capacity", this, writer -> writer.maxPending)
+            .description("Audit events the buffer holds before dropping")
+            .register(registry);
+    }
+
+    /**
+     * Queue an entry; request details must already be set on it
+     *
+     * @return false if the buffer was full and the entry was dropped
+     */
+    public boolean enqueue(AuditLog auditLog) {
+        if (!pending.offer(snapshot(auditLog))) {
+            dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.audit.flush-interval-ms:1000}",
+               initialDelayString = "${app.audit.flush-interval-ms:1000}")
+    @Async("auditExecutor")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int count = flush();
+        if (count > 0) {
+            log.info("Audit buffer flushed on shutdown: {} rows", count);
+        }
+    }
+
+    /**
+     * Write everything buffered so far
+     *
+     * @return number of rows written
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            return flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int flushPending() {
+        int total = 0;
+        List<PendingAudit> batch = new ArrayList<>(Math.min(batchSize, maxPending));
+        while (pending.drainTo(batch, batchSize) > 0) {
+            total += write(batch);
+            batch.clear();
+        }
+        return total;
+    }
+
+    private int write(List<PendingAudit> batch) {
+        // Row IDs are assigned here, so a row-by-row retry can recognise rows the batch already stored
+        List<Object[]> rows = batch.stream().map(PendingAudit::row).toList();
+        try {
+            jdbcTemplate.batchUpdate(insertSql, rows);
+            written.increment(rows.size());
+            return rows.size();
+        } catch (Exception e) {
+            log.warn("⚠️  Audit batch of {} rows failed, writing them one by one: {}", rows.size(), e.getMessage());
+        }
+
+        int stored = 0;
+        for (Object[] row : rows) {
+            try {
+                jdbcTemplate.update(insertSql, row);
+                stored++;
+            } catch (DuplicateKeyException e) {
+                // IDs are fixed before the batch, so this row already went in before the batch failed
+                stored++;
+            } catch (Exception e) {
+                dropped.increment();
+                log.warn("⚠️  Audit row dropped ({} {}): {}", row[5], row[3], e.getMessage());
+            }
+        }
+        written.increment(stored);
+        return stored;
+    }
+
+    private PendingAudit snapshot(AuditLog auditLog) {
+        return new PendingAudit(
+            auditLog.getUser() != null ? auditLog.getUser().getUserId() : null,
+            truncate(auditLog.getUsername(), 50),
+            truncate(auditLog.getTableName(), 100),
+            auditLog.getRecordId(),
+            truncate(auditLog.getAction(), 50),
+            toJson(auditLog.getOldValues()),
+            toJson(auditLog.getNewValues()),
+            truncate(auditLog.getDescription(), 500),
+            truncate(auditLog.getIpAddress(), 45),
+            truncate(auditLog.getUserAgent(), 500),
+            auditLog.getSeverity() != null ? auditLog.getSeverity().name() : AuditLog.Severity.INFO.name(),
+            auditLog.getCreatedAt() != null ? auditLog.getCreatedAt() : LocalDateTime.now());
+    }
+
+    private String toJson(Map<String, Object> values) {
+        if (values == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(values);
+        } catch (JsonProcessingException e) {
+            log.warn("⚠️  Audit values not serialisable, storing without them: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * old_values and new_values are JSONB on PostgreSQL, which will not take a varchar parameter
+     */
+    private String insertSql() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName());
+        String json = "PostgreSQL".equalsIgnoreCase(product) ? "CAST(? AS jsonb)" : "?";
+        return String.format(INSERT_AUDIT, json, json);
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    /**
+     * One audit_logs row, copied off the entity when it is queued
+     */
+    record PendingAudit(UUID userId, String username, String tableName, UUID recordId, String action,
+                        String oldValues, String newValues, String description, String ipAddress,
+                        String userAgent, String severity, LocalDateTime createdAt) {
+
+        Object[] row() {
+            return new Object[] {
+                UUID.randomUUID(), userId, username, tableName, recordId, action,
+                oldValues, newValues, description, ipAddress, userAgent, severity, Timestamp.valueOf(createdAt)
+            };
+        }
+    }
+}
@@ -3,11 +3,11 @@ package com.commandlinecommandos.campusmarketplace.service;
 import com.commandlinecommandos.campusmarketplace.model.AuditLog;
 import com.commandlinecommandos.campusmarketplace.model.User;
 import com.commandlinecommandos.campusmarketplace.repository.AuditLogRepository;
+import com.commandlinecommandos.campusmarketplace.security.ClientAddress;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.request.RequestContextHolder;
@@ -20,53 +20,53 @@ import java.util.UUID;
 /**
  * Service for comprehensive audit logging
  * Tracks all user actions, admin operations, and security events
+ *
+ * The log* methods build the entry on the caller's thread, so the request's IP
+ * and user agent are still available, then hand it to AuditLogWriter and return.
+ * Rows reach audit_logs in batches within about a second.
  */
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class AuditService {
     
     @Autowired
     private AuditLogRepository auditLogRepository;
     
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+    
     /**
      * Log a generic audit event
      */
-    @Async
     public void logAuditEvent(User user, String tableName, String action, String description) {
         AuditLog auditLog = new AuditLog(user, tableName, action, description);
-        enrichWithRequestInfo(auditLog);
-        auditLogRepository.save(auditLog);
+        record(auditLog);
     }
     
     /**
      * Log audit event with old and new values
      */
-    @Async
     public void logAuditEvent(User user, String tableName, UUID recordId, String action, 
                               Map<String, Object> oldValues, Map<String, Object> newValues, String description) {
         AuditLog auditLog = new AuditLog(user, tableName, action, description);
         auditLog.setRecordId(recordId);
         auditLog.setOldValues(oldValues);
         auditLog.setNewValues(newValues);
-        enrichWithRequestInfo(auditLog);
-        auditLogRepository.save(auditLog);
+        record(auditLog);
     }
     
     /**
      * Log security event with severity
      */
-    @Async
     public void logSecurityEvent(User user, String action, String description, AuditLog.Severity severity) {
         AuditLog auditLog = new AuditLog(user, "SECURITY", action, description);
         auditLog.setSeverity(severity);
-        enrichWithRequestInfo(auditLog);
-        auditLogRepository.save(auditLog);
+        record(auditLog);
     }
     
     /**
      * Log user login
      */
-    @Async
     public void logLogin(User user, boolean success) {
         String action = success ? "LOGIN_SUCCESS" : "LOGIN_FAILED";
         String description = success ? 
@@ -82,7 +82,6 @@ public class AuditService {
     /**
      * Log user logout
      */
-    @Async
     public void logLogout(UUID userId, String username) {
         AuditLog auditLog = new AuditLog();
         auditLog.setUsername(username);
@@ -90,14 +89,12 @@ public class AuditService {
         auditLog.setAction("LOGOUT");
         auditLog.setDescription("User logged out");
         auditLog.setSeverity(AuditLog.Severity.INFO);
-        enrichWithRequestInfo(auditLog);
-        auditLogRepository.save(auditLog);
+        record(auditLog);
     }
     
     /**
      * Log password change
      */
-    @Async
     public void logPasswordChange(User user, boolean byAdmin) {
         String description = byAdmin ? 
             "Password changed by administrator" : 
@@ -108,8 +105,14 @@ public class AuditService {
     /**
      * Log account status change
      */
-    @Async
     public void logAccountStatusChange(User targetUser, User admin, String action, String reason) {
+        logAccountStatusChange(targetUser.getUserId(), admin, action, reason);
+    }
+    
+    /**
+     * Log account status change for a user the caller has not loaded (bulk actions)
+     */
+    public void logAccountStatusChange(UUID targetUserId, User admin, String action, String reason) {
         String description = String.format(
             "Account %s by %s. Reason: %s",
             action.toLowerCase(),
@@ -118,17 +121,22 @@ public class AuditService {
         );
         
         AuditLog auditLog = new AuditLog(admin, "USER", action, description);
-        auditLog.setRecordId(targetUser.getUserId());
+        auditLog.setRecordId(targetUserId);
         auditLog.setSeverity(AuditLog.Severity.WARNING);
-        enrichWithRequestInfo(auditLog);
-        auditLogRepository.save(auditLog);
+        record(auditLog);
     }
     
     /**
      * Log role change
      */
-    @Async
     public void logRoleChange(User targetUser, User admin, String oldRole, String newRole) {
+        logRoleChange(targetUser.getUserId(), admin, oldRole, newRole);
+    }
+    
+    /**
+     * Log role change for a user the caller has not loaded (bulk actions)
+     */
+    public void logRoleChange(UUID targetUserId, User admin, String oldRole, String newRole) {
         String description = String.format(
             "User role changed from %s to %s by %s",
             oldRole,
@@ -137,18 +145,16 @@ public class AuditService {
         );
         
         AuditLog auditLog = new AuditLog(admin, "USER", "ROLE_CHANGE", description);
-        auditLog.setRecordId(targetUser.getUserId());
+        auditLog.setRecordId(targetUserId);
         auditLog.setSeverity(AuditLog.Severity.WARNING);
         auditLog.setOldValues(Map.of("role", oldRole));
         auditLog.setNewValues(Map.of("role", newRole));
-        enrichWithRequestInfo(auditLog);
-        auditLogRepository.save(auditLog);
+        record(auditLog);
     }
     
     /**
      * Log failed login attempt
      */
-    @Async
     public void logFailedLogin(String username, String reason) {
         AuditLog auditLog = new AuditLog();
         auditLog.setUsername(username);
@@ -156,14 +162,12 @@ public class AuditService {
         auditLog.setAction("LOGIN_FAILED");
         auditLog.setDescription("Failed login attempt: " + reason);
         auditLog.setSeverity(AuditLog.Severity.WARNING);
-        enrichWithRequestInfo(auditLog);
-        auditLogRepository.save(auditLog);
+        record(auditLog);
     }
     
     /**
      * Log account lockout
      */
-    @Async
     public void logAccountLockout(String username, int attemptCount) {
         AuditLog auditLog = new AuditLog();
         auditLog.setUsername(username);
@@ -171,8 +175,7 @@ public class AuditService {
         auditLog.setAction("ACCOUNT_LOCKED");
         auditLog.setDescription(String.format("Account locked after %d failed login attempts", attemptCount));
         auditLog.setSeverity(AuditLog.Severity.ERROR);
-        enrichWithRequestInfo(auditLog);
-        auditLogRepository.save(auditLog);
+        record(auditLog);
     }
     
     /**
@@ -203,6 +206,14 @@ public class AuditService {
         return auditLogRepository.findByRecordId(recordId);
     }
     
+    /**
+     * Capture request details and queue the entry
+     */
+    private void record(AuditLog auditLog) {
+        enrichWithRequestInfo(auditLog);
+        auditLogWriter.enqueue(auditLog);
+    }
+    
     /**
      * Enrich audit log with request information (IP, user agent)
      */
@@ -211,23 +222,12 @@ public class AuditService {
             ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
             if (attributes != null) {
                 HttpServletRequest request = attributes.getRequest();
-                auditLog.setIpAddress(getClientIpAddress(request));
+                auditLog.setIpAddress(ClientAddress.of(request));
                 auditLog.setUserAgent(request.getHeader("User-Agent"));
             }
         } catch (Exception e) {
             // Ignore if request context is not available (e.g., in background tasks)
         }
     }
-    
-    /**
-     * Get client IP address from request (handles proxies)
-     */
-    private String getClientIpAddress(HttpServletRequest request) {
-        String xfHeader = request.getHeader("X-Forwarded-For");
-        if (xfHeader == null) {
-            return request.getRemoteAddr();
-        }
-        return xfHeader.split(",")[0].trim();
-    }
 }
 
@@ -25,6 +25,7 @@ import com.commandlinecommandos.campusmarketplace.repository.RefreshTokenReposit
 import com.commandlinecommandos.campusmarketplace.repository.UniversityRepository;
 import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
 import com.commandlinecommandos.campusmarketplace.security.JwtUtil;
+import com.commandlinecommandos.campusmarketplace.security.TokenRevocationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -67,6 +68,9 @@ public class AuthService {
     @Autowired
     private UniversityRepository universityRepository;
     
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
     // In-memory store for password reset tokens (for development)
     // In production, this should be stored in database with expiration
     private final Map<String, PasswordResetToken> resetTokens = new ConcurrentHashMap<>();
@@ -95,7 +99,17 @@ public class AuthService {
                 String.format("Account is temporarily locked due to multiple failed login attempts. Please try again in %d minutes.", remainingTime)
             );
         }
-        
+
+        // Check if the client address is locked (many usernames tried from one IP)
+        if (loginAttemptService != null) {
+            int remainingTime = loginAttemptService.getRemainingIpLockoutTime();
+            if (remainingTime > 0) {
+                throw new BadCredentialsException(
+                    String.format("Too many failed login attempts from this network. Please try again in %d minutes.", remainingTime)
+                );
+            }
+        }
+
         try {
             // Authenticate user
             Authentication authentication = authenticationManager.authenticate(
@@ -225,6 +239,9 @@ public class AuthService {
         Optional<User> userOpt = userRepository.findByUsername(username);
         userOpt.ifPresent(user -> {
             refreshTokenRepository.revokeAllTokensByUser(user);
+            // Access tokens too, not just refresh tokens
+            tokenRevocationService.revokeTokens(user);
+            userRepository.save(user);
             
             // Audit log
             if (auditService != null) {
@@ -385,6 +402,7 @@ public class AuthService {
         
         // Update password
         user.setPassword(passwordEncoder.encode(newPassword));
+        tokenRevocationService.revokeTokens(user);
         userRepository.save(user);
         
         // Remove used token
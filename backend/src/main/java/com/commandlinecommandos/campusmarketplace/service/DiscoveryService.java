@@ -15,10 +15,13 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -31,6 +34,12 @@ public class DiscoveryService {
     
     private static final Logger log = LoggerFactory.getLogger(DiscoveryService.class);
     
+    /**
+     * Items cached per user for recommended and recently viewed lists
+     * Requests for fewer items are served from the same cache entry
+     */
+    public static final int PERSONAL_LIST_SIZE = 50;
+    
     @Autowired
     private ProductRepository productRepository;
     
@@ -40,31 +49,50 @@ public class DiscoveryService {
     @Autowired
     private UniversityRepository universityRepository;
     
+    @Autowired
+    private TrendingService trendingService;
+    
     /**
      * Get trending products for a university
-     * Based on view count and favorite count
+     * Served from TrendingService's precomputed ranking once it is ready;
+     * until then falls back to ordering by view count
      * 
      * @param universityId University UUID
      * @param limit Maximum number of products to return
      * @return List of trending products
      */
     public List<ProductSummary> getTrendingItems(UUID universityId, int limit) {
+        return getTrendingItems(universityId, null, limit);
+    }
+    
+    /**
+     * Get trending products for a university within one category
+     * 
+     * @param universityId University UUID
+     * @param category Category, or null for all categories
+     * @param limit Maximum number of products to return
+     * @return List of trending products
+     */
+    public List<ProductSummary> getTrendingItems(UUID universityId, ProductCategory category, int limit) {
+        if (trendingService.isReady()) {
+            return trendingService.getTrending(universityId, category, limit);
+        }
+        
         try {
-            // Get University entity
-            University university = universityRepository.findById(universityId)
-                .orElseThrow(() -> new RuntimeException("University not found"));
+            // Reference only - the query needs the entity type, not its row
+            University university = universityRepository.getReferenceById(universityId);
             
-            // Get top products by views
-            List<Product> products = productRepository.findTopByViews(
-                university,
-                PageRequest.of(0, limit)
-            );
+            List<Product> products = category == null
+                ? productRepository.findTopByViews(university, PageRequest.of(0, limit))
+                : productRepository.findByUniversityAndCategoryAndIsActiveTrueAndModerationStatus(
+                    university, category, ModerationStatus.APPROVED,
+                    PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "viewCount"))).getContent();
             
             List<ProductSummary> trending = products.stream()
-                .map(this::transformToSummary)
+                .map(DiscoveryService::toSummary)
                 .collect(Collectors.toList());
             
-            log.debug("Trending items: universityId={}, count={}", universityId, trending.size());
+            log.debug("Trending items (fallback): universityId={}, count={}", universityId, trending.size());
             return trending;
         } catch (Exception e) {
             log.error("Error fetching trending items: {}", e.getMessage(), e);
@@ -75,46 +103,49 @@ public class DiscoveryService {
     /**
      * Get recommended items for a user
      * Based on their browsing history and interests
-     * Cached for 10 minutes per user
+     * Cached per user at PERSONAL_LIST_SIZE items; callers take the first N.
+     * Evicted when the user views a listing or any listing in their university changes
      * 
      * @param user User
-     * @param limit Maximum number of products to return
-     * @return List of recommended products
+     * @return Up to PERSONAL_LIST_SIZE recommended products, interleaved across interests
      */
-    @Cacheable(value = "recommendedItems", key = "#user.userId + '_' + #limit")
-    public List<ProductSummary> getRecommendedItems(User user, int limit) {
+    @Cacheable(value = "recommendedItems", key = "#user.university?.universityId + ':' + #user.userId")
+    public List<ProductSummary> getRecommendedItems(User user) {
         try {
             // Get user's browsing history categories
             List<ProductCategory> interests = getUserInterests(user);
             
             if (interests.isEmpty()) {
                 // No history, return trending items
-                return getTrendingItems(user.getUniversity().getUniversityId(), limit);
+                return getTrendingItems(user.getUniversity().getUniversityId(), PERSONAL_LIST_SIZE);
             }
             
             // Get products from user's interested categories
-            List<Product> recommended = new ArrayList<>();
-            int perCategory = Math.max(1, limit / interests.size());
+            int perCategory = (PERSONAL_LIST_SIZE + interests.size() - 1) / interests.size();
+            List<List<Product>> byCategory = new ArrayList<>();
             
             for (ProductCategory category : interests) {
-                List<Product> categoryProducts = productRepository
+                byCategory.add(productRepository
                     .findByUniversityAndCategoryAndIsActiveTrueAndModerationStatus(
                         user.getUniversity(),
                         category,
                         ModerationStatus.APPROVED,
                         PageRequest.of(0, perCategory)
-                    ).getContent();
-                    
-                recommended.addAll(categoryProducts);
-                
-                if (recommended.size() >= limit) {
-                    break;
+                    ).getContent());
+            }
+            
+            // Round-robin across categories so that any prefix of the list stays mixed
+            List<Product> recommended = new ArrayList<>();
+            for (int i = 0; i < perCategory && recommended.size() < PERSONAL_LIST_SIZE; i++) {
+                for (List<Product> products : byCategory) {
+                    if (i < products.size() && recommended.size() < PERSONAL_LIST_SIZE) {
+                        recommended.add(products.get(i));
+                    }
                 }
             }
             
             List<ProductSummary> result = recommended.stream()
-                .limit(limit)
-                .map(this::transformToSummary)
+                .map(DiscoveryService::toSummary)
                 .collect(Collectors.toList());
             
             log.debug("Recommended items: user={}, count={}", user.getUsername(), result.size());
@@ -153,7 +184,7 @@ public class DiscoveryService {
                 .toList();
             
             List<ProductSummary> result = similar.stream()
-                .map(this::transformToSummary)
+                .map(DiscoveryService::toSummary)
                 .collect(Collectors.toList());
             
             log.debug("Similar items: productId={}, count={}", productId, result.size());
@@ -170,24 +201,26 @@ public class DiscoveryService {
     
     /**
      * Get recently viewed items for a user
-     * Cached for 1 hour per user
+     * Cached per user at PERSONAL_LIST_SIZE items; callers take the first N.
+     * Evicted when the user views a listing or a listing they viewed changes
      * 
      * @param user User
-     * @param limit Maximum number of products to return
-     * @return List of recently viewed products
+     * @return Up to PERSONAL_LIST_SIZE recently viewed products, most recent first
      */
-    @Cacheable(value = "recentlyViewed", key = "#user.userId + '_' + #limit")
-    public List<ProductSummary> getRecentlyViewedItems(User user, int limit) {
+    @Cacheable(value = "recentlyViewed", key = "#user.userId.toString()")
+    public List<ProductSummary> getRecentlyViewedItems(User user) {
         try {
-            // Fetch products (seller will be loaded when accessed in transformToSummary)
-            List<Product> recentlyViewed = productViewRepository.findRecentlyViewedByUser(
-                user, PageRequest.of(0, limit)
+            List<UUID> ids = productViewRepository.findRecentlyViewedProductIds(
+                user, PageRequest.of(0, PERSONAL_LIST_SIZE)
             );
             
-            // Transform to summaries (seller is accessed here, triggering lazy load)
-            // Since we're in a transaction context, lazy loading will work
-            List<ProductSummary> result = recentlyViewed.stream()
-                .map(this::transformToSummary)
+            // Listings and sellers in one query; restore view order (IN makes no ordering guarantee)
+            Map<UUID, ProductSummary> summaries = ids.isEmpty() ? Map.of()
+                : productRepository.findWithSellerByProductIdIn(ids).stream()
+                    .collect(Collectors.toMap(Product::getProductId, DiscoveryService::toSummary));
+            List<ProductSummary> result = ids.stream()
+                .map(summaries::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
             
             log.debug("Recently viewed: user={}, count={}", user.getUsername(), result.size());
@@ -229,7 +262,7 @@ public class DiscoveryService {
      * Transform Product to ProductSummary
      * Handles null seller/university gracefully to avoid NPE
      */
-    private ProductSummary transformToSummary(Product product) {
+    static ProductSummary toSummary(Product product) {
         ProductSummary summary = new ProductSummary();
         summary.setProductId(product.getProductId());
         summary.setTitle(product.getTitle());
@@ -9,6 +9,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import jakarta.annotation.PostConstruct;
 
+import java.util.List;
+
 /**
  * Email Service for sending emails via SendGrid SMTP.
  * 
@@ -37,6 +39,14 @@ public class EmailService {
     
     private static final String SUPPORT_EMAIL = "support@campusmarketplace.edu";
     
+    private static final int MAX_DIGEST_ENTRIES = 10;
+    
+    /**
+     * One chat message in a digest email
+     */
+    public record MessageDigestEntry(String senderName, String content) {
+    }
+    
     @PostConstruct
     public void init() {
         if (mailSender != null) {
@@ -156,6 +166,31 @@ public class EmailService {
         logger.info("Message notification email sent to: {}", to);
     }
     
+    /**
+     * Send one email covering every chat message a recipient received since the last one
+     * A single message uses the same wording as sendMessageReceivedEmail
+     * 
+     * @throws org.springframework.mail.MailException if the SMTP server rejects or cannot take the email,
+     *         so the caller can retry
+     */
+    public void sendMessageDigestEmail(String to, String recipientName, List<MessageDigestEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        String subject;
+        String body;
+        if (entries.size() == 1) {
+            MessageDigestEntry entry = entries.get(0);
+            subject = "New message received from " + entry.senderName();
+            body = buildMessageReceivedEmailBody(recipientName, entry.senderName(), entry.content());
+        } else {
+            subject = "You have " + entries.size() + " new messages";
+            body = buildMessageDigestEmailBody(recipientName, entries);
+        }
+        deliver(to, subject, body);
+        logger.info("Message digest email ({} messages) sent to: {}", entries.size(), to);
+    }
+    
     /**
      * Send notification when a listing is rejected
      */
@@ -168,8 +203,26 @@ public class EmailService {
     
     /**
      * Core email sending method using SendGrid SMTP
+     * Failures are logged and swallowed; use deliver() where the caller retries
      */
     private void sendEmail(String to, String subject, String body) {
+        try {
+            deliver(to, subject, body);
+        } catch (Exception e) {
+            logger.error("Failed to send email to {}: {}", to, e.getMessage(), e);
+            // Log the email content for debugging
+            logger.info("=== EMAIL (FAILED TO SEND) ===");
+            logger.info("To: {}", to);
+            logger.info("From: {}", fromEmail);
+            logger.info("Subject: {}", subject);
+            logger.info("==============================");
+        }
+    }
+    
+    /**
+     * Send an email, letting SMTP failures propagate
+     */
+    private void deliver(String to, String subject, String body) {
         if (!emailEnabled) {
             logger.debug("Email notifications disabled, skipping email to: {}", to);
             return;
@@ -186,24 +239,14 @@ public class EmailService {
             return;
         }
         
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(to);
-            message.setSubject(subject);
-            message.setText(body);
-            
-            mailSender.send(message);
-            logger.info("Email sent successfully to: {} with subject: {}", to, subject);
-        } catch (Exception e) {
-            logger.error("Failed to send email to {}: {}", to, e.getMessage(), e);
-            // Log the email content for debugging
-            logger.info("=== EMAIL (FAILED TO SEND) ===");
-            logger.info("To: {}", to);
-            logger.info("From: {}", fromEmail);
-            logger.info("Subject: {}", subject);
-            logger.info("==============================");
-        }
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(fromEmail);
+        message.setTo(to);
+        message.setSubject(subject);
+        message.setText(body);
+        
+        mailSender.send(message);
+        logger.info("Email sent successfully to: {} with subject: {}", to, subject);
     }
     
     // Email template builders
@@ -336,6 +379,23 @@ public class EmailService {
         );
     }
     
+    private String buildMessageDigestEmailBody(String recipientName, List<MessageDigestEntry> entries) {
+        String recipient = (recipientName != null && !recipientName.trim().isEmpty()) ? recipientName : "there";
+        StringBuilder body = new StringBuilder();
+        body.append(String.format("Hi %s,\n\nYou have received %d new messages:\n\n", recipient, entries.size()));
+        int shown = Math.min(entries.size(), MAX_DIGEST_ENTRIES);
+        for (MessageDigestEntry entry : entries.subList(0, shown)) {
+            body.append(String.format("From %s:\n---\n%s\n---\n\n", entry.senderName(), entry.content()));
+        }
+        if (entries.size() > shown) {
+            body.append(String.format("...and %d more.\n\n", entries.size() - shown));
+        }
+        body.append("Log in to Campus Marketplace to reply to these messages.\n\n")
+            .append("Best regards,\n")
+            .append("Campus Marketplace Team");
+        return body.toString();
+    }
+    
     private String buildListingRejectedEmailBody(String username, String listingTitle, String reason) {
         String rejectionReason = (reason != null && !reason.trim().isEmpty()) 
             ? reason 
@@ -0,0 +1,358 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.dto.UserSearchRequest;
+import com.commandlinecommandos.campusmarketplace.model.AuditLog;
+import com.commandlinecommandos.campusmarketplace.model.ModerationStatus;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Clob;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Streaming CSV / NDJSON exports for admins
+ *
+ * Each export is one forward-only query read with a fetch size inside a read-only
+ * transaction (PostgreSQL only uses a server-side cursor when autocommit is off).
+ * Rows are written to the response as they arrive, so heap use stays the same
+ * whether the export has ten rows or ten million. Filters match the paged admin
+ * endpoints: UserSearchRequest for users, status for reports, date range and
+ * severity for audit logs.
+ *
+ * Configuration:
+ * - app.exports.fetch-size → rows fetched per round trip (default 500)
+ */
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    /** UserSearchRequest.sortBy → column; anything else is rejected rather than spliced into SQL */
+    private static final Map<String, String> USER_SORT_COLUMNS = Map.of(
+        "createdAt", "u.created_at",
+        "lastName", "u.last_name",
+        "email", "u.email",
+        "lastLoginAt", "u.last_login_at",
+        "username", "u.username");
+
+    private static final String USERS =
+        "SELECT u.user_id, u.username, u.email, u.first_name, u.last_name, " +
+        "(SELECT STRING_AGG(r.role, ';') FROM user_roles r WHERE r.user_id = u.user_id) AS roles, " +
+        "CAST(u.verification_status AS VARCHAR) AS verification_status, u.is_active, " +
+        "u.university_id, un.name AS university_name, u.student_id, u.graduation_year, " +
+        "u.created_at, u.last_login_at " +
+        "FROM users u LEFT JOIN universities un ON un.university_id = u.university_id";
+
+    private static final String REPORTS =
+        "SELECT ur.report_id, ur.report_type, ur.reported_entity_id, ur.reported_product_id, ur.reported_user_id, " +
+        "reporter.username AS reporter_username, ur.reason, ur.description, " +
+        "CAST(ur.status AS VARCHAR) AS status, ur.priority, reviewer.username AS reviewed_by, " +
+        "ur.resolution_notes, ur.created_at, ur.reviewed_at " +
+        "FROM user_reports ur " +
+        "JOIN users reporter ON reporter.user_id = ur.reporter_id " +
+        "LEFT JOIN users reviewer ON reviewer.user_id = ur.reviewed_by_id";
+
+    private static final String AUDIT_LOGS =
+        "SELECT al.audit_id, al.created_at, al.user_id, al.username, al.action, al.table_name, al.record_id, " +
+        "al.severity, al.description, al.ip_address, al.user_agent, " +
+        "CAST(al.old_values AS VARCHAR) AS old_values, CAST(al.new_values AS VARCHAR) AS new_values " +
+        "FROM audit_logs al";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.exports.fetch-size:500}")
+    private int fetchSize;
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    /**
+     * A query and its parameters, built on the request thread so bad filters fail before streaming starts
+     */
+    public record ExportQuery(String sql, List<Object> params) {
+    }
+
+    /**
+     * Users matching the same filters as the admin user search; paging fields are ignored
+     */
+    public ExportQuery usersQuery(UserSearchRequest request) {
+        StringBuilder sql = new StringBuilder(USERS);
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+
+        if (request.getSearchTerm() != null && !request.getSearchTerm().isEmpty()) {
+            String pattern = "%" + request.getSearchTerm().toLowerCase(Locale.ROOT) + "%";
+            conditions.add("(LOWER(u.username) LIKE ? OR LOWER(u.email) LIKE ? " +
+                "OR LOWER(u.first_name) LIKE ? OR LOWER(u.last_name) LIKE ?)");
+            params.add(pattern);
+            params.add(pattern);
+            params.add(pattern);
+            params.add(pattern);
+        }
+        if (request.getRole() != null) {
+            conditions.add("EXISTS (SELECT 1 FROM user_roles r WHERE r.user_id = u.user_id AND r.role = ?)");
+            params.add(request.getRole().name());
+        }
+        if (request.getVerificationStatus() != null) {
+            conditions.add("CAST(u.verification_status AS VARCHAR) = ?");
+            params.add(request.getVerificationStatus().name());
+        }
+        if (request.getIsActive() != null) {
+            conditions.add("u.is_active = ?");
+            params.add(request.getIsActive());
+        }
+        if (request.getUniversityId() != null && !request.getUniversityId().isEmpty()) {
+            conditions.add("u.university_id = ?");
+            params.add(UUID.fromString(request.getUniversityId()));
+        }
+        addCreatedRange(conditions, params, "u.created_at", request.getCreatedAfter(), request.getCreatedBefore());
+        appendWhere(sql, conditions);
+
+        String sortColumn = USER_SORT_COLUMNS.get(request.getSortBy() != null ? request.getSortBy() : "createdAt");
+        if (sortColumn == null) {
+            throw new IllegalArgumentException("Unsupported sortBy: " + request.getSortBy()
+                + " (expected one of " + USER_SORT_COLUMNS.keySet() + ")");
+        }
+        String direction = "ASC".equalsIgnoreCase(request.getSortDirection()) ? "ASC" : "DESC";
+        sql.append(" ORDER BY ").append(sortColumn).append(' ').append(direction).append(", u.user_id");
+        return new ExportQuery(sql.toString(), params);
+    }
+
+    /**
+     * Reports, optionally with one status and a created_at range, newest first
+     */
+    public ExportQuery reportsQuery(ModerationStatus status, LocalDateTime createdAfter, LocalDateTime createdBefore) {
+        StringBuilder sql = new StringBuilder(REPORTS);
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        if (status != null) {
+            conditions.add("CAST(ur.status AS VARCHAR) = ?");
+            params.add(status.name());
+        }
+        addCreatedRange(conditions, params, "ur.created_at", createdAfter, createdBefore);
+        appendWhere(sql, conditions);
+        sql.append(" ORDER BY ur.created_at DESC, ur.report_id");
+        return new ExportQuery(sql.toString(), params);
+    }
+
+    /**
+     * Audit logs in a date range, optionally of one severity, newest first
+     */
+    public ExportQuery auditLogsQuery(LocalDateTime startDate, LocalDateTime endDate, AuditLog.Severity severity) {
+        StringBuilder sql = new StringBuilder(AUDIT_LOGS);
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        addCreatedRange(conditions, params, "al.created_at", startDate, endDate);
+        if (severity != null) {
+            conditions.add("al.severity = ?");
+            params.add(severity.name());
+        }
+        appendWhere(sql, conditions);
+        sql.append(" ORDER BY al.created_at DESC, al.audit_id");
+        return new ExportQuery(sql.toString(), params);
+    }
+
+    /**
+     * Run the query and write every row to the stream
+     *
+     * @return number of rows written
+     */
+    public long stream(ExportQuery query, Format format, OutputStream out) throws IOException {
+        long startTime = System.currentTimeMillis();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        try {
+            Long rows = readOnly.execute(status -> jdbcTemplate.query(cursor(query), format == Format.CSV
+                ? (ResultSetExtractor<Long>) rs -> writeCsv(rs, out)
+                : (ResultSetExtractor<Long>) rs -> writeNdjson(rs, out)));
+            log.info("Export finished: {} rows as {} in {}ms", rows, format, System.currentTimeMillis() - startTime);
+            return rows != null ? rows : 0;
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the cursor and transaction are already closed
+            log.warn("⚠️  Export aborted after {}ms: {}", System.currentTimeMillis() - startTime, e.getCause().getMessage());
+            throw e.getCause();
+        }
+    }
+
+    private PreparedStatementCreator cursor(ExportQuery query) {
+        return connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                query.sql(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < query.params().size(); i++) {
+                Object param = query.params().get(i);
+                ps.setObject(i + 1, param instanceof LocalDateTime time ? Timestamp.valueOf(time) : param);
+            }
+            return ps;
+        };
+    }
+
+    private long writeCsv(ResultSet rs, OutputStream out) throws SQLException {
+        String[] columns = columns(rs.getMetaData());
+        long rows = 0;
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(String.join(",", columns));
+            writer.write("\r\n");
+            while (rs.next()) {
+                for (int i = 0; i < columns.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(csvField(value(rs, i + 1)));
+                }
+                writer.write("\r\n");
+                rows++;
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    private long writeNdjson(ResultSet rs, OutputStream out) throws SQLException {
+        String[] columns = columns(rs.getMetaData());
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // The servlet container owns the stream; closing the generator only flushes it
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (rs.next()) {
+                generator.writeStartObject();
+                for (int i = 0; i < columns.length; i++) {
+                    generator.writeFieldName(columns[i]);
+                    writeJsonValue(generator, value(rs, i + 1));
+                }
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                rows++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    private static void writeJsonValue(JsonGenerator generator, Object value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Boolean bool) {
+            generator.writeBoolean(bool);
+        } else if (value instanceof Number number) {
+            generator.writeNumber(number.toString());
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+    /**
+     * Column value in a form both writers can print: timestamps as ISO-8601, CLOBs as text
+     */
+    private static Object value(ResultSet rs, int column) throws SQLException {
+        Object value = rs.getObject(column);
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().toString();
+        }
+        if (value instanceof Clob clob) {
+            return clob.getSubString(1, (int) clob.length());
+        }
+        return value;
+    }
+
+    /**
+     * Quote fields that need it, and defuse values a spreadsheet would run as a formula
+     */
+    static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (value instanceof String && !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    private static String[] columns(ResultSetMetaData metaData) throws SQLException {
+        String[] columns = new String[metaData.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            // H2 reports labels in upper case, PostgreSQL in lower case
+            columns[i] = metaData.getColumnLabel(i + 1).toLowerCase(Locale.ROOT);
+        }
+        return columns;
+    }
+
+    private static void addCreatedRange(List<String> conditions, List<Object> params, String column,
+                                        LocalDateTime after, LocalDateTime before) {
+        if (after != null) {
+            conditions.add(column + " >= ?");
+            params.add(after);
+        }
+        if (before != null) {
+            conditions.add(column + " <= ?");
+            params.add(before);
+        }
+    }
+
+    private static void appendWhere(StringBuilder sql, List<String> conditions) {
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+    }
+}
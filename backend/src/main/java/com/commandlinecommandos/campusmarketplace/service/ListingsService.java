@@ -1,12 +1,17 @@
 package com.commandlinecommandos.campusmarketplace.service;
 
+import com.commandlinecommandos.campusmarketplace.dto.ListingCardResponse;
 import com.commandlinecommandos.campusmarketplace.dto.ListingDetailResponse;
 import com.commandlinecommandos.campusmarketplace.dto.SellerSummary;
 import com.commandlinecommandos.campusmarketplace.dto.ListingImage;
 import com.commandlinecommandos.campusmarketplace.model.*;
 import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
+import com.commandlinecommandos.campusmarketplace.repository.ProductRepository.ListingCardRow;
 import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
+import com.commandlinecommandos.campusmarketplace.listing.event.ListingChangedEvent;
+import com.commandlinecommandos.campusmarketplace.listing.event.ListingChangedEvent.ChangeType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -18,6 +23,8 @@ import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import org.springframework.security.core.Authentication;
@@ -39,6 +46,9 @@ public class ListingsService {
     @Autowired(required = false)
     private EmailService emailService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Get all active listings with pagination
      */
@@ -60,6 +70,18 @@ public class ListingsService {
                 pageable);
     }
 
+    /**
+     * Get listing cards (slim grid view), optionally within one category
+     * Sorted like getAllListings; the query selects only card columns
+     */
+    public Page<ListingCardResponse> getListingCards(ProductCategory category, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "publishedAt", "createdAt"));
+        Page<ListingCardRow> rows = category == null
+                ? productRepository.findListingCards(ModerationStatus.APPROVED, pageable)
+                : productRepository.findListingCardsByCategory(category, ModerationStatus.APPROVED, pageable);
+        return rows.map(ListingsService::toListingCard);
+    }
+
     /**
      * Search listings
      */
@@ -89,7 +111,9 @@ public class ListingsService {
         if (authentication == null || !(authentication.getPrincipal() instanceof User)) {
             throw new RuntimeException("User not authenticated");
         }
-        User seller = (User) authentication.getPrincipal();
+        // Token principals carry no profile fields; the response needs the seller's name
+        User principal = (User) authentication.getPrincipal();
+        User seller = userRepository.findById(principal.getUserId()).orElse(principal);
 
         return createListing(seller, listingData);
     }
@@ -159,6 +183,7 @@ public class ListingsService {
         product.publish();
 
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ListingChangedEvent.of(savedProduct, ChangeType.CREATED));
         
         // Send email notification for listing creation
         org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(ListingsService.class);
@@ -210,6 +235,10 @@ public class ListingsService {
             throw new RuntimeException("Unauthorized: You can only update your own listings");
         }
 
+        String previousTitle = product.getTitle();
+        ProductCategory previousCategory = product.getCategory();
+        boolean wasActive = product.isActive();
+
         // Update fields if provided
         if (updates.containsKey("title")) {
             product.setTitle((String) updates.get("title"));
@@ -265,7 +294,17 @@ public class ListingsService {
             }
         }
 
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ListingChangedEvent.of(savedProduct, updateChangeType(wasActive, savedProduct),
+                previousCategory, !Objects.equals(previousTitle, savedProduct.getTitle())));
+        return savedProduct;
+    }
+
+    private ChangeType updateChangeType(boolean wasActive, Product product) {
+        if (wasActive == product.isActive()) {
+            return ChangeType.UPDATED;
+        }
+        return product.isActive() ? ChangeType.REACTIVATED : ChangeType.DEACTIVATED;
     }
 
     /**
@@ -283,6 +322,7 @@ public class ListingsService {
         // Soft delete
         product.setActive(false);
         productRepository.save(product);
+        eventPublisher.publishEvent(ListingChangedEvent.of(product, ChangeType.DEACTIVATED));
     }
 
     /**
@@ -325,45 +365,64 @@ public class ListingsService {
      * mockdata)
      */
     public ListingDetailResponse toListingDetailResponse(Product product) {
+        return toListingDetailResponses(List.of(product)).get(0);
+    }
+
+    /**
+     * Convert a page of products to ListingDetailResponse DTOs
+     * Favorite flags for the whole page come from one query, so a page costs the
+     * same number of queries whatever its size (sellers are fetched with the page)
+     */
+    public List<ListingDetailResponse> toListingDetailResponses(List<Product> products) {
+        Set<UUID> favoriteIds = favoritedByCurrentUser(products);
+        return products.stream()
+                .map(product -> toListingDetailResponse(product, favoriteIds.contains(product.getProductId())))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * IDs of the given products the authenticated user has favorited (empty when anonymous)
+     */
+    private Set<UUID> favoritedByCurrentUser(List<Product> products) {
+        if (products.isEmpty()) {
+            return Set.of();
+        }
+        UUID userId = currentUserId();
+        if (userId == null) {
+            return Set.of();
+        }
+        List<UUID> productIds = products.stream().map(Product::getProductId).collect(Collectors.toList());
+        return userFavoriteRepository.findFavoritedProductIds(userId, productIds);
+    }
+
+    private UUID currentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        boolean isFavorite = false;
-
-        if (authentication != null && authentication.getPrincipal() instanceof User) {
-            User currentUser = (User) authentication.getPrincipal();
-            // Need to reload user from DB to ensure it's attached to session if needed,
-            // or just use the ID. Repository expects User entity.
-            // Using existsByUserAndProduct requires User entity.
-            // Ideally we should use ID, but repository method signature uses Entity.
-            // Let's try to use the principal directly if it's a complete entity,
-            // otherwise fetch reference.
-            try {
-                // Safe check to avoid issues if principal is not fully managed
-                isFavorite = userFavoriteRepository.existsByUserAndProduct(currentUser, product);
-            } catch (Exception e) {
-                // Fallback: fetch user by ID
-                try {
-                    User managedUser = userRepository.findById(currentUser.getUserId()).orElse(null);
-                    if (managedUser != null) {
-                        isFavorite = userFavoriteRepository.existsByUserAndProduct(managedUser, product);
-                    }
-                } catch (Exception ex) {
-                    // Ignore
-                }
-            }
-        } else if (authentication != null && authentication.getName() != null
-                && !authentication.getName().equals("anonymousUser")) {
-            // Handle case where principal is just a username (String)
-            try {
-                User user = userRepository.findByUsername(authentication.getName()).orElse(null);
-                if (user != null) {
-                    isFavorite = userFavoriteRepository.existsByUserAndProduct(user, product);
-                }
-            } catch (Exception e) {
-                // Ignore
-            }
+        if (authentication == null) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof User currentUser) {
+            return currentUser.getUserId();
         }
+        // Handle case where principal is just a username (String)
+        if (authentication.getName() != null && !authentication.getName().equals("anonymousUser")) {
+            return userRepository.findByUsername(authentication.getName()).map(User::getUserId).orElse(null);
+        }
+        return null;
+    }
 
-        return toListingDetailResponse(product, isFavorite);
+    static ListingCardResponse toListingCard(ListingCardRow row) {
+        ListingCardResponse card = new ListingCardResponse();
+        card.setId(row.getProductId().toString());
+        card.setTitle(row.getTitle());
+        card.setPrice(row.getPrice().doubleValue());
+        card.setImageUrl(row.getPrimaryImageUrl());
+        card.setCondition(row.getCondition().name());
+        String sellerName = (row.getSellerFirstName() != null ? row.getSellerFirstName() : "") +
+                " " + (row.getSellerLastName() != null ? row.getSellerLastName() : "");
+        card.setSellerName(sellerName.trim().isEmpty() ? row.getSellerUsername() : sellerName.trim());
+        card.setViewCount(row.getViewCount() != null ? row.getViewCount() : 0);
+        card.setFavoriteCount(row.getFavoriteCount() != null ? row.getFavoriteCount() : 0);
+        return card;
     }
 
     /**
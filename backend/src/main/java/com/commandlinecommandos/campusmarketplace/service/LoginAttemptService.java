@@ -2,151 +2,177 @@ package com.commandlinecommandos.campusmarketplace.service;
 
 import com.commandlinecommandos.campusmarketplace.model.LoginAttempt;
 import com.commandlinecommandos.campusmarketplace.repository.LoginAttemptRepository;
+import com.commandlinecommandos.campusmarketplace.security.ClientAddress;
+import com.commandlinecommandos.campusmarketplace.security.LoginFailureStore;
+import com.commandlinecommandos.campusmarketplace.security.LoginFailureWindow;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for tracking login attempts and implementing account lockout
+ *
+ * Lockout decisions come from sliding windows of recent failures per username
+ * and per client IP in LoginFailureStore (memory, or Redis in cluster mode), so
+ * a credential-stuffing burst never reaches the database. Every attempt is also
+ * queued on LoginAttemptWriter, which stores login_attempts rows in batches for
+ * auditing.
+ *
+ * Configuration:
+ * - app.security.login-lockout.max-failures-per-user → failures that lock a username
+ * - app.security.login-lockout.max-failures-per-ip   → failures that lock a client IP (campus NAT shares addresses)
+ * - app.security.login-lockout.window-minutes        → how long a failure counts, and so the longest lockout
  */
 @Service
-@Transactional
 public class LoginAttemptService {
-    
+
     @Autowired
     private LoginAttemptRepository loginAttemptRepository;
-    
+
+    @Autowired
+    private LoginFailureStore loginFailureStore;
+
+    @Autowired
+    private LoginAttemptWriter loginAttemptWriter;
+
     @Autowired
     private AuditService auditService;
-    
-    // Configuration constants
-    private static final int MAX_FAILED_ATTEMPTS = 5;
-    private static final int LOCKOUT_DURATION_MINUTES = 15;
-    private static final int ATTEMPT_WINDOW_MINUTES = 15;
-    
+
+    @Value("${app.security.login-lockout.max-failures-per-user:5}")
+    private int maxFailuresPerUser = 5;
+
+    @Value("${app.security.login-lockout.max-failures-per-ip:20}")
+    private int maxFailuresPerIp = 20;
+
+    @Value("${app.security.login-lockout.window-minutes:15}")
+    private int windowMinutes = 15;
+
     /**
-     * Record successful login attempt
+     * Record successful login attempt and clear the username's failures
      */
     public void recordSuccessfulLogin(String username) {
-        String ipAddress = getClientIpAddress();
-        String userAgent = getUserAgent();
-        
-        LoginAttempt attempt = new LoginAttempt(username, ipAddress, true);
-        attempt.setUserAgent(userAgent);
-        loginAttemptRepository.save(attempt);
+        LoginAttempt attempt = new LoginAttempt(username, getClientIpAddress(), true);
+        attempt.setUserAgent(getUserAgent());
+        loginAttemptWriter.enqueue(attempt);
+        loginFailureStore.clear(userKey(username));
     }
-    
+
     /**
-     * Record failed login attempt
+     * Record failed login attempt against the username and the client IP
      */
     public void recordFailedLogin(String username, String failureReason) {
         String ipAddress = getClientIpAddress();
-        String userAgent = getUserAgent();
-        
+        long now = System.currentTimeMillis();
+
+        LoginFailureWindow userWindow = loginFailureStore.recordFailure(userKey(username), maxFailuresPerUser, now);
+        loginFailureStore.recordFailure(ipKey(ipAddress), maxFailuresPerIp, now);
+
         LoginAttempt attempt = new LoginAttempt(username, ipAddress, false, failureReason);
-        attempt.setUserAgent(userAgent);
-        loginAttemptRepository.save(attempt);
-        
+        attempt.setUserAgent(getUserAgent());
+        loginAttemptWriter.enqueue(attempt);
+
         // Log to audit service
         auditService.logFailedLogin(username, failureReason);
-        
+
         // Check if account should be locked
-        if (isAccountLocked(username)) {
-            int attemptCount = getFailedAttemptCount(username);
-            auditService.logAccountLockout(username, attemptCount);
+        if (userWindow.isLocked(maxFailuresPerUser)) {
+            auditService.logAccountLockout(username, userWindow.failures());
         }
     }
-    
+
     /**
      * Check if account is locked due to failed login attempts
      */
     public boolean isAccountLocked(String username) {
-        LocalDateTime windowStart = LocalDateTime.now().minusMinutes(LOCKOUT_DURATION_MINUTES);
-        long failedAttempts = loginAttemptRepository.countFailedAttemptsByUsernameSince(username, windowStart);
-        return failedAttempts >= MAX_FAILED_ATTEMPTS;
+        return userWindow(username).isLocked(maxFailuresPerUser);
     }
-    
+
     /**
      * Check if IP is locked due to failed login attempts
      */
     public boolean isIpLocked(String ipAddress) {
-        LocalDateTime windowStart = LocalDateTime.now().minusMinutes(LOCKOUT_DURATION_MINUTES);
-        long failedAttempts = loginAttemptRepository.countFailedAttemptsByIpSince(ipAddress, windowStart);
-        return failedAttempts >= MAX_FAILED_ATTEMPTS;
+        return loginFailureStore.current(ipKey(ipAddress), System.currentTimeMillis()).isLocked(maxFailuresPerIp);
     }
-    
+
     /**
-     * Get failed attempt count within the attempt window
+     * Get failed attempt count within the window (capped at the lockout threshold)
      */
     public int getFailedAttemptCount(String username) {
-        LocalDateTime windowStart = LocalDateTime.now().minusMinutes(ATTEMPT_WINDOW_MINUTES);
-        return (int) loginAttemptRepository.countFailedAttemptsByUsernameSince(username, windowStart);
+        return userWindow(username).failures();
     }
-    
+
     /**
-     * Get remaining lockout time in minutes
+     * Get remaining lockout time in minutes, rounded up
      */
     public int getRemainingLockoutTime(String username) {
-        LocalDateTime windowStart = LocalDateTime.now().minusMinutes(LOCKOUT_DURATION_MINUTES);
-        var attempts = loginAttemptRepository.findFailedAttemptsByUsernameSince(username, windowStart);
-        
-        if (attempts.isEmpty() || attempts.size() < MAX_FAILED_ATTEMPTS) {
-            return 0;
-        }
-        
-        // Get the oldest failed attempt within the window
-        LocalDateTime oldestAttempt = attempts.stream()
-            .map(LoginAttempt::getCreatedAt)
-            .min(LocalDateTime::compareTo)
-            .orElse(LocalDateTime.now());
-        
-        LocalDateTime lockoutEnd = oldestAttempt.plusMinutes(LOCKOUT_DURATION_MINUTES);
-        long minutesRemaining = java.time.Duration.between(LocalDateTime.now(), lockoutEnd).toMinutes();
-        
-        return (int) Math.max(0, minutesRemaining);
-    }
-    
+        long now = System.currentTimeMillis();
+        return toMinutes(loginFailureStore.current(userKey(username), now)
+            .lockedForMillis(maxFailuresPerUser, windowMillis(), now));
+    }
+
+    /**
+     * Get remaining lockout time in minutes for the current request's IP; 0 if it is not locked
+     */
+    public int getRemainingIpLockoutTime() {
+        long now = System.currentTimeMillis();
+        return toMinutes(loginFailureStore.current(ipKey(getClientIpAddress()), now)
+            .lockedForMillis(maxFailuresPerIp, windowMillis(), now));
+    }
+
     /**
-     * Reset failed attempts for username (after successful login)
+     * Reset failed attempts for username (e.g. after an admin unlock)
      */
     public void resetFailedAttempts(String username) {
-        // Attempts are naturally aged out, but we record the successful login
-        recordSuccessfulLogin(username);
+        loginFailureStore.clear(userKey(username));
     }
-    
+
     /**
      * Clean up old login attempts (scheduled task)
      */
+    @Transactional
     public void cleanupOldAttempts() {
         LocalDateTime cutoffDate = LocalDateTime.now().minusDays(30);
         loginAttemptRepository.deleteOldAttempts(cutoffDate);
     }
-    
+
+    private LoginFailureWindow userWindow(String username) {
+        return loginFailureStore.current(userKey(username), System.currentTimeMillis());
+    }
+
+    private long windowMillis() {
+        return TimeUnit.MINUTES.toMillis(windowMinutes);
+    }
+
+    private static int toMinutes(long millis) {
+        return (int) ((millis + 59_999) / 60_000);
+    }
+
+    /**
+     * Usernames are matched case-insensitively, so "Alice" and "alice" share a window
+     */
+    private static String userKey(String username) {
+        return "user:" + (username == null ? "" : username.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static String ipKey(String ipAddress) {
+        return "ip:" + ipAddress;
+    }
+
     /**
-     * Get client IP address from request
+     * Client address the IP lockout is keyed on; never taken from a forwarding header
      */
     private String getClientIpAddress() {
-        try {
-            ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-            if (attributes != null) {
-                HttpServletRequest request = attributes.getRequest();
-                String xfHeader = request.getHeader("X-Forwarded-For");
-                if (xfHeader == null) {
-                    return request.getRemoteAddr();
-                }
-                return xfHeader.split(",")[0].trim();
-            }
-        } catch (Exception e) {
-            // Ignore
-        }
-        return "unknown";
+        return ClientAddress.current();
     }
-    
+
     /**
      * Get user agent from request
      */
@@ -163,4 +189,3 @@ public class LoginAttemptService {
         return "unknown";
     }
 }
-
@@ -0,0 +1,169 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.model.LoginAttempt;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for login_attempts rows
+ *
+ * The table is an audit trail only; lockout decisions come from LoginFailureStore.
+ * enqueue() never touches the database: attempts wait in a bounded queue and a
+ * scheduled flush inserts them in one JDBC batch. When the queue is full new
+ * attempts are dropped and counted rather than slowing logins down.
+ *
+ * Configuration:
+ * - app.security.login-attempts.flush-interval-ms → delay between flushes (default 2s)
+ * - app.security.login-attempts.max-pending       → queued attempts before new ones are dropped
+ * - app.security.login-attempts.batch-size        → rows per INSERT batch
+ */
+@Component
+public class LoginAttemptWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginAttemptWriter.class);
+
+    private static final String INSERT_ATTEMPT =
+        "INSERT INTO login_attempts (attempt_id, username, ip_address, user_agent, success, failure_reason, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    @Value("${app.security.login-attempts.max-pending:10000}")
+    private int maxPending;
+
+    @Value("${app.security.login-attempts.batch-size:500}")
+    private int batchSize;
+
+    private BlockingQueue<LoginAttempt> pending;
+    private Counter dropped;
+    private Counter written;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @PostConstruct
+    void init() {
+        pending = new ArrayBlockingQueue<>(maxPending);
+        MeterRegistry registry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        dropped = Counter.builder("login.attempts.dropped")
+            .description("Login attempts not stored because the buffer was full or the write failed")
+            .register(registry);
+        written = Counter.builder("login.attempts.written").description("Login attempt rows written")
+            .register(registry);
+        Gauge.builder("login.attempts.pending", this, LoginAttemptWriter::pendingCount)
+            .description("Login attempts waiting to be written")
+            .register(registry);
+    }
+
+    /**
+     * Queue an attempt; request details must already be set on it
+     *
+     * @return false if the buffer was full and the attempt was dropped
+     */
+    public boolean enqueue(LoginAttempt attempt) {
+        if (attempt.getCreatedAt() == null) {
+            attempt.setCreatedAt(LocalDateTime.now());
+        }
+        if (!pending.offer(attempt)) {
+            dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.login-attempts.flush-interval-ms:2000}",
+               initialDelayString = "${app.security.login-attempts.flush-interval-ms:2000}")
+    @Async("auditExecutor")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int count = flush();
+        if (count > 0) {
+            log.info("Login attempt buffer flushed on shutdown: {} rows", count);
+        }
+    }
+
+    /**
+     * Write everything queued so far
+     *
+     * @return number of rows written
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            return flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int flushPending() {
+        int total = 0;
+        List<LoginAttempt> batch = new ArrayList<>(Math.min(batchSize, maxPending));
+        while (pending.drainTo(batch, batchSize) > 0) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_ATTEMPT, rows(batch));
+                written.increment(batch.size());
+                total += batch.size();
+            } catch (Exception e) {
+                // Audit rows only: a failed batch is dropped rather than retried against a sick database
+                dropped.increment(batch.size());
+                log.warn("⚠️  Login attempt flush failed ({} rows dropped): {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+        return total;
+    }
+
+    private static List<Object[]> rows(List<LoginAttempt> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (LoginAttempt attempt : batch) {
+            rows.add(new Object[] {
+                UUID.randomUUID(),
+                truncate(attempt.getUsername(), 50),
+                truncate(attempt.getIpAddress(), 45),
+                truncate(attempt.getUserAgent(), 500),
+                attempt.isSuccess(),
+                truncate(attempt.getFailureReason(), 200),
+                Timestamp.valueOf(attempt.getCreatedAt())
+            });
+        }
+        return rows;
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+}
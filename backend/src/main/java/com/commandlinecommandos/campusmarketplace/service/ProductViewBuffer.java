@@ -0,0 +1,305 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.cache.ListingCacheInvalidator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for listing views
+ *
+ * trackView only records (user, listing, day) → latest view time in memory; repeat
+ * views coalesce into one entry. A scheduled flush writes the buffer in three JDBC
+ * batches inside one transaction:
+ * 1. insert first-of-day views into product_views (skipped if the row already exists)
+ * 2. move viewed_at forward for repeat views
+ * 3. add the number of rows actually inserted to listings.view_count
+ *
+ * Keys flushed today are remembered in a bounded set, so repeat views skip the insert
+ * attempt. view_count keeps its meaning (unique viewers per day) because it is
+ * incremented from insert results, not from hits on this node.
+ *
+ * A failed flush puts its entries back for the next attempt (up to three).
+ *
+ * Configuration:
+ * - app.views.flush-interval-ms  → delay between flushes (default 5s)
+ * - app.views.max-pending        → buffered keys before new views are dropped
+ * - app.views.dedup-max-entries  → per-day set of already-stored keys
+ */
+@Component
+public class ProductViewBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductViewBuffer.class);
+
+    /** Entries still failing after this many flushes are dropped so one bad row cannot wedge the buffer */
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    private static final String INSERT_VIEW =
+        "INSERT INTO product_views (id, user_id, product_id, viewed_at, viewed_at_date) " +
+        "SELECT ?, ?, ?, ?, ? WHERE NOT EXISTS (" +
+        "SELECT 1 FROM product_views WHERE user_id = ? AND product_id = ? AND viewed_at_date = ?)";
+
+    private static final String TOUCH_VIEW =
+        "UPDATE product_views SET viewed_at = ? " +
+        "WHERE user_id = ? AND product_id = ? AND viewed_at_date = ? AND viewed_at < ?";
+
+    private static final String INCREMENT_VIEW_COUNT =
+        "UPDATE listings SET view_count = COALESCE(view_count, 0) + ? WHERE listing_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ListingCacheInvalidator listingCacheInvalidator;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    @Value("${app.views.max-pending:100000}")
+    private int maxPending;
+
+    @Value("${app.views.dedup-max-entries:500000}")
+    private int dedupMaxEntries;
+
+    private final ConcurrentHashMap<ViewKey, PendingView> pending = new ConcurrentHashMap<>();
+
+    private volatile LocalDate storedDay = LocalDate.now();
+    private volatile Set<ViewKey> storedToday = ConcurrentHashMap.newKeySet();
+
+    private TransactionTemplate transactionTemplate;
+    private Counter recorded;
+    private Counter dropped;
+    private Counter inserted;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        MeterRegistry registry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        recorded = Counter.builder("views.buffer.recorded").description("Views recorded").register(registry);
+        dropped = Counter.builder("views.buffer.dropped").description("Views dropped because the buffer was full")
+            .register(registry);
+        inserted = Counter.builder("views.buffer.inserted").description("New daily view rows written")
+            .register(registry);
+        Gauge.builder("views.buffer.pending", pending, Map::size).description("Buffered view keys")
+            .register(registry);
+    }
+
+    /**
+     * Record a view; never touches the database
+     *
+     * @return false if the buffer was full and the view was dropped
+     */
+    public boolean record(UUID userId, UUID universityId, UUID productId, LocalDateTime viewedAt) {
+        ViewKey key = new ViewKey(userId, productId, viewedAt.toLocalDate());
+        if (pending.size() >= maxPending && !pending.containsKey(key)) {
+            dropped.increment();
+            return false;
+        }
+        pending.merge(key, new PendingView(viewedAt, universityId, 0), PendingView::latest);
+        recorded.increment();
+        return true;
+    }
+
+    /**
+     * Number of buffered (user, listing, day) keys
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.views.flush-interval-ms:5000}",
+               initialDelayString = "${app.views.flush-interval-ms:5000}")
+    @Async("viewsExecutor")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int count = flush();
+        log.info("View buffer flushed on shutdown: {} entries", count);
+    }
+
+    /**
+     * Write everything buffered so far
+     *
+     * @return number of entries written
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            return flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int flushPending() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        rotateDedupSet();
+
+        Map<ViewKey, PendingView> batch = new HashMap<>();
+        for (ViewKey key : pending.keySet()) {
+            PendingView view = pending.remove(key);
+            if (view != null) {
+                batch.put(key, view);
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            List<ViewKey> newlyStored = transactionTemplate.execute(status -> write(batch));
+            rememberStored(newlyStored);
+            evictViewerCaches(batch);
+            return batch.size();
+        } catch (Exception e) {
+            batch.forEach((key, view) -> {
+                if (view.failures() + 1 >= MAX_FLUSH_ATTEMPTS) {
+                    dropped.increment();
+                } else {
+                    pending.merge(key, view.failed(), PendingView::latest);
+                }
+            });
+            log.warn("⚠️  View buffer flush failed ({} entries kept for retry): {}", batch.size(), e.getMessage());
+            return 0;
+        }
+    }
+
+    private List<ViewKey> write(Map<ViewKey, PendingView> batch) {
+        List<ViewKey> candidates = new ArrayList<>();
+        List<ViewKey> touches = new ArrayList<>();
+        for (ViewKey key : batch.keySet()) {
+            (storedToday.contains(key) ? touches : candidates).add(key);
+        }
+
+        Map<UUID, Integer> increments = new HashMap<>();
+        List<ViewKey> newlyStored = new ArrayList<>();
+        if (!candidates.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(candidates.size());
+            for (ViewKey key : candidates) {
+                Date day = Date.valueOf(key.day());
+                rows.add(new Object[] {
+                    UUID.randomUUID(), key.userId(), key.productId(),
+                    Timestamp.valueOf(batch.get(key).viewedAt()), day,
+                    key.userId(), key.productId(), day
+                });
+            }
+            int[] counts = jdbcTemplate.batchUpdate(INSERT_VIEW, rows);
+            for (int i = 0; i < candidates.size(); i++) {
+                ViewKey key = candidates.get(i);
+                // Drivers that cannot report per-row counts are trusted to have inserted
+                if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                    increments.merge(key.productId(), 1, Integer::sum);
+                } else {
+                    touches.add(key);
+                }
+                newlyStored.add(key);
+            }
+        }
+
+        if (!touches.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(touches.size());
+            for (ViewKey key : touches) {
+                Timestamp viewedAt = Timestamp.valueOf(batch.get(key).viewedAt());
+                rows.add(new Object[] { viewedAt, key.userId(), key.productId(), Date.valueOf(key.day()), viewedAt });
+            }
+            jdbcTemplate.batchUpdate(TOUCH_VIEW, rows);
+        }
+
+        if (!increments.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(increments.size());
+            increments.forEach((productId, count) -> rows.add(new Object[] { count, productId }));
+            jdbcTemplate.batchUpdate(INCREMENT_VIEW_COUNT, rows);
+            inserted.increment(increments.values().stream().mapToInt(Integer::intValue).sum());
+        }
+
+        log.debug("View buffer flushed: {} new, {} repeat, {} listings counted",
+            candidates.size(), touches.size(), increments.size());
+        return newlyStored;
+    }
+
+    private void rotateDedupSet() {
+        LocalDate today = LocalDate.now();
+        if (!today.equals(storedDay)) {
+            storedToday = ConcurrentHashMap.newKeySet();
+            storedDay = today;
+        }
+    }
+
+    private void rememberStored(List<ViewKey> keys) {
+        Set<ViewKey> set = storedToday;
+        for (ViewKey key : keys) {
+            // Past the cap repeat views fall back to the NOT EXISTS check
+            if (set.size() >= dedupMaxEntries) {
+                return;
+            }
+            if (key.day().equals(storedDay)) {
+                set.add(key);
+            }
+        }
+    }
+
+    private void evictViewerCaches(Map<ViewKey, PendingView> batch) {
+        Map<UUID, UUID> viewers = new HashMap<>();
+        batch.forEach((key, view) -> viewers.put(key.userId(), view.universityId()));
+        viewers.forEach(listingCacheInvalidator::evictViewerCaches);
+    }
+
+    /**
+     * One product_views row: viewer, listing and day
+     */
+    record ViewKey(UUID userId, UUID productId, LocalDate day) {
+    }
+
+    /**
+     * Latest buffered view for a key
+     */
+    record PendingView(LocalDateTime viewedAt, UUID universityId, int failures) {
+
+        static PendingView latest(PendingView a, PendingView b) {
+            PendingView newer = b.viewedAt().isAfter(a.viewedAt()) ? b : a;
+            return new PendingView(newer.viewedAt(), newer.universityId(), Math.max(a.failures(), b.failures()));
+        }
+
+        PendingView failed() {
+            return new PendingView(viewedAt, universityId, failures + 1);
+        }
+    }
+}
@@ -1,27 +1,21 @@
 package com.commandlinecommandos.campusmarketplace.service;
 
 import com.commandlinecommandos.campusmarketplace.model.Product;
-import com.commandlinecommandos.campusmarketplace.model.ProductView;
 import com.commandlinecommandos.campusmarketplace.model.User;
-import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
 import com.commandlinecommandos.campusmarketplace.repository.ProductViewRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 /**
  * Service for tracking product views
- * Handles asynchronous view tracking and recently viewed items
+ * Handles buffered view tracking and recently viewed items
  */
 @Service
 public class ProductViewService {
@@ -32,49 +26,20 @@ public class ProductViewService {
     private ProductViewRepository productViewRepository;
     
     @Autowired
-    private ProductRepository productRepository;
+    private ProductViewBuffer productViewBuffer;
     
     /**
-     * Track a product view asynchronously
-     * Upserts view record (one per user per product per day)
-     * Also increments product view count
+     * Track a product view
+     * Buffered in memory and written in batches by ProductViewBuffer
+     * (one view record per user per product per day, view count bumped on the first)
      * 
      * @param user The user viewing the product
      * @param product The product being viewed
      */
-    @Async
-    @Transactional
     public void trackView(User user, Product product) {
         try {
-            LocalDate today = LocalDate.now();
-            LocalDateTime now = LocalDateTime.now();
-            
-            // Check if view already exists today
-            Optional<ProductView> existingView = productViewRepository
-                .findByUserAndProductAndViewedAtDate(user, product, today);
-            
-            if (existingView.isPresent()) {
-                // Update timestamp of existing view
-                productViewRepository.updateViewTime(user, product, today, now);
-                log.debug("Updated view timestamp for user {} on product {}", 
-                         user.getUserId(), product.getProductId());
-            } else {
-                // Create new view record
-                ProductView view = new ProductView();
-                view.setUser(user);
-                view.setProduct(product);
-                view.setViewedAt(now);
-                view.setViewedAtDate(today);
-                    
-                productViewRepository.save(view);
-                
-                // Increment product view count
-                product.incrementViewCount();
-                productRepository.save(product);
-                
-                log.debug("Created new view record for user {} on product {}", 
-                         user.getUserId(), product.getProductId());
-            }
+            UUID universityId = user.getUniversity() != null ? user.getUniversity().getUniversityId() : null;
+            productViewBuffer.record(user.getUserId(), universityId, product.getProductId(), LocalDateTime.now());
         } catch (Exception e) {
             log.error("Error tracking product view: user={}, product={}", 
                      user.getUserId(), product.getProductId(), e);
@@ -2,11 +2,13 @@ package com.commandlinecommandos.campusmarketplace.service;
 
 import com.commandlinecommandos.campusmarketplace.exception.ResourceNotFoundException;
 import com.commandlinecommandos.campusmarketplace.exception.BadRequestException;
+import com.commandlinecommandos.campusmarketplace.listing.event.ListingChangedEvent;
 import com.commandlinecommandos.campusmarketplace.model.*;
 import com.commandlinecommandos.campusmarketplace.repository.UserReportRepository;
 import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
 import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -36,6 +38,9 @@ public class ReportService {
     
     @Autowired(required = false)
     private EmailService emailService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     
     /**
      * Submit a report
@@ -137,6 +142,7 @@ public class ReportService {
             product.setActive(false);  // Hide from marketplace
             product.setModerationStatus(ModerationStatus.REJECTED);  // Mark as rejected by admin
             productRepository.save(product);
+            eventPublisher.publishEvent(ListingChangedEvent.of(product, ListingChangedEvent.ChangeType.MODERATED));
             
             // Send email notification to seller
             sendListingRejectionEmail(product, resolutionNotes);
@@ -164,6 +170,7 @@ public class ReportService {
             product.setActive(false);  // Hide from marketplace
             product.setModerationStatus(ModerationStatus.REJECTED);  // Mark as rejected by admin
             productRepository.save(product);
+            eventPublisher.publishEvent(ListingChangedEvent.of(product, ListingChangedEvent.ChangeType.MODERATED));
             
             // Send email notification to seller
             sendListingRejectionEmail(product, resolutionNotes);
@@ -1,13 +1,9 @@
 package com.commandlinecommandos.campusmarketplace.service;
 
-import com.commandlinecommandos.campusmarketplace.model.SearchHistory;
-import com.commandlinecommandos.campusmarketplace.model.User;
 import com.commandlinecommandos.campusmarketplace.repository.SearchHistoryRepository;
-import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.commandlinecommandos.campusmarketplace.repository.SearchQueryStatRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,64 +13,33 @@ import java.util.UUID;
 /**
  * Service for managing search history
  * Tracks user searches for analytics and recent searches feature
+ *
+ * Searches are queued on SearchHistoryWriter and written in batches, so they show up
+ * in recent searches and popular searches after the next flush.
  */
 @Service
 public class SearchHistoryService {
     
-    private static final Logger log = LoggerFactory.getLogger(SearchHistoryService.class);
-    
     @Autowired
     private SearchHistoryRepository searchHistoryRepository;
     
     @Autowired
-    private UserRepository userRepository;
+    private SearchQueryStatRepository searchQueryStatRepository;
     
-    /**
-     * Save search query asynchronously
-     * Does not block the search operation
-     * 
-     * @param userId User performing the search
-     * @param query Search query
-     * @param resultsCount Number of results found
-     */
-    @Async
-    @Transactional
-    public void saveSearchAsync(UUID userId, String query, int resultsCount) {
-        try {
-            if (query == null || query.trim().isEmpty()) {
-                return;  // Don't save empty queries
-            }
-            
-            User user = userRepository.findById(userId).orElse(null);
-            if (user == null) {
-                log.warn("User not found for search history: {}", userId);
-                return;
-            }
-            
-            SearchHistory searchHistory = new SearchHistory();
-            searchHistory.setUser(user);
-            searchHistory.setSearchQuery(query.trim());
-            searchHistory.setResultsCount(resultsCount);
-                
-            searchHistoryRepository.save(searchHistory);
-            log.debug("Saved search history for user {}: query={}, results={}", 
-                     userId, query, resultsCount);
-        } catch (Exception e) {
-            log.error("Error saving search history for user {}: {}", userId, e.getMessage(), e);
-            // Don't throw exception - search history failure should not break search
-        }
-    }
+    @Autowired
+    private SearchHistoryWriter searchHistoryWriter;
     
     /**
-     * Save search query asynchronously (without results count)
+     * Record a search
+     * Only queues it; does not block the search operation
      * 
      * @param userId User performing the search
+     * @param universityId The user's university, used for popular searches (may be null)
      * @param query Search query
+     * @param resultsCount Number of results found
      */
-    @Async
-    @Transactional
-    public void saveSearchAsync(UUID userId, String query) {
-        saveSearchAsync(userId, query, 0);
+    public void recordSearch(UUID userId, UUID universityId, String query, int resultsCount) {
+        searchHistoryWriter.record(userId, universityId, query, resultsCount);
     }
     
     /**
@@ -84,24 +49,32 @@ public class SearchHistoryService {
      * @param limit Maximum number of results
      * @return List of recent search queries
      */
+    @Transactional(readOnly = true)
     public List<String> getRecentSearches(UUID userId, int limit) {
-        User user = userRepository.findById(userId).orElse(null);
-        if (user == null) {
-            return List.of();
-        }
-        
-        return searchHistoryRepository.findRecentSearchesByUser(user, limit);
+        return searchHistoryRepository.findRecentSearchesByUser(userId, PageRequest.of(0, limit));
     }
     
     /**
-     * Get popular search queries
-     * Used for autocomplete suggestions
+     * Get popular search queries across all universities
      * 
      * @param limit Maximum number of results
-     * @return List of popular search queries
+     * @return List of popular search queries, normalised to lower case
      */
+    @Transactional(readOnly = true)
     public List<String> getPopularSearches(int limit) {
-        return searchHistoryRepository.findPopularSearches(limit);
+        return searchQueryStatRepository.findTopQueries(searchHistoryWriter.windowStart(), PageRequest.of(0, limit));
+    }
+    
+    /**
+     * Get popular search queries in one university
+     * 
+     * @param universityId University ID
+     * @param limit Maximum number of results
+     * @return List of popular search queries, normalised to lower case
+     */
+    @Transactional(readOnly = true)
+    public List<String> getPopularSearches(UUID universityId, int limit) {
+        return searchQueryStatRepository.findTopQueriesByUniversity(universityId,
+            searchHistoryWriter.windowStart(), PageRequest.of(0, limit));
     }
 }
-
@@ -0,0 +1,326 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for search_history rows and the search_query_stats rollup
+ *
+ * record() copies the search into a bounded queue and returns; nothing is loaded or
+ * written on the request thread. A scheduled flush writes each batch inside one
+ * transaction:
+ * 1. insert the search_history rows by user_id (rows of since-deleted users are skipped)
+ * 2. add the batch's per (university, normalised query, day) counts to search_query_stats
+ * 3. insert the stats rows the update did not find
+ *
+ * Popular searches and autocomplete weights read the rollup, which holds at most
+ * window-days of rows; older days are pruned once a day. A failed batch is queued
+ * again for the next flush (up to three attempts).
+ *
+ * Configuration:
+ * - app.search.history.flush-interval-ms → delay between flushes (default 2s)
+ * - app.search.history.max-pending       → buffered searches before new ones are dropped
+ * - app.search.history.batch-size        → searches per transaction
+ * - app.search.history.window-days       → days of counts kept for popular searches (default 30)
+ * - app.search.history.prune-cron        → when old counts are deleted (default 03:45 daily)
+ */
+@Component
+public class SearchHistoryWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchHistoryWriter.class);
+
+    /** Searches still failing after this many flushes are dropped so one bad batch cannot wedge the buffer */
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    static final int MAX_QUERY_LENGTH = 500;
+    static final int MAX_STAT_QUERY_LENGTH = 200;
+
+    private static final String INSERT_HISTORY =
+        "INSERT INTO search_history (search_id, user_id, search_query, results_count, created_at) " +
+        "SELECT ?, ?, ?, ?, ? WHERE EXISTS (SELECT 1 FROM users WHERE user_id = ?)";
+
+    private static final String INCREMENT_STAT =
+        "UPDATE search_query_stats SET search_count = search_count + ?, " +
+        "last_searched_at = CASE WHEN last_searched_at < ? THEN ? ELSE last_searched_at END " +
+        "WHERE university_id = ? AND search_query = ? AND stat_date = ?";
+
+    private static final String INSERT_STAT =
+        "INSERT INTO search_query_stats (university_id, search_query, stat_date, search_count, last_searched_at) " +
+        "SELECT ?, ?, ?, ?, ? WHERE NOT EXISTS (" +
+        "SELECT 1 FROM search_query_stats WHERE university_id = ? AND search_query = ? AND stat_date = ?)";
+
+    private static final String PRUNE_STATS = "DELETE FROM search_query_stats WHERE stat_date < ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    @Value("${app.search.history.max-pending:20000}")
+    private int maxPending;
+
+    @Value("${app.search.history.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.search.history.window-days:30}")
+    private int windowDays;
+
+    private BlockingQueue<PendingSearch> pending;
+    private TransactionTemplate transactionTemplate;
+    private Counter dropped;
+    private Counter written;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @PostConstruct
+    void init() {
+        pending = new ArrayBlockingQueue<>(maxPending);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        MeterRegistry registry = meterRegistryProvider.getIfAvailable(SimpleMeterRegistry::new);
+        dropped = Counter.builder("search.history.buffer.dropped")
+            .description("Searches not stored because the buffer was full or the batch kept failing")
+            .register(registry);
+        written = Counter.builder("search.history.buffer.written").description("Search history rows written")
+            .register(registry);
+        Gauge.builder("search.history.buffer.pending", this, SearchHistoryWriter::pendingCount)
+            .description("Searches waiting to be written")
+            .register(registry);
+    }
+
+    /**
+     * Queue a search; never touches the database
+     *
+     * @return false if the query was blank or the buffer was full
+     */
+    public boolean record(UUID userId, UUID universityId, String query, int resultsCount) {
+        if (userId == null || query == null || query.isBlank()) {
+            return false;
+        }
+        String trimmed = query.trim();
+        PendingSearch search = new PendingSearch(userId, universityId,
+            truncate(trimmed, MAX_QUERY_LENGTH), resultsCount, LocalDateTime.now(), 0);
+        if (!pending.offer(search)) {
+            dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.history.flush-interval-ms:2000}",
+               initialDelayString = "${app.search.history.flush-interval-ms:2000}")
+    @Async("searchHistoryExecutor")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int count = flush();
+        if (count > 0) {
+            log.info("Search history buffer flushed on shutdown: {} searches", count);
+        }
+    }
+
+    /**
+     * Write everything buffered so far
+     *
+     * @return number of searches written
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            return flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Delete daily counts that have left the popular-search window
+     */
+    @Scheduled(cron = "${app.search.history.prune-cron:0 45 3 * * *}")
+    public void pruneStats() {
+        int deleted = jdbcTemplate.update(PRUNE_STATS, Date.valueOf(windowStart()));
+        if (deleted > 0) {
+            log.info("✅ Pruned {} search count rows older than {} days", deleted, windowDays);
+        }
+    }
+
+    /**
+     * First day counted towards popular searches
+     */
+    public LocalDate windowStart() {
+        return LocalDate.now().minusDays(windowDays);
+    }
+
+    private int flushPending() {
+        int total = 0;
+        List<PendingSearch> retries = new ArrayList<>();
+        List<PendingSearch> batch = new ArrayList<>(Math.min(batchSize, maxPending));
+        while (pending.drainTo(batch, batchSize) > 0) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(batch));
+                total += batch.size();
+            } catch (Exception e) {
+                log.warn("⚠️  Search history flush failed ({} searches): {}", batch.size(), e.getMessage());
+                batch.forEach(search -> {
+                    if (search.failures() + 1 >= MAX_FLUSH_ATTEMPTS) {
+                        dropped.increment();
+                    } else {
+                        retries.add(search.failed());
+                    }
+                });
+            }
+            batch.clear();
+        }
+        // Requeued after the drain so a failing batch waits for the next flush
+        for (PendingSearch search : retries) {
+            if (!pending.offer(search)) {
+                dropped.increment();
+            }
+        }
+        return total;
+    }
+
+    private void write(List<PendingSearch> batch) {
+        List<Object[]> historyRows = new ArrayList<>(batch.size());
+        Map<StatKey, StatDelta> deltas = new LinkedHashMap<>();
+        for (PendingSearch search : batch) {
+            historyRows.add(new Object[] {
+                UUID.randomUUID(), search.userId(), search.query(), search.resultsCount(),
+                Timestamp.valueOf(search.searchedAt()), search.userId()
+            });
+            String normalized = normalize(search.query());
+            if (search.universityId() != null && !normalized.isEmpty()) {
+                StatKey key = new StatKey(search.universityId(), normalized, search.searchedAt().toLocalDate());
+                deltas.merge(key, new StatDelta(1, search.searchedAt()), StatDelta::plus);
+            }
+        }
+
+        int[] inserted = jdbcTemplate.batchUpdate(INSERT_HISTORY, historyRows);
+        int stored = 0;
+        for (int count : inserted) {
+            // Drivers that cannot report per-row counts are trusted to have inserted
+            if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                stored++;
+            }
+        }
+        written.increment(stored);
+
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<StatKey> keys = new ArrayList<>(deltas.keySet());
+        List<Object[]> updates = new ArrayList<>(keys.size());
+        for (StatKey key : keys) {
+            StatDelta delta = deltas.get(key);
+            Timestamp last = Timestamp.valueOf(delta.lastSearchedAt());
+            updates.add(new Object[] {
+                delta.count(), last, last, key.universityId(), key.query(), Date.valueOf(key.day())
+            });
+        }
+        int[] updated = jdbcTemplate.batchUpdate(INCREMENT_STAT, updates);
+
+        // Keys the update may have missed; NOT EXISTS keeps an unknown count from inserting twice
+        List<Object[]> inserts = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (updated[i] > 0) {
+                continue;
+            }
+            StatKey key = keys.get(i);
+            StatDelta delta = deltas.get(key);
+            Date day = Date.valueOf(key.day());
+            inserts.add(new Object[] {
+                key.universityId(), key.query(), day, delta.count(), Timestamp.valueOf(delta.lastSearchedAt()),
+                key.universityId(), key.query(), day
+            });
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_STAT, inserts);
+        }
+
+        log.debug("Search history flushed: {} rows, {} query counts ({} new)",
+            stored, keys.size(), inserts.size());
+    }
+
+    /**
+     * Rollup key for a query: trimmed, lower case, single spaces, cut to the column length
+     */
+    static String normalize(String query) {
+        if (query == null) {
+            return "";
+        }
+        String normalized = query.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        return truncate(normalized, MAX_STAT_QUERY_LENGTH);
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    /**
+     * One search waiting to be written
+     */
+    record PendingSearch(UUID userId, UUID universityId, String query, int resultsCount,
+                         LocalDateTime searchedAt, int failures) {
+
+        PendingSearch failed() {
+            return new PendingSearch(userId, universityId, query, resultsCount, searchedAt, failures + 1);
+        }
+    }
+
+    /**
+     * One search_query_stats row: university, normalised query and day
+     */
+    record StatKey(UUID universityId, String query, LocalDate day) {
+    }
+
+    /**
+     * Searches a batch adds to one stats row
+     */
+    record StatDelta(long count, LocalDateTime lastSearchedAt) {
+
+        static StatDelta plus(StatDelta a, StatDelta b) {
+            return new StatDelta(a.count() + b.count(),
+                b.lastSearchedAt().isAfter(a.lastSearchedAt()) ? b.lastSearchedAt() : a.lastSearchedAt());
+        }
+    }
+}
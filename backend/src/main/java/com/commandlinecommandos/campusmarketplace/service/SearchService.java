@@ -7,12 +7,20 @@ import com.commandlinecommandos.campusmarketplace.dto.SearchResponse;
 import com.commandlinecommandos.campusmarketplace.model.Product;
 import com.commandlinecommandos.campusmarketplace.model.User;
 import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
+import com.commandlinecommandos.campusmarketplace.repository.RankedListingSearch.Filters;
+import com.commandlinecommandos.campusmarketplace.repository.RankedListingSearch.RankedListing;
 import com.commandlinecommandos.campusmarketplace.repository.ProductSpecifications;
+import com.commandlinecommandos.campusmarketplace.search.AutocompleteIndex;
+import com.commandlinecommandos.campusmarketplace.search.ListingDocument;
+import com.commandlinecommandos.campusmarketplace.search.ListingSearchIndex;
+import com.commandlinecommandos.campusmarketplace.search.ScoredListing;
+import com.commandlinecommandos.campusmarketplace.search.SearchHits;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -21,8 +29,14 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -40,6 +54,12 @@ public class SearchService {
     @Autowired
     private SearchHistoryService searchHistoryService;
     
+    @Autowired
+    private ListingSearchIndex listingSearchIndex;
+    
+    @Autowired
+    private AutocompleteIndex autocompleteIndex;
+    
     /**
      * Perform comprehensive product search with filters, sorting, and caching
      * 
@@ -47,9 +67,10 @@ public class SearchService {
      * @param user Current user
      * @return Search response with results and metadata
      * 
-     * Note: Caching disabled temporarily due to Redis deserialization issues with complex DTOs
+     * Cached per university; values are encoded with CacheValueCodec when Redis backs the cache.
+     * Search history is recorded by the caller so that cache hits are tracked too.
      */
-    // @Cacheable(value = "searchResults", key = "#request.cacheKey()")
+    @Cacheable(value = "searchResults", key = "#user.university?.universityId + ':' + #request.cacheKey()")
     public SearchResponse search(SearchRequest request, User user) {
         long startTime = System.currentTimeMillis();
         
@@ -64,22 +85,19 @@ public class SearchService {
             
             // Determine search strategy based on query
             Page<Product> results;
+            Map<UUID, Float> relevanceScores = new HashMap<>();
             if (request.getQuery() != null && !request.getQuery().trim().isEmpty()) {
                 // Full-text search with filters
-                results = searchWithQuery(request, universityId);
+                results = listingSearchIndex.isReady()
+                    ? searchWithIndex(request, universityId, relevanceScores)
+                    : searchWithQuery(request, universityId, relevanceScores);
             } else {
                 // Filter-only search (no text query)
                 results = searchWithFiltersOnly(request, universityId);
             }
             
-            // Save search history asynchronously
-            if (request.getQuery() != null && !request.getQuery().trim().isEmpty()) {
-                searchHistoryService.saveSearchAsync(user.getUserId(), 
-                    request.getQuery(), (int) results.getTotalElements());
-            }
-            
             // Transform to response
-            SearchResponse response = transformToSearchResponse(results, request, startTime, false);
+            SearchResponse response = transformToSearchResponse(results, request, startTime, false, relevanceScores);
             
             log.info("Search completed: query='{}', filters={}, results={}, time={}ms",
                     request.getQuery(), countFilters(request), 
@@ -93,18 +111,149 @@ public class SearchService {
     }
     
     /**
-     * Search with full-text query
+     * Search with full-text query using the in-memory listing index
+     * Text match, filters, ranking and paging are resolved in one pass over the postings;
+     * the database is only hit to load the listings on the requested page
+     */
+    private Page<Product> searchWithIndex(SearchRequest request, UUID universityId,
+                                          Map<UUID, Float> relevanceScores) {
+        Pageable pageable = createPageable(request);
+        SearchHits hits = listingSearchIndex.search(
+            universityId,
+            request.getQuery(),
+            createIndexFilter(request),
+            createIndexOrder(request.getSortBy()),
+            (int) pageable.getOffset(),
+            pageable.getPageSize()
+        );
+        
+        // Preserve the pre-index behaviour of retrying likely typos with trigram similarity
+        if (hits.getTotalHits() == 0 && !hasAdditionalFilters(request) && request.getQuery().length() > 3) {
+            try {
+                return loadRanked(productRepository.fuzzySearch(universityId, request.getQuery(), Filters.NONE,
+                    createRankedPageable(request)), relevanceScores);
+            } catch (Exception e) {
+                log.warn("Fuzzy search failed: {}", e.getMessage());
+            }
+        }
+        
+        List<UUID> ids = new ArrayList<>(hits.getHits().size());
+        for (ScoredListing hit : hits.getHits()) {
+            ids.add(hit.getListingId());
+            relevanceScores.put(hit.getListingId(), hit.getScore());
+        }
+        
+        return new PageImpl<>(loadWithSellers(ids), pageable, hits.getTotalHits());
+    }
+    
+    /**
+     * Load listings and their sellers in one query, in the order of the given IDs
+     * (the IN query makes no ordering guarantee)
+     */
+    private List<Product> loadWithSellers(List<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Product> byId = productRepository.findWithSellerByProductIdIn(ids).stream()
+            .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        return ids.stream()
+            .map(byId::get)
+            .filter(p -> p != null)
+            .collect(Collectors.toList());
+    }
+    
+    /**
+     * Load a page of ranked listing IDs (native full-text or fuzzy search) with their sellers
+     * The database rank becomes the result's relevance score
+     */
+    private Page<Product> loadRanked(Page<RankedListing> ranked, Map<UUID, Float> relevanceScores) {
+        List<UUID> ids = new ArrayList<>(ranked.getNumberOfElements());
+        for (RankedListing hit : ranked.getContent()) {
+            ids.add(hit.getListingId());
+            relevanceScores.put(hit.getListingId(), hit.getRank());
+        }
+        return new PageImpl<>(loadWithSellers(ids), ranked.getPageable(), ranked.getTotalElements());
+    }
+    
+    /**
+     * Build an index-side filter equivalent to ProductSpecifications.withFilters
+     * (university, active and approved are implied by index membership)
+     */
+    private Predicate<ListingDocument> createIndexFilter(SearchRequest request) {
+        Predicate<ListingDocument> filter = doc -> true;
+        if (request.getCategories() != null && !request.getCategories().isEmpty()) {
+            filter = filter.and(doc -> request.getCategories().contains(doc.getCategory()));
+        }
+        if (request.getConditions() != null && !request.getConditions().isEmpty()) {
+            filter = filter.and(doc -> request.getConditions().contains(doc.getCondition()));
+        }
+        if (request.getMinPrice() != null) {
+            filter = filter.and(doc -> doc.getPrice() != null && doc.getPrice().compareTo(request.getMinPrice()) >= 0);
+        }
+        if (request.getMaxPrice() != null) {
+            filter = filter.and(doc -> doc.getPrice() != null && doc.getPrice().compareTo(request.getMaxPrice()) <= 0);
+        }
+        if (request.getLocation() != null && !request.getLocation().trim().isEmpty()) {
+            String location = request.getLocation().toLowerCase(Locale.ROOT);
+            filter = filter.and(doc -> doc.getPickupLocation() != null && doc.getPickupLocation().contains(location));
+        }
+        if (request.getDateFrom() != null) {
+            filter = filter.and(doc -> doc.getCreatedAt() != null && !doc.getCreatedAt().isBefore(request.getDateFrom()));
+        }
+        return filter;
+    }
+    
+    /**
+     * Index-side equivalent of createSort; relevance orders by BM25 score
+     */
+    private Comparator<ScoredListing> createIndexOrder(String sortBy) {
+        Comparator<ScoredListing> newestFirst = Comparator.comparing(
+            (ScoredListing hit) -> hit.getDocument().getCreatedAt(),
+            Comparator.nullsLast(Comparator.reverseOrder()));
+        Comparator<ScoredListing> byPrice = Comparator.comparing(
+            (ScoredListing hit) -> hit.getDocument().getPrice(),
+            Comparator.nullsLast(Comparator.naturalOrder()));
+        
+        if (sortBy == null) {
+            sortBy = "relevance";
+        }
+        
+        return switch (sortBy.toLowerCase(Locale.ROOT)) {
+            case "price_asc" -> byPrice.thenComparing(newestFirst);
+            case "price_desc" -> byPrice.reversed().thenComparing(newestFirst);
+            case "date_asc" -> newestFirst.reversed();
+            case "date_desc" -> newestFirst;
+            case "popularity" -> Comparator.comparingInt((ScoredListing hit) -> hit.getDocument().getViewCount())
+                .thenComparingInt(hit -> hit.getDocument().getFavoriteCount())
+                .reversed()
+                .thenComparing(newestFirst);
+            default -> Comparator.comparingDouble(ScoredListing::getScore).reversed().thenComparing(newestFirst);
+        };
+    }
+    
+    /**
+     * Search with full-text query over the stored search_vector, ranked by ts_rank
+     * Filters narrow the ranked match rather than replacing it.
      * Falls back to simpler search if PostgreSQL full-text functions are unavailable (e.g., H2 tests)
      */
-    private Page<Product> searchWithQuery(SearchRequest request, UUID universityId) {
+    private Page<Product> searchWithQuery(SearchRequest request, UUID universityId,
+                                          Map<UUID, Float> relevanceScores) {
         Pageable pageable = createPageable(request);
-        Pageable textPageable = PageRequest.of(request.getPage(), request.getSize());
+        Pageable textPageable = createRankedPageable(request);
+        Filters filters = new Filters(
+            request.getCategories(),
+            request.getConditions(),
+            request.getMinPrice(),
+            request.getMaxPrice(),
+            request.getLocation(),
+            request.getDateFrom()
+        );
         
         // Try full-text search first (PostgreSQL only)
-        Page<Product> textSearchResults;
+        Page<RankedListing> textSearchResults;
         try {
             textSearchResults = productRepository.searchWithFullText(
-                universityId, request.getQuery(), textPageable);
+                universityId, request.getQuery(), filters, textPageable);
         } catch (Exception e) {
             // Fall back to simple search if full-text search fails (H2 compatibility)
             log.warn("Full-text search failed, falling back to simple search: {}", e.getMessage());
@@ -119,7 +268,7 @@ public class SearchService {
             );
             // Add simple title/description search
             spec = spec.and((root, query, cb) -> {
-                String searchPattern = "%" + request.getQuery().toLowerCase() + "%";
+                String searchPattern = "%" + request.getQuery().toLowerCase(Locale.ROOT) + "%";
                 return cb.or(
                     cb.like(cb.lower(root.get("title")), searchPattern),
                     cb.like(cb.lower(root.get("description")), searchPattern)
@@ -132,29 +281,14 @@ public class SearchService {
         if (textSearchResults.isEmpty() && request.getQuery().length() > 3) {
             try {
                 textSearchResults = productRepository.fuzzySearch(
-                    universityId, request.getQuery(), textPageable);
+                    universityId, request.getQuery(), filters, textPageable);
             } catch (Exception e) {
                 log.warn("Fuzzy search failed: {}", e.getMessage());
                 // Already have empty results, just continue
             }
         }
         
-        // Apply additional filters using Specifications if needed
-        if (hasAdditionalFilters(request)) {
-            Specification<Product> spec = ProductSpecifications.withFilters(
-                universityId,
-                request.getCategories(),
-                request.getConditions(),
-                request.getMinPrice(),
-                request.getMaxPrice(),
-                request.getLocation(),
-                request.getDateFrom()
-            );
-            
-            return productRepository.findAll(spec, pageable);
-        }
-        
-        return textSearchResults;
+        return loadRanked(textSearchResults, relevanceScores);
     }
     
     /**
@@ -184,6 +318,17 @@ public class SearchService {
         return PageRequest.of(request.getPage(), request.getSize(), sort);
     }
     
+    /**
+     * Pageable for the ranked SQL search: unsorted for relevance, so results keep rank order
+     */
+    private Pageable createRankedPageable(SearchRequest request) {
+        String sortBy = request.getSortBy() != null ? request.getSortBy().toLowerCase(Locale.ROOT) : "relevance";
+        return switch (sortBy) {
+            case "price_asc", "price_desc", "date_asc", "date_desc", "popularity" -> createPageable(request);
+            default -> PageRequest.of(request.getPage(), request.getSize());
+        };
+    }
+    
     /**
      * Create sort criteria based on sort parameter
      */
@@ -233,10 +378,12 @@ public class SearchService {
     private SearchResponse transformToSearchResponse(Page<Product> page, 
                                                      SearchRequest request, 
                                                      long startTime,
-                                                     boolean cached) {
+                                                     boolean cached,
+                                                     Map<UUID, Float> relevanceScores) {
         List<ProductSearchResult> results = page.getContent().stream()
             .map(this::transformToSearchResult)
             .collect(Collectors.toList());
+        results.forEach(result -> result.setRelevanceScore(relevanceScores.get(result.getProductId())));
         
         SearchMetadata metadata = new SearchMetadata(
             System.currentTimeMillis() - startTime,
@@ -278,7 +425,7 @@ public class SearchService {
         result.setFavoriteCount(product.getFavoriteCount());
         result.setCreatedAt(product.getCreatedAt());
         result.setImageUrls(List.of());  // TODO: Add image URLs when image service is implemented
-        result.setRelevanceScore(null);  // Set from ts_rank if available
+        result.setRelevanceScore(null);  // Set from the index BM25 score or database rank if available
         result.setNegotiable(product.isNegotiable());
         result.setQuantity(product.getQuantity());
         return result;
@@ -313,14 +460,21 @@ public class SearchService {
     
     /**
      * Get autocomplete suggestions
-     * Cached for 10 minutes
+     * Answered from the in-memory AutocompleteIndex once it is built; until then (or with
+     * the index disabled) the database is queried and cached per university until a
+     * listing title there changes
      */
-    @Cacheable(value = "autocomplete", key = "#query + '_' + #universityId")
+    @Cacheable(value = "autocomplete", key = "#universityId + ':' + #query",
+               condition = "!@autocompleteIndex.isReady()")
     public List<String> autocomplete(String query, UUID universityId) {
         if (query == null || query.length() < 2) {
             return List.of();
         }
         
+        if (autocompleteIndex.isReady()) {
+            return autocompleteIndex.complete(universityId, query);
+        }
+        
         try {
             // Try PostgreSQL similarity() first (for production)
             List<String> suggestions = productRepository.findTitleSuggestions(universityId, query);
@@ -0,0 +1,60 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Time-decayed trending score for a listing
+ *
+ * score = (decayedViews + favoriteWeight * favorites + lifetimeViewWeight * lifetimeViews + 1)
+ *         * 0.5 ^ (listingAgeHours / listingHalfLifeHours)
+ *
+ * decayedViews sums each day's views halved every viewHalfLifeHours, so a burst of
+ * views this morning outranks the same number last week. The +1 lets brand-new
+ * listings with no engagement yet rank by freshness alone.
+ */
+public class TrendingScorer {
+
+    private final double viewHalfLifeHours;
+    private final double listingHalfLifeHours;
+    private final double favoriteWeight;
+    private final double lifetimeViewWeight;
+
+    public TrendingScorer(double viewHalfLifeHours, double listingHalfLifeHours,
+                          double favoriteWeight, double lifetimeViewWeight) {
+        this.viewHalfLifeHours = viewHalfLifeHours;
+        this.listingHalfLifeHours = listingHalfLifeHours;
+        this.favoriteWeight = favoriteWeight;
+        this.lifetimeViewWeight = lifetimeViewWeight;
+    }
+
+    /**
+     * Weight of one day's views, measured from the middle of that day
+     */
+    public double viewDecay(LocalDate viewedOn, LocalDateTime now) {
+        double ageHours = Math.max(0, hoursBetween(viewedOn.atTime(12, 0), now));
+        return halfLife(ageHours, viewHalfLifeHours);
+    }
+
+    /**
+     * Final score from the listing's counters, its decayed recent views and its age
+     */
+    public double score(double decayedViews, Integer favoriteCount, Integer lifetimeViews,
+                        LocalDateTime createdAt, LocalDateTime now) {
+        double engagement = decayedViews
+            + favoriteWeight * (favoriteCount != null ? favoriteCount : 0)
+            + lifetimeViewWeight * (lifetimeViews != null ? lifetimeViews : 0)
+            + 1.0;
+        double ageHours = createdAt != null ? Math.max(0, hoursBetween(createdAt, now)) : 0;
+        return engagement * halfLife(ageHours, listingHalfLifeHours);
+    }
+
+    private static double halfLife(double ageHours, double halfLifeHours) {
+        return Math.pow(0.5, ageHours / halfLifeHours);
+    }
+
+    private static double hoursBetween(LocalDateTime from, LocalDateTime to) {
+        return Duration.between(from, to).toMinutes() / 60.0;
+    }
+}
@@ -0,0 +1,339 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.dto.ProductSummary;
+import com.commandlinecommandos.campusmarketplace.listing.event.ListingChangedEvent;
+import com.commandlinecommandos.campusmarketplace.model.ModerationStatus;
+import com.commandlinecommandos.campusmarketplace.model.Product;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
+import com.commandlinecommandos.campusmarketplace.repository.ProductRepository.TrendingCandidate;
+import com.commandlinecommandos.campusmarketplace.repository.ProductViewRepository;
+import com.commandlinecommandos.campusmarketplace.repository.ProductViewRepository.DailyViewCount;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Precomputed trending listings per university and per category
+ *
+ * A scheduled job scores every active, approved listing with TrendingScorer and
+ * keeps the top N per university (overall and per category) as ready-made
+ * summaries. Reads are map lookups with no SQL. Listings that are deactivated or
+ * moderated are dropped from the ranking right away; everything else catches up
+ * on the next refresh. Each node refreshes its own copy.
+ *
+ * Configuration:
+ * - app.discovery.trending.enabled                 → precompute rankings (default true)
+ * - app.discovery.trending.refresh-interval-ms     → delay between refreshes
+ * - app.discovery.trending.top-n                   → listings kept per university/category
+ * - app.discovery.trending.view-window-days        → days of view history scored
+ * - app.discovery.trending.view-half-life-hours    → decay of daily view counts
+ * - app.discovery.trending.listing-half-life-hours → decay by listing age
+ * - app.discovery.trending.favorite-weight         → weight of one favorite vs one recent view
+ * - app.discovery.trending.lifetime-view-weight    → weight of all-time view count
+ */
+@Service
+public class TrendingService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingService.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductViewRepository productViewRepository;
+
+    @Value("${app.discovery.trending.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.discovery.trending.top-n:50}")
+    private int topN;
+
+    @Value("${app.discovery.trending.view-window-days:7}")
+    private int viewWindowDays;
+
+    @Value("${app.discovery.trending.view-half-life-hours:48}")
+    private double viewHalfLifeHours;
+
+    @Value("${app.discovery.trending.listing-half-life-hours:168}")
+    private double listingHalfLifeHours;
+
+    @Value("${app.discovery.trending.favorite-weight:3.0}")
+    private double favoriteWeight;
+
+    @Value("${app.discovery.trending.lifetime-view-weight:0.1}")
+    private double lifetimeViewWeight;
+
+    private TrendingScorer scorer;
+
+    private volatile Map<UUID, UniversityTrending> rankings = Map.of();
+
+    /** Serialises swaps of rankings between refresh() and onListingChanged() */
+    private final ReentrantLock rankingsLock = new ReentrantLock();
+
+    /** One refresh at a time (startup and the schedule can overlap) */
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    // Listings dropped while a refresh was reading the database; stripped from its result before the swap
+    private Set<DroppedListing> droppedDuringRefresh;
+
+    private volatile boolean ready;
+
+    @PostConstruct
+    void init() {
+        scorer = new TrendingScorer(viewHalfLifeHours, listingHalfLifeHours, favoriteWeight, lifetimeViewWeight);
+    }
+
+    /**
+     * Recompute every university's ranking and swap it in
+     * Runs at startup too; both triggers call through the proxy so the read-only transaction applies
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.discovery.trending.refresh-interval-ms:300000}",
+               initialDelayString = "${app.discovery.trending.refresh-interval-ms:300000}")
+    @Transactional(readOnly = true)
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        refreshLock.lock();
+        try {
+            trackDropped(new HashSet<>());
+            LocalDateTime now = LocalDateTime.now();
+            List<TrendingCandidate> candidates = productRepository.findTrendingCandidates(ModerationStatus.APPROVED);
+            Map<UUID, Double> decayedViews = decayedViews(
+                productViewRepository.countDailyViewsSince(LocalDate.now().minusDays(viewWindowDays)), now);
+
+            Map<UUID, Double> scores = new HashMap<>();
+            for (TrendingCandidate candidate : candidates) {
+                scores.put(candidate.getProductId(), scorer.score(
+                    decayedViews.getOrDefault(candidate.getProductId(), 0.0),
+                    candidate.getFavoriteCount(), candidate.getViewCount(), candidate.getCreatedAt(), now));
+            }
+
+            Map<UUID, RankedIds> ranked = rank(candidates, scores, topN);
+            Map<UUID, UniversityTrending> hydrated = hydrate(ranked);
+            rankingsLock.lock();
+            try {
+                // The candidates may predate a deactivation that committed during this refresh
+                for (DroppedListing dropped : droppedDuringRefresh) {
+                    hydrated = without(hydrated, dropped);
+                }
+                rankings = hydrated;
+            } finally {
+                rankingsLock.unlock();
+            }
+            ready = true;
+
+            log.info("Trending rankings refreshed: {} listings across {} universities in {}ms",
+                candidates.size(), ranked.size(), System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.warn("⚠️  Trending refresh failed: {} - keeping previous rankings", e.getMessage());
+        } finally {
+            trackDropped(null);
+            refreshLock.unlock();
+        }
+    }
+
+    private void trackDropped(Set<DroppedListing> dropped) {
+        rankingsLock.lock();
+        try {
+            droppedDuringRefresh = dropped;
+        } finally {
+            rankingsLock.unlock();
+        }
+    }
+
+    /**
+     * Whether precomputed rankings are available
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Top trending listings for a university, optionally within one category
+     *
+     * @param universityId University UUID
+     * @param category Category, or null for all categories
+     * @param limit Maximum number of listings (at most top-n are kept)
+     * @return Ranked summaries, best first
+     */
+    public List<ProductSummary> getTrending(UUID universityId, ProductCategory category, int limit) {
+        UniversityTrending trending = rankings.get(universityId);
+        if (trending == null || limit <= 0) {
+            return List.of();
+        }
+        List<ProductSummary> list = category == null
+            ? trending.all()
+            : trending.byCategory().getOrDefault(category, List.of());
+        return list.subList(0, Math.min(limit, list.size()));
+    }
+
+    /**
+     * Drop listings that may no longer be visible without waiting for the next refresh
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        ListingChangedEvent.ChangeType type = event.getChangeType();
+        if (type != ListingChangedEvent.ChangeType.DEACTIVATED && type != ListingChangedEvent.ChangeType.MODERATED) {
+            return;
+        }
+        DroppedListing dropped = new DroppedListing(event.getUniversityId(), event.getListingId());
+        rankingsLock.lock();
+        try {
+            if (droppedDuringRefresh != null) {
+                droppedDuringRefresh.add(dropped);
+            }
+            rankings = without(rankings, dropped);
+        } finally {
+            rankingsLock.unlock();
+        }
+    }
+
+    private static Map<UUID, UniversityTrending> without(Map<UUID, UniversityTrending> rankings,
+                                                         DroppedListing dropped) {
+        UniversityTrending trending = rankings.get(dropped.universityId());
+        if (trending == null || !trending.contains(dropped.listingId())) {
+            return rankings;
+        }
+        Map<UUID, UniversityTrending> updated = new HashMap<>(rankings);
+        updated.put(dropped.universityId(), trending.without(dropped.listingId()));
+        return Map.copyOf(updated);
+    }
+
+    private Map<UUID, Double> decayedViews(List<DailyViewCount> dailyViews, LocalDateTime now) {
+        Map<UUID, Double> decayed = new HashMap<>();
+        for (DailyViewCount day : dailyViews) {
+            decayed.merge(day.getProductId(), day.getViews() * scorer.viewDecay(day.getViewedOn(), now), Double::sum);
+        }
+        return decayed;
+    }
+
+    /**
+     * Keep the topN highest-scoring listing IDs per university and per (university, category)
+     */
+    static Map<UUID, RankedIds> rank(List<TrendingCandidate> candidates, Map<UUID, Double> scores, int topN) {
+        Comparator<UUID> byScore = Comparator.comparingDouble(id -> scores.getOrDefault(id, 0.0));
+        Map<UUID, PriorityQueue<UUID>> overall = new HashMap<>();
+        Map<UUID, Map<ProductCategory, PriorityQueue<UUID>>> perCategory = new HashMap<>();
+
+        for (TrendingCandidate candidate : candidates) {
+            if (candidate.getUniversityId() == null) {
+                continue;
+            }
+            offer(overall.computeIfAbsent(candidate.getUniversityId(), id -> new PriorityQueue<>(byScore)),
+                candidate.getProductId(), topN);
+            if (candidate.getCategory() != null) {
+                offer(perCategory
+                        .computeIfAbsent(candidate.getUniversityId(), id -> new EnumMap<>(ProductCategory.class))
+                        .computeIfAbsent(candidate.getCategory(), c -> new PriorityQueue<>(byScore)),
+                    candidate.getProductId(), topN);
+            }
+        }
+
+        Map<UUID, RankedIds> ranked = new HashMap<>();
+        overall.forEach((universityId, heap) -> {
+            Map<ProductCategory, List<UUID>> categories = new EnumMap<>(ProductCategory.class);
+            perCategory.getOrDefault(universityId, Map.of())
+                .forEach((category, categoryHeap) -> categories.put(category, drainBestFirst(categoryHeap, byScore)));
+            ranked.put(universityId, new RankedIds(drainBestFirst(heap, byScore), categories));
+        });
+        return ranked;
+    }
+
+    private static void offer(PriorityQueue<UUID> minHeap, UUID id, int topN) {
+        minHeap.offer(id);
+        if (minHeap.size() > topN) {
+            minHeap.poll();
+        }
+    }
+
+    private static List<UUID> drainBestFirst(PriorityQueue<UUID> minHeap, Comparator<UUID> byScore) {
+        List<UUID> ids = new ArrayList<>(minHeap);
+        ids.sort(byScore.reversed());
+        return ids;
+    }
+
+    /**
+     * Load summaries for every ranked listing (one query, sellers fetched eagerly)
+     */
+    private Map<UUID, UniversityTrending> hydrate(Map<UUID, RankedIds> ranked) {
+        Set<UUID> ids = new HashSet<>();
+        ranked.values().forEach(r -> {
+            ids.addAll(r.all());
+            r.byCategory().values().forEach(ids::addAll);
+        });
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<UUID, ProductSummary> summaries = productRepository.findWithSellerByProductIdIn(ids).stream()
+            .collect(Collectors.toMap(Product::getProductId, DiscoveryService::toSummary));
+
+        Map<UUID, UniversityTrending> result = new HashMap<>();
+        ranked.forEach((universityId, r) -> {
+            Map<ProductCategory, List<ProductSummary>> byCategory = new EnumMap<>(ProductCategory.class);
+            r.byCategory().forEach((category, categoryIds) -> byCategory.put(category, lookup(categoryIds, summaries)));
+            result.put(universityId, new UniversityTrending(lookup(r.all(), summaries), byCategory));
+        });
+        return Map.copyOf(result);
+    }
+
+    private static List<ProductSummary> lookup(List<UUID> ids, Map<UUID, ProductSummary> summaries) {
+        return ids.stream().map(summaries::get).filter(s -> s != null).toList();
+    }
+
+    /**
+     * Ranked listing IDs for one university, best first
+     */
+    record RankedIds(List<UUID> all, Map<ProductCategory, List<UUID>> byCategory) {
+    }
+
+    private record DroppedListing(UUID universityId, UUID listingId) {
+    }
+
+    /**
+     * Ranked summaries for one university, best first
+     */
+    private record UniversityTrending(List<ProductSummary> all, Map<ProductCategory, List<ProductSummary>> byCategory) {
+
+        boolean contains(UUID listingId) {
+            return all.stream().anyMatch(s -> listingId.equals(s.getProductId()))
+                || byCategory.values().stream().flatMap(List::stream).anyMatch(s -> listingId.equals(s.getProductId()));
+        }
+
+        UniversityTrending without(UUID listingId) {
+            Function<List<ProductSummary>, List<ProductSummary>> strip =
+                list -> list.stream().filter(s -> !listingId.equals(s.getProductId())).toList();
+            Map<ProductCategory, List<ProductSummary>> categories = new EnumMap<>(ProductCategory.class);
+            byCategory.forEach((category, list) -> categories.put(category, strip.apply(list)));
+            return new UniversityTrending(strip.apply(all), categories);
+        }
+    }
+}
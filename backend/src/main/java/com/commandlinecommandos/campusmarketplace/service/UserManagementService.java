@@ -3,16 +3,27 @@ package com.commandlinecommandos.campusmarketplace.service;
 import com.commandlinecommandos.campusmarketplace.dto.*;
 import com.commandlinecommandos.campusmarketplace.model.*;
 import com.commandlinecommandos.campusmarketplace.repository.*;
+import com.commandlinecommandos.campusmarketplace.security.TokenRevocationService;
+import com.commandlinecommandos.campusmarketplace.service.AccountSuspensionNotifier.Recipient;
+import com.commandlinecommandos.campusmarketplace.service.AccountSuspensionNotifier.UsersSuspendedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.criteria.Predicate;
 import java.security.SecureRandom;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -46,6 +57,20 @@ public class UserManagementService {
     @Autowired
     private VerificationTokenService verificationTokenService;
     
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private static final String BUMP_AUTH_VERSION = "auth_version = auth_version + 1";
+    
     private static final String TEMP_PASSWORD_CHARS = "ABCDEFGHJKLMNPQRSTUVWXYZabcdefghjkmnpqrstuvwxyz23456789!@#$%";
     private static final int TEMP_PASSWORD_LENGTH = 12;
     private final SecureRandom random = new SecureRandom();
@@ -150,6 +175,7 @@ public class UserManagementService {
         
         // Update password
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        tokenRevocationService.revokeTokens(user);
         userRepository.save(user);
         
         // Send notification email
@@ -204,6 +230,7 @@ public class UserManagementService {
         
         // Update password
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
+        tokenRevocationService.revokeTokens(user);
         userRepository.save(user);
         
         // Mark token as used
@@ -224,6 +251,7 @@ public class UserManagementService {
             .orElseThrow(() -> new BadCredentialsException("User not found"));
         
         user.setActive(false);
+        tokenRevocationService.revokeTokens(user);
         userRepository.save(user);
         
         // Audit log
@@ -323,6 +351,7 @@ public class UserManagementService {
         
         Map<String, Object> oldValues = new HashMap<>();
         Map<String, Object> newValues = new HashMap<>();
+        boolean revokeTokens = false;
         
         if (request.getFirstName() != null) {
             oldValues.put("firstName", user.getFirstName());
@@ -344,6 +373,7 @@ public class UserManagementService {
             oldValues.put("email", user.getEmail());
             user.setEmail(request.getEmail());
             newValues.put("email", request.getEmail());
+            revokeTokens = true;
         }
         
         if (request.getPhone() != null) {
@@ -356,6 +386,7 @@ public class UserManagementService {
             oldValues.put("roles", user.getRoles().toString());
             user.setRoles(request.getRoles());
             newValues.put("roles", request.getRoles().toString());
+            revokeTokens = true;
             
             // Log role change separately
             auditService.logRoleChange(user, admin, 
@@ -371,6 +402,7 @@ public class UserManagementService {
         
         if (request.getIsActive() != null) {
             oldValues.put("isActive", user.isActive());
+            revokeTokens |= user.isActive() && !request.getIsActive();
             user.setActive(request.getIsActive());
             newValues.put("isActive", request.getIsActive());
         }
@@ -385,6 +417,13 @@ public class UserManagementService {
             user.setMajor(request.getMajor());
         }
         
+        // Tokens carry email and roles, so issued ones must not outlive a change to them
+        if (revokeTokens) {
+            tokenRevocationService.revokeTokens(user);
+        } else {
+            tokenRevocationService.refresh(user.getUserId());
+        }
+        
         user = userRepository.save(user);
         
         // Audit log
@@ -403,6 +442,7 @@ public class UserManagementService {
         
         user.setVerificationStatus(VerificationStatus.SUSPENDED);
         user.setActive(false);
+        tokenRevocationService.revokeTokens(user);
         userRepository.save(user);
         
         // Record account action
@@ -425,6 +465,7 @@ public class UserManagementService {
         
         user.setVerificationStatus(VerificationStatus.VERIFIED);
         user.setActive(true);
+        tokenRevocationService.refresh(user.getUserId());
         userRepository.save(user);
         
         // Record account action
@@ -447,6 +488,7 @@ public class UserManagementService {
         
         user.setActive(false);
         user.setVerificationStatus(VerificationStatus.SUSPENDED);
+        tokenRevocationService.revokeTokens(user);
         userRepository.save(user);
         
         // Record account action
@@ -459,73 +501,152 @@ public class UserManagementService {
     
     /**
      * Bulk user operations (admin only)
+     * 
+     * Each action is a fixed number of set-based statements over user_id = ANY(?)
+     * rather than a load and save per user, so the cost barely grows with the number
+     * of users. IDs that do not exist are reported per row; everything else is
+     * updated together in the caller's transaction. Revoking actions bump
+     * auth_version in the same UPDATE and drop the cached auth state after commit.
      */
     public Map<String, Object> bulkUserAction(BulkUserActionRequest request, User admin) {
-        if (request.getUserIds().size() > 100) {
-            throw new BadCredentialsException("Cannot perform bulk action on more than 100 users at once");
+        if (request.getUserIds().size() > BulkUserActionRequest.MAX_USERS) {
+            throw new BadCredentialsException("Cannot perform bulk action on more than "
+                + BulkUserActionRequest.MAX_USERS + " users at once");
+        }
+        if (request.getAction() == BulkUserActionRequest.BulkAction.UPDATE_ROLE && request.getNewRole() == null) {
+            throw new IllegalArgumentException("newRole is required for UPDATE_ROLE");
+        }
+        if (request.getAction() == BulkUserActionRequest.BulkAction.UPDATE_VERIFICATION
+                && request.getNewVerificationStatus() == null) {
+            throw new IllegalArgumentException("newVerificationStatus is required for UPDATE_VERIFICATION");
         }
         
-        List<User> users = userRepository.findAllById(request.getUserIds());
-        int successCount = 0;
-        int failureCount = 0;
-        List<String> errors = new ArrayList<>();
+        // The statements below bypass Hibernate: write pending changes first, forget stale copies after
+        entityManager.flush();
         
-        for (User user : users) {
-            try {
-                switch (request.getAction()) {
-                    case ACTIVATE:
-                        user.setActive(true);
-                        userRepository.save(user);
-                        auditService.logAccountStatusChange(user, admin, "ACTIVATED", "Bulk activation");
-                        break;
-                        
-                    case DEACTIVATE:
-                        user.setActive(false);
-                        userRepository.save(user);
-                        auditService.logAccountStatusChange(user, admin, "DEACTIVATED", "Bulk deactivation");
-                        break;
-                        
-                    case UPDATE_ROLE:
-                        if (request.getNewRole() != null) {
-                            Set<UserRole> oldRoles = user.getRoles();
-                            user.setRoles(new HashSet<>(Set.of(request.getNewRole())));
-                            userRepository.save(user);
-                            auditService.logRoleChange(user, admin, oldRoles.toString(), request.getNewRole().name());
-                        }
-                        break;
-                        
-                    case UPDATE_VERIFICATION:
-                        if (request.getNewVerificationStatus() != null) {
-                            user.setVerificationStatus(request.getNewVerificationStatus());
-                            userRepository.save(user);
-                            auditService.logAccountStatusChange(user, admin, "VERIFICATION_UPDATED", "Bulk verification update");
-                        }
-                        break;
-                        
-                    case SUSPEND:
-                        suspendUser(user.getUserId(), request.getReason(), admin);
-                        break;
-                        
-                    case DELETE:
-                        deleteUser(user.getUserId(), request.getReason(), admin);
-                        break;
-                }
-                successCount++;
-            } catch (Exception e) {
+        Map<UUID, BulkTarget> targets = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT user_id, username, email FROM users WHERE user_id = ANY(?)",
+            ps -> ps.setArray(1, uuidArray(ps, request.getUserIds())),
+            rs -> {
+                UUID userId = rs.getObject("user_id", UUID.class);
+                targets.put(userId, new BulkTarget(userId, rs.getString("username"), rs.getString("email")));
+            });
+        
+        List<String> errors = new ArrayList<>();
+        int failureCount = 0;
+        for (UUID userId : new LinkedHashSet<>(request.getUserIds())) {
+            if (!targets.containsKey(userId)) {
                 failureCount++;
-                errors.add("User " + user.getUsername() + ": " + e.getMessage());
+                errors.add("User " + userId + ": not found");
             }
         }
         
+        if (!targets.isEmpty()) {
+            applyBulkAction(request, admin, targets);
+            entityManager.clear();
+        }
+        
         Map<String, Object> result = new HashMap<>();
         result.put("totalProcessed", request.getUserIds().size());
-        result.put("successCount", successCount);
+        result.put("successCount", targets.size());
         result.put("failureCount", failureCount);
         result.put("errors", errors);
         
         return result;
     }
     
+    private void applyBulkAction(BulkUserActionRequest request, User admin, Map<UUID, BulkTarget> targets) {
+        Collection<UUID> ids = targets.keySet();
+        switch (request.getAction()) {
+            case ACTIVATE:
+                updateUsers("is_active = TRUE", ids);
+                tokenRevocationService.refresh(ids);
+                ids.forEach(id -> auditService.logAccountStatusChange(id, admin, "ACTIVATED", "Bulk activation"));
+                break;
+                
+            case DEACTIVATE:
+                updateUsers("is_active = FALSE, " + BUMP_AUTH_VERSION, ids);
+                tokenRevocationService.refresh(ids);
+                ids.forEach(id -> auditService.logAccountStatusChange(id, admin, "DEACTIVATED", "Bulk deactivation"));
+                break;
+                
+            case UPDATE_ROLE:
+                String newRole = request.getNewRole().name();
+                Map<UUID, Set<String>> oldRoles = new HashMap<>();
+                jdbcTemplate.query("SELECT user_id, role FROM user_roles WHERE user_id = ANY(?)",
+                    ps -> ps.setArray(1, uuidArray(ps, ids)),
+                    rs -> {
+                        oldRoles.computeIfAbsent(rs.getObject("user_id", UUID.class), id -> new TreeSet<>())
+                            .add(rs.getString("role"));
+                    });
+                jdbcTemplate.update("DELETE FROM user_roles WHERE user_id = ANY(?)",
+                    ps -> ps.setArray(1, uuidArray(ps, ids)));
+                jdbcTemplate.update("INSERT INTO user_roles (user_id, role) SELECT user_id, ? FROM users WHERE user_id = ANY(?)",
+                    ps -> {
+                        ps.setString(1, newRole);
+                        ps.setArray(2, uuidArray(ps, ids));
+                    });
+                updateUsers(BUMP_AUTH_VERSION, ids);
+                tokenRevocationService.refresh(ids);
+                ids.forEach(id -> auditService.logRoleChange(id, admin,
+                    oldRoles.getOrDefault(id, Set.of()).toString(), newRole));
+                break;
+                
+            case UPDATE_VERIFICATION:
+                // Enum constant, not user input, so it can be inlined (PostgreSQL casts it to the column's enum type)
+                updateUsers("verification_status = '" + request.getNewVerificationStatus().name() + "'", ids);
+                ids.forEach(id -> auditService.logAccountStatusChange(id, admin, "VERIFICATION_UPDATED", "Bulk verification update"));
+                break;
+                
+            case SUSPEND:
+                updateUsers("verification_status = 'SUSPENDED', is_active = FALSE, " + BUMP_AUTH_VERSION, ids);
+                tokenRevocationService.refresh(ids);
+                insertAccountActions(ids, admin, AccountAction.ActionType.SUSPEND, request.getReason());
+                ids.forEach(id -> auditService.logAccountStatusChange(id, admin, "SUSPENDED", request.getReason()));
+                // Sent after commit so no SMTP call holds the UPDATE's row locks
+                eventPublisher.publishEvent(new UsersSuspendedEvent(targets.values().stream()
+                    .map(target -> new Recipient(target.email(), target.username()))
+                    .toList(), request.getReason()));
+                break;
+                
+            case DELETE:
+                updateUsers("verification_status = 'SUSPENDED', is_active = FALSE, " + BUMP_AUTH_VERSION, ids);
+                tokenRevocationService.refresh(ids);
+                insertAccountActions(ids, admin, AccountAction.ActionType.DELETE, request.getReason());
+                ids.forEach(id -> auditService.logAccountStatusChange(id, admin, "DELETED", request.getReason()));
+                break;
+        }
+    }
+    
+    private void updateUsers(String assignments, Collection<UUID> ids) {
+        jdbcTemplate.update("UPDATE users SET " + assignments + ", updated_at = ? WHERE user_id = ANY(?)",
+            ps -> {
+                ps.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+                ps.setArray(2, uuidArray(ps, ids));
+            });
+    }
+    
+    private void insertAccountActions(Collection<UUID> ids, User admin, AccountAction.ActionType type, String reason) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            rows.add(new Object[] { UUID.randomUUID(), id, admin.getUserId(), type.name(), reason, false, now });
+        }
+        jdbcTemplate.batchUpdate(
+            "INSERT INTO account_actions (action_id, user_id, performed_by, action_type, reason, is_reverted, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+    
+    private static Array uuidArray(PreparedStatement ps, Collection<UUID> ids) throws SQLException {
+        return ps.getConnection().createArrayOf("uuid", ids.toArray());
+    }
+    
+    /**
+     * The columns a bulk action needs from each target user
+     */
+    private record BulkTarget(UUID userId, String username, String email) {
+    }
+    
     // ==================== Helper Methods ====================
     
     /**
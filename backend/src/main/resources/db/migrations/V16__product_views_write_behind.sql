@@ -0,0 +1,46 @@
+-- V16: Align product_views with the ProductView entity for write-behind view tracking
+-- V1 created product_views with a view_id key and no per-day column; the entity (and the
+-- buffered flush in ProductViewBuffer) expects id, viewed_at_date and one row per
+-- user, listing and day.
+
+DO $$
+BEGIN
+    IF EXISTS (
+        SELECT 1 FROM information_schema.columns
+        WHERE table_name = 'product_views' AND column_name = 'view_id'
+    ) THEN
+        EXECUTE 'ALTER TABLE product_views RENAME COLUMN view_id TO id';
+    END IF;
+END $$;
+
+ALTER TABLE product_views ADD COLUMN IF NOT EXISTS viewed_at_date DATE;
+
+UPDATE product_views
+SET viewed_at = COALESCE(viewed_at, CURRENT_TIMESTAMP)
+WHERE viewed_at IS NULL;
+
+UPDATE product_views
+SET viewed_at_date = viewed_at::date
+WHERE viewed_at_date IS NULL;
+
+ALTER TABLE product_views
+    ALTER COLUMN viewed_at SET NOT NULL,
+    ALTER COLUMN viewed_at_date SET NOT NULL,
+    ALTER COLUMN viewed_at_date SET DEFAULT CURRENT_DATE;
+
+-- Anonymous rows cannot be attributed to a viewer and are not read by the application
+DELETE FROM product_views WHERE user_id IS NULL;
+
+-- Keep only the latest view per user, listing and day before enforcing uniqueness
+DELETE FROM product_views pv
+USING product_views newer
+WHERE pv.user_id = newer.user_id
+  AND pv.product_id = newer.product_id
+  AND pv.viewed_at_date = newer.viewed_at_date
+  AND (pv.viewed_at, pv.id) < (newer.viewed_at, newer.id);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uniq_user_product_view_per_day
+    ON product_views(user_id, product_id, viewed_at_date);
+
+CREATE INDEX IF NOT EXISTS idx_product_views_user ON product_views(user_id, viewed_at DESC);
+CREATE INDEX IF NOT EXISTS idx_product_views_date ON product_views(viewed_at_date);
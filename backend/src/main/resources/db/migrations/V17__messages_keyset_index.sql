@@ -0,0 +1,9 @@
+-- V17: Composite index for keyset pagination of chat history
+-- Pages are read newest first with a (created_at, message_id) cursor inside one
+-- conversation, so this index serves every page as a short range scan. It also
+-- covers plain conversation_id lookups, making idx_messages_conversation redundant.
+
+CREATE INDEX IF NOT EXISTS idx_messages_conversation_keyset
+    ON messages(conversation_id, created_at DESC, message_id DESC);
+
+DROP INDEX IF EXISTS idx_messages_conversation;
@@ -0,0 +1,34 @@
+-- V18: Outbox for chat email notifications
+-- ChatService writes one row per message in the sending transaction; a background
+-- dispatcher claims each recipient's pending rows, sends one digest email and marks
+-- them sent, so message sends never wait on SMTP.
+
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    outbox_id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    recipient_id UUID NOT NULL REFERENCES users(user_id) ON DELETE CASCADE,
+    sender_id UUID NOT NULL,
+    conversation_id UUID NOT NULL,
+    message_id UUID NOT NULL,
+    preview TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    claimed_by VARCHAR(64),
+    claimed_at TIMESTAMP,
+    sent_at TIMESTAMP,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT chk_notification_outbox_status CHECK (status IN ('PENDING', 'SENDING', 'SENT', 'FAILED', 'SKIPPED'))
+);
+
+-- The dispatcher only ever scans pending and in-flight rows
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_due
+    ON notification_outbox(next_attempt_at)
+    WHERE status = 'PENDING';
+
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_recipient
+    ON notification_outbox(recipient_id, status);
+
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_claimed
+    ON notification_outbox(claimed_at)
+    WHERE status = 'SENDING';
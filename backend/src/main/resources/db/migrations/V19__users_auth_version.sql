@@ -0,0 +1,6 @@
+-- V19: Version stamp for issued access tokens
+-- Access tokens carry the user's auth_version as the "ver" claim. Bumping it
+-- (password change, suspension, role change, logout everywhere) makes every
+-- token issued before the bump fail authentication without a token blacklist.
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS auth_version BIGINT NOT NULL DEFAULT 0;
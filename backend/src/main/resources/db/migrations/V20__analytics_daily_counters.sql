@@ -0,0 +1,21 @@
+-- V20: Daily rollup for the admin analytics dashboards
+-- AnalyticsRollupService recomputes the most recent days from users, listings,
+-- login_attempts and audit_logs on a schedule. Dashboards sum a handful of these
+-- rows instead of scanning the source tables.
+
+CREATE TABLE IF NOT EXISTS analytics_daily_counters (
+    stat_date DATE PRIMARY KEY,
+    new_users BIGINT NOT NULL DEFAULT 0,
+    new_listings BIGINT NOT NULL DEFAULT 0,
+    successful_logins BIGINT NOT NULL DEFAULT 0,
+    failed_logins BIGINT NOT NULL DEFAULT 0,
+    suspensions BIGINT NOT NULL DEFAULT 0,
+    critical_events BIGINT NOT NULL DEFAULT 0,
+    error_events BIGINT NOT NULL DEFAULT 0,
+    warning_events BIGINT NOT NULL DEFAULT 0,
+    refreshed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Refreshes group the source tables by day over a created_at range
+CREATE INDEX IF NOT EXISTS idx_users_created_at ON users(created_at);
+CREATE INDEX IF NOT EXISTS idx_listings_created_at ON listings(created_at);
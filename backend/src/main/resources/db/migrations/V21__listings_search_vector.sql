@@ -0,0 +1,41 @@
+-- V21: Trigger-maintained, weighted search vector for listings
+-- Full-text search used to build to_tsvector(title || ' ' || description) for every
+-- candidate row on every query. The vector is now stored on the row (title weight A,
+-- description weight B), kept current by a trigger and served by a GIN index, so
+-- ts_rank can favour title matches. Databases created from V1 already have the column
+-- and an older trigger that also weighted the category; both are brought in line here.
+
+ALTER TABLE listings ADD COLUMN IF NOT EXISTS search_vector tsvector;
+
+CREATE OR REPLACE FUNCTION update_listing_search_vector()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.search_vector :=
+        setweight(to_tsvector('english', COALESCE(NEW.title, '')), 'A') ||
+        setweight(to_tsvector('english', COALESCE(NEW.description, '')), 'B');
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trigger_products_search_vector ON listings;
+DROP TRIGGER IF EXISTS trigger_listings_search_vector ON listings;
+DROP FUNCTION IF EXISTS update_product_search_vector();
+
+CREATE TRIGGER trigger_listings_search_vector
+    BEFORE INSERT OR UPDATE OF title, description ON listings
+    FOR EACH ROW EXECUTE FUNCTION update_listing_search_vector();
+
+-- Backfill existing rows without firing the updated_at trigger
+ALTER TABLE listings DISABLE TRIGGER USER;
+UPDATE listings SET search_vector =
+    setweight(to_tsvector('english', COALESCE(title, '')), 'A') ||
+    setweight(to_tsvector('english', COALESCE(description, '')), 'B');
+ALTER TABLE listings ENABLE TRIGGER USER;
+
+CREATE INDEX IF NOT EXISTS idx_listings_search_vector ON listings USING gin(search_vector);
+
+-- Trigram indexes let fuzzy search and title suggestions use the % operator
+-- instead of computing similarity() for every listing in the university
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_listings_title_trgm ON listings USING gin(title gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_listings_description_trgm ON listings USING gin(description gin_trgm_ops);
@@ -0,0 +1,31 @@
+-- V22: Rolling per-university search counts
+-- SearchHistoryWriter adds each flushed batch of searches to one row per
+-- (university, normalised query, day). Popular searches and autocomplete weights
+-- sum at most a month of these rows instead of grouping the whole of search_history;
+-- rows older than the window are pruned daily. There is no foreign key to universities
+-- so a removed university cannot fail a flush; its rows age out with the window.
+
+CREATE TABLE IF NOT EXISTS search_query_stats (
+    university_id UUID NOT NULL,
+    search_query VARCHAR(200) NOT NULL,
+    stat_date DATE NOT NULL,
+    search_count BIGINT NOT NULL DEFAULT 0,
+    last_searched_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (university_id, search_query, stat_date)
+);
+
+CREATE INDEX IF NOT EXISTS idx_search_query_stats_university ON search_query_stats(university_id, stat_date);
+CREATE INDEX IF NOT EXISTS idx_search_query_stats_date ON search_query_stats(stat_date);
+
+-- Seed the window from existing history
+INSERT INTO search_query_stats (university_id, search_query, stat_date, search_count, last_searched_at)
+SELECT u.university_id,
+       LEFT(LOWER(regexp_replace(btrim(sh.search_query), '\s+', ' ', 'g')), 200),
+       CAST(sh.created_at AS DATE),
+       COUNT(*),
+       MAX(sh.created_at)
+FROM search_history sh
+JOIN users u ON u.user_id = sh.user_id
+WHERE sh.created_at >= CURRENT_DATE - 30
+  AND btrim(sh.search_query) <> ''
+GROUP BY 1, 2, 3;
@@ -0,0 +1,45 @@
+package com.commandlinecommandos.campusmarketplace;
+
+import com.commandlinecommandos.campusmarketplace.model.University;
+import com.commandlinecommandos.campusmarketplace.model.User;
+import com.commandlinecommandos.campusmarketplace.model.UserRole;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Unsaved entities for integration test fixtures
+ * Callers save them through their repositories and adjust any field they assert on
+ */
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    /**
+     * Active university; the domain must be unique within the test's transaction
+     */
+    public static University university(String name, String domain) {
+        University university = new University();
+        university.setName(name);
+        university.setDomain(domain);
+        university.setActive(true);
+        return university;
+    }
+
+    /**
+     * Active user at username@<university domain> with a mutable role set
+     */
+    public static User user(String username, University university, UserRole... roles) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@" + university.getDomain());
+        user.setPassword("hashedpassword123");
+        user.setFirstName("Test");
+        user.setLastName("User");
+        user.setUniversity(university);
+        user.setRoles(new HashSet<>(Arrays.asList(roles)));
+        user.setActive(true);
+        return user;
+    }
+}
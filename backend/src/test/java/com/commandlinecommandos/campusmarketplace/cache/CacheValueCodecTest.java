@@ -0,0 +1,175 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import com.commandlinecommandos.campusmarketplace.dto.ProductSearchResult;
+import com.commandlinecommandos.campusmarketplace.dto.ProductSummary;
+import com.commandlinecommandos.campusmarketplace.dto.SearchMetadata;
+import com.commandlinecommandos.campusmarketplace.dto.SearchResponse;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Round-trip tests for CacheValueCodec
+ * One test per cached value type, plus fallback and versioning behaviour
+ */
+class CacheValueCodecTest {
+
+    private GenericJackson2JsonRedisSerializer jsonSerializer;
+    private CacheValueCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        // Same fallback serializer CacheConfig uses
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        jsonSerializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+        codec = new CacheValueCodec(jsonSerializer);
+    }
+
+    @Test
+    void testSearchResponseRoundTrip() {
+        SearchMetadata metadata = new SearchMetadata(12L, "Categories: [ELECTRONICS]", 1,
+            "relevance", false, "laptop");
+        SearchResponse response = new SearchResponse(
+            List.of(searchResult("MacBook Pro 13-inch", 0.875f), searchResult("Dell XPS 15", null)),
+            42L, 3, 0, 20, true, false, metadata);
+
+        Object decoded = codec.deserialize(codec.serialize(response));
+
+        assertThat(decoded).isInstanceOf(SearchResponse.class);
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(response);
+    }
+
+    @Test
+    void testSearchResponseWithNullFieldsRoundTrip() {
+        ProductSearchResult sparse = new ProductSearchResult();
+        sparse.setProductId(UUID.randomUUID());
+        SearchResponse response = new SearchResponse(List.of(sparse), 1L, 1, 0, 20, false, false, null);
+
+        Object decoded = codec.deserialize(codec.serialize(response));
+
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(response);
+    }
+
+    @Test
+    void testProductSummaryListRoundTrip() {
+        List<ProductSummary> summaries = List.of(summary("Study Desk", "80.00"), summary("Desk Lamp", "12.5"));
+
+        Object decoded = codec.deserialize(codec.serialize(summaries));
+
+        assertThat(decoded).isInstanceOf(List.class);
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(summaries);
+    }
+
+    @Test
+    void testStringListRoundTrip() {
+        List<String> suggestions = List.of("MacBook Pro", "MacBook Air", "Mac Mini — M2");
+
+        assertEquals(suggestions, codec.deserialize(codec.serialize(suggestions)));
+    }
+
+    @Test
+    void testEmptyListRoundTrip() {
+        Object decoded = codec.deserialize(codec.serialize(new ArrayList<String>()));
+
+        assertEquals(List.of(), decoded);
+    }
+
+    @Test
+    void testUnknownTypeUsesFallback() {
+        Map<String, Object> value = Map.of("key", "value");
+
+        assertEquals(value, codec.deserialize(codec.serialize(value)));
+    }
+
+    @Test
+    void testLegacyJsonEntryStillReadable() {
+        byte[] legacy = jsonSerializer.serialize(new ArrayList<>(List.of("desk", "lamp")));
+
+        assertEquals(List.of("desk", "lamp"), codec.deserialize(legacy));
+    }
+
+    @Test
+    void testOtherVersionAndCorruptValuesAreMisses() {
+        byte[] encoded = codec.serialize(List.of("desk"));
+        encoded[1] = (byte) (CacheValueCodec.VERSION + 1);
+        assertNull(codec.deserialize(encoded));
+
+        byte[] truncated = codec.serialize(List.of(summary("Study Desk", "80.00")));
+        byte[] cut = Arrays.copyOf(truncated, truncated.length / 2);
+        assertNull(codec.deserialize(cut));
+    }
+
+    @Test
+    void testBinaryEncodingSmallerThanJson() {
+        List<ProductSummary> summaries = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            summaries.add(summary("Listing " + i, "19.99"));
+        }
+
+        int binarySize = codec.serialize(summaries).length;
+        int jsonSize = jsonSerializer.serialize(summaries).length;
+
+        assertTrue(binarySize * 2 < jsonSize,
+            "Expected binary (" + binarySize + " bytes) to be under half of JSON (" + jsonSize + " bytes)");
+    }
+
+    private ProductSearchResult searchResult(String title, Float score) {
+        ProductSearchResult result = new ProductSearchResult();
+        result.setProductId(UUID.randomUUID());
+        result.setTitle(title);
+        result.setDescription("Excellent condition, barely used");
+        result.setPrice(new BigDecimal("1200.00"));
+        result.setCategory(ProductCategory.ELECTRONICS);
+        result.setCondition(ProductCondition.LIKE_NEW);
+        result.setSellerId(UUID.randomUUID());
+        result.setSellerName("Test User");
+        result.setSellerUsername("testuser");
+        result.setLocation("San Jose");
+        result.setViewCount(17);
+        result.setFavoriteCount(3);
+        result.setCreatedAt(LocalDateTime.of(2025, 10, 1, 14, 30, 5, 123_000_000));
+        result.setImageUrls(List.of("https://example.com/a.jpg"));
+        result.setRelevanceScore(score);
+        result.setNegotiable(true);
+        result.setQuantity(1);
+        return result;
+    }
+
+    private ProductSummary summary(String title, String price) {
+        ProductSummary summary = new ProductSummary();
+        summary.setProductId(UUID.randomUUID());
+        summary.setTitle(title);
+        summary.setDescription("Wooden desk in good condition");
+        summary.setPrice(new BigDecimal(price));
+        summary.setCategory(ProductCategory.FURNITURE);
+        summary.setCondition(ProductCondition.GOOD);
+        summary.setImageUrls(List.of());
+        summary.setViewCount(0);
+        summary.setFavoriteCount(null);
+        summary.setCreatedAt(LocalDateTime.of(2025, 9, 15, 9, 0));
+        summary.setSellerId(UUID.randomUUID());
+        summary.setSellerUsername("seller");
+        summary.setLocation(null);
+        summary.setNegotiable(false);
+        summary.setQuantity(2);
+        return summary;
+    }
+}
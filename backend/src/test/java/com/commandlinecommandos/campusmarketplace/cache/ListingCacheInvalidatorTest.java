@@ -0,0 +1,118 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import com.commandlinecommandos.campusmarketplace.listing.event.ListingChangedEvent;
+import com.commandlinecommandos.campusmarketplace.listing.event.ListingChangedEvent.ChangeType;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.University;
+import com.commandlinecommandos.campusmarketplace.model.User;
+import com.commandlinecommandos.campusmarketplace.repository.ProductViewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ListingCacheInvalidator
+ * Checks that a listing change evicts its own scope and leaves other universities cached
+ */
+@ExtendWith(MockitoExtension.class)
+class ListingCacheInvalidatorTest {
+
+    private static final UUID UNIVERSITY = UUID.randomUUID();
+    private static final UUID OTHER_UNIVERSITY = UUID.randomUUID();
+
+    @Spy
+    private ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+
+    @Mock
+    private ProductViewRepository productViewRepository;
+
+    @InjectMocks
+    private ListingCacheInvalidator invalidator;
+
+    private final UUID viewerId = UUID.randomUUID();
+    private final UUID otherUserId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        cache(ListingCacheInvalidator.SEARCH_RESULTS).put(UNIVERSITY + ":laptop_page0", "results");
+        cache(ListingCacheInvalidator.SEARCH_RESULTS).put(OTHER_UNIVERSITY + ":laptop_page0", "results");
+        cache(ListingCacheInvalidator.AUTOCOMPLETE).put(UNIVERSITY + ":mac", List.of("MacBook"));
+        cache(ListingCacheInvalidator.AUTOCOMPLETE).put(OTHER_UNIVERSITY + ":mac", List.of("MacBook"));
+        cache(ListingCacheInvalidator.RECOMMENDED_ITEMS).put(UNIVERSITY + ":" + viewerId, List.of());
+        cache(ListingCacheInvalidator.RECOMMENDED_ITEMS).put(OTHER_UNIVERSITY + ":" + otherUserId, List.of());
+        cache(ListingCacheInvalidator.RECENTLY_VIEWED).put(viewerId.toString(), List.of());
+        cache(ListingCacheInvalidator.RECENTLY_VIEWED).put(otherUserId.toString(), List.of());
+    }
+
+    @Test
+    void testUpdateEvictsOnlyAffectedUniversityAndViewers() {
+        when(productViewRepository.findViewerIdsByProductId(any())).thenReturn(List.of(viewerId));
+
+        invalidator.onListingChanged(event(ChangeType.UPDATED, false));
+
+        assertNull(cache(ListingCacheInvalidator.SEARCH_RESULTS).get(UNIVERSITY + ":laptop_page0"));
+        assertNotNull(cache(ListingCacheInvalidator.SEARCH_RESULTS).get(OTHER_UNIVERSITY + ":laptop_page0"));
+        assertNull(cache(ListingCacheInvalidator.RECOMMENDED_ITEMS).get(UNIVERSITY + ":" + viewerId));
+        assertNotNull(cache(ListingCacheInvalidator.RECOMMENDED_ITEMS).get(OTHER_UNIVERSITY + ":" + otherUserId));
+        assertNull(cache(ListingCacheInvalidator.RECENTLY_VIEWED).get(viewerId.toString()));
+        assertNotNull(cache(ListingCacheInvalidator.RECENTLY_VIEWED).get(otherUserId.toString()));
+
+        // Price-only edit: titles unchanged, autocomplete kept
+        assertNotNull(cache(ListingCacheInvalidator.AUTOCOMPLETE).get(UNIVERSITY + ":mac"));
+    }
+
+    @Test
+    void testTitleChangeEvictsUniversityAutocomplete() {
+        when(productViewRepository.findViewerIdsByProductId(any())).thenReturn(List.of());
+
+        invalidator.onListingChanged(event(ChangeType.UPDATED, true));
+
+        assertNull(cache(ListingCacheInvalidator.AUTOCOMPLETE).get(UNIVERSITY + ":mac"));
+        assertNotNull(cache(ListingCacheInvalidator.AUTOCOMPLETE).get(OTHER_UNIVERSITY + ":mac"));
+    }
+
+    @Test
+    void testNewListingSkipsViewerLookup() {
+        invalidator.onListingChanged(event(ChangeType.CREATED, true));
+
+        assertNull(cache(ListingCacheInvalidator.AUTOCOMPLETE).get(UNIVERSITY + ":mac"));
+        verifyNoInteractions(productViewRepository);
+    }
+
+    @Test
+    void testViewEvictsViewersPersonalLists() {
+        University university = new University();
+        university.setUniversityId(UNIVERSITY);
+        User viewer = new User();
+        viewer.setUserId(viewerId);
+        viewer.setUniversity(university);
+
+        invalidator.evictViewerCaches(viewer);
+
+        assertNull(cache(ListingCacheInvalidator.RECENTLY_VIEWED).get(viewerId.toString()));
+        assertNull(cache(ListingCacheInvalidator.RECOMMENDED_ITEMS).get(UNIVERSITY + ":" + viewerId));
+        assertNotNull(cache(ListingCacheInvalidator.SEARCH_RESULTS).get(UNIVERSITY + ":laptop_page0"));
+    }
+
+    private ListingChangedEvent event(ChangeType changeType, boolean titleChanged) {
+        return new ListingChangedEvent(UUID.randomUUID(), UNIVERSITY, UUID.randomUUID(),
+            ProductCategory.ELECTRONICS, ProductCategory.ELECTRONICS, changeType, titleChanged);
+    }
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
+    }
+}
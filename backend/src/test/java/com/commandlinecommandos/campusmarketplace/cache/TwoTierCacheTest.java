@@ -0,0 +1,142 @@
+package com.commandlinecommandos.campusmarketplace.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the near/far cache
+ * Redis is stood in for by a ConcurrentMapCache; pub/sub by a mocked template
+ */
+class TwoTierCacheTest {
+
+    private MeterRegistry meterRegistry;
+    private StringRedisTemplate redisTemplate;
+    private CacheInvalidationBus invalidationBus;
+    private ConcurrentMapCacheManager remoteManager;
+    private TwoTierCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        redisTemplate = mock(StringRedisTemplate.class);
+        invalidationBus = new CacheInvalidationBus(redisTemplate, meterRegistry);
+        remoteManager = new ConcurrentMapCacheManager();
+        cacheManager = new TwoTierCacheManager(remoteManager, Caffeine.newBuilder().maximumSize(100),
+            invalidationBus, null, meterRegistry, false);
+    }
+
+    @Test
+    void testRemoteHitIsPromotedToLocalTier() {
+        remoteManager.getCache("autocomplete").put("mac_u1", List.of("MacBook Pro"));
+        Cache cache = cacheManager.getCache("autocomplete");
+
+        assertEquals(List.of("MacBook Pro"), cache.get("mac_u1").get());
+        assertEquals(List.of("MacBook Pro"), cache.get("mac_u1").get());
+
+        assertEquals(1.0, count("autocomplete", "l1", "hit"));
+        assertEquals(1.0, count("autocomplete", "l1", "miss"));
+        assertEquals(1.0, count("autocomplete", "l2", "hit"));
+    }
+
+    @Test
+    void testPutWritesBothTiersAndBroadcasts() {
+        Cache cache = cacheManager.getCache("trendingProducts");
+
+        cache.put("u1", List.of("desk"));
+
+        assertNotNull(remoteManager.getCache("trendingProducts").get("u1"));
+        verify(redisTemplate).convertAndSend(eq(CacheInvalidationBus.CHANNEL), contains("|E|trendingProducts|u1"));
+    }
+
+    @Test
+    void testRemoteInvalidationEvictsLocalCopyOnly() {
+        Cache cache = cacheManager.getCache("autocomplete");
+        cache.put("mac_u1", List.of("MacBook Pro"));
+        remoteManager.getCache("autocomplete").evict("mac_u1");
+
+        // Still served from L1 until another node's broadcast arrives
+        assertNotNull(cache.get("mac_u1"));
+
+        invalidationBus.onMessage(message("other-node|E|autocomplete|mac_u1"), null);
+
+        assertNull(cache.get("mac_u1"));
+    }
+
+    @Test
+    void testOwnBroadcastsAreIgnored() {
+        Cache cache = cacheManager.getCache("autocomplete");
+        cache.put("mac_u1", List.of("MacBook Pro"));
+        remoteManager.getCache("autocomplete").evict("mac_u1");
+
+        doAnswer(invocation -> {
+            invalidationBus.onMessage(message(invocation.getArgument(1)), null);
+            return null;
+        }).when(redisTemplate).convertAndSend(anyString(), anyString());
+        cache.put("other_u1", List.of("Other"));
+
+        assertNotNull(cache.get("mac_u1"));
+    }
+
+    @Test
+    void testPrefixEvictionCoversBothTiersAndOtherNodes() {
+        TwoTierCache cache = (TwoTierCache) cacheManager.getCache("searchResults");
+        cache.put("u1:laptop", "a");
+        cache.put("u1:desk", "b");
+        cache.put("u2:laptop", "c");
+
+        cache.evictByPrefix("u1:");
+
+        assertNull(cache.get("u1:laptop"));
+        assertNull(remoteManager.getCache("searchResults").get("u1:desk"));
+        assertNotNull(cache.get("u2:laptop"));
+        verify(redisTemplate).convertAndSend(eq(CacheInvalidationBus.CHANNEL), contains("|P|searchResults|u1:"));
+
+        // Another node's prefix broadcast only touches L1
+        cache.put("u2:desk", "d");
+        remoteManager.getCache("searchResults").evict("u2:desk");
+        invalidationBus.onMessage(message("other-node|P|searchResults|u2:"), null);
+        assertNull(cache.get("u2:desk"));
+    }
+
+    @Test
+    void testRedisFailureFallsBackToLocalTier() {
+        Cache failingRemote = spy(new ConcurrentMapCache("searchResults"));
+        doThrow(new RuntimeException("Connection refused")).when(failingRemote).get(any());
+        doThrow(new RuntimeException("Connection refused")).when(failingRemote).put(any(), any());
+        TwoTierCache cache = new TwoTierCache("searchResults", Caffeine.newBuilder().build(),
+            failingRemote, invalidationBus, meterRegistry);
+
+        assertNull(cache.get("q1"));
+        cache.put("q1", "result");
+
+        assertEquals("result", cache.get("q1").get());
+        assertEquals(2.0, count("searchResults", "l2", "error"));
+    }
+
+    private double count(String cache, String tier, String result) {
+        return meterRegistry.get("cache.tier.gets")
+            .tag("cache", cache).tag("tier", tier).tag("result", result)
+            .counter().count();
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(CacheInvalidationBus.CHANNEL.getBytes(StandardCharsets.UTF_8),
+            body.getBytes(StandardCharsets.UTF_8));
+    }
+}
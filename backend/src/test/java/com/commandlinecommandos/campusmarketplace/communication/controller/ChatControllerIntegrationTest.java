@@ -9,6 +9,7 @@ import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
 import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
 import com.commandlinecommandos.campusmarketplace.repository.UniversityRepository;
 import com.commandlinecommandos.campusmarketplace.security.JwtUtil;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +17,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -23,12 +25,14 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Integration tests for ChatController
@@ -67,6 +71,9 @@ public class ChatControllerIntegrationTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private University testUniversity;
     private User seller;
     private User buyer;
@@ -209,6 +216,85 @@ public class ChatControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].content", is("Test message")));
     }
 
+    @Test
+    public void testGetMessagePage_WalksHistoryWithCursor() throws Exception {
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            Message message = new Message();
+            message.setConversation(testConversation);
+            message.setSenderId(i % 2 == 0 ? buyer.getUserId() : seller.getUserId());
+            message.setContent("Message " + i);
+            messageRepository.save(message);
+            expected.add("Message " + i);
+        }
+
+        Set<String> seen = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+        boolean hasMore = true;
+        while (hasMore) {
+            var request = get("/chat/conversations/" + testConversation.getConversationId() + "/messages/page")
+                    .header("Authorization", "Bearer " + buyerToken)
+                    .param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String body = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.messages", hasSize(lessThanOrEqualTo(2))))
+                    .andReturn().getResponse().getContentAsString();
+
+            JsonNode page = objectMapper.readTree(body);
+            page.get("messages").forEach(m -> assertTrue(seen.add(m.get("content").asText()), "duplicate message"));
+            hasMore = page.get("hasMore").asBoolean();
+            cursor = hasMore ? page.get("nextCursor").asText() : null;
+            pages++;
+        }
+
+        assertEquals(expected, seen);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    public void testGetMessagePage_InvalidCursor() throws Exception {
+        mockMvc.perform(get("/chat/conversations/" + testConversation.getConversationId() + "/messages/page")
+                .header("Authorization", "Bearer " + buyerToken)
+                .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testStream_OpensWithTokenQueryParameter() throws Exception {
+        mockMvc.perform(get("/chat/stream")
+                .param("token", buyerToken)
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    public void testStream_RejectsMissingOrRefreshToken() throws Exception {
+        mockMvc.perform(get("/chat/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(get("/chat/stream")
+                .param("token", jwtUtil.generateRefreshToken(buyer))
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    public void testStream_RejectsRevokedToken() throws Exception {
+        // e.g. a password change or suspension after the token was issued
+        userRepository.flush();
+        jdbcTemplate.update("UPDATE users SET auth_version = auth_version + 1 WHERE user_id = ?", buyer.getUserId());
+
+        mockMvc.perform(get("/chat/stream")
+                .param("token", buyerToken)
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isUnauthorized());
+    }
+
     @Test
     public void testSendMessage_NotParticipant() throws Exception {
         // Create another user who's not part of the conversation
@@ -235,6 +321,48 @@ public class ChatControllerIntegrationTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    public void testGetUserConversations_UnreadCountsPerConversation() throws Exception {
+        Product otherListing = new Product();
+        otherListing.setSeller(seller);
+        otherListing.setUniversity(testUniversity);
+        otherListing.setTitle("Second Product for Chat");
+        otherListing.setDescription("Another listing");
+        otherListing.setCategory(ProductCategory.FURNITURE);
+        otherListing.setCondition(ProductCondition.GOOD);
+        otherListing.setPrice(BigDecimal.valueOf(25.00));
+        otherListing.setModerationStatus(ModerationStatus.APPROVED);
+        otherListing.setActive(true);
+        otherListing.publish();
+        otherListing = productRepository.save(otherListing);
+
+        Conversation otherConversation = conversationRepository.save(
+            new Conversation(otherListing.getProductId(), buyer.getUserId(), seller.getUserId()));
+
+        for (int i = 0; i < 2; i++) {
+            Message message = new Message();
+            message.setConversation(testConversation);
+            message.setSenderId(seller.getUserId());
+            message.setContent("Unread " + i);
+            message.setIsRead(false);
+            messageRepository.save(message);
+        }
+        Message ownMessage = new Message();
+        ownMessage.setConversation(otherConversation);
+        ownMessage.setSenderId(buyer.getUserId());
+        ownMessage.setContent("Sent by the buyer");
+        ownMessage.setIsRead(false);
+        messageRepository.save(ownMessage);
+
+        String unreadPath = "$[?(@.conversationId == '%s')].unreadCount";
+        mockMvc.perform(get("/chat/conversations")
+                .header("Authorization", "Bearer " + buyerToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath(String.format(unreadPath, testConversation.getConversationId()), contains(2)))
+                .andExpect(jsonPath(String.format(unreadPath, otherConversation.getConversationId()), contains(0)));
+    }
+
     @Test
     public void testGetUnreadCount_Success() throws Exception {
         // Create unread messages
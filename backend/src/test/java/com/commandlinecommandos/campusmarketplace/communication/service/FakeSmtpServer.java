@@ -0,0 +1,100 @@
+package com.commandlinecommandos.campusmarketplace.communication.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Minimal local SMTP sink for tests
+ * Accepts every message without auth or TLS and keeps the raw DATA section;
+ * failNext() makes the next DATA command fail with a transient error
+ */
+class FakeSmtpServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final List<String> messages = new CopyOnWriteArrayList<>();
+    private volatile int failuresToInject;
+
+    FakeSmtpServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "fake-smtp");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    List<String> getMessages() {
+        return messages;
+    }
+
+    void reset() {
+        messages.clear();
+        failuresToInject = 0;
+    }
+
+    void failNext() {
+        failuresToInject++;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try (Socket socket = serverSocket.accept()) {
+                handle(socket);
+            } catch (IOException e) {
+                // Closed or client hung up; keep serving until close()
+            }
+        }
+    }
+
+    private void handle(Socket socket) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+        reply(out, "220 localhost fake SMTP");
+        String line;
+        while ((line = in.readLine()) != null) {
+            String command = line.toUpperCase();
+            if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                reply(out, "250 localhost");
+            } else if (command.startsWith("DATA")) {
+                if (failuresToInject > 0) {
+                    failuresToInject--;
+                    reply(out, "451 try again later");
+                    continue;
+                }
+                reply(out, "354 end with <CRLF>.<CRLF>");
+                StringBuilder data = new StringBuilder();
+                while ((line = in.readLine()) != null && !line.equals(".")) {
+                    data.append(line).append('\n');
+                }
+                messages.add(data.toString());
+                reply(out, "250 queued");
+            } else if (command.startsWith("QUIT")) {
+                reply(out, "221 bye");
+                return;
+            } else {
+                reply(out, "250 ok");
+            }
+        }
+    }
+
+    private static void reply(Writer out, String line) throws IOException {
+        out.write(line + "\r\n");
+        out.flush();
+    }
+}
@@ -0,0 +1,258 @@
+package com.commandlinecommandos.campusmarketplace.communication.service;
+
+import com.commandlinecommandos.campusmarketplace.TestFixtures;
+import com.commandlinecommandos.campusmarketplace.communication.model.Conversation;
+import com.commandlinecommandos.campusmarketplace.communication.model.NotificationOutbox;
+import com.commandlinecommandos.campusmarketplace.communication.model.NotificationOutbox.Status;
+import com.commandlinecommandos.campusmarketplace.communication.model.NotificationPreference;
+import com.commandlinecommandos.campusmarketplace.communication.repository.ConversationRepository;
+import com.commandlinecommandos.campusmarketplace.communication.repository.MessageRepository;
+import com.commandlinecommandos.campusmarketplace.communication.repository.NotificationOutboxRepository;
+import com.commandlinecommandos.campusmarketplace.communication.repository.NotificationPreferenceRepository;
+import com.commandlinecommandos.campusmarketplace.model.*;
+import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UniversityRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the chat email outbox
+ * Messages are sent through ChatService (committed), then the dispatcher is run by
+ * hand against a local fake SMTP server
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class NotificationDispatcherTest {
+
+    private static final FakeSmtpServer SMTP = startSmtp();
+
+    @DynamicPropertySource
+    static void mailProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.mail.host", () -> "localhost");
+        registry.add("spring.mail.port", SMTP::getPort);
+    }
+
+    @Autowired
+    private ChatService chatService;
+
+    @Autowired
+    private NotificationDispatcher dispatcher;
+
+    @Autowired
+    @Qualifier("dispatchExecutor")
+    private ThreadPoolTaskExecutor dispatchExecutor;
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @Autowired
+    private NotificationOutboxService outboxService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NotificationPreferenceRepository preferenceRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UniversityRepository universityRepository;
+
+    private University university;
+    private User seller;
+    private User buyer;
+    private Product listing;
+    private Conversation conversation;
+
+    @BeforeEach
+    void setUp() {
+        SMTP.reset();
+
+        university = universityRepository.save(TestFixtures.university("Outbox University", "outbox.edu"));
+
+        seller = saveUser("outbox_seller", "Sam");
+        buyer = saveUser("outbox_buyer", "Bea");
+
+        listing = new Product();
+        listing.setSeller(seller);
+        listing.setUniversity(university);
+        listing.setTitle("Desk Lamp");
+        listing.setDescription("Warm light");
+        listing.setCategory(ProductCategory.FURNITURE);
+        listing.setCondition(ProductCondition.GOOD);
+        listing.setPrice(BigDecimal.valueOf(15));
+        listing.setModerationStatus(ModerationStatus.APPROVED);
+        listing.setActive(true);
+        listing = productRepository.save(listing);
+
+        conversation = conversationRepository.save(
+            new Conversation(listing.getProductId(), buyer.getUserId(), seller.getUserId()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        outboxRepository.deleteAll();
+        preferenceRepository.deleteAll();
+        messageRepository.deleteAll(messageRepository.findByConversation_ConversationIdOrderByCreatedAtAsc(
+            conversation.getConversationId()));
+        conversationRepository.delete(conversation);
+        productRepository.delete(listing);
+        userRepository.deleteAll(List.of(buyer, seller));
+        universityRepository.delete(university);
+    }
+
+    @AfterAll
+    static void stopSmtp() throws IOException {
+        SMTP.close();
+    }
+
+    @Test
+    void testBurstIsSentAsOneDigest() {
+        chatService.sendMessage(conversation.getConversationId(), buyer.getUserId(), "Is the lamp available?");
+        chatService.sendMessage(conversation.getConversationId(), buyer.getUserId(), "I can pick it up today");
+        chatService.sendMessage(conversation.getConversationId(), buyer.getUserId(), "Would $12 work?");
+
+        assertEquals(3, outboxRepository.countByRecipientIdAndStatus(seller.getUserId(), Status.PENDING));
+
+        assertEquals(1, dispatcher.dispatchDue());
+
+        assertEquals(1, SMTP.getMessages().size());
+        String email = SMTP.getMessages().get(0);
+        assertTrue(email.contains("Subject: You have 3 new messages"), email);
+        assertTrue(email.contains("To: outbox_seller@outbox.edu"), email);
+        assertEquals(3, outboxRepository.countByRecipientIdAndStatus(seller.getUserId(), Status.SENT));
+
+        assertEquals(0, dispatcher.dispatchDue());
+        assertEquals(1, SMTP.getMessages().size());
+    }
+
+    @Test
+    void testScheduledDispatchDoesNotRunOnTheSchedulerThread() throws Exception {
+        chatService.sendMessage(conversation.getConversationId(), buyer.getUserId(), "Is the lamp available?");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            // Occupy the dispatch thread, standing in for a run stuck on SMTP
+            dispatchExecutor.execute(() -> {
+                started.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // The trigger only hands the run over and returns
+            dispatcher.scheduledDispatch();
+            assertEquals(1, outboxRepository.countByRecipientIdAndStatus(seller.getUserId(), Status.PENDING));
+        } finally {
+            release.countDown();
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (outboxRepository.countByRecipientIdAndStatus(seller.getUserId(), Status.SENT) == 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "queued dispatch did not run");
+            Thread.sleep(10);
+        }
+        assertEquals(1, SMTP.getMessages().size());
+    }
+
+    @Test
+    void testSmtpFailureIsRetriedLater() {
+        chatService.sendMessage(conversation.getConversationId(), buyer.getUserId(), "Still for sale?");
+        SMTP.failNext();
+
+        assertEquals(0, dispatcher.dispatchDue());
+
+        NotificationOutbox row = outboxRepository.findAll().get(0);
+        assertEquals(Status.PENDING, row.getStatus());
+        assertEquals(1, row.getAttempts());
+        assertTrue(row.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertNotNull(row.getLastError());
+
+        // Backoff keeps the row back until it is due again
+        assertEquals(0, dispatcher.dispatchDue());
+        assertTrue(SMTP.getMessages().isEmpty());
+    }
+
+    @Test
+    void testRecipientWithNotificationsOffIsSkipped() {
+        preferenceRepository.save(new NotificationPreference(seller.getUserId(), false, null, null));
+        chatService.sendMessage(conversation.getConversationId(), buyer.getUserId(), "Hello?");
+
+        assertEquals(0, dispatcher.dispatchDue());
+
+        assertTrue(SMTP.getMessages().isEmpty());
+        assertEquals(1, outboxRepository.countByRecipientIdAndStatus(seller.getUserId(), Status.SKIPPED));
+    }
+
+    @Test
+    void testPurgeKeepsFailedRowsLongerThanDeliveredOnes() {
+        chatService.sendMessage(conversation.getConversationId(), buyer.getUserId(), "First");
+        chatService.sendMessage(conversation.getConversationId(), buyer.getUserId(), "Second");
+        chatService.sendMessage(conversation.getConversationId(), buyer.getUserId(), "Third");
+        List<NotificationOutbox> rows = outboxRepository.findAll();
+        age(rows.get(0), Status.SENT, 8);
+        age(rows.get(1), Status.FAILED, 8);
+        age(rows.get(2), Status.FAILED, 31);
+
+        assertEquals(2, outboxService.purgeFinished());
+
+        List<NotificationOutbox> kept = outboxRepository.findAll();
+        assertEquals(1, kept.size());
+        assertEquals(rows.get(1).getOutboxId(), kept.get(0).getOutboxId());
+    }
+
+    private void age(NotificationOutbox row, Status status, int days) {
+        jdbcTemplate.update("UPDATE notification_outbox SET status = ?, created_at = ? WHERE outbox_id = ?",
+            status.name(), LocalDateTime.now().minusDays(days), row.getOutboxId());
+    }
+
+    private User saveUser(String username, String firstName) {
+        User user = TestFixtures.user(username, university, UserRole.BUYER, UserRole.SELLER);
+        user.setFirstName(firstName);
+        return userRepository.save(user);
+    }
+
+    private static FakeSmtpServer startSmtp() {
+        try {
+            return new FakeSmtpServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
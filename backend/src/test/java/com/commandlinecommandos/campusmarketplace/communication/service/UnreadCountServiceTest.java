@@ -0,0 +1,104 @@
+package com.commandlinecommandos.campusmarketplace.communication.service;
+
+import com.commandlinecommandos.campusmarketplace.communication.event.MessageSentEvent;
+import com.commandlinecommandos.campusmarketplace.communication.event.MessagesReadEvent;
+import com.commandlinecommandos.campusmarketplace.communication.repository.MessageRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UnreadCountService
+ * Checks that the badge counter is loaded once and then kept current by chat events
+ */
+@ExtendWith(MockitoExtension.class)
+class UnreadCountServiceTest {
+
+    @Spy
+    private ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+
+    @Mock
+    private MessageRepository messageRepository;
+
+    @InjectMocks
+    private UnreadCountService unreadCountService;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID otherUserId = UUID.randomUUID();
+    private final UUID conversationId = UUID.randomUUID();
+
+    @Test
+    void testTotalIsLoadedOnceThenServedFromCounter() {
+        when(messageRepository.countUnreadMessagesForUser(userId)).thenReturn(3L);
+
+        assertEquals(3, unreadCountService.getTotalUnreadCount(userId));
+        assertEquals(3, unreadCountService.getTotalUnreadCount(userId));
+
+        verify(messageRepository, times(1)).countUnreadMessagesForUser(userId);
+    }
+
+    @Test
+    void testSentAndReadEventsMoveTheCounter() {
+        when(messageRepository.countUnreadMessagesForUser(userId)).thenReturn(1L);
+        unreadCountService.getTotalUnreadCount(userId);
+
+        unreadCountService.onMessageSent(sent(otherUserId, userId));
+        unreadCountService.onMessageSent(sent(otherUserId, userId));
+        assertEquals(3, unreadCountService.getTotalUnreadCount(userId));
+
+        unreadCountService.onMessagesRead(new MessagesReadEvent(conversationId, userId, 2));
+        assertEquals(1, unreadCountService.getTotalUnreadCount(userId));
+
+        verify(messageRepository, times(1)).countUnreadMessagesForUser(userId);
+    }
+
+    @Test
+    void testEventsForUncachedUserAreIgnoredUntilFirstRead() {
+        unreadCountService.onMessageSent(sent(otherUserId, userId));
+        when(messageRepository.countUnreadMessagesForUser(userId)).thenReturn(1L);
+
+        assertEquals(1, unreadCountService.getTotalUnreadCount(userId));
+    }
+
+    @Test
+    void testCounterNeverGoesNegative() {
+        when(messageRepository.countUnreadMessagesForUser(userId)).thenReturn(1L);
+        unreadCountService.getTotalUnreadCount(userId);
+
+        unreadCountService.onMessagesRead(new MessagesReadEvent(conversationId, userId, 5));
+
+        assertEquals(0, unreadCountService.getTotalUnreadCount(userId));
+    }
+
+    @Test
+    void testMessageArrivingDuringLoadIsNotLost() throws Exception {
+        Thread[] sender = new Thread[1];
+        when(messageRepository.countUnreadMessagesForUser(userId)).thenAnswer(invocation -> {
+            // A message commits while the COUNT is in flight; its adjust must wait for the load
+            sender[0] = new Thread(() -> unreadCountService.onMessageSent(sent(otherUserId, userId)));
+            sender[0].start();
+            sender[0].join(200);
+            return 2L;
+        });
+
+        assertEquals(2, unreadCountService.getTotalUnreadCount(userId));
+        sender[0].join();
+
+        assertEquals(3, unreadCountService.getTotalUnreadCount(userId));
+    }
+
+    private MessageSentEvent sent(UUID senderId, UUID recipientId) {
+        return new MessageSentEvent(UUID.randomUUID(), conversationId, UUID.randomUUID(), senderId, recipientId,
+            "hello", LocalDateTime.now());
+    }
+}
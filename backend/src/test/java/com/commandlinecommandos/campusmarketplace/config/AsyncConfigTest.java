@@ -0,0 +1,127 @@
+package com.commandlinecommandos.campusmarketplace.config;
+
+import com.commandlinecommandos.campusmarketplace.service.ProductViewBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the per-workload executors
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AsyncConfigTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ProductViewBuffer productViewBuffer;
+
+    @Autowired
+    @Qualifier("viewsExecutor")
+    private ThreadPoolTaskExecutor viewsExecutor;
+
+    @Autowired
+    private ThreadPoolTaskScheduler taskScheduler;
+
+    @Test
+    void testEveryPoolIsInstrumented() {
+        for (String name : List.of("async", "audit", "views", "search-history", "dispatch", "email", "export")) {
+            assertNotNull(meterRegistry.find("executor.active").tag("name", name).gauge(), name);
+            assertNotNull(meterRegistry.find("executor.queued").tag("name", name).gauge(), name);
+            assertNotNull(meterRegistry.find("executor.idle").tag("name", name).timer(), name);
+            assertNotNull(meterRegistry.find("executor").tag("name", name).timer(), name);
+            assertNotNull(meterRegistry.find("executor.rejected").tag("name", name).counter(), name);
+        }
+    }
+
+    @Test
+    void testGaugesFollowTheExecutorThatRunsTasks() throws Exception {
+        double completedBefore = meterRegistry.get("executor.completed").tag("name", "views").functionCounter().count();
+
+        CountDownLatch ran = new CountDownLatch(1);
+        viewsExecutor.execute(ran::countDown);
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("executor.completed").tag("name", "views").functionCounter().count() == completedBefore) {
+            assertTrue(System.currentTimeMillis() < deadline, "executor.completed did not move");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void testScheduledTriggersDoNotWaitBehindASlowJob() throws Exception {
+        assertTrue(taskScheduler.getScheduledThreadPoolExecutor().getCorePoolSize() > 1);
+        assertNotNull(meterRegistry.find("executor.active").tag("name", "scheduler").gauge());
+        assertNotNull(meterRegistry.find("executor").tag("name", "scheduler").timer());
+
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch fired = new CountDownLatch(1);
+        try {
+            taskScheduler.execute(() -> awaitQuietly(release));
+            taskScheduler.execute(fired::countDown);
+            assertTrue(fired.await(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testScheduledFlushRunsOnItsOwnPoolAndSurplusFlushesAreDiscarded() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        double rejectedBefore = rejected("views");
+
+        try {
+            // Occupy the single views thread
+            viewsExecutor.execute(() -> {
+                started.countDown();
+                awaitQuietly(release);
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // The scheduler thread only hands the flush over, so it returns while the pool is busy
+            productViewBuffer.scheduledFlush();
+            assertEquals(1, viewsExecutor.getThreadPoolExecutor().getQueue().size());
+
+            // One queued flush is enough; another is discarded rather than piling up
+            productViewBuffer.scheduledFlush();
+            assertEquals(1, viewsExecutor.getThreadPoolExecutor().getQueue().size());
+            assertEquals(rejectedBefore + 1, rejected("views"));
+        } finally {
+            release.countDown();
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (viewsExecutor.getActiveCount() > 0 || !viewsExecutor.getThreadPoolExecutor().getQueue().isEmpty()) {
+            assertTrue(System.currentTimeMillis() < deadline, "views executor did not drain");
+            Thread.sleep(10);
+        }
+        assertTrue(meterRegistry.get("executor.idle").tag("name", "views").timer().count() >= 2);
+    }
+
+    private double rejected(String name) {
+        return meterRegistry.get("executor.rejected").tag("name", name).counter().count();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
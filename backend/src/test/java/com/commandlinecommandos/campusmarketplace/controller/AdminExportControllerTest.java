@@ -0,0 +1,72 @@
+package com.commandlinecommandos.campusmarketplace.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Integration tests for the streaming export endpoints
+ * Exports run on the export executor, so these only check the HTTP contract;
+ * ExportServiceTest covers filters and row content
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AdminExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testUsersExportStreamsCsvAttachment() throws Exception {
+        MvcResult result = mockMvc.perform(get("/admin/exports/users").param("role", "BUYER"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", startsWith("text/csv")))
+                .andExpect(header().string("Content-Disposition", allOf(
+                    startsWith("attachment"), containsString("users-"), endsWith(".csv\""))))
+                .andExpect(content().string(startsWith("user_id,username,email,")));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testAuditExportAsNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(get("/admin/exports/audit-logs")
+                    .param("format", "ndjson")
+                    .param("severity", "CRITICAL")
+                    .param("startDate", "2020-01-01T00:00:00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", startsWith("application/x-ndjson")));
+    }
+
+    @Test
+    @WithMockUser(username = "admin", roles = {"ADMIN"})
+    void testUnknownFormatIsBadRequest() throws Exception {
+        mockMvc.perform(get("/admin/exports/reports").param("format", "xlsx"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "buyer", roles = {"BUYER"})
+    void testNonAdminCannotExport() throws Exception {
+        mockMvc.perform(get("/admin/exports/users"))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -132,6 +132,24 @@ public class ListingControllerIntegrationTest {
                 .andExpect(jsonPath("$.content[0].category", is("ELECTRONICS")));
     }
 
+    @Test
+    public void testGetListingCards_SlimPayload() throws Exception {
+        mockMvc.perform(get("/listings/cards")
+                .param("page", "0")
+                .param("size", "20")
+                .param("category", "ELECTRONICS"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id", is(testListing.getProductId().toString())))
+                .andExpect(jsonPath("$.content[0].title", is("Test Listing")))
+                .andExpect(jsonPath("$.content[0].price", is(99.99)))
+                .andExpect(jsonPath("$.content[0].condition", is("NEW")))
+                .andExpect(jsonPath("$.content[0].sellerName", is("Test User")))
+                .andExpect(jsonPath("$.content[0].description").doesNotExist())
+                .andExpect(jsonPath("$.content[0].images").doesNotExist())
+                .andExpect(jsonPath("$.totalElements", is(1)));
+    }
+
     @Test
     public void testGetListingById_Success() throws Exception {
         mockMvc.perform(get("/listings/" + testListing.getProductId()))
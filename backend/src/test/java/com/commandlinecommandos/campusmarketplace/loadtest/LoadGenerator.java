@@ -0,0 +1,142 @@
+package com.commandlinecommandos.campusmarketplace.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Closed-loop HTTP load: each client sends its next request as soon as the last one returns
+ *
+ * Used by the load-test profile (ThreadModeLoadTestSupport), or on its own against
+ * a running server, e.g. one started with VIRTUAL_THREADS_ENABLED=true and one without:
+ *
+ *   java -cp target/test-classes com.commandlinecommandos.campusmarketplace.loadtest.LoadGenerator \
+ *       http://localhost:8080/api/listings?page=0&size=20 200 30
+ *
+ * Arguments: url, concurrent clients (default 200), seconds measured (default 30).
+ */
+public final class LoadGenerator {
+
+    private LoadGenerator() {
+    }
+
+    /**
+     * Throughput and latency of one run
+     */
+    public record Result(String label, int concurrency, long requests, long errors, double seconds,
+                         double p50Millis, double p99Millis, double maxMillis, String firstError) {
+
+        public double throughput() {
+            return requests / seconds;
+        }
+
+        public String csv() {
+            return String.format("%s,%d,%d,%d,%.1f,%.2f,%.2f,%.2f",
+                label, concurrency, requests, errors, throughput(), p50Millis, p99Millis, maxMillis);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-8s clients=%d requests=%d errors=%d throughput=%.1f req/s p50=%.2f ms p99=%.2f ms max=%.2f ms%s",
+                label, concurrency, requests, errors, throughput(), p50Millis, p99Millis, maxMillis,
+                firstError != null ? " first error: " + firstError : "");
+        }
+    }
+
+    public static final String CSV_HEADER = "mode,clients,requests,errors,throughput_rps,p50_ms,p99_ms,max_ms";
+
+    /**
+     * Warm up, then measure for the given duration
+     */
+    public static Result run(String label, URI uri, int concurrency, Duration warmup, Duration duration)
+            throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+
+        drive(client, request, concurrency, warmup, new AtomicLong(), new AtomicReference<>());
+
+        AtomicLong errors = new AtomicLong();
+        AtomicReference<String> firstError = new AtomicReference<>();
+        long started = System.nanoTime();
+        List<long[]> perClient = drive(client, request, concurrency, duration, errors, firstError);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        long[] latencies = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(label, concurrency, latencies.length, errors.get(), seconds,
+            percentile(latencies, 0.50), percentile(latencies, 0.99),
+            latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6, firstError.get());
+    }
+
+    private static List<long[]> drive(HttpClient client, HttpRequest request, int concurrency,
+                                      Duration duration, AtomicLong errors,
+                                      AtomicReference<String> firstError) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        // Virtual threads on the client side, so the generator itself is never the bottleneck
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<long[]>> futures = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(clients.submit(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < deadline) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                                firstError.compareAndSet(null, "HTTP " + response.statusCode());
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                            firstError.compareAndSet(null, e.toString());
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = System.nanoTime() - sent;
+                    }
+                    return Arrays.copyOf(samples, count);
+                }));
+            }
+            List<long[]> results = new ArrayList<>(concurrency);
+            for (Future<long[]> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        }
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("usage: LoadGenerator <url> [clients] [seconds]");
+            System.exit(1);
+        }
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        Result result = run("external", URI.create(args[0]), concurrency, Duration.ofSeconds(5), Duration.ofSeconds(seconds));
+        System.out.println(CSV_HEADER);
+        System.out.println(result.csv());
+        System.out.println(result);
+    }
+}
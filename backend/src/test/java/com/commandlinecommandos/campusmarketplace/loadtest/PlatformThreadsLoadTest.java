@@ -0,0 +1,12 @@
+package com.commandlinecommandos.campusmarketplace.loadtest;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "spring.threads.virtual.enabled=false")
+class PlatformThreadsLoadTest extends ThreadModeLoadTestSupport {
+
+    @Override
+    protected String mode() {
+        return "platform";
+    }
+}
@@ -0,0 +1,76 @@
+package com.commandlinecommandos.campusmarketplace.loadtest;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the same closed-loop load against the embedded server in one thread mode
+ *
+ * Only runs with the load-test Maven profile (mvn test -Pload-test). Each mode
+ * prints its throughput and p50/p99 and appends a row to target/load-test/results.csv,
+ * so the two modes can be compared side by side.
+ *
+ * The loadtest Spring profile caps Tomcat at a production-like thread count, so
+ * the platform mode queues requests once clients outnumber threads. The embedded
+ * H2 database answers in microseconds; for numbers that include real JDBC, Redis
+ * and S3 latency, run LoadGenerator against a deployed server in each mode.
+ *
+ * System properties:
+ * - loadtest.path             → request path under the context path (default /listings?page=0&size=20)
+ * - loadtest.clients          → concurrent clients (default 200)
+ * - loadtest.warmup-seconds   → unmeasured warm-up (default 5)
+ * - loadtest.duration-seconds → measured run (default 20)
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"test", "loadtest"})
+abstract class ThreadModeLoadTestSupport {
+
+    private static final Path RESULTS = Path.of("target", "load-test", "results.csv");
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${server.servlet.context-path:}")
+    private String contextPath;
+
+    protected abstract String mode();
+
+    @Test
+    void measureThroughputAndLatency() throws Exception {
+        URI uri = URI.create("http://localhost:" + port + contextPath
+            + System.getProperty("loadtest.path", "/listings?page=0&size=20"));
+        LoadGenerator.Result result = LoadGenerator.run(mode(), uri,
+            Integer.getInteger("loadtest.clients", 200),
+            Duration.ofSeconds(Integer.getInteger("loadtest.warmup-seconds", 5)),
+            Duration.ofSeconds(Integer.getInteger("loadtest.duration-seconds", 20)));
+
+        System.out.println(result);
+        record(result);
+
+        assertTrue(result.requests() > 0, "no requests completed");
+        assertTrue(result.errors() <= result.requests() / 100, "more than 1% of requests failed: " + result);
+    }
+
+    private static void record(LoadGenerator.Result result) throws Exception {
+        Files.createDirectories(RESULTS.getParent());
+        if (Files.notExists(RESULTS)) {
+            Files.writeString(RESULTS, LoadGenerator.CSV_HEADER + System.lineSeparator(), StandardCharsets.UTF_8);
+        }
+        Files.writeString(RESULTS, result.csv() + System.lineSeparator(), StandardCharsets.UTF_8,
+            StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,78 @@
+package com.commandlinecommandos.campusmarketplace.ratelimit;
+
+import com.commandlinecommandos.campusmarketplace.dto.AuthRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "rate.limiting.enabled=true",
+    "rate.limiting.default-limit.name=default",
+    "rate.limiting.default-limit.capacity=1000",
+    "rate.limiting.endpoints[0].name=auth",
+    "rate.limiting.endpoints[0].paths[0]=/auth/login",
+    "rate.limiting.endpoints[0].methods[0]=POST",
+    "rate.limiting.endpoints[0].capacity=3",
+    "rate.limiting.endpoints[0].period=60s",
+    "rate.limiting.endpoints[0].key=ip"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testEndpointLimitRejectsWithHeaders() throws Exception {
+        AuthRequest request = new AuthRequest();
+        request.setUsername("nobody");
+        request.setPassword("wrongpassword");
+        String body = objectMapper.writeValueAsString(request);
+
+        for (int remaining = 2; remaining >= 0; remaining--) {
+            mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(body)
+                    .with(r -> { r.setRemoteAddr("10.1.1.1"); return r; }))
+                .andExpect(header().string("X-RateLimit-Limit", "3"))
+                .andExpect(header().string("X-RateLimit-Remaining", Integer.toString(remaining)));
+        }
+
+        mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(body)
+                .with(r -> { r.setRemoteAddr("10.1.1.1"); return r; }))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string("Retry-After", "20"))
+            .andExpect(header().string("X-RateLimit-Remaining", "0"))
+            .andExpect(jsonPath("$.error").value("Rate limit exceeded"));
+
+        // Another client has its own bucket
+        mockMvc.perform(post("/auth/login").contentType(MediaType.APPLICATION_JSON).content(body)
+                .with(r -> { r.setRemoteAddr("10.1.1.2"); return r; }))
+            .andExpect(header().string("X-RateLimit-Remaining", "2"));
+    }
+
+    @Test
+    void testOtherRoutesUseTheDefaultLimit() throws Exception {
+        mockMvc.perform(get("/listings").with(r -> { r.setRemoteAddr("10.2.2.2"); return r; }))
+            .andExpect(header().string("X-RateLimit-Limit", "1000"));
+    }
+
+    @Test
+    void testExcludedPathsAreNotLimited() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+            .andExpect(header().doesNotExist("X-RateLimit-Limit"));
+    }
+}
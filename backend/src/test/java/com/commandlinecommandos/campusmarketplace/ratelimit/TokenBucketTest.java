@@ -0,0 +1,91 @@
+package com.commandlinecommandos.campusmarketplace.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+    @Test
+    void testBurstUpToCapacityThenReject() {
+        TokenBucket bucket = new TokenBucket(5, MINUTE, 0);
+
+        for (int i = 4; i >= 0; i--) {
+            RateLimitDecision decision = bucket.tryAcquire(0);
+            assertTrue(decision.allowed());
+            assertEquals(i, decision.remaining());
+        }
+
+        RateLimitDecision rejected = bucket.tryAcquire(0);
+        assertFalse(rejected.allowed());
+        assertEquals(0, rejected.remaining());
+        assertEquals(12_000, rejected.retryAfterMillis());
+        assertEquals(60_000, rejected.resetMillis());
+    }
+
+    @Test
+    void testTokensRefillContinuously() {
+        TokenBucket bucket = new TokenBucket(5, MINUTE, 0);
+        for (int i = 0; i < 5; i++) {
+            bucket.tryAcquire(0);
+        }
+
+        // One token per 12 seconds
+        assertFalse(bucket.tryAcquire(TimeUnit.SECONDS.toNanos(11)).allowed());
+        assertTrue(bucket.tryAcquire(TimeUnit.SECONDS.toNanos(12)).allowed());
+        assertFalse(bucket.tryAcquire(TimeUnit.SECONDS.toNanos(12)).allowed());
+
+        // Idle for a full period refills the whole bucket, never more
+        RateLimitDecision afterIdle = bucket.tryAcquire(TimeUnit.MINUTES.toNanos(10));
+        assertTrue(afterIdle.allowed());
+        assertEquals(4, afterIdle.remaining());
+    }
+
+    @Test
+    void testConcurrentRequestsNeverExceedCapacity() throws Exception {
+        TokenBucket bucket = new TokenBucket(50, TimeUnit.HOURS.toNanos(1), System.nanoTime());
+        int threads = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 100; i++) {
+                    if (bucket.tryAcquire(System.nanoTime()).allowed()) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(50, allowed.get());
+    }
+
+    @Test
+    void testLocalLimiterKeepsBucketsBounded() {
+        LocalRateLimiter limiter = new LocalRateLimiter(100);
+        RateLimitProperties.Limit rule = new RateLimitProperties.Limit("test", 1, Duration.ofMinutes(1),
+            RateLimitProperties.KeyType.IP);
+
+        for (int i = 0; i < 1000; i++) {
+            limiter.tryAcquire("test:ip:10.0.0." + i, rule);
+        }
+
+        assertTrue(limiter.size() <= 100);
+    }
+}
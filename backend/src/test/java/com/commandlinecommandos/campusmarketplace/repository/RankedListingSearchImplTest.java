@@ -0,0 +1,62 @@
+package com.commandlinecommandos.campusmarketplace.repository;
+
+import com.commandlinecommandos.campusmarketplace.repository.RankedListingSearch.Filters;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the ORDER BY built by the ranked search
+ * The statements themselves need PostgreSQL; see V21__listings_search_vector.sql
+ */
+class RankedListingSearchImplTest {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+    private final RankedListingSearchImpl search = new RankedListingSearchImpl();
+
+    @Test
+    void testUnsortedPageKeepsRankOrder() {
+        assertTrue(sqlFor(PageRequest.of(0, 20))
+            .contains("ORDER BY ts_rank(p.search_vector, q) DESC, p.created_at DESC LIMIT"));
+    }
+
+    @Test
+    void testSortPropertiesMapToColumns() {
+        assertTrue(sqlFor(PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "price")))
+            .contains("ORDER BY p.price DESC, p.created_at DESC LIMIT"));
+        assertTrue(sqlFor(PageRequest.of(0, 20, Sort.by(Sort.Direction.ASC, "createdAt")))
+            .contains("ORDER BY p.created_at ASC LIMIT"));
+        assertTrue(sqlFor(PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "viewCount", "favoriteCount")))
+            .contains("ORDER BY COALESCE(p.view_count, 0) DESC, COALESCE(p.favorite_count, 0) DESC, p.created_at DESC"));
+    }
+
+    @Test
+    void testUnknownSortPropertyIsRejected() {
+        ReflectionTestUtils.setField(search, "jdbcTemplate", jdbcTemplate);
+        assertThrows(IllegalArgumentException.class, () -> search.searchWithFullText(UUID.randomUUID(), "lamp",
+            Filters.NONE, PageRequest.of(0, 20, Sort.by("title; DROP TABLE listings"))));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private String sqlFor(PageRequest pageable) {
+        reset(jdbcTemplate);
+        ReflectionTestUtils.setField(search, "jdbcTemplate", jdbcTemplate);
+        search.searchWithFullText(UUID.randomUUID(), "lamp", Filters.NONE, pageable);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), any(SqlParameterSource.class), any(RowMapper.class));
+        return sql.getValue();
+    }
+}
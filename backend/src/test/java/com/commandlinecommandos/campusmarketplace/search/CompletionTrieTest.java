@@ -0,0 +1,102 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.model.ModerationStatus;
+import com.commandlinecommandos.campusmarketplace.model.Product;
+import com.commandlinecommandos.campusmarketplace.model.University;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the autocomplete trie and the index's listing updates
+ * Covers word-start matching, popularity ordering, weight changes and removal
+ */
+class CompletionTrieTest {
+
+    private CompletionTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new CompletionTrie(3);
+        trie.add("Used Calculus Textbook", 1);
+        trie.add("Calculator TI-84", 1);
+        trie.add("calculator", 5);
+        trie.add("Desk Lamp", 1);
+    }
+
+    @Test
+    void testMostPopularCompletionsFirst() {
+        assertEquals(List.of("calculator", "Calculator TI-84", "Used Calculus Textbook"), trie.complete("calc", 10));
+        assertEquals(List.of("calculator", "Calculator TI-84"), trie.complete("CALCULAT", 10));
+        assertEquals(List.of("calculator"), trie.complete("calc", 1));
+        assertEquals(List.of(), trie.complete("chair", 10));
+    }
+
+    @Test
+    void testMatchesFromTheStartOfAnyEarlyWord() {
+        assertEquals(List.of("Used Calculus Textbook"), trie.complete("textb", 10));
+        assertEquals(List.of("Desk Lamp"), trie.complete("lamp", 10));
+        assertEquals(List.of("Used Calculus Textbook"), trie.complete("used   calc", 10));
+    }
+
+    @Test
+    void testWeightChangesReorderAndRemovalDropsPhrase() {
+        trie.add("Used Calculus Textbook", 10);
+        assertEquals("Used Calculus Textbook", trie.complete("calc", 10).get(0));
+
+        trie.subtract("used calculus textbook", 11);
+        assertEquals(List.of("calculator", "Calculator TI-84"), trie.complete("calc", 10));
+        assertEquals(List.of(), trie.complete("textb", 10));
+        assertEquals(3, trie.size());
+    }
+
+    @Test
+    void testOnlyTheBestCompletionsAreKeptPerPrefix() {
+        CompletionTrie small = new CompletionTrie(2);
+        IntStream.range(0, 5).forEach(i -> small.add("Bike " + i, i + 1));
+
+        assertEquals(List.of("Bike 4", "Bike 3"), small.complete("bi", 10));
+        small.subtract("Bike 4", 5);
+        small.subtract("Bike 3", 4);
+        // Lower-ranked phrases move up once the leaders are gone
+        assertEquals(List.of("Bike 2", "Bike 1"), small.complete("bi", 10));
+    }
+
+    @Test
+    void testListingUpdatesReplaceTheOldTitle() {
+        AutocompleteIndex index = new AutocompleteIndex();
+        ReflectionTestUtils.setField(index, "maxSuggestions", 10);
+        UUID universityId = UUID.randomUUID();
+        UUID listingId = UUID.randomUUID();
+
+        index.apply(listingId, listing(universityId, "Road Bike", true));
+        assertEquals(List.of("Road Bike"), index.complete(universityId, "bike"));
+
+        index.apply(listingId, listing(universityId, "Mountain Bike", true));
+        assertEquals(List.of("Mountain Bike"), index.complete(universityId, "bike"));
+        assertEquals(List.of(), index.complete(universityId, "road"));
+
+        index.apply(listingId, listing(universityId, "Mountain Bike", false));
+        assertEquals(List.of(), index.complete(universityId, "bike"));
+        assertEquals(List.of(), index.complete(UUID.randomUUID(), "bike"));
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(index, "listings")).isEmpty());
+    }
+
+    private static Product listing(UUID universityId, String title, boolean active) {
+        University university = new University();
+        university.setUniversityId(universityId);
+        Product product = new Product();
+        product.setUniversity(university);
+        product.setTitle(title);
+        product.setActive(active);
+        product.setModerationStatus(ModerationStatus.APPROVED);
+        return product;
+    }
+}
@@ -0,0 +1,116 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.model.ProductCondition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the per-university inverted index
+ * Covers analysis, AND semantics, BM25 ordering, filtering, paging and updates
+ */
+class InvertedIndexTest {
+
+    private static final UUID UNIVERSITY = UUID.randomUUID();
+    private static final Comparator<ScoredListing> BY_SCORE =
+        Comparator.comparingDouble(ScoredListing::getScore).reversed();
+
+    private InvertedIndex index;
+    private UUID laptopId;
+    private UUID textbookId;
+    private UUID deskId;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        laptopId = put("MacBook Pro Laptop", "Excellent condition laptop, barely used",
+            ProductCategory.ELECTRONICS, "1200.00");
+        textbookId = put("Java Programming Textbook", "CS textbook for beginners, includes laptop stickers",
+            ProductCategory.TEXTBOOKS, "50.00");
+        deskId = put("Study Desk", "Wooden desk in good condition",
+            ProductCategory.FURNITURE, "80.00");
+    }
+
+    @Test
+    void testAnalyzerStemsAndDropsStopWords() {
+        assertEquals(List.of("textbook", "laptop"), TextAnalyzer.analyze("The Textbooks and a Laptop"));
+        assertEquals(List.of("charg", "cable"), TextAnalyzer.analyze("Charging cables"));
+        assertEquals(List.of("iphone", "13"), TextAnalyzer.analyze("iPhone-13"));
+    }
+
+    @Test
+    void testTitleMatchOutranksDescriptionMatch() {
+        SearchHits hits = search("laptop", doc -> true);
+
+        assertEquals(2, hits.getTotalHits());
+        assertEquals(laptopId, hits.getHits().get(0).getListingId());
+        assertEquals(textbookId, hits.getHits().get(1).getListingId());
+        assertTrue(hits.getHits().get(0).getScore() > hits.getHits().get(1).getScore());
+    }
+
+    @Test
+    void testAllTermsMustMatch() {
+        SearchHits hits = search("wooden laptop", doc -> true);
+        assertEquals(0, hits.getTotalHits());
+
+        hits = search("wooden desks", doc -> true);
+        assertEquals(1, hits.getTotalHits());
+        assertEquals(deskId, hits.getHits().get(0).getListingId());
+    }
+
+    @Test
+    void testFiltersAppliedInSamePass() {
+        SearchHits hits = search("laptop",
+            doc -> doc.getPrice().compareTo(new BigDecimal("100.00")) <= 0);
+
+        assertEquals(1, hits.getTotalHits());
+        assertEquals(textbookId, hits.getHits().get(0).getListingId());
+    }
+
+    @Test
+    void testPagingKeepsTotal() {
+        SearchHits secondPage = index.search(TextAnalyzer.analyze("laptop"), doc -> true, BY_SCORE, 1, 1);
+
+        assertEquals(2, secondPage.getTotalHits());
+        assertEquals(1, secondPage.getHits().size());
+        assertEquals(textbookId, secondPage.getHits().get(0).getListingId());
+    }
+
+    @Test
+    void testReplaceAndRemove() {
+        index.put(document(laptopId, ProductCategory.ELECTRONICS, "1100.00"),
+            "MacBook Air", "Lightweight notebook");
+
+        assertEquals(1, search("laptop", doc -> true).getTotalHits());
+        assertEquals(1, search("notebook", doc -> true).getTotalHits());
+
+        index.remove(textbookId);
+
+        assertEquals(0, search("laptop", doc -> true).getTotalHits());
+        assertEquals(2, index.size());
+    }
+
+    private SearchHits search(String query, Predicate<ListingDocument> filter) {
+        return index.search(TextAnalyzer.analyze(query), filter, BY_SCORE, 0, 20);
+    }
+
+    private UUID put(String title, String description, ProductCategory category, String price) {
+        UUID id = UUID.randomUUID();
+        index.put(document(id, category, price), title, description);
+        return id;
+    }
+
+    private ListingDocument document(UUID id, ProductCategory category, String price) {
+        return new ListingDocument(id, UNIVERSITY, category, ProductCondition.GOOD,
+            new BigDecimal(price), "San Jose", LocalDateTime.now(), 0, 0);
+    }
+}
@@ -0,0 +1,104 @@
+package com.commandlinecommandos.campusmarketplace.search;
+
+import com.commandlinecommandos.campusmarketplace.listing.event.ListingChangedEvent;
+import com.commandlinecommandos.campusmarketplace.listing.event.ListingChangedEvent.ChangeType;
+import com.commandlinecommandos.campusmarketplace.model.*;
+import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the listing index rebuild and its interplay with change events
+ */
+class ListingSearchIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ListingSearchIndex index = new ListingSearchIndex();
+    private final University university = new University();
+
+    @BeforeEach
+    void setUp() {
+        university.setUniversityId(UUID.randomUUID());
+        ReflectionTestUtils.setField(index, "productRepository", productRepository);
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "buildBatchSize", 500);
+    }
+
+    @Test
+    void testRebuildPicksUpListingsAndCountsChangedElsewhere() {
+        Product lamp = listing("Desk lamp", 1);
+        Product desk = listing("Standing desk", 3);
+        when(productRepository.findByIsActiveTrueAndModerationStatus(eq(ModerationStatus.APPROVED), any()))
+            .thenReturn(new PageImpl<>(List.of(lamp)));
+        index.rebuild();
+        assertEquals(1, search("desk").getTotalHits());
+
+        // Another node adds a listing and views are counted in SQL; neither sends this node an event
+        lamp.setViewCount(40);
+        when(productRepository.findByIsActiveTrueAndModerationStatus(eq(ModerationStatus.APPROVED), any()))
+            .thenReturn(new PageImpl<>(List.of(lamp, desk)));
+        index.rebuild();
+
+        List<ScoredListing> hits = search("desk").getHits();
+        assertEquals(2, hits.size());
+        ScoredListing lampHit = hits.stream().filter(hit -> hit.getListingId().equals(lamp.getProductId()))
+            .findFirst().orElseThrow();
+        assertEquals(40, lampHit.getDocument().getViewCount());
+    }
+
+    @Test
+    void testListingRemovedDuringRebuildStaysOut() {
+        Product lamp = listing("Desk lamp", 1);
+        when(productRepository.findByIsActiveTrueAndModerationStatus(eq(ModerationStatus.APPROVED), any()))
+            .thenReturn(new PageImpl<>(List.of(lamp)));
+        index.rebuild();
+
+        when(productRepository.findById(lamp.getProductId())).thenReturn(Optional.empty());
+        when(productRepository.findByIsActiveTrueAndModerationStatus(eq(ModerationStatus.APPROVED), any()))
+            .thenAnswer(invocation -> {
+                // Searches keep using the previous index while the build runs
+                assertTrue(index.isReady());
+                assertEquals(1, search("lamp").getTotalHits());
+                // The delete commits after this page was read
+                index.onListingChanged(ListingChangedEvent.of(lamp, ChangeType.DEACTIVATED));
+                return new PageImpl<>(List.of(lamp));
+            });
+        index.rebuild();
+
+        assertEquals(0, search("lamp").getTotalHits());
+        assertEquals(0, index.size(university.getUniversityId()));
+    }
+
+    private SearchHits search(String query) {
+        return index.search(university.getUniversityId(), query, document -> true,
+            (a, b) -> Float.compare(b.getScore(), a.getScore()), 0, 20);
+    }
+
+    private Product listing(String title, int viewCount) {
+        Product product = new Product();
+        product.setProductId(UUID.randomUUID());
+        product.setUniversity(university);
+        product.setTitle(title);
+        product.setDescription(title);
+        product.setCategory(ProductCategory.FURNITURE);
+        product.setCondition(ProductCondition.GOOD);
+        product.setPrice(new BigDecimal("25.00"));
+        product.setActive(true);
+        product.setModerationStatus(ModerationStatus.APPROVED);
+        product.setCreatedAt(LocalDateTime.now());
+        product.setViewCount(viewCount);
+        return product;
+    }
+}
@@ -0,0 +1,144 @@
+package com.commandlinecommandos.campusmarketplace.security;
+
+import com.commandlinecommandos.campusmarketplace.model.University;
+import com.commandlinecommandos.campusmarketplace.model.User;
+import com.commandlinecommandos.campusmarketplace.model.UserRole;
+import com.commandlinecommandos.campusmarketplace.repository.UniversityRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Stateless JWT authentication: claims-built principals and version-stamped revocation
+ * Not transactional, so revocations commit and their cache evictions run as in production
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JwtAuthenticationFilterIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UniversityRepository universityRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private University university;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        university = new University();
+        university.setName("Token University");
+        university.setDomain("token.edu");
+        university.setActive(true);
+        university = universityRepository.save(university);
+
+        user = new User();
+        user.setUsername("token_user");
+        user.setEmail("token_user@token.edu");
+        user.setPassword("hashedpassword123");
+        user.setFirstName("Tara");
+        user.setLastName("Tester");
+        user.setUniversity(university);
+        user.setRoles(Set.of(UserRole.BUYER, UserRole.SELLER));
+        user.setActive(true);
+        user = userRepository.save(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteById(user.getUserId());
+        universityRepository.delete(university);
+        cacheManager.getCache(TokenRevocationService.AUTH_STATE).clear();
+    }
+
+    @Test
+    void testProfileIsLoadedForClaimsPrincipal() throws Exception {
+        String token = jwtUtil.generateAccessToken(user);
+
+        mockMvc.perform(get("/auth/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("token_user"))
+                .andExpect(jsonPath("$.firstName").value("Tara"));
+    }
+
+    @Test
+    void testRevokedTokenIsRejected() throws Exception {
+        String token = jwtUtil.generateAccessToken(user);
+        mockMvc.perform(get("/auth/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        // Cached auth state must not keep the old token alive
+        User revoked = inTransaction(() -> {
+            User managed = userRepository.findById(user.getUserId()).orElseThrow();
+            tokenRevocationService.revokeTokens(managed);
+            return userRepository.save(managed);
+        });
+
+        mockMvc.perform(get("/auth/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/auth/me").header("Authorization", "Bearer " + jwtUtil.generateAccessToken(revoked)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testSuspendedUserIsRejected() throws Exception {
+        String token = jwtUtil.generateAccessToken(user);
+        mockMvc.perform(get("/auth/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        inTransaction(() -> {
+            User managed = userRepository.findById(user.getUserId()).orElseThrow();
+            managed.setActive(false);
+            tokenRevocationService.refresh(managed.getUserId());
+            return userRepository.save(managed);
+        });
+
+        mockMvc.perform(get("/auth/me").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testRefreshTokenIsNotAcceptedAsAccessToken() throws Exception {
+        String refreshToken = jwtUtil.generateRefreshToken(user);
+
+        mockMvc.perform(get("/auth/me").header("Authorization", "Bearer " + refreshToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private User inTransaction(Supplier<User> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+}
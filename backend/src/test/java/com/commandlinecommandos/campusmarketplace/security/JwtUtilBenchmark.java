@@ -0,0 +1,109 @@
+package com.commandlinecommandos.campusmarketplace.security;
+
+import com.commandlinecommandos.campusmarketplace.model.User;
+import com.commandlinecommandos.campusmarketplace.model.UserRole;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request token cost: the filter parses the token, then a controller reads
+ * userId, username and roles from it
+ *
+ * - perRequestParser → old JwtUtil: key derived and parser built on every read
+ * - sharedParser     → one parser and key, every read verifies the signature
+ * - cachedClaims     → one parser and key, verified claims cached by token digest
+ *
+ * Run the main method (IDE, or with the test classpath after mvn test-compile).
+ * Not picked up by mvn test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKeyThatIsLongEnoughForHS256AlgorithmToWorkProperly";
+
+    private JwtUtil sharedParser;
+    private JwtUtil cachedClaims;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        sharedParser = jwtUtil(0);
+        cachedClaims = jwtUtil(10000);
+
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        user.setUsername("benchmark_user");
+        user.setEmail("benchmark_user@example.edu");
+        user.setRoles(Set.of(UserRole.BUYER, UserRole.SELLER));
+        token = cachedClaims.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public void perRequestParser(Blackhole blackhole) {
+        for (int read = 0; read < 4; read++) {
+            Claims claims = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+            blackhole.consume(claims);
+        }
+    }
+
+    @Benchmark
+    public void sharedParser(Blackhole blackhole) {
+        request(sharedParser, blackhole);
+    }
+
+    @Benchmark
+    public void cachedClaims(Blackhole blackhole) {
+        request(cachedClaims, blackhole);
+    }
+
+    private void request(JwtUtil jwtUtil, Blackhole blackhole) {
+        blackhole.consume(jwtUtil.parseClaims(token));
+        blackhole.consume(jwtUtil.extractUserId(token));
+        blackhole.consume(jwtUtil.extractUsername(token));
+        blackhole.consume(jwtUtil.extractRoles(token));
+    }
+
+    private static JwtUtil jwtUtil(long claimsCacheMaxSize) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "accessTokenExpiration", 3600000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshTokenExpiration", 604800000L);
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheMaxSize", claimsCacheMaxSize);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtUtilBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -39,6 +39,8 @@ class JwtUtilTest {
             var refreshTokenExpirationField = JwtUtil.class.getDeclaredField("refreshTokenExpiration");
             refreshTokenExpirationField.setAccessible(true);
             refreshTokenExpirationField.set(jwtUtil, 604800000L);
+            
+            jwtUtil.init();
         } catch (Exception e) {
             fail("Failed to set up test: " + e.getMessage());
         }
@@ -114,4 +116,30 @@ class JwtUtilTest {
         assertNotNull(expiration);
         assertTrue(expiration.getTime() > System.currentTimeMillis());
     }
+    
+    @Test
+    void testTamperedTokenIsRejectedAfterOriginalWasCached() {
+        String token = jwtUtil.generateAccessToken(testUser);
+        assertTrue(jwtUtil.validateToken(token));
+        
+        // Flip a character in the signature; the cache is keyed by the whole token
+        int last = token.length() - 2;
+        char flipped = token.charAt(last) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, last) + flipped + token.substring(last + 1);
+        
+        assertFalse(jwtUtil.validateToken(tampered));
+        assertTrue(jwtUtil.validateToken(token));
+    }
+    
+    @Test
+    void testExpiredTokenIsRejected() throws Exception {
+        var accessTokenExpirationField = JwtUtil.class.getDeclaredField("accessTokenExpiration");
+        accessTokenExpirationField.setAccessible(true);
+        accessTokenExpirationField.set(jwtUtil, -1000L);
+        
+        String expired = jwtUtil.generateAccessToken(testUser);
+        
+        assertFalse(jwtUtil.validateToken(expired));
+        assertThrows(io.jsonwebtoken.ExpiredJwtException.class, () -> jwtUtil.parseClaims(expired));
+    }
 }
@@ -0,0 +1,61 @@
+package com.commandlinecommandos.campusmarketplace.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalLoginFailureStoreTest {
+
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long WINDOW = 15 * MINUTE;
+
+    private final LocalLoginFailureStore store = new LocalLoginFailureStore(Duration.ofMinutes(15), 1000);
+
+    @Test
+    void testLocksAtLimitUntilOldestFailureLeavesWindow() {
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) {
+            store.recordFailure("user:alice", 5, start + i * MINUTE);
+        }
+
+        LoginFailureWindow window = store.current("user:alice", start + 4 * MINUTE);
+        assertTrue(window.isLocked(5));
+        assertEquals(start, window.oldestMillis());
+        assertEquals(11 * MINUTE, window.lockedForMillis(5, WINDOW, start + 4 * MINUTE));
+
+        // The first failure slides out after 15 minutes and the key unlocks
+        LoginFailureWindow later = store.current("user:alice", start + WINDOW);
+        assertEquals(4, later.failures());
+        assertFalse(later.isLocked(5));
+        assertEquals(0, later.lockedForMillis(5, WINDOW, start + WINDOW));
+    }
+
+    @Test
+    void testKeepsAtMostLimitFailuresPerKey() {
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 100; i++) {
+            store.recordFailure("ip:10.0.0.1", 5, start + i);
+        }
+
+        LoginFailureWindow window = store.current("ip:10.0.0.1", start + 100);
+        assertEquals(5, window.failures());
+        // Locked until the fifth most recent failure ages out, not the first one ever
+        assertEquals(start + 95, window.oldestMillis());
+    }
+
+    @Test
+    void testKeysAreIndependentAndClearable() {
+        long now = System.currentTimeMillis();
+        store.recordFailure("user:alice", 5, now);
+        store.recordFailure("user:bob", 5, now);
+
+        store.clear("user:alice");
+
+        assertSame(LoginFailureWindow.EMPTY, store.current("user:alice", now));
+        assertEquals(1, store.current("user:bob", now).failures());
+        assertSame(LoginFailureWindow.EMPTY, store.current("user:carol", now));
+    }
+}
@@ -0,0 +1,173 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.TestFixtures;
+import com.commandlinecommandos.campusmarketplace.model.University;
+import com.commandlinecommandos.campusmarketplace.model.User;
+import com.commandlinecommandos.campusmarketplace.model.UserRole;
+import com.commandlinecommandos.campusmarketplace.model.VerificationStatus;
+import com.commandlinecommandos.campusmarketplace.repository.UniversityRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
+import com.commandlinecommandos.campusmarketplace.service.AdminAnalyticsService.LoginCounts;
+import com.commandlinecommandos.campusmarketplace.service.AdminAnalyticsService.UserSnapshot;
+import com.commandlinecommandos.campusmarketplace.service.AnalyticsRollupService.RollupTotals;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the analytics rollup and the dashboard snapshots
+ * Other data may already exist in the shared context, so assertions compare deltas
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class AnalyticsRollupServiceTest {
+
+    @Autowired
+    private AnalyticsRollupService analyticsRollupService;
+
+    @Autowired
+    private AdminAnalyticsService adminAnalyticsService;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UniversityRepository universityRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private University university;
+
+    @BeforeEach
+    void setUp() {
+        auditLogWriter.flush();
+        analyticsRollupService.rebuildFrom(LocalDate.now().minusDays(40));
+        university = universityRepository.save(TestFixtures.university("Rollup University", "rollup.edu"));
+    }
+
+    @Test
+    void testTotalsFollowSourceTablesAfterRebuild() {
+        RollupTotals before = analyticsRollupService.totals();
+
+        User admin = saveUser("rollup_admin", Set.of(UserRole.ADMIN), null);
+        User student = saveUser("rollup_student", Set.of(UserRole.BUYER, UserRole.SELLER), null);
+        auditService.logAccountStatusChange(student, admin, "SUSPENDED", "Spam");
+        auditLogWriter.flush();
+
+        analyticsRollupService.rebuildFrom(LocalDate.now().minusDays(40));
+        RollupTotals after = analyticsRollupService.totals();
+
+        assertEquals(before.newUsersToday() + 2, after.newUsersToday());
+        assertEquals(before.newUsersThisWeek() + 2, after.newUsersThisWeek());
+        assertEquals(before.newUsersThisMonth() + 2, after.newUsersThisMonth());
+        assertEquals(before.suspensionsThisMonth() + 1, after.suspensionsThisMonth());
+        assertEquals(before.warningEvents() + 1, after.warningEvents());
+        assertNotNull(after.refreshedAt());
+    }
+
+    @Test
+    void testRefreshRewritesRecentDaysWithoutDoubleCounting() {
+        insertLoginAttempt("rollup_login", true, LocalDateTime.now());
+        insertLoginAttempt("rollup_login", false, LocalDateTime.now());
+
+        analyticsRollupService.refresh();
+        long successfulToday = loginCounter("successful_logins", LocalDate.now());
+        long failedToday = loginCounter("failed_logins", LocalDate.now());
+
+        analyticsRollupService.refresh();
+        assertEquals(successfulToday, loginCounter("successful_logins", LocalDate.now()));
+        assertEquals(failedToday, loginCounter("failed_logins", LocalDate.now()));
+
+        insertLoginAttempt("rollup_login", false, LocalDateTime.now());
+        analyticsRollupService.refresh();
+        assertEquals(failedToday + 1, loginCounter("failed_logins", LocalDate.now()));
+    }
+
+    @Test
+    void testRefreshCatchesUpFromLastRolledUpDay() {
+        LocalDate fiveDaysAgo = LocalDate.now().minusDays(5);
+        insertLoginAttempt("rollup_gap", false, fiveDaysAgo.atTime(12, 0));
+
+        // Pretend the node was down since five days ago
+        jdbcTemplate.update("DELETE FROM analytics_daily_counters WHERE stat_date >= ?", Date.valueOf(fiveDaysAgo));
+        jdbcTemplate.update("INSERT INTO analytics_daily_counters (stat_date, new_users, new_listings, successful_logins, " +
+            "failed_logins, suspensions, critical_events, error_events, warning_events, refreshed_at) " +
+            "VALUES (?, 0, 0, 0, 0, 0, 0, 0, 0, ?)", Date.valueOf(fiveDaysAgo), Timestamp.valueOf(LocalDateTime.now()));
+
+        analyticsRollupService.refresh();
+
+        long expected = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM login_attempts WHERE success = FALSE AND CAST(created_at AS DATE) = ?",
+            Long.class, Date.valueOf(fiveDaysAgo));
+        assertEquals(expected, loginCounter("failed_logins", fiveDaysAgo));
+    }
+
+    @Test
+    void testUserSnapshotAndRecentLogins() {
+        UserSnapshot before = adminAnalyticsService.userSnapshot();
+        LoginCounts loginsBefore = adminAnalyticsService.loginsSince(LocalDateTime.now().minusHours(24));
+
+        saveUser("snapshot_admin", Set.of(UserRole.ADMIN), LocalDateTime.now().minusDays(2));
+        User suspended = saveUser("snapshot_student", Set.of(UserRole.BUYER, UserRole.SELLER), null);
+        suspended.setVerificationStatus(VerificationStatus.SUSPENDED);
+        suspended.setActive(false);
+        userRepository.saveAndFlush(suspended);
+        insertLoginAttempt("snapshot_admin", true, LocalDateTime.now().minusHours(1));
+        insertLoginAttempt("snapshot_admin", false, LocalDateTime.now().minusHours(30));
+
+        UserSnapshot after = adminAnalyticsService.userSnapshot();
+        assertEquals(before.totalUsers() + 2, after.totalUsers());
+        assertEquals(before.activeUsers() + 1, after.activeUsers());
+        assertEquals(before.suspendedUsers() + 1, after.suspendedUsers());
+        assertEquals(before.admins() + 1, after.admins());
+        assertEquals(before.buyers() + 1, after.buyers());
+        assertEquals(before.sellers() + 1, after.sellers());
+        assertEquals(before.students() + 1, after.students());
+        assertEquals(before.loggedInLast7Days() + 1, after.loggedInLast7Days());
+        assertEquals(before.neverLoggedIn() + 1, after.neverLoggedIn());
+
+        LoginCounts loginsAfter = adminAnalyticsService.loginsSince(LocalDateTime.now().minusHours(24));
+        assertEquals(loginsBefore.successful() + 1, loginsAfter.successful());
+        assertEquals(loginsBefore.failed(), loginsAfter.failed());
+    }
+
+    private long loginCounter(String column, LocalDate day) {
+        Long value = jdbcTemplate.query(
+            "SELECT " + column + " FROM analytics_daily_counters WHERE stat_date = ?",
+            rs -> rs.next() ? rs.getLong(1) : 0L, Date.valueOf(day));
+        return value != null ? value : 0L;
+    }
+
+    private void insertLoginAttempt(String username, boolean success, LocalDateTime createdAt) {
+        jdbcTemplate.update(
+            "INSERT INTO login_attempts (attempt_id, username, ip_address, success, created_at) VALUES (?, ?, ?, ?, ?)",
+            UUID.randomUUID(), username, "198.51.100.7", success, Timestamp.valueOf(createdAt));
+    }
+
+    private User saveUser(String username, Set<UserRole> roles, LocalDateTime lastLoginAt) {
+        User user = TestFixtures.user(username, university, roles.toArray(UserRole[]::new));
+        user.setLastLoginAt(lastLoginAt);
+        return userRepository.saveAndFlush(user);
+    }
+}
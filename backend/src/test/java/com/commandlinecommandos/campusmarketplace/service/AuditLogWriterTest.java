@@ -0,0 +1,145 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.TestFixtures;
+import com.commandlinecommandos.campusmarketplace.model.AuditLog;
+import com.commandlinecommandos.campusmarketplace.model.University;
+import com.commandlinecommandos.campusmarketplace.model.User;
+import com.commandlinecommandos.campusmarketplace.model.UserRole;
+import com.commandlinecommandos.campusmarketplace.repository.UniversityRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the batched audit pipeline
+ * Flushes run inside the test transaction, so written rows roll back as usual
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class AuditLogWriterTest {
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UniversityRepository universityRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private University university;
+
+    @BeforeEach
+    void setUp() {
+        // Drop anything other tests in this context left queued
+        auditLogWriter.flush();
+        university = universityRepository.save(TestFixtures.university("Audit University", "audit.edu"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testRequestDetailsAreCapturedOnCallerThread() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("203.0.113.9");
+        request.addHeader("X-Forwarded-For", "198.51.100.7");
+        request.addHeader("User-Agent", "AuditTest/1.0");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        auditService.logFailedLogin("audit_writer_user", "Invalid credentials");
+        RequestContextHolder.resetRequestAttributes();
+
+        assertEquals(1, auditLogWriter.pendingCount());
+        assertEquals(0, countRows("audit_writer_user"));
+
+        assertEquals(1, auditLogWriter.flush());
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+            "SELECT action, severity, ip_address, user_agent FROM audit_logs WHERE username = ?", "audit_writer_user");
+        assertEquals("LOGIN_FAILED", row.get("ACTION"));
+        assertEquals("WARNING", row.get("SEVERITY"));
+        assertEquals("203.0.113.9", row.get("IP_ADDRESS"));
+        assertEquals("AuditTest/1.0", row.get("USER_AGENT"));
+    }
+
+    @Test
+    void testEventsAreWrittenInOneFlushWithUserAndValues() {
+        User admin = saveUser("audit_admin");
+        User target = saveUser("audit_target");
+
+        auditService.logRoleChange(target, admin, "BUYER", "SELLER");
+        auditService.logAccountStatusChange(target, admin, "SUSPENDED", "Spam");
+        auditService.logAuditEvent(admin, "USER", "BULK_ACTION", "Bulk action");
+
+        assertEquals(3, auditLogWriter.flush());
+        assertEquals(3, countRows("audit_admin"));
+
+        Map<String, Object> roleChange = jdbcTemplate.queryForMap(
+            "SELECT user_id, record_id, old_values, new_values FROM audit_logs WHERE action = 'ROLE_CHANGE' AND username = ?",
+            "audit_admin");
+        assertEquals(admin.getUserId(), roleChange.get("USER_ID"));
+        assertEquals(target.getUserId(), roleChange.get("RECORD_ID"));
+        assertTrue(roleChange.get("OLD_VALUES").toString().contains("BUYER"));
+        assertTrue(roleChange.get("NEW_VALUES").toString().contains("SELLER"));
+    }
+
+    @Test
+    void testRejectedRowDoesNotLoseTheRestOfTheBatch() {
+        User admin = saveUser("audit_survivor");
+        User ghost = new User();
+        ghost.setUserId(UUID.randomUUID());
+        ghost.setUsername("audit_ghost");
+
+        auditService.logAuditEvent(ghost, "USER", "UPDATE", "References a user that does not exist");
+        auditService.logAuditEvent(admin, "USER", "UPDATE", "Valid entry");
+
+        assertEquals(1, auditLogWriter.flush());
+        assertEquals(0, countRows("audit_ghost"));
+        assertEquals(1, countRows("audit_survivor"));
+        assertEquals(0, auditLogWriter.pendingCount());
+    }
+
+    @Test
+    void testSeverityDefaultsAndTimestampsAreKept() {
+        AuditLog auditLog = new AuditLog(null, "SYSTEM", "CLEANUP", "Nightly cleanup");
+        assertTrue(auditLogWriter.enqueue(auditLog));
+
+        assertEquals(1, auditLogWriter.flush());
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+            "SELECT severity, created_at FROM audit_logs WHERE action = 'CLEANUP' AND username = 'system'");
+        assertEquals("INFO", row.get("SEVERITY"));
+        assertNotNull(row.get("CREATED_AT"));
+    }
+
+    private int countRows(String username) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_logs WHERE username = ?", Integer.class, username);
+    }
+
+    private User saveUser(String username) {
+        return userRepository.saveAndFlush(TestFixtures.user(username, university, UserRole.ADMIN));
+    }
+}
@@ -21,6 +21,7 @@ import com.commandlinecommandos.campusmarketplace.model.UserRole;
 import com.commandlinecommandos.campusmarketplace.repository.RefreshTokenRepository;
 import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
 import com.commandlinecommandos.campusmarketplace.security.JwtUtil;
+import com.commandlinecommandos.campusmarketplace.security.TokenRevocationService;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -50,6 +51,9 @@ class AuthServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
     
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+    
     @InjectMocks
     private AuthService authService;
     
@@ -245,6 +249,7 @@ class AuthServiceTest {
         
         // Then
         verify(refreshTokenRepository).revokeAllTokensByUser(testUser);
+        verify(tokenRevocationService).revokeTokens(testUser);
     }
     
     @Test
@@ -0,0 +1,157 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.TestFixtures;
+import com.commandlinecommandos.campusmarketplace.dto.UserSearchRequest;
+import com.commandlinecommandos.campusmarketplace.model.AuditLog;
+import com.commandlinecommandos.campusmarketplace.model.University;
+import com.commandlinecommandos.campusmarketplace.model.User;
+import com.commandlinecommandos.campusmarketplace.model.UserRole;
+import com.commandlinecommandos.campusmarketplace.repository.UniversityRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
+import com.commandlinecommandos.campusmarketplace.service.ExportService.Format;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the streaming exports
+ * Streams run on the test thread here, so they see the test transaction's rows
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ExportServiceTest {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UniversityRepository universityRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private University university;
+
+    @BeforeEach
+    void setUp() {
+        auditLogWriter.flush();
+        university = universityRepository.save(TestFixtures.university("Export University", "export.edu"));
+    }
+
+    @Test
+    void testUserCsvAppliesSearchFiltersAndSort() throws Exception {
+        saveUser("export_alice", "Alice, \"Al\"", Set.of(UserRole.BUYER, UserRole.SELLER), true);
+        saveUser("export_bob", "Bob", Set.of(UserRole.BUYER), false);
+        saveUser("export_carol", "=HYPERLINK(\"x\")", Set.of(UserRole.ADMIN), true);
+
+        UserSearchRequest request = new UserSearchRequest();
+        request.setSearchTerm("EXPORT_");
+        request.setRole(UserRole.BUYER);
+        request.setUniversityId(university.getUniversityId().toString());
+        request.setSortBy("username");
+        request.setSortDirection("ASC");
+
+        List<String> lines = csvLines(exportService.usersQuery(request));
+        assertTrue(lines.get(0).startsWith("user_id,username,email,first_name,last_name,roles,"));
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(1).contains(",export_alice,"));
+        assertTrue(lines.get(1).contains(",\"Alice, \"\"Al\"\"\","));
+        assertTrue(lines.get(1).contains("BUYER") && lines.get(1).contains("SELLER"));
+        assertTrue(lines.get(2).contains(",export_bob,"));
+
+        request.setRole(null);
+        request.setIsActive(true);
+        List<String> active = csvLines(exportService.usersQuery(request));
+        assertEquals(3, active.size());
+        // Formula-looking values are defused so a spreadsheet shows them as text
+        assertTrue(active.get(2).contains(",\"'=HYPERLINK(\"\"x\"\")\","));
+    }
+
+    @Test
+    void testAuditNdjsonFiltersByDateAndSeverity() throws Exception {
+        User admin = saveUser("export_admin", "Admin", Set.of(UserRole.ADMIN), true);
+        User target = saveUser("export_target", "Target", Set.of(UserRole.BUYER), true);
+        auditService.logAccountStatusChange(target, admin, "SUSPENDED", "Spam");
+        auditService.logAuditEvent(admin, "USER", "EXPORT_TEST", "Info event");
+        auditLogWriter.flush();
+
+        LocalDateTime now = LocalDateTime.now();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exportService.stream(
+            exportService.auditLogsQuery(now.minusMinutes(5), now.plusMinutes(5), AuditLog.Severity.WARNING),
+            Format.NDJSON, out);
+
+        List<JsonNode> records = out.toString(StandardCharsets.UTF_8).lines()
+            .map(this::readTree)
+            .filter(node -> "export_admin".equals(node.get("username").asText()))
+            .toList();
+        assertTrue(rows >= 1);
+        assertEquals(1, records.size());
+        assertEquals("SUSPENDED", records.get(0).get("action").asText());
+        assertEquals("WARNING", records.get(0).get("severity").asText());
+        assertEquals(target.getUserId().toString(), records.get(0).get("record_id").asText());
+        assertTrue(records.get(0).get("description").asText().contains("suspended"));
+        assertTrue(records.get(0).get("new_values").isNull());
+    }
+
+    @Test
+    void testUnknownSortColumnIsRejectedBeforeStreaming() {
+        UserSearchRequest request = new UserSearchRequest();
+        request.setSortBy("password_hash");
+        assertThrows(IllegalArgumentException.class, () -> exportService.usersQuery(request));
+    }
+
+    @Test
+    void testCsvFieldQuoting() {
+        assertEquals("", ExportService.csvField(null));
+        assertEquals("plain", ExportService.csvField("plain"));
+        assertEquals("\"a,b\"", ExportService.csvField("a,b"));
+        assertEquals("\"line\nbreak\"", ExportService.csvField("line\nbreak"));
+        assertEquals("'-1+2", ExportService.csvField("-1+2"));
+        assertEquals("-5", ExportService.csvField(-5));
+    }
+
+    private List<String> csvLines(ExportService.ExportQuery query) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.stream(query, Format.CSV, out);
+        return out.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+
+    private JsonNode readTree(String line) {
+        try {
+            return objectMapper.readTree(line);
+        } catch (Exception e) {
+            throw new AssertionError("Not a JSON line: " + line, e);
+        }
+    }
+
+    private User saveUser(String username, String firstName, Set<UserRole> roles, boolean active) {
+        User user = TestFixtures.user(username, university, roles.toArray(UserRole[]::new));
+        user.setFirstName(firstName);
+        user.setActive(active);
+        return userRepository.saveAndFlush(user);
+    }
+}
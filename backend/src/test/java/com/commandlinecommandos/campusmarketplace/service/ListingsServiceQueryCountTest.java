@@ -0,0 +1,134 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.TestFixtures;
+import com.commandlinecommandos.campusmarketplace.dto.ListingDetailResponse;
+import com.commandlinecommandos.campusmarketplace.model.*;
+import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UniversityRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UserFavoriteRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for listing page mapping
+ * A page of listing DTOs must cost a fixed number of statements, whatever its size
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ListingsServiceQueryCountTest {
+
+    @Autowired
+    private ListingsService listingsService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserFavoriteRepository userFavoriteRepository;
+
+    @Autowired
+    private UniversityRepository universityRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private User seller;
+    private User viewer;
+    private List<Product> listings;
+
+    @BeforeEach
+    void setUp() {
+        University university = universityRepository.save(TestFixtures.university("Query Count University", "querycount.edu"));
+
+        seller = userRepository.save(TestFixtures.user("qc_seller", university, UserRole.BUYER, UserRole.SELLER));
+        viewer = userRepository.save(TestFixtures.user("qc_viewer", university, UserRole.BUYER, UserRole.SELLER));
+
+        listings = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Product product = new Product();
+            product.setSeller(seller);
+            product.setUniversity(university);
+            product.setTitle("Query count listing " + i);
+            product.setDescription("Listing " + i);
+            product.setCategory(ProductCategory.ELECTRONICS);
+            product.setCondition(ProductCondition.GOOD);
+            product.setPrice(new BigDecimal("10.00"));
+            product.setActive(true);
+            product.setModerationStatus(ModerationStatus.APPROVED);
+            listings.add(productRepository.save(product));
+        }
+        userFavoriteRepository.save(new UserFavorite(viewer, listings.get(0)));
+        userFavoriteRepository.save(new UserFavorite(viewer, listings.get(3)));
+        entityManager.flush();
+
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(viewer, null, List.of()));
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void testSellerPageCostsTheSameForAnySize() {
+        long small = statementsToMapSellerPage(3);
+        long large = statementsToMapSellerPage(6);
+
+        assertEquals(small, large);
+        // seller lookup, page with sellers, count, favorite flags
+        assertTrue(large <= 4, "statements=" + large);
+    }
+
+    @Test
+    void testFavoriteFlagsAndSellerComeFromThePageQueries() {
+        entityManager.clear();
+        List<ListingDetailResponse> page = listingsService.toListingDetailResponses(
+            listingsService.getListingsBySeller(seller.getUserId(), 0, 6).getContent());
+
+        Set<String> favorites = page.stream()
+            .filter(listing -> Boolean.TRUE.equals(listing.getFavorite()))
+            .map(ListingDetailResponse::getId)
+            .collect(Collectors.toSet());
+        assertEquals(Set.of(listings.get(0).getProductId().toString(), listings.get(3).getProductId().toString()),
+            favorites);
+        assertTrue(page.stream().allMatch(listing -> seller.getFullName().equals(listing.getSeller().getName())));
+    }
+
+    private long statementsToMapSellerPage(int size) {
+        entityManager.clear();
+        statistics.clear();
+        List<ListingDetailResponse> page = listingsService.toListingDetailResponses(
+            listingsService.getListingsBySeller(seller.getUserId(), 0, size).getContent());
+        assertEquals(size, page.size());
+        return statistics.getPrepareStatementCount();
+    }
+}
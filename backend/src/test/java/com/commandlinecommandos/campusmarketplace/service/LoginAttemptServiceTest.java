@@ -2,20 +2,27 @@ package com.commandlinecommandos.campusmarketplace.service;
 
 import com.commandlinecommandos.campusmarketplace.model.LoginAttempt;
 import com.commandlinecommandos.campusmarketplace.repository.LoginAttemptRepository;
+import com.commandlinecommandos.campusmarketplace.security.LocalLoginFailureStore;
+import com.commandlinecommandos.campusmarketplace.security.LoginFailureStore;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
-import jakarta.servlet.http.HttpServletRequest;
-import java.time.LocalDateTime;
+import java.time.Duration;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -27,9 +34,15 @@ class LoginAttemptServiceTest {
     @Mock
     private LoginAttemptRepository loginAttemptRepository;
     
+    @Mock
+    private LoginAttemptWriter loginAttemptWriter;
+    
     @Mock
     private AuditService auditService;
     
+    @Spy
+    private LoginFailureStore loginFailureStore = new LocalLoginFailureStore(Duration.ofMinutes(15), 1000);
+    
     @InjectMocks
     private LoginAttemptService loginAttemptService;
     
@@ -38,86 +51,146 @@ class LoginAttemptServiceTest {
     
     @BeforeEach
     void setUp() {
-        // Clear request context
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(testIpAddress);
+        request.addHeader("User-Agent", "JUnit");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+    
+    @AfterEach
+    void tearDown() {
         RequestContextHolder.resetRequestAttributes();
     }
     
     @Test
     void testRecordSuccessfulLogin() {
-        // Arrange
-        when(loginAttemptRepository.save(any(LoginAttempt.class))).thenReturn(new LoginAttempt());
-        
         // Act
         loginAttemptService.recordSuccessfulLogin(testUsername);
         
         // Assert
-        verify(loginAttemptRepository, times(1)).save(any(LoginAttempt.class));
+        ArgumentCaptor<LoginAttempt> captor = ArgumentCaptor.forClass(LoginAttempt.class);
+        verify(loginAttemptWriter, times(1)).enqueue(captor.capture());
+        assertTrue(captor.getValue().isSuccess());
+        assertEquals(testIpAddress, captor.getValue().getIpAddress());
+        assertEquals("JUnit", captor.getValue().getUserAgent());
+        verifyNoInteractions(loginAttemptRepository);
     }
     
     @Test
     void testRecordFailedLogin() {
         // Arrange
         String failureReason = "Invalid credentials";
-        when(loginAttemptRepository.save(any(LoginAttempt.class))).thenReturn(new LoginAttempt());
-        when(loginAttemptRepository.countFailedAttemptsByUsernameSince(any(), any())).thenReturn(3L);
         
         // Act
         loginAttemptService.recordFailedLogin(testUsername, failureReason);
         
         // Assert
-        verify(loginAttemptRepository, times(1)).save(any(LoginAttempt.class));
+        verify(loginAttemptWriter, times(1)).enqueue(any(LoginAttempt.class));
         verify(auditService, times(1)).logFailedLogin(testUsername, failureReason);
+        verify(auditService, never()).logAccountLockout(any(), anyInt());
+        assertEquals(1, loginAttemptService.getFailedAttemptCount(testUsername));
+        verifyNoInteractions(loginAttemptRepository);
     }
     
     @Test
     void testIsAccountLocked_NotLocked() {
         // Arrange
-        when(loginAttemptRepository.countFailedAttemptsByUsernameSince(any(), any())).thenReturn(3L);
+        failTimes(testUsername, 4);
         
         // Act
         boolean isLocked = loginAttemptService.isAccountLocked(testUsername);
         
         // Assert
         assertFalse(isLocked);
-        verify(loginAttemptRepository, times(1)).countFailedAttemptsByUsernameSince(any(), any());
+        assertEquals(0, loginAttemptService.getRemainingLockoutTime(testUsername));
     }
     
     @Test
     void testIsAccountLocked_Locked() {
         // Arrange
-        when(loginAttemptRepository.countFailedAttemptsByUsernameSince(any(), any())).thenReturn(5L);
+        failTimes(testUsername, 5);
         
         // Act
         boolean isLocked = loginAttemptService.isAccountLocked(testUsername);
         
         // Assert
         assertTrue(isLocked);
-        verify(loginAttemptRepository, times(1)).countFailedAttemptsByUsernameSince(any(), any());
+        assertEquals(15, loginAttemptService.getRemainingLockoutTime(testUsername));
+        assertTrue(loginAttemptService.isAccountLocked("TestUser"));
+        verify(auditService, times(1)).logAccountLockout(testUsername, 5);
+    }
+    
+    @Test
+    void testIpLockedAcrossUsernames() {
+        // Arrange - credential stuffing: one address, many usernames, few tries each
+        for (int i = 0; i < 20; i++) {
+            loginAttemptService.recordFailedLogin("victim" + i, "Invalid credentials");
+        }
+        
+        // Assert
+        assertTrue(loginAttemptService.isIpLocked(testIpAddress));
+        assertFalse(loginAttemptService.isIpLocked("10.0.0.1"));
+        assertEquals(15, loginAttemptService.getRemainingIpLockoutTime());
+        assertFalse(loginAttemptService.isAccountLocked("victim0"));
+    }
+    
+    @Test
+    void testForwardedForHeaderDoesNotPickTheLockedAddress() {
+        // Arrange - the client claims to be a campus NAT address on every attempt
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(testIpAddress);
+        request.addHeader("X-Forwarded-For", "10.20.30.40");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        for (int i = 0; i < 20; i++) {
+            loginAttemptService.recordFailedLogin("victim" + i, "Invalid credentials");
+        }
+        
+        // Assert - the lockout lands on the address the container resolved
+        assertTrue(loginAttemptService.isIpLocked(testIpAddress));
+        assertFalse(loginAttemptService.isIpLocked("10.20.30.40"));
     }
     
     @Test
     void testGetFailedAttemptCount() {
         // Arrange
-        when(loginAttemptRepository.countFailedAttemptsByUsernameSince(any(), any())).thenReturn(3L);
+        failTimes(testUsername, 3);
         
         // Act
         int count = loginAttemptService.getFailedAttemptCount(testUsername);
         
         // Assert
         assertEquals(3, count);
-        verify(loginAttemptRepository, times(1)).countFailedAttemptsByUsernameSince(any(), any());
+        verify(loginFailureStore, times(3)).recordFailure(eq("user:testuser"), eq(5), anyLong());
+    }
+    
+    @Test
+    void testSuccessfulLoginClearsUsernameFailures() {
+        // Arrange
+        failTimes(testUsername, 4);
+        
+        // Act
+        loginAttemptService.recordSuccessfulLogin(testUsername);
+        
+        // Assert
+        assertEquals(0, loginAttemptService.getFailedAttemptCount(testUsername));
+        assertEquals(0, loginAttemptService.getRemainingIpLockoutTime());
     }
     
     @Test
     void testResetFailedAttempts() {
         // Arrange
-        when(loginAttemptRepository.save(any(LoginAttempt.class))).thenReturn(new LoginAttempt());
+        failTimes(testUsername, 5);
         
         // Act
         loginAttemptService.resetFailedAttempts(testUsername);
         
         // Assert
-        verify(loginAttemptRepository, times(1)).save(any(LoginAttempt.class));
+        assertFalse(loginAttemptService.isAccountLocked(testUsername));
+    }
+    
+    private void failTimes(String username, int times) {
+        for (int i = 0; i < times; i++) {
+            loginAttemptService.recordFailedLogin(username, "Invalid credentials");
+        }
     }
 }
-
@@ -0,0 +1,137 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.TestFixtures;
+import com.commandlinecommandos.campusmarketplace.model.*;
+import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UniversityRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the write-behind view buffer
+ * Flushes run inside the test transaction, so fixtures roll back as usual
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ProductViewBufferTest {
+
+    @Autowired
+    private ProductViewBuffer productViewBuffer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UniversityRepository universityRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private University university;
+    private User viewer;
+    private User otherViewer;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        university = universityRepository.save(TestFixtures.university("Buffer University", "buffer.edu"));
+
+        viewer = saveUser("viewer1");
+        otherViewer = saveUser("viewer2");
+
+        product = new Product();
+        product.setTitle("Standing Desk");
+        product.setDescription("Adjustable height");
+        product.setPrice(new BigDecimal("150.00"));
+        product.setCategory(ProductCategory.FURNITURE);
+        product.setCondition(ProductCondition.GOOD);
+        product.setSeller(viewer);
+        product.setUniversity(university);
+        product.setActive(true);
+        product.setModerationStatus(ModerationStatus.APPROVED);
+        product.setViewCount(5);
+        product = productRepository.saveAndFlush(product);
+    }
+
+    @Test
+    void testRepeatViewsCoalesceIntoOneRowAndOneCount() {
+        LocalDateTime morning = LocalDateTime.now().withHour(9).truncatedTo(ChronoUnit.SECONDS);
+        productViewBuffer.record(viewer.getUserId(), university.getUniversityId(), product.getProductId(), morning);
+        productViewBuffer.record(viewer.getUserId(), university.getUniversityId(), product.getProductId(),
+            morning.plusMinutes(30));
+        productViewBuffer.record(otherViewer.getUserId(), university.getUniversityId(), product.getProductId(), morning);
+
+        assertEquals(2, productViewBuffer.pendingCount());
+        assertEquals(2, productViewBuffer.flush());
+
+        assertEquals(2, countViewRows());
+        assertEquals(7, viewCount());
+        assertEquals(morning.plusMinutes(30), latestViewTime(viewer));
+    }
+
+    @Test
+    void testLaterFlushOnlyMovesTimestampForKnownViewer() {
+        LocalDateTime morning = LocalDateTime.now().withHour(9).truncatedTo(ChronoUnit.SECONDS);
+        productViewBuffer.record(viewer.getUserId(), university.getUniversityId(), product.getProductId(), morning);
+        productViewBuffer.flush();
+
+        productViewBuffer.record(viewer.getUserId(), university.getUniversityId(), product.getProductId(),
+            morning.plusHours(2));
+        productViewBuffer.flush();
+
+        assertEquals(1, countViewRows());
+        assertEquals(6, viewCount());
+        assertEquals(morning.plusHours(2), latestViewTime(viewer));
+    }
+
+    @Test
+    void testExistingRowIsNotCountedTwice() {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO product_views (id, user_id, product_id, viewed_at, viewed_at_date) "
+                + "VALUES (?, ?, ?, ?, ?)", UUID.randomUUID(), viewer.getUserId(), product.getProductId(),
+            now.minusMinutes(5), now.toLocalDate());
+
+        productViewBuffer.record(viewer.getUserId(), university.getUniversityId(), product.getProductId(), now);
+        productViewBuffer.flush();
+
+        assertEquals(1, countViewRows());
+        assertEquals(5, viewCount());
+    }
+
+    private User saveUser(String username) {
+        return userRepository.save(TestFixtures.user(username, university, UserRole.BUYER));
+    }
+
+    private int countViewRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product_views WHERE product_id = ?",
+            Integer.class, product.getProductId());
+    }
+
+    private int viewCount() {
+        return jdbcTemplate.queryForObject("SELECT view_count FROM listings WHERE listing_id = ?",
+            Integer.class, product.getProductId());
+    }
+
+    private LocalDateTime latestViewTime(User user) {
+        return jdbcTemplate.queryForObject(
+            "SELECT viewed_at FROM product_views WHERE product_id = ? AND user_id = ?",
+            LocalDateTime.class, product.getProductId(), user.getUserId());
+    }
+}
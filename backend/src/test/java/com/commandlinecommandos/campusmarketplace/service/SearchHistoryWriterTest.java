@@ -0,0 +1,159 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.TestFixtures;
+import com.commandlinecommandos.campusmarketplace.model.University;
+import com.commandlinecommandos.campusmarketplace.model.User;
+import com.commandlinecommandos.campusmarketplace.model.UserRole;
+import com.commandlinecommandos.campusmarketplace.repository.UniversityRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the search history write-behind buffer and its query rollup
+ * Flushes run inside the test transaction, so fixtures roll back as usual
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class SearchHistoryWriterTest {
+
+    @Autowired
+    private SearchHistoryWriter searchHistoryWriter;
+
+    @Autowired
+    private SearchHistoryService searchHistoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UniversityRepository universityRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private University university;
+    private User searcher;
+    private User otherSearcher;
+
+    @BeforeEach
+    void setUp() {
+        // Searches queued by other suites are not part of these assertions
+        searchHistoryWriter.flush();
+
+        university = universityRepository.save(TestFixtures.university("History University", "history.edu"));
+
+        searcher = saveUser("searcher1");
+        otherSearcher = saveUser("searcher2");
+    }
+
+    @Test
+    void testBatchWritesHistoryRowsAndOneCountPerNormalisedQuery() {
+        record(searcher, "Calculus Textbook");
+        record(searcher, "  calculus   TEXTBOOK ");
+        record(otherSearcher, "calculus textbook");
+        record(otherSearcher, "desk lamp");
+
+        assertEquals(4, searchHistoryWriter.pendingCount());
+        assertEquals(4, searchHistoryWriter.flush());
+        assertEquals(0, searchHistoryWriter.pendingCount());
+
+        assertEquals(2, countHistoryRows(searcher));
+        assertEquals(2, countHistoryRows(otherSearcher));
+        assertEquals(3, searchCount("calculus textbook"));
+        assertEquals(1, searchCount("desk lamp"));
+        assertEquals(List.of("calculus textbook", "desk lamp"),
+            searchHistoryService.getPopularSearches(university.getUniversityId(), 10));
+    }
+
+    @Test
+    void testLaterFlushAddsToTodaysCount() {
+        record(searcher, "mini fridge");
+        searchHistoryWriter.flush();
+        record(otherSearcher, "Mini Fridge");
+        record(otherSearcher, "bike lock");
+        searchHistoryWriter.flush();
+
+        assertEquals(2, searchCount("mini fridge"));
+        assertEquals(1, countStatRows("mini fridge"));
+        assertEquals("mini fridge", searchHistoryService.getPopularSearches(university.getUniversityId(), 1).get(0));
+    }
+
+    @Test
+    void testRecentSearchesAreDistinctAndNewestFirst() {
+        jdbcTemplate.update("INSERT INTO search_history (search_id, user_id, search_query, results_count, created_at) "
+                + "VALUES (?, ?, ?, ?, ?)", UUID.randomUUID(), searcher.getUserId(), "desk lamp", 3,
+            LocalDateTime.now().minusDays(1));
+        jdbcTemplate.update("INSERT INTO search_history (search_id, user_id, search_query, results_count, created_at) "
+                + "VALUES (?, ?, ?, ?, ?)", UUID.randomUUID(), searcher.getUserId(), "road bike", 1,
+            LocalDateTime.now().minusDays(2));
+        record(searcher, "road bike");
+        searchHistoryWriter.flush();
+
+        assertEquals(List.of("road bike", "desk lamp"), searchHistoryService.getRecentSearches(searcher.getUserId(), 10));
+        assertEquals(List.of("road bike"), searchHistoryService.getRecentSearches(searcher.getUserId(), 1));
+    }
+
+    @Test
+    void testUnknownUserAndBlankQueriesAreNotStored() {
+        assertFalse(searchHistoryWriter.record(searcher.getUserId(), university.getUniversityId(), "   ", 0));
+        assertTrue(searchHistoryWriter.record(UUID.randomUUID(), university.getUniversityId(), "ghost query", 0));
+
+        searchHistoryWriter.flush();
+
+        assertEquals(0, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM search_history WHERE search_query = 'ghost query'", Integer.class));
+    }
+
+    @Test
+    void testPruneDropsCountsOutsideTheWindow() {
+        jdbcTemplate.update("INSERT INTO search_query_stats (university_id, search_query, stat_date, search_count, "
+                + "last_searched_at) VALUES (?, ?, ?, ?, ?)", university.getUniversityId(), "old query",
+            LocalDate.now().minusDays(60), 9, LocalDateTime.now().minusDays(60));
+        record(searcher, "new query");
+        searchHistoryWriter.flush();
+
+        assertEquals(List.of("new query"), searchHistoryService.getPopularSearches(university.getUniversityId(), 10));
+
+        searchHistoryWriter.pruneStats();
+
+        assertEquals(0, countStatRows("old query"));
+        assertEquals(1, countStatRows("new query"));
+    }
+
+    private void record(User user, String query) {
+        assertTrue(searchHistoryWriter.record(user.getUserId(), university.getUniversityId(), query, 5));
+    }
+
+    private User saveUser(String username) {
+        return userRepository.saveAndFlush(TestFixtures.user(username, university, UserRole.BUYER));
+    }
+
+    private int countHistoryRows(User user) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM search_history WHERE user_id = ?",
+            Integer.class, user.getUserId());
+    }
+
+    private long searchCount(String query) {
+        return jdbcTemplate.queryForObject("SELECT SUM(search_count) FROM search_query_stats "
+            + "WHERE university_id = ? AND search_query = ?", Long.class, university.getUniversityId(), query);
+    }
+
+    private int countStatRows(String query) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM search_query_stats "
+            + "WHERE university_id = ? AND search_query = ?", Integer.class, university.getUniversityId(), query);
+    }
+}
@@ -0,0 +1,165 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.dto.ProductSearchResult;
+import com.commandlinecommandos.campusmarketplace.dto.SearchRequest;
+import com.commandlinecommandos.campusmarketplace.dto.SearchResponse;
+import com.commandlinecommandos.campusmarketplace.model.*;
+import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
+import com.commandlinecommandos.campusmarketplace.repository.RankedListingSearch.Filters;
+import com.commandlinecommandos.campusmarketplace.repository.RankedListingSearch.RankedListing;
+import com.commandlinecommandos.campusmarketplace.search.ListingSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for database-ranked search (the path used when the listing index is not ready)
+ * The native queries themselves need PostgreSQL; see V21__listings_search_vector.sql
+ */
+@ExtendWith(MockitoExtension.class)
+class SearchServiceRankTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ListingSearchIndex listingSearchIndex;
+
+    @InjectMocks
+    private SearchService searchService;
+
+    @Test
+    void testFullTextKeepsRankOrderAndReturnsRankAsRelevance() {
+        User user = user();
+        Product title = product(user, "Calculus textbook");
+        Product description = product(user, "Math bundle");
+        PageRequest page = PageRequest.of(0, 20);
+        when(productRepository.searchWithFullText(any(), eq("calculus"), any(), eq(page))).thenReturn(new PageImpl<>(
+            List.of(ranked(title, 0.61f), ranked(description, 0.24f)), page, 2));
+        // The IN query makes no ordering guarantee
+        when(productRepository.findWithSellerByProductIdIn(anyCollection())).thenReturn(List.of(description, title));
+
+        SearchResponse response = searchService.search(request("calculus"), user);
+
+        List<ProductSearchResult> results = response.getResults();
+        assertEquals(List.of(title.getProductId(), description.getProductId()),
+            results.stream().map(ProductSearchResult::getProductId).toList());
+        assertEquals(0.61f, results.get(0).getRelevanceScore());
+        assertEquals(0.24f, results.get(1).getRelevanceScore());
+        assertEquals(2, response.getTotalResults());
+        verify(productRepository, never()).fuzzySearch(any(), any(), any(), any());
+    }
+
+    @Test
+    void testNoTextMatchFallsBackToRankedFuzzySearch() {
+        User user = user();
+        Product typo = product(user, "Calculator");
+        PageRequest page = PageRequest.of(0, 20);
+        when(productRepository.searchWithFullText(any(), eq("calculater"), any(), eq(page))).thenReturn(Page.empty(page));
+        when(productRepository.fuzzySearch(any(), eq("calculater"), any(), eq(page))).thenReturn(new PageImpl<>(
+            List.of(ranked(typo, 0.5f)), page, 1));
+        when(productRepository.findWithSellerByProductIdIn(anyCollection())).thenReturn(List.of(typo));
+
+        SearchResponse response = searchService.search(request("calculater"), user);
+
+        assertEquals(1, response.getResults().size());
+        assertEquals(0.5f, response.getResults().get(0).getRelevanceScore());
+    }
+
+    @Test
+    void testFiltersNarrowTheRankedMatchInsteadOfReplacingIt() {
+        User user = user();
+        Product strong = product(user, "Calculus textbook");
+        Product weak = product(user, "Calculus notes");
+        PageRequest page = PageRequest.of(0, 20);
+        Filters filters = new Filters(List.of(ProductCategory.TEXTBOOKS), null, null,
+            new BigDecimal("50.00"), null, null);
+        when(productRepository.searchWithFullText(any(), eq("calculus"), eq(filters), eq(page))).thenReturn(
+            new PageImpl<>(List.of(ranked(strong, 0.7f), ranked(weak, 0.1f)), page, 2));
+        when(productRepository.findWithSellerByProductIdIn(anyCollection())).thenReturn(List.of(weak, strong));
+
+        SearchRequest request = request("calculus");
+        request.setCategories(List.of(ProductCategory.TEXTBOOKS));
+        request.setMaxPrice(new BigDecimal("50.00"));
+        SearchResponse response = searchService.search(request, user);
+
+        assertEquals(List.of(strong.getProductId(), weak.getProductId()),
+            response.getResults().stream().map(ProductSearchResult::getProductId).toList());
+        assertEquals(0.7f, response.getResults().get(0).getRelevanceScore());
+        verify(productRepository, never()).findAll(ArgumentMatchers.<Specification<Product>>any(), any(Pageable.class));
+    }
+
+    @Test
+    void testExplicitSortReplacesRankOrder() {
+        User user = user();
+        Product cheap = product(user, "Calculus textbook");
+        when(productRepository.searchWithFullText(any(), eq("calculus"), any(), any())).thenReturn(
+            new PageImpl<>(List.of(ranked(cheap, 0.2f)), PageRequest.of(0, 20), 1));
+        when(productRepository.findWithSellerByProductIdIn(anyCollection())).thenReturn(List.of(cheap));
+
+        SearchRequest request = request("calculus");
+        request.setSortBy("price_asc");
+        searchService.search(request, user);
+        searchService.search(request("calculus"), user);
+
+        ArgumentCaptor<Pageable> pageables = ArgumentCaptor.forClass(Pageable.class);
+        verify(productRepository, times(2)).searchWithFullText(any(), eq("calculus"), any(), pageables.capture());
+        assertEquals(Sort.by(Sort.Direction.ASC, "price"), pageables.getAllValues().get(0).getSort());
+        assertTrue(pageables.getAllValues().get(1).getSort().isUnsorted());
+    }
+
+    private static SearchRequest request(String query) {
+        SearchRequest request = new SearchRequest();
+        request.setQuery(query);
+        return request;
+    }
+
+    private static RankedListing ranked(Product product, float rank) {
+        return new RankedListing() {
+            public UUID getListingId() { return product.getProductId(); }
+            public Float getRank() { return rank; }
+        };
+    }
+
+    private static User user() {
+        University university = new University();
+        university.setUniversityId(UUID.randomUUID());
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        user.setUsername("ranker");
+        user.setFirstName("Rank");
+        user.setLastName("Er");
+        user.setUniversity(university);
+        return user;
+    }
+
+    private static Product product(User seller, String title) {
+        Product product = new Product();
+        product.setProductId(UUID.randomUUID());
+        product.setSeller(seller);
+        product.setTitle(title);
+        product.setDescription(title);
+        product.setCategory(ProductCategory.TEXTBOOKS);
+        product.setCondition(ProductCondition.GOOD);
+        product.setPrice(new BigDecimal("20.00"));
+        return product;
+    }
+}
@@ -0,0 +1,136 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.dto.ProductSummary;
+import com.commandlinecommandos.campusmarketplace.listing.event.ListingChangedEvent;
+import com.commandlinecommandos.campusmarketplace.model.Product;
+import com.commandlinecommandos.campusmarketplace.model.ProductCategory;
+import com.commandlinecommandos.campusmarketplace.repository.ProductRepository;
+import com.commandlinecommandos.campusmarketplace.repository.ProductRepository.TrendingCandidate;
+import com.commandlinecommandos.campusmarketplace.repository.ProductViewRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for trending scoring, ranking and the ranking swap
+ */
+class TrendingServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 11, 20, 18, 0);
+
+    private final TrendingScorer scorer = new TrendingScorer(48, 168, 3.0, 0.1);
+
+    @Test
+    void testRecentViewsOutweighOldViews() {
+        double today = 10 * scorer.viewDecay(NOW.toLocalDate(), NOW);
+        double lastWeek = 10 * scorer.viewDecay(NOW.toLocalDate().minusDays(6), NOW);
+
+        assertTrue(today > lastWeek * 4, "today=" + today + ", lastWeek=" + lastWeek);
+    }
+
+    @Test
+    void testFavoritesAndFreshnessRaiseScore() {
+        LocalDateTime created = NOW.minusDays(1);
+
+        double plain = scorer.score(5, 0, 20, created, NOW);
+        double favorited = scorer.score(5, 4, 20, created, NOW);
+        double stale = scorer.score(5, 4, 20, NOW.minusDays(30), NOW);
+
+        assertTrue(favorited > plain);
+        assertTrue(stale < favorited / 10);
+    }
+
+    @Test
+    void testNewListingWithoutEngagementStillScores() {
+        assertEquals(1.0, scorer.score(0, null, null, NOW, NOW), 1e-9);
+    }
+
+    @Test
+    void testRankKeepsTopNPerUniversityAndCategory() {
+        UUID university = UUID.randomUUID();
+        UUID otherUniversity = UUID.randomUUID();
+        List<TrendingCandidate> candidates = new ArrayList<>();
+        Map<UUID, Double> scores = new HashMap<>();
+        for (int i = 0; i < 5; i++) {
+            ProductCategory category = i % 2 == 0 ? ProductCategory.ELECTRONICS : ProductCategory.FURNITURE;
+            UUID id = UUID.randomUUID();
+            candidates.add(candidate(id, university, category));
+            scores.put(id, (double) i);
+        }
+        UUID elsewhere = UUID.randomUUID();
+        candidates.add(candidate(elsewhere, otherUniversity, ProductCategory.TEXTBOOKS));
+        scores.put(elsewhere, 100.0);
+
+        Map<UUID, TrendingService.RankedIds> ranked = TrendingService.rank(candidates, scores, 2);
+
+        TrendingService.RankedIds campus = ranked.get(university);
+        assertEquals(List.of(candidates.get(4).getProductId(), candidates.get(3).getProductId()), campus.all());
+        assertEquals(List.of(candidates.get(4).getProductId(), candidates.get(2).getProductId()),
+            campus.byCategory().get(ProductCategory.ELECTRONICS));
+        assertEquals(List.of(candidates.get(3).getProductId(), candidates.get(1).getProductId()),
+            campus.byCategory().get(ProductCategory.FURNITURE));
+        assertFalse(campus.all().contains(elsewhere));
+        assertEquals(List.of(elsewhere), ranked.get(otherUniversity).all());
+    }
+
+    @Test
+    void testListingDeactivatedDuringRefreshStaysOut() {
+        UUID university = UUID.randomUUID();
+        UUID kept = UUID.randomUUID();
+        UUID deactivated = UUID.randomUUID();
+        ProductRepository productRepository = mock(ProductRepository.class);
+        ProductViewRepository productViewRepository = mock(ProductViewRepository.class);
+        TrendingService service = new TrendingService();
+        ReflectionTestUtils.setField(service, "productRepository", productRepository);
+        ReflectionTestUtils.setField(service, "productViewRepository", productViewRepository);
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "topN", 10);
+        service.init();
+
+        // The deactivation commits after the refresh read its candidates
+        when(productRepository.findTrendingCandidates(any())).thenAnswer(invocation -> {
+            service.onListingChanged(new ListingChangedEvent(deactivated, university, null, ProductCategory.FURNITURE,
+                ProductCategory.FURNITURE, ListingChangedEvent.ChangeType.DEACTIVATED, false));
+            return List.of(candidate(kept, university, ProductCategory.FURNITURE),
+                candidate(deactivated, university, ProductCategory.FURNITURE));
+        });
+        when(productRepository.findWithSellerByProductIdIn(anyCollection()))
+            .thenReturn(List.of(product(kept), product(deactivated)));
+
+        service.refresh();
+
+        assertEquals(List.of(kept), service.getTrending(university, null, 10).stream()
+            .map(ProductSummary::getProductId).toList());
+        assertEquals(List.of(kept), service.getTrending(university, ProductCategory.FURNITURE, 10).stream()
+            .map(ProductSummary::getProductId).toList());
+    }
+
+    private static Product product(UUID id) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setTitle("Desk " + id);
+        product.setCategory(ProductCategory.FURNITURE);
+        return product;
+    }
+
+    private static TrendingCandidate candidate(UUID id, UUID universityId, ProductCategory category) {
+        return new TrendingCandidate() {
+            public UUID getProductId() { return id; }
+            public UUID getUniversityId() { return universityId; }
+            public ProductCategory getCategory() { return category; }
+            public Integer getViewCount() { return 0; }
+            public Integer getFavoriteCount() { return 0; }
+            public LocalDateTime getCreatedAt() { return NOW; }
+        };
+    }
+}
@@ -0,0 +1,165 @@
+package com.commandlinecommandos.campusmarketplace.service;
+
+import com.commandlinecommandos.campusmarketplace.TestFixtures;
+import com.commandlinecommandos.campusmarketplace.dto.BulkUserActionRequest;
+import com.commandlinecommandos.campusmarketplace.dto.BulkUserActionRequest.BulkAction;
+import com.commandlinecommandos.campusmarketplace.model.University;
+import com.commandlinecommandos.campusmarketplace.model.User;
+import com.commandlinecommandos.campusmarketplace.model.UserRole;
+import com.commandlinecommandos.campusmarketplace.model.VerificationStatus;
+import com.commandlinecommandos.campusmarketplace.repository.UniversityRepository;
+import com.commandlinecommandos.campusmarketplace.repository.UserRepository;
+import com.commandlinecommandos.campusmarketplace.service.AccountSuspensionNotifier.UsersSuspendedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for set-based bulk user actions
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@RecordApplicationEvents
+class UserBulkActionIntegrationTest {
+
+    @Autowired
+    private UserManagementService userManagementService;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UniversityRepository universityRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    private University university;
+    private User admin;
+
+    @BeforeEach
+    void setUp() {
+        auditLogWriter.flush();
+        university = universityRepository.save(TestFixtures.university("Bulk University", "bulk.edu"));
+        admin = saveUser("bulk_admin", Set.of(UserRole.ADMIN));
+    }
+
+    @Test
+    void testSuspendUpdatesEveryUserAndReportsMissingOnes() {
+        List<User> users = IntStream.range(0, 3).mapToObj(i -> saveUser("bulk_suspend_" + i, Set.of(UserRole.BUYER))).toList();
+        UUID missing = UUID.randomUUID();
+
+        BulkUserActionRequest request = request(BulkAction.SUSPEND, ids(users, missing));
+        request.setReason("Spam ring");
+        Map<String, Object> result = userManagementService.bulkUserAction(request, admin);
+
+        assertEquals(4, result.get("totalProcessed"));
+        assertEquals(3, result.get("successCount"));
+        assertEquals(1, result.get("failureCount"));
+        assertEquals(List.of("User " + missing + ": not found"), result.get("errors"));
+
+        for (User user : users) {
+            User reloaded = userRepository.findById(user.getUserId()).orElseThrow();
+            assertEquals(VerificationStatus.SUSPENDED, reloaded.getVerificationStatus());
+            assertFalse(reloaded.isActive());
+            assertEquals(user.getAuthVersion() + 1, reloaded.getAuthVersion());
+        }
+        assertEquals(3, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM account_actions WHERE performed_by = ? AND action_type = 'SUSPEND'",
+            Integer.class, admin.getUserId()));
+
+        // Notices go out after commit, one event for the whole batch
+        List<UsersSuspendedEvent> events = applicationEvents.stream(UsersSuspendedEvent.class).toList();
+        assertEquals(1, events.size());
+        assertEquals(3, events.get(0).recipients().size());
+        assertEquals("Spam ring", events.get(0).reason());
+
+        assertEquals(3, auditLogWriter.flush());
+        assertEquals(3, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM audit_logs WHERE user_id = ? AND action = 'SUSPENDED'", Integer.class, admin.getUserId()));
+    }
+
+    @Test
+    void testUpdateRoleReplacesRolesAndRecordsOldOnes() {
+        User student = saveUser("bulk_student", Set.of(UserRole.BUYER, UserRole.SELLER));
+
+        BulkUserActionRequest request = request(BulkAction.UPDATE_ROLE, List.of(student.getUserId()));
+        request.setNewRole(UserRole.SELLER);
+        Map<String, Object> result = userManagementService.bulkUserAction(request, admin);
+
+        assertEquals(1, result.get("successCount"));
+        User reloaded = userRepository.findById(student.getUserId()).orElseThrow();
+        assertEquals(Set.of(UserRole.SELLER), reloaded.getRoles());
+        assertEquals(student.getAuthVersion() + 1, reloaded.getAuthVersion());
+
+        auditLogWriter.flush();
+        String oldValues = jdbcTemplate.queryForObject(
+            "SELECT old_values FROM audit_logs WHERE record_id = ? AND action = 'ROLE_CHANGE'", String.class, student.getUserId());
+        assertTrue(oldValues.contains("[BUYER, SELLER]"));
+    }
+
+    @Test
+    void testActivateDoesNotRevokeTokens() {
+        User inactive = saveUser("bulk_inactive", Set.of(UserRole.BUYER));
+        inactive.setActive(false);
+        inactive = userRepository.saveAndFlush(inactive);
+
+        userManagementService.bulkUserAction(request(BulkAction.ACTIVATE, List.of(inactive.getUserId())), admin);
+
+        User reloaded = userRepository.findById(inactive.getUserId()).orElseThrow();
+        assertTrue(reloaded.isActive());
+        assertEquals(inactive.getAuthVersion(), reloaded.getAuthVersion());
+    }
+
+    @Test
+    void testLimitsAndRequiredFields() {
+        List<UUID> tooMany = new ArrayList<>(Collections.nCopies(BulkUserActionRequest.MAX_USERS + 1, UUID.randomUUID()));
+        assertThrows(BadCredentialsException.class,
+            () -> userManagementService.bulkUserAction(request(BulkAction.ACTIVATE, tooMany), admin));
+        assertThrows(IllegalArgumentException.class,
+            () -> userManagementService.bulkUserAction(request(BulkAction.UPDATE_ROLE, List.of(admin.getUserId())), admin));
+    }
+
+    private static BulkUserActionRequest request(BulkAction action, List<UUID> userIds) {
+        BulkUserActionRequest request = new BulkUserActionRequest();
+        request.setAction(action);
+        request.setUserIds(userIds);
+        return request;
+    }
+
+    private static List<UUID> ids(List<User> users, UUID... extra) {
+        List<UUID> ids = new ArrayList<>(users.stream().map(User::getUserId).toList());
+        ids.addAll(List.of(extra));
+        return ids;
+    }
+
+    private User saveUser(String username, Set<UserRole> roles) {
+        User user = TestFixtures.user(username, university, roles.toArray(UserRole[]::new));
+        user.setVerificationStatus(VerificationStatus.VERIFIED);
+        return userRepository.saveAndFlush(user);
+    }
+}
@@ -3,6 +3,7 @@ package com.commandlinecommandos.campusmarketplace.service;
 import com.commandlinecommandos.campusmarketplace.dto.*;
 import com.commandlinecommandos.campusmarketplace.model.*;
 import com.commandlinecommandos.campusmarketplace.repository.*;
+import com.commandlinecommandos.campusmarketplace.security.TokenRevocationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -47,6 +48,9 @@ class UserManagementServiceTest {
     @Mock
     private VerificationTokenService verificationTokenService;
     
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+    
     @InjectMocks
     private UserManagementService userManagementService;
     
@@ -227,6 +231,7 @@ class UserManagementServiceTest {
         verify(accountActionRepository, times(1)).save(any(AccountAction.class));
         verify(emailService, times(1)).sendAccountSuspensionEmail(testUser.getEmail(), testUser.getUsername(), reason);
         verify(auditService, times(1)).logAccountStatusChange(testUser, admin, "SUSPENDED", reason);
+        verify(tokenRevocationService, times(1)).revokeTokens(testUser);
     }
     
     @Test